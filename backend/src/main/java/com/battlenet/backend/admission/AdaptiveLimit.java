@@ -0,0 +1,97 @@
+package com.battlenet.backend.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows observed latency. Each completed request
+ * compares its latency with the best latency seen recently: while requests
+ * stay within {@link #TOLERANCE} of that baseline the limit grows by about
+ * its square root, and as latency climbs the limit shrinks in proportion,
+ * down to half per sample. Requests over the limit are refused at once
+ * rather than queued.
+ */
+public class AdaptiveLimit {
+    static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final int BASELINE_WINDOW = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // guarded by this
+    private double estimatedLimit;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /** Releases a permit taken by {@link #tryAcquire()} and feeds its latency into the limit. */
+    public void release(long latencyNanos) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(Math.max(1, latencyNanos), inFlightAtRelease);
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtRelease) {
+        // The baseline is the fastest request of the previous window, so it
+        // can drift up when the service gets slower for reasons load won't fix
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        baselineNanos = Math.min(baselineNanos, latencyNanos);
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latencyNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (target > estimatedLimit && inFlightAtRelease < estimatedLimit / 2) {
+            // Low latency at low utilisation says nothing about how much more we could take
+            return;
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    /** True while fewer than {@code fraction} of the permits are taken. */
+    public boolean hasHeadroom(double fraction) {
+        return inFlight.get() < limit * fraction;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
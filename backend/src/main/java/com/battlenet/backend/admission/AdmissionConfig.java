@@ -0,0 +1,20 @@
+package com.battlenet.backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionConfig {
+
+    // Registered here rather than as a @Component so @WebMvcTest slices,
+    // which pick up every Filter bean, don't all need AdmissionControl
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionControl admission, ObjectMapper objectMapper) {
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(admission, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
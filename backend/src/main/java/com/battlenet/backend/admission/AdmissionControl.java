@@ -0,0 +1,115 @@
+package com.battlenet.backend.admission;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether the node takes on more work. Each kind of request has its
+ * own {@link AdaptiveLimit}, and the number of games that have been created
+ * but not finished is capped. Shots keep games that already exist moving, so
+ * game creation is also refused while the shot limit is nearly used up.
+ */
+@Component
+public class AdmissionControl implements GameListener, MeterBinder {
+    public enum Endpoint { CREATE, SHOT, OTHER }
+
+    public static final int RETRY_AFTER_SECONDS = 1;
+    public static final int GAMES_FULL_RETRY_AFTER_SECONDS = 5;
+    private static final double CREATE_NEEDS_SHOT_HEADROOM = 0.75;
+
+    private final Map<Endpoint, AdaptiveLimit> limits = new EnumMap<>(Endpoint.class);
+    private final int maxActiveGames;
+    private final AtomicInteger activeGames = new AtomicInteger();
+
+    public AdmissionControl(
+            @Value("${battlenet.admission.max-active-games:100000}") int maxActiveGames,
+            @Value("${battlenet.admission.initial-limit:64}") int initialLimit,
+            @Value("${battlenet.admission.max-limit:1000}") int maxLimit) {
+        this.maxActiveGames = maxActiveGames;
+        for (Endpoint endpoint : Endpoint.values()) {
+            limits.put(endpoint, new AdaptiveLimit(initialLimit, 1, maxLimit));
+        }
+    }
+
+    public boolean tryAcquire(Endpoint endpoint) {
+        if (endpoint == Endpoint.CREATE && !limits.get(Endpoint.SHOT).hasHeadroom(CREATE_NEEDS_SHOT_HEADROOM)) {
+            return false;
+        }
+        return limits.get(endpoint).tryAcquire();
+    }
+
+    public void release(Endpoint endpoint, long latencyNanos) {
+        limits.get(endpoint).release(latencyNanos);
+    }
+
+    /** Reserves a slot for a new game; the slot is freed when the game finishes. */
+    public boolean tryOpenGame() {
+        return tryOpenGames(1);
+    }
+
+    /** Reserves slots for {@code count} new games, or none if they don't all fit. */
+    public boolean tryOpenGames(int count) {
+        int current;
+        do {
+            current = activeGames.get();
+            if (current > maxActiveGames - count) {
+                return false;
+            }
+        } while (!activeGames.compareAndSet(current, current + count));
+        return true;
+    }
+
+    /** Frees slots reserved for games that were never created. */
+    public void releaseGames(int count) {
+        activeGames.addAndGet(-count);
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        if (game.getState() == Game.GameState.FINISHED && previous != Game.GameState.FINISHED) {
+            activeGames.decrementAndGet();
+        }
+    }
+
+    public AdaptiveLimit getLimit(Endpoint endpoint) {
+        return limits.get(endpoint);
+    }
+
+    public int getActiveGames() {
+        return activeGames.get();
+    }
+
+    public int getMaxActiveGames() {
+        return maxActiveGames;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<Endpoint, AdaptiveLimit> entry : limits.entrySet()) {
+            String endpoint = entry.getKey().name().toLowerCase();
+            AdaptiveLimit limit = entry.getValue();
+            Gauge.builder("admission.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            Gauge.builder("admission.in.flight", limit, AdaptiveLimit::getInFlight)
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            FunctionCounter.builder("admission.rejected", limit, AdaptiveLimit::getRejected)
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+        Gauge.builder("game.active", activeGames, AtomicInteger::get)
+                .description("Games created and not yet finished")
+                .register(registry);
+    }
+}
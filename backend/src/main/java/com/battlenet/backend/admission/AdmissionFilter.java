@@ -0,0 +1,130 @@
+package com.battlenet.backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Takes a permit from {@link AdmissionControl} for every API request and
+ * answers 503 with a Retry-After header straight away when none is free.
+ * The permit is held until the response is complete, which for a handler
+ * that replies asynchronously is after the chain has returned; the time
+ * until then is reported back as the request's latency.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final String GAME_PREFIX = "/api/game/";
+    private static final String SHOOT_SUFFIX = "/shoot";
+    private static final String SALVO_SUFFIX = "/salvo";
+
+    private final AdmissionControl admission;
+    private final ObjectMapper objectMapper;
+
+    public AdmissionFilter(AdmissionControl admission, ObjectMapper objectMapper) {
+        this.admission = admission;
+        this.objectMapper = objectMapper;
+    }
+
+    static AdmissionControl.Endpoint classify(String method, String path) {
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if ("POST".equals(method) && path.startsWith(GAME_PREFIX)) {
+            String rest = path.substring(GAME_PREFIX.length());
+            if (rest.equals("create") || rest.equals("create/bulk")) {
+                return AdmissionControl.Endpoint.CREATE;
+            }
+            if (endsWithAction(rest, SHOOT_SUFFIX) || endsWithAction(rest, SALVO_SUFFIX)) {
+                return AdmissionControl.Endpoint.SHOT;
+            }
+        }
+        return AdmissionControl.Endpoint.OTHER;
+    }
+
+    // "{gameId}/shoot" and the like, with nothing else in the path
+    private static boolean endsWithAction(String rest, String suffix) {
+        return rest.endsWith(suffix) && rest.indexOf('/') == rest.length() - suffix.length();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        AdmissionControl.Endpoint endpoint = classify(request.getMethod(), path);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!admission.tryAcquire(endpoint)) {
+            reject(response, AdmissionControl.RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // the container only completes the request once this thread is out of the chain
+                request.getAsyncContext().addListener(new ReleaseOnComplete(endpoint, start));
+            } else {
+                admission.release(endpoint, System.nanoTime() - start);
+            }
+        }
+    }
+
+    // onComplete follows a timeout or an error too
+    private final class ReleaseOnComplete implements AsyncListener {
+        private final AdmissionControl.Endpoint endpoint;
+        private final long start;
+
+        ReleaseOnComplete(AdmissionControl.Endpoint endpoint, long start) {
+            this.endpoint = endpoint;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admission.release(endpoint, System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // a handler that starts async again keeps the same request
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private void reject(HttpServletResponse response, int retryAfterSeconds) throws IOException {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", "Server is busy, please retry shortly");
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
@@ -0,0 +1,104 @@
+package com.battlenet.backend.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes single-column files: a row count followed by the values,
+ * the whole file deflate-compressed.
+ */
+final class Columns {
+    private static final int BUFFER = 64 * 1024;
+
+    private Columns() {
+    }
+
+    private static DataOutputStream output(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(Files.newOutputStream(file)), BUFFER));
+    }
+
+    private static DataInputStream input(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(Files.newInputStream(file)), BUFFER));
+    }
+
+    static void writeBytes(Path file, byte[] values, int count) throws IOException {
+        try (DataOutputStream out = output(file)) {
+            out.writeInt(count);
+            out.write(values, 0, count);
+        }
+    }
+
+    static void writeShorts(Path file, short[] values, int count) throws IOException {
+        try (DataOutputStream out = output(file)) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeShort(values[i]);
+            }
+        }
+    }
+
+    static void writeInts(Path file, int[] values, int count) throws IOException {
+        try (DataOutputStream out = output(file)) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(values[i]);
+            }
+        }
+    }
+
+    static void writeLongs(Path file, long[] values, int count) throws IOException {
+        try (DataOutputStream out = output(file)) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(values[i]);
+            }
+        }
+    }
+
+    static byte[] readBytes(Path file) throws IOException {
+        try (DataInputStream in = input(file)) {
+            byte[] values = new byte[in.readInt()];
+            in.readFully(values);
+            return values;
+        }
+    }
+
+    static short[] readShorts(Path file) throws IOException {
+        try (DataInputStream in = input(file)) {
+            short[] values = new short[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readShort();
+            }
+            return values;
+        }
+    }
+
+    static int[] readInts(Path file) throws IOException {
+        try (DataInputStream in = input(file)) {
+            int[] values = new int[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readInt();
+            }
+            return values;
+        }
+    }
+
+    static long[] readLongs(Path file) throws IOException {
+        try (DataInputStream in = input(file)) {
+            long[] values = new long[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readLong();
+            }
+            return values;
+        }
+    }
+}
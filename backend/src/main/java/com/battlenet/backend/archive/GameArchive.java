@@ -0,0 +1,426 @@
+package com.battlenet.backend.archive;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.MoveLog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Archive of finished games stored column by column.
+ * <p>
+ * Finished games are buffered into a segment of up to {@link #SEGMENT_ROWS}
+ * rows; a full segment is handed to the {@code archive-writer} thread, which
+ * writes it as one deflate-compressed file per column into
+ * {@code seg-NNNNNNNN/} under the archive directory. A game finishes on its
+ * shard, so neither the compression nor the disk sits on the finishing shot;
+ * a segment that cannot be written is counted and dropped. Analytics queries
+ * scan the segments in parallel on the common fork-join pool and read only
+ * the columns they need, never rebuilding {@link Game} objects.
+ * <p>
+ * Columns: game id, finish time, winner (1 or 2), total shots, the ship
+ * mask of each board (two longs, bit = x * 10 + y) and the shot sequence
+ * (one byte per shot: shooter in bit 7, cell index in bits 0-6).
+ */
+@Component
+public class GameArchive implements GameListener, MeterBinder, AutoCloseable {
+    public static final int SEGMENT_ROWS = 4096;
+
+    static final String GAME_ID = "game_id.col";
+    static final String GAME_ID_END = "game_id_end.col";
+    static final String FINISHED_AT = "finished_at.col";
+    static final String WINNER = "winner.col";
+    static final String SHOTS = "shots.col";
+    static final String SHIPS_1_LO = "ships1_lo.col";
+    static final String SHIPS_1_HI = "ships1_hi.col";
+    static final String SHIPS_2_LO = "ships2_lo.col";
+    static final String SHIPS_2_HI = "ships2_hi.col";
+    static final String SHOT_SEQ = "shot_seq.col";
+    static final String SHOT_SEQ_END = "shot_seq_end.col";
+
+    private final Path directory;
+    private Segment pending = new Segment();
+    private int nextSegment;
+    private final BlockingQueue<Segment> toWrite = new LinkedBlockingQueue<>();
+    private final Thread writer = new Thread(this::run, "archive-writer");
+    // segments handed to the writer, and those it is done with; guarded by `writes`
+    private final Object writes = new Object();
+    private long submitted;
+    private long completed;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public record WinRate(long games, long firstPlayerWins) {
+        public double rate() {
+            return games == 0 ? 0.0 : (double) firstPlayerWins / games;
+        }
+    }
+
+    public GameArchive(@Value("${battlenet.archive.path:}") String path) {
+        this.directory = path.isBlank() ? null : Path.of(path);
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open game archive " + directory, e);
+            }
+            for (Path segment : segments()) {
+                String name = segment.getFileName().toString();
+                nextSegment = Math.max(nextSegment, Integer.parseInt(name.substring(4)) + 1);
+            }
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        if (game.getState() == Game.GameState.FINISHED && previous != Game.GameState.FINISHED) {
+            archive(game, System.currentTimeMillis());
+        }
+    }
+
+    public void archive(Game game, long finishedAt) {
+        if (directory == null) {
+            return;
+        }
+        Segment full = null;
+        synchronized (this) {
+            pending.add(game, finishedAt);
+            if (pending.rows == SEGMENT_ROWS) {
+                full = pending;
+                pending = new Segment();
+            }
+        }
+        if (full != null) {
+            submit(full);
+        }
+    }
+
+    /**
+     * Writes the rows buffered so far as a (possibly partial) segment, and
+     * waits until every segment handed to the writer has been written or
+     * has failed.
+     */
+    public void flush() {
+        Segment partial = null;
+        synchronized (this) {
+            if (pending.rows > 0) {
+                partial = pending;
+                pending = new Segment();
+            }
+        }
+        if (partial != null) {
+            submit(partial);
+        }
+        awaitWrites();
+    }
+
+    private void submit(Segment segment) {
+        synchronized (writes) {
+            submitted++;
+        }
+        toWrite.add(segment);
+    }
+
+    /** Waits for the segments handed to the writer so far, without flushing the buffered rows. */
+    void awaitWrites() {
+        synchronized (writes) {
+            long target = submitted;
+            while (completed < target) {
+                try {
+                    writes.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Segment segment;
+            try {
+                segment = toWrite.take();
+            } catch (InterruptedException e) {
+                // close() interrupts only once every segment has been written
+                return;
+            }
+            try {
+                write(segment);
+                written.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+            }
+            synchronized (writes) {
+                completed++;
+                writes.notifyAll();
+            }
+        }
+    }
+
+    private void write(Segment segment) throws IOException {
+        String name;
+        synchronized (this) {
+            name = String.format("seg-%08d", nextSegment++);
+        }
+        Path tmp = directory.resolve(name + ".tmp");
+        try {
+            Files.createDirectories(tmp);
+            int n = segment.rows;
+            Columns.writeBytes(tmp.resolve(GAME_ID), segment.gameIds, segment.gameIdBytes);
+            Columns.writeInts(tmp.resolve(GAME_ID_END), segment.gameIdEnds, n);
+            Columns.writeLongs(tmp.resolve(FINISHED_AT), segment.finishedAt, n);
+            Columns.writeBytes(tmp.resolve(WINNER), segment.winners, n);
+            Columns.writeShorts(tmp.resolve(SHOTS), segment.shots, n);
+            Columns.writeLongs(tmp.resolve(SHIPS_1_LO), segment.ships1Lo, n);
+            Columns.writeLongs(tmp.resolve(SHIPS_1_HI), segment.ships1Hi, n);
+            Columns.writeLongs(tmp.resolve(SHIPS_2_LO), segment.ships2Lo, n);
+            Columns.writeLongs(tmp.resolve(SHIPS_2_HI), segment.ships2Hi, n);
+            Columns.writeBytes(tmp.resolve(SHOT_SEQ), segment.shotSeq, segment.shotSeqBytes);
+            Columns.writeInts(tmp.resolve(SHOT_SEQ_END), segment.shotSeqEnds, n);
+            Files.move(tmp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+    }
+
+    // what is left of a segment that failed half way; queries skip .tmp directories anyway
+    private static void deleteQuietly(Path tmp) {
+        try (Stream<Path> files = Files.list(tmp)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            // left behind
+        }
+    }
+
+    /** Segments written since startup. */
+    public long writtenSegments() {
+        return written.sum();
+    }
+
+    /** Segments that could not be written; their games are not in the archive. */
+    public long failedSegments() {
+        return failed.sum();
+    }
+
+    private List<Path> segments() {
+        if (directory == null) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries
+                    .filter(p -> p.getFileName().toString().startsWith("seg-"))
+                    .filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Games written to segments (buffered rows are not counted until flushed). */
+    public long archivedGames() {
+        return segments().parallelStream()
+                .mapToLong(seg -> read(() -> Columns.readBytes(seg.resolve(WINNER))).length)
+                .sum();
+    }
+
+    /** Share of archived games won by player 1, the player who shoots first. */
+    public WinRate firstPlayerWinRate() {
+        return segments().parallelStream()
+                .map(seg -> {
+                    byte[] winners = read(() -> Columns.readBytes(seg.resolve(WINNER)));
+                    long wins = 0;
+                    for (byte w : winners) {
+                        if (w == 1) {
+                            wins++;
+                        }
+                    }
+                    return new WinRate(winners.length, wins);
+                })
+                .reduce(new WinRate(0, 0), (a, b) -> new WinRate(a.games() + b.games(), a.firstPlayerWins() + b.firstPlayerWins()));
+    }
+
+    /** Average number of shots per game, grouped by the (UTC) month the game finished. */
+    public SortedMap<YearMonth, Double> averageGameLengthByMonth() {
+        Map<Integer, long[]> totals = segments().parallelStream()
+                .map(seg -> {
+                    long[] finishedAt = read(() -> Columns.readLongs(seg.resolve(FINISHED_AT)));
+                    short[] shots = read(() -> Columns.readShorts(seg.resolve(SHOTS)));
+                    Map<Integer, long[]> partial = new HashMap<>();
+                    // rows arrive roughly in finish order, so consecutive rows usually share a month
+                    int lastKey = Integer.MIN_VALUE;
+                    long[] sumAndCount = null;
+                    for (int i = 0; i < finishedAt.length; i++) {
+                        int key = monthKey(finishedAt[i]);
+                        if (key != lastKey) {
+                            sumAndCount = partial.computeIfAbsent(key, k -> new long[2]);
+                            lastKey = key;
+                        }
+                        sumAndCount[0] += shots[i];
+                        sumAndCount[1]++;
+                    }
+                    return partial;
+                })
+                .reduce(new HashMap<>(), GameArchive::merge);
+
+        SortedMap<YearMonth, Double> result = new TreeMap<>();
+        totals.forEach((key, sumAndCount) ->
+                result.put(YearMonth.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1), (double) sumAndCount[0] / sumAndCount[1]));
+        return result;
+    }
+
+    private static Map<Integer, long[]> merge(Map<Integer, long[]> a, Map<Integer, long[]> b) {
+        Map<Integer, long[]> merged = new HashMap<>(a);
+        b.forEach((key, value) -> merged.merge(key, value, (x, y) -> new long[] {x[0] + y[0], x[1] + y[1]}));
+        return merged;
+    }
+
+    // year * 12 + (month - 1) of a UTC epoch-millis timestamp, without allocating
+    static int monthKey(long epochMillis) {
+        long days = Math.floorDiv(epochMillis, 86_400_000L);
+        // civil-from-days (H. Hinnant)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long doe = z - era * 146_097;
+        long yoe = (doe - doe / 1460 + doe / 36_524 - doe / 146_096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    private interface ColumnRead<T> {
+        T read() throws IOException;
+    }
+
+    private static <T> T read(ColumnRead<T> column) {
+        try {
+            return column.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("archive.segments", written, LongAdder::sum)
+                .tag("outcome", "written")
+                .description("Archive segments written, or dropped after a failed write")
+                .register(registry);
+        FunctionCounter.builder("archive.segments", failed, LongAdder::sum)
+                .tag("outcome", "failed")
+                .description("Archive segments written, or dropped after a failed write")
+                .register(registry);
+        Gauge.builder("archive.segments.pending", toWrite, BlockingQueue::size)
+                .description("Full segments waiting for the archive writer")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (directory != null) {
+            flush();
+            writer.interrupt();
+        }
+    }
+
+    /** Rows buffered in memory until the segment is written. */
+    private static final class Segment {
+        private int rows;
+        private byte[] gameIds = new byte[SEGMENT_ROWS * 6];
+        private int gameIdBytes;
+        private final int[] gameIdEnds = new int[SEGMENT_ROWS];
+        private final long[] finishedAt = new long[SEGMENT_ROWS];
+        private final byte[] winners = new byte[SEGMENT_ROWS];
+        private final short[] shots = new short[SEGMENT_ROWS];
+        private final long[] ships1Lo = new long[SEGMENT_ROWS];
+        private final long[] ships1Hi = new long[SEGMENT_ROWS];
+        private final long[] ships2Lo = new long[SEGMENT_ROWS];
+        private final long[] ships2Hi = new long[SEGMENT_ROWS];
+        private byte[] shotSeq = new byte[SEGMENT_ROWS * 64];
+        private int shotSeqBytes;
+        private final int[] shotSeqEnds = new int[SEGMENT_ROWS];
+
+        void add(Game game, long finishedAtMillis) {
+            int row = rows;
+            byte[] id = game.getGameId().getBytes(StandardCharsets.UTF_8);
+            if (gameIdBytes + id.length > gameIds.length) {
+                gameIds = Arrays.copyOf(gameIds, Math.max(gameIds.length * 2, gameIdBytes + id.length));
+            }
+            System.arraycopy(id, 0, gameIds, gameIdBytes, id.length);
+            gameIdBytes += id.length;
+            gameIdEnds[row] = gameIdBytes;
+
+            finishedAt[row] = finishedAtMillis;
+            winners[row] = (byte) (game.getWinner() == game.getPlayer1() ? 1 : game.getWinner() == null ? 0 : 2);
+            shots[row] = (short) (game.getPlayer1Shots() + game.getPlayer2Shots());
+            ships1Lo[row] = shipMask(game.getPlayer1().getBoard(), false);
+            ships1Hi[row] = shipMask(game.getPlayer1().getBoard(), true);
+            ships2Lo[row] = shipMask(game.getPlayer2().getBoard(), false);
+            ships2Hi[row] = shipMask(game.getPlayer2().getBoard(), true);
+
+            MoveLog log = game.getMoveLog();
+            int size = log.size();
+            if (shotSeqBytes + size > shotSeq.length) {
+                shotSeq = Arrays.copyOf(shotSeq, Math.max(shotSeq.length * 2, shotSeqBytes + size));
+            }
+            for (int i = 0; i < size; i++) {
+                int event = log.get(i);
+                if (MoveLog.kind(event) == MoveLog.SHOT) {
+                    // shots land on the opponent's board, so the shooter is the other player
+                    int shooter = MoveLog.boardOwner(event) == 1 ? 1 : 0;
+                    shotSeq[shotSeqBytes++] = (byte) (shooter << 7 | MoveLog.x(event) * 10 + MoveLog.y(event));
+                }
+            }
+            shotSeqEnds[row] = shotSeqBytes;
+            rows++;
+        }
+
+        private static long shipMask(Board board, boolean high) {
+            long mask = 0;
+            int from = high ? 64 : 0;
+            int to = high ? 100 : 64;
+            for (int bit = from; bit < to; bit++) {
+                if (board.getCell(bit / 10, bit % 10).hasShip()) {
+                    mask |= 1L << (bit - from);
+                }
+            }
+            return mask;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.battlenet.backend.cache;
+
+import com.battlenet.backend.model.Game;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps the serialized JSON view of each game so repeated reads of an
+ * unchanged game skip rebuilding and re-serializing it. An entry is valid
+ * only while the game's version matches the one it was built from.
+ */
+@Component
+public class GameViewCache implements MeterBinder {
+    private final Map<String, CachedView> views = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private record CachedView(int version, byte[] bytes) {
+    }
+
+    public byte[] get(Game game, Function<Game, byte[]> serializer) {
+        int version = game.getVersion();
+        CachedView cached = views.get(game.getGameId());
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.bytes();
+        }
+
+        misses.increment();
+        byte[] bytes = serializer.apply(game);
+        views.put(game.getGameId(), new CachedView(version, bytes));
+        return bytes;
+    }
+
+    public void evict(String gameId) {
+        views.remove(gameId);
+    }
+
+    /** Length of the cached view of the game, or -1 if none is cached. */
+    public int viewLength(String gameId) {
+        CachedView cached = views.get(gameId);
+        return cached == null ? -1 : cached.bytes().length;
+    }
+
+    public int size() {
+        return views.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("game.view.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Game info reads served from the serialized view cache")
+                .register(registry);
+        FunctionCounter.builder("game.view.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Game info reads that had to serialize the game")
+                .register(registry);
+        Gauge.builder("game.view.cache.hit.ratio", this, GameViewCache::getHitRatio)
+                .description("Fraction of game info reads served from the cache")
+                .register(registry);
+        Gauge.builder("game.view.cache.size", this, GameViewCache::size)
+                .description("Games with a cached serialized view")
+                .register(registry);
+    }
+}
@@ -0,0 +1,76 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.memory.GameFootprint;
+import com.battlenet.backend.memory.ObjectLayout;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.persistence.MatchPersistence;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AdminController {
+    private final GameFootprint footprint;
+    private final MatchPersistence persistence;
+
+    public AdminController(GameFootprint footprint, MatchPersistence persistence) {
+        this.footprint = footprint;
+        this.persistence = persistence;
+    }
+
+    @GetMapping("/memory")
+    public Map<String, Object> memory() {
+        GameFootprint.Report report = footprint.report();
+
+        Map<String, Object> byState = new LinkedHashMap<>();
+        for (Map.Entry<Game.GameState, GameFootprint.StateTotal> entry : report.byState().entrySet()) {
+            Map<String, Object> state = new HashMap<>();
+            state.put("games", entry.getValue().games());
+            state.put("bytes", entry.getValue().bytes());
+            state.put("bytesPerGame", entry.getValue().bytesPerGame());
+            byState.put(entry.getKey().name(), state);
+        }
+
+        Map<String, Object> byPart = new LinkedHashMap<>();
+        report.byPart().forEach((part, bytes) -> byPart.put(part.name(), bytes));
+
+        ObjectLayout layout = footprint.getLayout();
+        Map<String, Object> layoutInfo = new HashMap<>();
+        layoutInfo.put("compressedOops", layout.isCompressedOops());
+        layoutInfo.put("objectHeader", layout.getObjectHeader());
+        layoutInfo.put("arrayHeader", layout.getArrayHeader());
+        layoutInfo.put("referenceSize", layout.getReferenceSize());
+        layoutInfo.put("alignment", layout.getAlignment());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("games", report.games());
+        response.put("bytes", report.bytes());
+        response.put("bytesPerGame", report.bytesPerGame());
+        response.put("byState", byState);
+        response.put("byPart", byPart);
+        response.put("layout", layoutInfo);
+        return response;
+    }
+
+    @GetMapping("/persistence")
+    public Map<String, Object> persistence() {
+        MatchPersistence.Stats stats = persistence.stats();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("enabled", stats.enabled());
+        response.put("queued", stats.queued());
+        response.put("flushedRows", stats.flushed());
+        response.put("droppedRows", stats.dropped());
+        response.put("failedFlushes", stats.failures());
+        response.put("batches", stats.batches());
+        response.put("lastBatchRows", stats.lastBatchRows());
+        response.put("lastBatchRowsPerSecond", stats.lastBatchRowsPerSecond());
+        response.put("lagMillis", stats.lastLagMillis());
+        response.put("maxLagMillis", stats.maxLagMillis());
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.archive.GameArchive;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "http://localhost:5173")
+public class AnalyticsController {
+    private final GameArchive archive;
+
+    public AnalyticsController(GameArchive archive) {
+        this.archive = archive;
+    }
+
+    @GetMapping("/first-player-win-rate")
+    public Map<String, Object> firstPlayerWinRate() {
+        GameArchive.WinRate winRate = archive.firstPlayerWinRate();
+        Map<String, Object> response = new HashMap<>();
+        response.put("games", winRate.games());
+        response.put("firstPlayerWins", winRate.firstPlayerWins());
+        response.put("winRate", winRate.rate());
+        return response;
+    }
+
+    @GetMapping("/game-length-by-month")
+    public Map<String, Object> gameLengthByMonth() {
+        Map<String, Object> months = new LinkedHashMap<>();
+        archive.averageGameLengthByMonth().forEach((month, average) -> months.put(month.toString(), average));
+        Map<String, Object> response = new HashMap<>();
+        response.put("averageShotsByMonth", months);
+        return response;
+    }
+}
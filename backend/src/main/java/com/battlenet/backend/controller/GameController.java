@@ -1,9 +1,36 @@
 package com.battlenet.backend.controller;
 
+import com.battlenet.backend.admission.AdmissionControl;
+import com.battlenet.backend.archive.GameArchive;
+import com.battlenet.backend.cache.GameViewCache;
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.index.GameStateIndex;
+import com.battlenet.backend.index.PlayerGameIndex;
+import com.battlenet.backend.jfr.GameCreatedEvent;
+import com.battlenet.backend.leaderboard.Leaderboard;
 import com.battlenet.backend.model.*;
+import com.battlenet.backend.placement.FleetPlacer;
+import com.battlenet.backend.profile.PlayerProfileService;
+import com.battlenet.backend.replay.ReplayExporter;
+import com.battlenet.backend.view.BoardView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @RestController
 @RequestMapping("/api/game")
@@ -19,32 +46,124 @@ public class GameController {
     private static final String STATE = "state";
     private static final String CURRENT_TURN = "currentTurn";
     private static final String WINNER = "winner";
+    private static final String MODE = "mode";
+    private static final String TOKEN = "token";
     private static final String GAME_NOT_FOUND = "Game not found";
-    private Map<String, Game> games = new HashMap<>();
+    private static final String INVALID_PLAYER_ID = "Invalid player id: use up to 32 letters, digits, '-' or '_'";
+    // Games built and registered per step of a bulk creation, bounding what is held before it is written out
+    private static final int BULK_CHUNK = 4096;
+    // Games read from a shard per step of an export of every game
+    private static final int EXPORT_CHUNK = 512;
+    private static final int MAX_PAGE_SIZE = 100;
+    private final ObjectMapper objectMapper;
+    private final GameViewCache viewCache;
+    private final ReplayExporter replayExporter;
+    private final Leaderboard leaderboard;
+    private final PlayerProfileService profiles;
+    private final GameArchive archive;
+    private final AdmissionControl admission;
+    private final GameEngine engine;
+    private final PlayerGameIndex playerGames;
+    private final GameStateIndex gameStates;
+    private final int maxBulkGames;
+
+    public GameController(ObjectMapper objectMapper, GameViewCache viewCache, ReplayExporter replayExporter,
+                          Leaderboard leaderboard, PlayerProfileService profiles, GameArchive archive,
+                          AdmissionControl admission, GameEngine engine, PlayerGameIndex playerGames,
+                          GameStateIndex gameStates,
+                          @Value("${battlenet.bulk-create.max-games:50000}") int maxBulkGames) {
+        this.objectMapper = objectMapper;
+        this.viewCache = viewCache;
+        this.replayExporter = replayExporter;
+        this.leaderboard = leaderboard;
+        this.profiles = profiles;
+        this.archive = archive;
+        this.admission = admission;
+        this.engine = engine;
+        this.playerGames = playerGames;
+        this.gameStates = gameStates;
+        this.maxBulkGames = maxBulkGames;
+        // a compacted game is served from its summary, so its cached view is dead weight
+        engine.addCompactionListener(summary -> viewCache.evict(summary.gameId()));
+    }
+
+    // Game commands run on the game's shard, and the reply is written once the command has run;
+    // no request thread waits for it. Finished games may already be compacted, and then the
+    // summary goes to finished instead.
+    private <T> CompletableFuture<T> onGame(String gameId, Function<Game, T> command,
+                                            Function<FinishedGame, T> finished) {
+        return engine.submit(gameId, command, finished);
+    }
     
     @PostMapping("/create")
-    public Map<String, Object> createGame() {
-        String gameId = UUID.randomUUID().toString().substring(0, 6);
-        
-        Game game = new Game(gameId, PLAYER1NAME, PLAYER2NAME);
-        games.put(gameId, game);
-        
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> createGame(@RequestBody(required = false) Map<String, Object> request) {
+        String player1Id = request != null ? (String) request.get("player1Id") : null;
+        String player2Id = request != null ? (String) request.get("player2Id") : null;
+        if ((player1Id != null && !profiles.isValidId(player1Id))
+                || (player2Id != null && !profiles.isValidId(player2Id))) {
+            Map<String, Object> error = new HashMap<>();
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, INVALID_PLAYER_ID);
+            return CompletableFuture.completedFuture(ResponseEntity.ok(error));
+        }
+        String modeName = request != null ? (String) request.get(MODE) : null;
+        Game.Mode mode;
+        try {
+            mode = modeName == null ? Game.Mode.CLASSIC : Game.Mode.valueOf(modeName);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, "Invalid mode: " + modeName + ", use CLASSIC or SALVO");
+            return CompletableFuture.completedFuture(ResponseEntity.ok(error));
+        }
+
+        if (!admission.tryOpenGame()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, "Too many active games, please retry shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(AdmissionControl.GAMES_FULL_RETRY_AFTER_SECONDS))
+                    .body(error));
+        }
+
+        if (player1Id != null) {
+            profiles.register(player1Id);
+        }
+        if (player2Id != null) {
+            profiles.register(player2Id);
+        }
+
+        return registerNew(player1Id, player2Id, mode).whenComplete((game, e) -> {
+            if (e != null) {
+                // the engine stopped before the game was registered: its slot was never used
+                admission.releaseGames(1);
+            }
+        }).thenApply(game -> {
+            recordCreated(game);
+            return ResponseEntity.ok(created(game));
+        });
+    }
+
+    private Map<String, Object> created(Game game) {
         Map<String, Object> response = new HashMap<>();
-        response.put(GAMEID_KEY, gameId);
+        response.put(GAMEID_KEY, game.getGameId());
         response.put(MESSAGE, "Game created successfully");
         
         Map<String, Object> gameInfo = new HashMap<>();
         gameInfo.put(GAMEID_KEY, game.getGameId());
         gameInfo.put(STATE, game.getState().toString());
+        gameInfo.put(MODE, game.getMode().name());
         
         Map<String, Object> player1Info = new HashMap<>();
         player1Info.put("id", game.getPlayer1().getId());
+        player1Info.put(TOKEN, game.getPlayer1().getToken());
         player1Info.put("name", game.getPlayer1().getName());
         player1Info.put(READY, game.getPlayer1().isReady());
         player1Info.put(SHIPSPLACED, game.getPlayer1().allShipsPlaced());
         
         Map<String, Object> player2Info = new HashMap<>();
         player2Info.put("id", game.getPlayer2().getId());
+        player2Info.put(TOKEN, game.getPlayer2().getToken());
         player2Info.put("name", game.getPlayer2().getName());
         player2Info.put(READY, game.getPlayer2().isReady());
         player2Info.put(SHIPSPLACED, game.getPlayer2().allShipsPlaced());
@@ -55,167 +174,646 @@ public class GameController {
         gameInfo.put(WINNER, game.getWinner() != null ? game.getWinner().getName() : null);
         
         response.put("game", gameInfo);
-        
         return response;
     }
 
-    @PostMapping("/{gameId}")
-    public Map<String, Object> getGameInfo(@PathVariable String gameId){
-        Game game = games.get(gameId);
+    // Short ids collide now and then; draw again until the owning shard accepts one. A stopped
+    // engine refuses the game with a failed future, as it does once the game is queued
+    private CompletableFuture<Game> registerNew(String player1Id, String player2Id, Game.Mode mode) {
+        Game game = newGame(player1Id, player2Id, mode);
+        CompletableFuture<Boolean> registered;
+        try {
+            registered = engine.register(game);
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return registered.thenCompose(added -> added
+                ? CompletableFuture.completedFuture(game)
+                : registerNew(player1Id, player2Id, mode));
+    }
+
+    // Players who come without an id get a guest id, so they can find the game again later.
+    // Each seat also gets a token, returned only to the creator, that unlocks the seat's own board
+    private Game newGame(String player1Id, String player2Id, Game.Mode mode) {
+        Game game = new Game(UUID.randomUUID().toString().substring(0, 6), PLAYER1NAME, PLAYER2NAME, mode);
+        game.getPlayer1().setId(player1Id != null ? player1Id : Player.newGuestId());
+        game.getPlayer2().setId(player2Id != null ? player2Id : Player.newGuestId());
+        game.getPlayer1().setToken(Player.newToken());
+        game.getPlayer2().setToken(Player.newToken());
+        game.addListener(leaderboard);
+        game.addListener(profiles);
+        game.addListener(archive);
+        game.addListener(admission);
+        game.addListener(playerGames);
+        return game;
+    }
 
-        if (game == null) {
+    // Once the game is registered
+    private void recordCreated(Game game) {
+        playerGames.add(game);
+        GameCreatedEvent created = new GameCreatedEvent();
+        if (created.shouldCommit()) {
+            created.gameId = game.getGameId();
+            created.player1Id = game.getPlayer1().getId();
+            created.player2Id = game.getPlayer2().getId();
+            created.commit();
+        }
+    }
+
+    private record Pairing(String player1Id, String player2Id) {
+    }
+
+    /**
+     * Creates one game per pairing in {@code {"pairings": [{"player1Id": ..., "player2Id": ...}, ...]}},
+     * either id optional, and streams back one NDJSON line per game in the order of the pairings, with the
+     * ids and the seat tokens.
+     * The slots for all the games are reserved up front, so the request is refused as a whole or not at all.
+     */
+    @PostMapping("/create/bulk")
+    public ResponseEntity<StreamingResponseBody> createGames(@RequestBody Map<String, Object> request) {
+        List<Pairing> pairings = new ArrayList<>();
+        String invalid = readPairings(request.get("pairings"), pairings);
+        if (invalid != null) {
             Map<String, Object> error = new HashMap<>();
-            error.put("error", GAME_NOT_FOUND);
-            return error;
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, invalid);
+            return jsonError(HttpStatus.OK, error);
         }
-        
+
+        if (!admission.tryOpenGames(pairings.size())) {
+            Map<String, Object> error = new HashMap<>();
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, "Too many active games, please retry shortly");
+            return jsonError(HttpStatus.SERVICE_UNAVAILABLE, error);
+        }
+
+        // The games are built and registered while the response streams, a chunk at a time;
+        // each shard interleaves them with its other commands (see GameEngine.registerAll)
+        StreamingResponseBody body = out -> {
+            int created = 0;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                for (int from = 0; from < pairings.size(); from += BULK_CHUNK) {
+                    List<Game> games = createAll(pairings.subList(from, Math.min(from + BULK_CHUNK, pairings.size())))
+                            .join();
+                    created += games.size();
+                    for (Game game : games) {
+                        recordCreated(game);
+                        generator.writeStartObject();
+                        generator.writeStringField(GAMEID_KEY, game.getGameId());
+                        generator.writeStringField("player1Id", game.getPlayer1().getId());
+                        generator.writeStringField("player2Id", game.getPlayer2().getId());
+                        generator.writeStringField("player1Token", game.getPlayer1().getToken());
+                        generator.writeStringField("player2Token", game.getPlayer2().getToken());
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                }
+            } finally {
+                // the client went away or the engine stopped: give back the slots of games never made
+                admission.releaseGames(pairings.size() - created);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Fills pairings from the request, returning why it can't be used, or null
+    private String readPairings(Object value, List<Pairing> pairings) {
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return "pairings must be a non-empty list";
+        }
+        if (list.size() > maxBulkGames) {
+            return "At most " + maxBulkGames + " games can be created at once";
+        }
+        for (Object item : list) {
+            if (!(item instanceof Map<?, ?> pairing)) {
+                return "Each pairing must be an object with optional player1Id and player2Id";
+            }
+            Object player1Id = pairing.get("player1Id");
+            Object player2Id = pairing.get("player2Id");
+            if ((player1Id != null && !(player1Id instanceof String id1 && profiles.isValidId(id1)))
+                    || (player2Id != null && !(player2Id instanceof String id2 && profiles.isValidId(id2)))) {
+                return INVALID_PLAYER_ID;
+            }
+            pairings.add(new Pairing((String) player1Id, (String) player2Id));
+        }
+        return null;
+    }
+
+    // One registered game per pairing, in order; the few whose id is taken are drawn again, all at once
+    private CompletableFuture<List<Game>> createAll(List<Pairing> pairings) {
+        List<Game> games = new ArrayList<>(pairings.size());
+        for (Pairing pairing : pairings) {
+            if (pairing.player1Id() != null) {
+                profiles.register(pairing.player1Id());
+            }
+            if (pairing.player2Id() != null) {
+                profiles.register(pairing.player2Id());
+            }
+            games.add(newGame(pairing.player1Id(), pairing.player2Id(), Game.Mode.CLASSIC));
+        }
+        return engine.registerAll(games).thenCompose(registered -> {
+            List<CompletableFuture<Game>> settled = new ArrayList<>(games.size());
+            for (int i = 0; i < games.size(); i++) {
+                Game game = games.get(i);
+                settled.add(registered[i]
+                        ? CompletableFuture.completedFuture(game)
+                        : registerNew(game.getPlayer1().getId(), game.getPlayer2().getId(), game.getMode()));
+            }
+            return CompletableFuture.allOf(settled.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> settled.stream().map(CompletableFuture::join).toList());
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, Map<String, Object> error) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(AdmissionControl.GAMES_FULL_RETRY_AFTER_SECONDS));
+        }
+        byte[] body = toJson(error);
+        return response.body(out -> out.write(body));
+    }
+
+    /**
+     * Games in {@code state}, in the order they got there; pass the returned
+     * nextCursor back for the following page.
+     */
+    @GetMapping("/list")
+    public Map<String, Object> listGames(
+            @RequestParam Game.GameState state,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        int size = Math.max(0, Math.min(limit, MAX_PAGE_SIZE));
+        GameStateIndex.Page page = gameStates.page(state, cursor, size);
+        List<Map<String, Object>> games = new ArrayList<>();
+        for (GameStateIndex.Listed listed : page.games()) {
+            Map<String, Object> info = new HashMap<>();
+            info.put(GAMEID_KEY, listed.gameId());
+            info.put("player1Id", listed.player1Id());
+            info.put("player2Id", listed.player2Id());
+            games.add(info);
+        }
+
         Map<String, Object> response = new HashMap<>();
-        response.put(GAMEID_KEY, game.getGameId());
-        response.put(STATE, game.getState().toString());
-        
-        Map<String, Object> player1Info = new HashMap<>();
-        player1Info.put("id", game.getPlayer1().getId());
-        player1Info.put("name", game.getPlayer1().getName());
-        player1Info.put(READY, game.getPlayer1().isReady());
-        player1Info.put(SHIPSPLACED, game.getPlayer1().allShipsPlaced());
-        player1Info.put("shipsCount", game.getPlayer1().getBoard().getShips().size());
-        
-        Map<String, Object> player2Info = new HashMap<>();
-        player2Info.put("id", game.getPlayer2().getId());
-        player2Info.put("name", game.getPlayer2().getName());
-        player2Info.put(READY, game.getPlayer2().isReady());
-        player2Info.put(SHIPSPLACED, game.getPlayer2().allShipsPlaced());
-        player2Info.put("shipsCount", game.getPlayer2().getBoard().getShips().size());
-        
+        response.put(STATE, state.toString());
+        response.put("total", gameStates.count(state));
+        response.put("games", games);
+        response.put("nextCursor", page.nextCursor());
+        return response;
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGames(
+            @RequestParam(required = false) List<String> ids,
+            @RequestParam(required = false) Game.GameState state) {
+
+        // the games are gathered while the response streams, off the request thread
+        StreamingResponseBody body = out -> {
+            Stream<ReplayExporter.Replay> replays = ids == null ? allReplays() : replays(ids);
+            Stream<ReplayExporter.Replay> exported = state == null ? replays : replays.filter(r -> r.state() == state);
+            replayExporter.exportReplays(exported::iterator, out);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Every game, shard by shard and a chunk at a time, so the export holds one chunk however many games there are
+    private Stream<ReplayExporter.Replay> allReplays() {
+        Iterator<ReplayExporter.Replay> replays = engine.walk(EXPORT_CHUNK, ReplayExporter.Replay::of,
+                ReplayExporter.Replay::of);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(replays, Spliterator.ORDERED), false);
+    }
+
+    // Only the games asked for, in that order, each looked up on its own shard; unknown ids are skipped
+    private Stream<ReplayExporter.Replay> replays(List<String> ids) {
+        List<CompletableFuture<ReplayExporter.Replay>> lookups = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            lookups.add(engine.submit(id, game -> game == null ? null : ReplayExporter.Replay.of(game),
+                    ReplayExporter.Replay::of));
+        }
+        return lookups.stream().map(CompletableFuture::join).filter(Objects::nonNull);
+    }
+
+    @PostMapping("/{gameId}")
+    public CompletableFuture<ResponseEntity<byte[]>> getGameInfo(@PathVariable String gameId){
+        return onGame(gameId, game -> {
+            if (game == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", GAME_NOT_FOUND);
+                return toJson(error);
+            }
+            return viewCache.get(game, g -> toJson(buildGameInfo(g)));
+        }, finished -> toJson(buildGameInfo(finished))).thenApply(body -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+    }
+
+    private Map<String, Object> buildGameInfo(Game game) {
+        Player player1 = game.getPlayer1();
+        Player player2 = game.getPlayer2();
+        return gameInfo(game.getGameId(), game.getMode(), game.getState(),
+                playerInfo(player1.getId(), player1.getName(), player1.isReady(), player1.allShipsPlaced(),
+                        player1.getBoard().getShips().size()),
+                playerInfo(player2.getId(), player2.getName(), player2.isReady(), player2.allShipsPlaced(),
+                        player2.getBoard().getShips().size()),
+                game.isPlayer1Turn() ? player1.getName() : player2.getName(),
+                game.getWinner() != null ? game.getWinner().getName() : null);
+    }
+
+    // Same keys and values as for the live game, so the JSON is identical
+    private Map<String, Object> buildGameInfo(FinishedGame game) {
+        FinishedGame.Side player1 = game.player1();
+        FinishedGame.Side player2 = game.player2();
+        return gameInfo(game.gameId(), game.mode(), Game.GameState.FINISHED,
+                playerInfo(player1.id(), player1.name(), player1.ready(), player1.allShipsPlaced(), player1.ships()),
+                playerInfo(player2.id(), player2.name(), player2.ready(), player2.allShipsPlaced(), player2.ships()),
+                game.currentPlayerName(), game.winnerName());
+    }
+
+    private Map<String, Object> gameInfo(String gameId, Game.Mode mode, Game.GameState state,
+                                         Map<String, Object> player1Info, Map<String, Object> player2Info,
+                                         String currentTurn, String winner) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(GAMEID_KEY, gameId);
+        response.put(MODE, mode.name());
+        response.put(STATE, state.toString());
         response.put(PLAYER1NAME, player1Info);
-        response.put(PLAYER2NAME    , player2Info);
-        response.put(CURRENT_TURN, game.isPlayer1Turn() ? game.getPlayer1().getName() : game.getPlayer2().getName());
-        response.put("isGameOver", game.isGameOver());
-        response.put(WINNER, game.getWinner() != null ? game.getWinner().getName() : null);
-        
+        response.put(PLAYER2NAME, player2Info);
+        response.put(CURRENT_TURN, currentTurn);
+        response.put("isGameOver", state == Game.GameState.FINISHED);
+        response.put(WINNER, winner);
+        return response;
+    }
+
+    private Map<String, Object> playerInfo(String id, String name, boolean ready, boolean shipsPlaced,
+                                           int shipsCount) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("id", id);
+        info.put("name", name);
+        info.put(READY, ready);
+        info.put(SHIPSPLACED, shipsPlaced);
+        info.put("shipsCount", shipsCount);
+        return info;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The player's own board as they see it: their ships, and the hits and misses on it.
+     * Each is a base64 bitmask; see {@link BoardView} for the encoding. Only the player on that
+     * board, proven by the seat {@code token} handed out when the game was created, gets this view;
+     * anyone else gets the fog view. Player ids are public, so they don't unlock it.
+     */
+    @GetMapping("/{gameId}/board/{player}")
+    public CompletableFuture<Map<String, Object>> getBoard(@PathVariable String gameId, @PathVariable int player,
+                                                           @RequestParam String token) {
+        return boardView(gameId, player, token);
+    }
+
+    /**
+     * The player's board as their opponent sees it: only the hits and misses, and the cells of ships sunk.
+     */
+    @GetMapping("/{gameId}/board/{player}/fog")
+    public CompletableFuture<Map<String, Object>> getFogBoard(@PathVariable String gameId, @PathVariable int player) {
+        return boardView(gameId, player, null);
+    }
+
+    // The owner's view if token is the seat token of the player on that board, else the fog view
+    private CompletableFuture<Map<String, Object>> boardView(String gameId, int player, String token) {
+        if (player != 1 && player != 2) {
+            Map<String, Object> error = new HashMap<>();
+            error.put(SUCCESS, false);
+            error.put(MESSAGE, "Player must be 1 or 2");
+            return CompletableFuture.completedFuture(error);
+        }
+        return onGame(gameId, game -> {
+            if (game == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put(SUCCESS, false);
+                error.put(MESSAGE, GAME_NOT_FOUND);
+                return error;
+            }
+            GameSnapshot snapshot = game.snapshot();
+            boolean owner = token != null
+                    && token.equals((player == 1 ? game.getPlayer1() : game.getPlayer2()).getToken());
+            return boardView(gameId, player, owner, BoardView.of(snapshot.board(player)), snapshot.version());
+        }, finished -> {
+            boolean owner = token != null && token.equals(finished.side(player).token());
+            return boardView(gameId, player, owner, BoardView.of(finished, player), finished.version());
+        });
+    }
+
+    private Map<String, Object> boardView(String gameId, int player, boolean owner, BoardView view, int version) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(SUCCESS, true);
+        response.put(GAMEID_KEY, gameId);
+        response.put("player", player);
+        response.put("view", owner ? "owner" : "fog");
+        response.put("size", view.size());
+        response.put("version", version);
+        if (owner) {
+            response.put("ships", view.ships());
+        } else {
+            response.put("sunk", view.sunk());
+        }
+        response.put("hits", view.hits());
+        response.put("misses", view.misses());
         return response;
     }
 
     @PostMapping("/{gameId}/place-ship")
-    public Map<String, Object> placeShip(
+    public CompletableFuture<Map<String, Object>> placeShip(
             @PathVariable String gameId,
             @RequestBody Map<String, Object> request) {
         
-        Game game = games.get(gameId);
-        if (game == null) {
-            Map<String, Object> error = new HashMap<>();
-            error.put(SUCCESS, false);
-            error.put(MESSAGE, GAME_NOT_FOUND);
-            return error;
-        }
+        return onGame(gameId, game -> {
+            if (game == null) {
+                Map<String, Object> error = new HashMap<>();
+                error.put(SUCCESS, false);
+                error.put(MESSAGE, GAME_NOT_FOUND);
+                return error;
+            }
+
+            if (game.getState() != Game.GameState.SETUP) {
+                return placementClosed();
+            }
         
-        int playerNum = (Integer) request.get("player");
-        String shipType = (String) request.get("shipType");
-        int x = (Integer) request.get("x");
-        int y = (Integer) request.get("y");
-        boolean horizontal = (Boolean) request.get("horizontal");
+            int playerNum = (Integer) request.get("player");
+            String shipType = (String) request.get("shipType");
+            int x = (Integer) request.get("x");
+            int y = (Integer) request.get("y");
+            boolean horizontal = (Boolean) request.get("horizontal");
         
-        Player player = playerNum == 1 ? game.getPlayer1() : game.getPlayer2();
+            Player player = playerNum == 1 ? game.getPlayer1() : game.getPlayer2();
         
-        Ship.ShipType type;
-        try {
-            type = Ship.ShipType.valueOf(shipType);
-        } catch (IllegalArgumentException e) {
-            Map<String, Object> error = new HashMap<>();
-            error.put(SUCCESS, false);
-            error.put(MESSAGE, "Invalid ship type: " + shipType);
-            return error;
-        }
+            Ship.ShipType type;
+            try {
+                type = Ship.ShipType.valueOf(shipType);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put(SUCCESS, false);
+                error.put(MESSAGE, "Invalid ship type: " + shipType);
+                return error;
+            }
+
+            // one of each type, or the fleet could never be completed
+            if (player.getBoard().hasShip(type)) {
+                Map<String, Object> error = new HashMap<>();
+                error.put(SUCCESS, false);
+                error.put(MESSAGE, type.getDisplayName() + " is already placed");
+                return error;
+            }
         
-        List<Cell> cells = new ArrayList<>();
-        for (int i = 0; i < type.getSize(); i++) {
-            if (horizontal) {
-                cells.add(new Cell(x, y + i));
+            boolean success = player.placeShip(type, x, y, horizontal);
+        
+            Map<String, Object> response = new HashMap<>();
+            response.put(SUCCESS, success);
+        
+            if (success) {
+                response.put(MESSAGE, "Ship placed successfully");
+                response.put("shipType", type.name());
+                response.put("shipDisplayName", type.getDisplayName());
+                response.put("position", Map.of("x", x, "y", y, "horizontal", horizontal));
+                response.put(SHIPSPLACED, player.getBoard().getShips().size());
+                response.put("allShipsPlaced", player.allShipsPlaced());
             } else {
-                cells.add(new Cell(x + i, y));
+                response.put(MESSAGE, "Invalid placement: Position occupied or out of bounds");
+                response.put("reason", "The position is either already occupied by another ship or goes outside the board boundaries");
             }
-        }
-        
-        Ship ship = new Ship(type, cells, horizontal);
-        boolean success = player.placeShip(ship);
         
+            return response;
+        }, finished -> placementClosed());
+    }
+
+    // Once the game has started the fleets are fixed, and a compacted game has no boards left at all
+    private Map<String, Object> placementClosed() {
         Map<String, Object> response = new HashMap<>();
-        response.put(SUCCESS, success);
-        
-        if (success) {
-            response.put(MESSAGE, "Ship placed successfully");
-            response.put("shipType", type.name());
-            response.put("shipDisplayName", type.getDisplayName());
-            response.put("position", Map.of("x", x, "y", y, "horizontal", horizontal));
+        response.put(SUCCESS, false);
+        response.put(MESSAGE, "Ships can only be placed during SETUP");
+        return response;
+    }
+
+    @PostMapping("/{gameId}/auto-place")
+    public CompletableFuture<Map<String, Object>> autoPlaceShips(
+            @PathVariable String gameId,
+            @RequestBody Map<String, Object> request) {
+
+        return onGame(gameId, game -> {
+            Map<String, Object> response = new HashMap<>();
+            if (game == null) {
+                response.put(SUCCESS, false);
+                response.put(MESSAGE, GAME_NOT_FOUND);
+                return response;
+            }
+
+            if (game.getState() != Game.GameState.SETUP) {
+                return placementClosed();
+            }
+
+            int playerNum = (Integer) request.get("player");
+            Player player = playerNum == 1 ? game.getPlayer1() : game.getPlayer2();
+
+            List<Ship> placed = FleetPlacer.STANDARD.placeRemaining(player.getBoard(), ThreadLocalRandom.current());
+
+            List<Map<String, Object>> ships = new ArrayList<>();
+            for (Ship ship : placed) {
+                Cell first = ship.getCells().get(0);
+                Map<String, Object> shipInfo = new HashMap<>();
+                shipInfo.put("shipType", ship.getType().name());
+                shipInfo.put("x", first.getX());
+                shipInfo.put("y", first.getY());
+                shipInfo.put("horizontal", ship.isHorizontal());
+                ships.add(shipInfo);
+            }
+
+            response.put(SUCCESS, player.allShipsPlaced());
+            response.put(MESSAGE, player.allShipsPlaced()
+                    ? "Ships placed automatically"
+                    : "Could not complete the fleet around the ships already placed");
+            response.put("ships", ships);
             response.put(SHIPSPLACED, player.getBoard().getShips().size());
             response.put("allShipsPlaced", player.allShipsPlaced());
-        } else {
-            response.put(MESSAGE, "Invalid placement: Position occupied or out of bounds");
-            response.put("reason", "The position is either already occupied by another ship or goes outside the board boundaries");
-        }
-        
-        return response;
+            return response;
+        }, finished -> placementClosed());
     }
 
     @PostMapping("/{gameId}/start")
-    public Map<String, Object> startGame(@PathVariable String gameId) {
-        Game game = games.get(gameId);
-        Map<String, Object> response = new HashMap<>();
-        if (game == null) {
-            response.put(SUCCESS, false);
-            response.put(MESSAGE, GAME_NOT_FOUND);
+    public CompletableFuture<Map<String, Object>> startGame(@PathVariable String gameId) {
+        return onGame(gameId, game -> {
+            Map<String, Object> response = new HashMap<>();
+            if (game == null) {
+                response.put(SUCCESS, false);
+                response.put(MESSAGE, GAME_NOT_FOUND);
+                return response;
+            }
+
+            Map<String, Object> notStarted = startRefused(game.getPlayer1().allShipsPlaced(),
+                    game.getPlayer2().allShipsPlaced(), game.getState());
+            if (notStarted != null) {
+                return notStarted;
+            }
+            if (!game.startGame()) {
+                return startRefused(true, true, game.getState());
+            }
+            response.put(SUCCESS, true);
+            response.put(MESSAGE, "Game started!");
+            response.put(STATE, game.getState().toString());
+            response.put(CURRENT_TURN, game.isPlayer1Turn() ? PLAYER1NAME : PLAYER2NAME);
             return response;
-        }
+        }, finished -> startRefused(finished.player1().allShipsPlaced(), finished.player2().allShipsPlaced(),
+                Game.GameState.FINISHED));
+    }
 
-        boolean player1Ready = game.getPlayer1().allShipsPlaced();
-        boolean player2Ready = game.getPlayer2().allShipsPlaced();
+    // The reply when the game can't start, or null if nothing stands in the way
+    private Map<String, Object> startRefused(boolean player1Ready, boolean player2Ready, Game.GameState state) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(SUCCESS, false);
         if (!player1Ready || !player2Ready) {
-            response.put(SUCCESS, false);
             response.put(MESSAGE, "Both players must place all ships before starting the game");
             response.put("player1Ready", player1Ready);
             response.put("player2Ready", player2Ready);
             return response;
         }
-
-        game.startGame();
-        response.put(SUCCESS, true);
-        response.put(MESSAGE, "Game started!");
-        response.put(STATE, game.getState().toString());
-        response.put(CURRENT_TURN, game.isPlayer1Turn() ? PLAYER1NAME : PLAYER2NAME);
-        return response;
+        if (state != Game.GameState.SETUP) {
+            response.put(MESSAGE, "Game has already started");
+            response.put(STATE, state.toString());
+            return response;
+        }
+        return null;
     }
 
     @PostMapping("/{gameId}/shoot")
-    public Map<String, Object> shoot(
+    public CompletableFuture<Map<String, Object>> shoot(
             @PathVariable String gameId,
             @RequestBody Map<String, Object> request) {
 
-        Game game = games.get(gameId);
-        Map<String, Object> response = new HashMap<>();
-        if (game == null) {
-            response.put(SUCCESS, false);
-            response.put(MESSAGE, GAME_NOT_FOUND);
-            return response;
-        }
+        return onGame(gameId, game -> {
+            Map<String, Object> response = new HashMap<>();
+            if (game == null) {
+                response.put(SUCCESS, false);
+                response.put(MESSAGE, GAME_NOT_FOUND);
+                return response;
+            }
+
+            if (game.getState() != Game.GameState.PLAYING) {
+                return notPlaying();
+            }
+
+            int x = (Integer) request.get("x");
+            int y = (Integer) request.get("y");
+            Integer playerNum = (Integer) request.get("player");
 
-        if (game.getState() != Game.GameState.PLAYING) {
-            response.put(SUCCESS, false);
-            response.put(MESSAGE, "Game is not in PLAYING state");
+            ShotOutcome outcome = playerNum == null ? game.shoot(x, y) : game.shoot(playerNum, x, y);
+
+            response.put(SUCCESS, outcome.isFired());
+            response.put("result", outcome.getType().name());
+            response.put(MESSAGE, outcome.getMessage());
+            if (outcome.getShipType() != null) {
+                response.put("sunkShip", outcome.getShipType().name());
+            }
+            response.put(CURRENT_TURN, game.isPlayer1Turn() ? PLAYER1NAME : PLAYER2NAME);
+            response.put("isGameOver", game.isGameOver());
+            if (game.getWinner() != null) {
+                response.put(WINNER, game.getWinner().getName());
+            }
             return response;
+        }, finished -> notPlaying());
+    }
+
+    /**
+     * Fires a salvo in a SALVO game: {@code {"player": 1, "shots": [{"x": 3, "y": 4}, ...]}}, one shot per
+     * ship the player still has afloat. The whole volley is resolved on the game's shard in one command,
+     * and the reply gives each shot's result in order, the ships sunk, and how many shots the next salvo takes.
+     */
+    @PostMapping("/{gameId}/salvo")
+    public CompletableFuture<Map<String, Object>> salvo(
+            @PathVariable String gameId,
+            @RequestBody Map<String, Object> request) {
+
+        Object shotList = request.get("shots");
+        if (!(shotList instanceof List<?> shots) || shots.isEmpty()) {
+            return CompletableFuture.completedFuture(salvoRefused("shots must be a non-empty list of {x, y}"));
+        }
+        int[] xs = new int[shots.size()];
+        int[] ys = new int[shots.size()];
+        for (int i = 0; i < shots.size(); i++) {
+            if (!(shots.get(i) instanceof Map<?, ?> shot)
+                    || !(shot.get("x") instanceof Integer x) || !(shot.get("y") instanceof Integer y)) {
+                return CompletableFuture.completedFuture(salvoRefused("Each shot must be an object with integer x and y"));
+            }
+            xs[i] = x;
+            ys[i] = y;
         }
+        Integer playerNum = (Integer) request.get("player");
 
-        int x = (Integer) request.get("x");
-        int y = (Integer) request.get("y");
+        return onGame(gameId, game -> {
+            if (game == null) {
+                return salvoRefused(GAME_NOT_FOUND);
+            }
+            if (game.getState() != Game.GameState.PLAYING) {
+                return notPlaying();
+            }
 
-        String result = game.shoot(x, y);
+            SalvoOutcome outcome = game.salvo(playerNum == null ? 0 : playerNum, xs, ys);
 
-        response.put(SUCCESS, true);
-        response.put("result", result);
-        response.put(CURRENT_TURN, game.isPlayer1Turn() ? PLAYER1NAME : PLAYER2NAME);
-        response.put("isGameOver", game.isGameOver());
-        if (game.getWinner() != null) {
-            response.put(WINNER, game.getWinner().getName());
-        }
+            Map<String, Object> response = new HashMap<>();
+            response.put(SUCCESS, outcome.isFired());
+            if (!outcome.isFired()) {
+                response.put("result", outcome.getRefusal().getType().name());
+                response.put(MESSAGE, outcome.getRefusal().getMessage());
+            } else {
+                List<Map<String, Object>> results = new ArrayList<>(xs.length);
+                List<ShotOutcome> fired = outcome.getShots();
+                for (int i = 0; i < xs.length; i++) {
+                    ShotOutcome shot = fired.get(i);
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("x", xs[i]);
+                    result.put("y", ys[i]);
+                    result.put("result", shot.getType().name());
+                    if (shot.getShipType() != null) {
+                        result.put("sunkShip", shot.getShipType().name());
+                    }
+                    results.add(result);
+                }
+                response.put("shots", results);
+                response.put("sunkShips", outcome.getSunkShips().stream()
+                        .map(type -> type == null ? null : type.name())
+                        .toList());
+                response.put(MESSAGE, outcome.getHits() + " of " + xs.length + " shots hit");
+            }
+            response.put(CURRENT_TURN, game.isPlayer1Turn() ? PLAYER1NAME : PLAYER2NAME);
+            response.put("isGameOver", game.isGameOver());
+            if (game.getWinner() != null) {
+                response.put(WINNER, game.getWinner().getName());
+            } else {
+                response.put("nextSalvoSize", game.getSalvoSize());
+            }
+            return response;
+        }, finished -> notPlaying());
+    }
+
+    private Map<String, Object> salvoRefused(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(SUCCESS, false);
+        response.put(MESSAGE, message);
+        return response;
+    }
+
+    private Map<String, Object> notPlaying() {
+        Map<String, Object> response = new HashMap<>();
+        response.put(SUCCESS, false);
+        response.put(MESSAGE, "Game is not in PLAYING state");
         return response;
     }
 }
@@ -0,0 +1,21 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.heatmap.Heatmap;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/heatmap")
+@CrossOrigin(origins = "http://localhost:5173")
+public class HeatmapController {
+
+    @GetMapping
+    public Map<String, Object> snapshot() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("size", Heatmap.SIZE);
+        response.put("shots", Heatmap.SHOTS.snapshot());
+        response.put("placements", Heatmap.PLACEMENTS.snapshot());
+        return response;
+    }
+}
@@ -0,0 +1,62 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.leaderboard.Leaderboard;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "http://localhost:5173")
+public class LeaderboardController {
+    private static final int MAX_PAGE_SIZE = 100;
+    private final Leaderboard leaderboard;
+
+    public LeaderboardController(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    @GetMapping("/top")
+    public Map<String, Object> top(@RequestParam(defaultValue = "10") int k) {
+        return page(0, k);
+    }
+
+    @GetMapping
+    public Map<String, Object> page(
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        int size = Math.max(0, Math.min(limit, MAX_PAGE_SIZE));
+        List<Map<String, Object>> players = new ArrayList<>();
+        for (Leaderboard.Standing standing : leaderboard.page(Math.max(0, offset), size)) {
+            players.add(toInfo(standing));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("offset", offset);
+        response.put("total", leaderboard.size());
+        response.put("players", players);
+        return response;
+    }
+
+    @GetMapping("/players/{playerId}")
+    public Map<String, Object> player(@PathVariable String playerId) {
+        Leaderboard.Standing standing = leaderboard.getStanding(playerId);
+        if (standing == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Player not ranked");
+            return error;
+        }
+        return toInfo(standing);
+    }
+
+    private Map<String, Object> toInfo(Leaderboard.Standing standing) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("playerId", standing.playerId());
+        info.put("rank", leaderboard.rank(standing.playerId()));
+        info.put("wins", standing.wins());
+        info.put("losses", standing.losses());
+        info.put("averageShotsToWin", standing.averageShotsToWin());
+        return info;
+    }
+}
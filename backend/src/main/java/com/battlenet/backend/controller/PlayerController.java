@@ -0,0 +1,71 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.index.PlayerGameIndex;
+import com.battlenet.backend.profile.PlayerProfileService;
+import com.battlenet.backend.profile.PlayerProfileStore;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/players")
+@CrossOrigin(origins = "http://localhost:5173")
+public class PlayerController {
+    private static final int MAX_PAGE_SIZE = 100;
+    private final PlayerProfileService profiles;
+    private final PlayerGameIndex playerGames;
+
+    public PlayerController(PlayerProfileService profiles, PlayerGameIndex playerGames) {
+        this.profiles = profiles;
+        this.playerGames = playerGames;
+    }
+
+    @GetMapping("/{playerId}")
+    public Map<String, Object> getProfile(@PathVariable String playerId) {
+        PlayerProfileStore.PlayerProfile profile = profiles.getProfile(playerId);
+        if (profile == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Player not found");
+            return error;
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", profile.id());
+        response.put("rating", Math.round(profile.rating()));
+        response.put("gamesPlayed", profile.gamesPlayed());
+        response.put("wins", profile.wins());
+        response.put("losses", profile.losses());
+        return response;
+    }
+
+    /**
+     * The player's active games, newest first, then their recently finished
+     * ones; pass the returned nextCursor back for the following page.
+     */
+    @GetMapping("/{playerId}/games")
+    public Map<String, Object> games(
+            @PathVariable String playerId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        int size = Math.max(0, Math.min(limit, MAX_PAGE_SIZE));
+        PlayerGameIndex.Page page = playerGames.page(playerId, cursor, size);
+        List<Map<String, Object>> games = new ArrayList<>();
+        for (PlayerGameIndex.Entry entry : page.games()) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("gameId", entry.gameId());
+            info.put("seat", entry.seat());
+            info.put("opponentId", entry.opponentId());
+            info.put("state", entry.state().toString());
+            info.put("result", entry.result() != null ? entry.result().name() : null);
+            games.add(info);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("playerId", playerId);
+        response.put("total", playerGames.count(playerId));
+        response.put("games", games);
+        response.put("nextCursor", page.nextCursor());
+        return response;
+    }
+}
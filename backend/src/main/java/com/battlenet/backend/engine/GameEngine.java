@@ -0,0 +1,455 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs games on a fixed set of single-threaded shards, one per core by
+ * default. A game belongs to the shard picked by its id's hash, and every
+ * command for it runs on that shard's thread, so a game is never touched by
+ * two threads at once and stays in one core's cache. Commands are queued and
+ * their results come back through a {@link CompletableFuture}.
+ * <p>
+ * Once a game finishes, its shard replaces it with a {@link FinishedGame}
+ * summary after the command that finished it, so the players, boards, cells
+ * and ships are not kept just to show the result. Each shard keeps its share
+ * of the latest {@code battlenet.engine.finished-retention} summaries and
+ * drops the oldest beyond that, after which the game is unknown to it.
+ * <p>
+ * Setup and turn deadlines ({@link TurnTimeouts}) live on each shard's
+ * {@link TimingWheel}, with the game's shard entry as the timer. A command
+ * that changes a game in play re-arms its turn deadline; one that only reads
+ * it leaves the deadline alone.
+ */
+@Component
+public class GameEngine implements AutoCloseable {
+    public static final int DEFAULT_FINISHED_RETENTION = 100_000;
+    private static final Logger log = LoggerFactory.getLogger(GameEngine.class);
+
+    private final Shard[] shards;
+    private final TurnTimeouts timeouts;
+    // finished summaries kept per shard, or 0 for all of them
+    private final int finishedPerShard;
+    private final List<Consumer<Game>> registrationListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Game>> changeListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<FinishedGame>> compactionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<FinishedGame>> evictionListeners = new CopyOnWriteArrayList<>();
+    private final GameListener compactor = new GameListener() {
+        @Override
+        public void onStateChanged(Game game, Game.GameState previous) {
+            if (game.isGameOver()) {
+                // queued, so the finishing command and the listeners after this one still see the game
+                Shard shard = shard(game.getGameId());
+                shard.execute(() -> compact(shard, game));
+            }
+        }
+    };
+
+    public GameEngine(int shardCount, TurnTimeouts timeouts) {
+        this(shardCount, timeouts, DEFAULT_FINISHED_RETENTION);
+    }
+
+    /** {@code finishedRetention} finished games are kept across all shards; 0 keeps them all. */
+    @Autowired
+    public GameEngine(@Value("${battlenet.engine.shards:0}") int shardCount, TurnTimeouts timeouts,
+                      @Value("${battlenet.engine.finished-retention:" + DEFAULT_FINISHED_RETENTION + "}")
+                      int finishedRetention) {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.timeouts = timeouts;
+        this.finishedPerShard = finishedRetention <= 0 ? 0 : Math.max(1, (finishedRetention + count - 1) / count);
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, timer -> expired((LiveGame) timer));
+            shards[i].start();
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    int shardOf(String gameId) {
+        int h = gameId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    /**
+     * Adds a game to its shard; completes with false if the id is already
+     * taken, by a live game or a finished one still kept.
+     */
+    public CompletableFuture<Boolean> register(Game game) {
+        Shard shard = shard(game.getGameId());
+        return submit(game.getGameId(), existing -> add(shard, game));
+    }
+
+    /**
+     * Adds many games at once, completing with whether each one was added;
+     * as with {@link #register(Game)}, a game is refused if its id is taken,
+     * including by an earlier game in the same list. Each shard takes its
+     * share in chunks of up to {@link Shard#BATCH} games and the next chunk
+     * is only queued once the previous one has run, so commands for games
+     * already on the shard wait behind one chunk at most, not the whole list.
+     */
+    public CompletableFuture<boolean[]> registerAll(List<Game> games) {
+        boolean[] added = new boolean[games.size()];
+        int[][] positions = new int[shards.length][];
+        int[] counts = new int[shards.length];
+        int[] owner = new int[games.size()];
+        for (int i = 0; i < games.size(); i++) {
+            owner[i] = shardOf(games.get(i).getGameId());
+            counts[owner[i]]++;
+        }
+        for (int s = 0; s < shards.length; s++) {
+            positions[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int i = 0; i < owner.length; i++) {
+            positions[owner[i]][counts[owner[i]]++] = i;
+        }
+        CompletableFuture<?>[] done = new CompletableFuture<?>[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            done[s] = addChunks(shards[s], games, positions[s], 0, added);
+        }
+        return CompletableFuture.allOf(done).thenApply(ignored -> added);
+    }
+
+    private CompletableFuture<Void> addChunks(Shard shard, List<Game> games, int[] positions, int from,
+                                              boolean[] added) {
+        if (from >= positions.length) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int to = Math.min(from + Shard.BATCH, positions.length);
+        CompletableFuture<Void> chunk = new CompletableFuture<>();
+        shard.execute(() -> {
+            try {
+                for (int k = from; k < to; k++) {
+                    added[positions[k]] = add(shard, games.get(positions[k]));
+                }
+                chunk.complete(null);
+            } catch (Throwable e) {
+                chunk.completeExceptionally(e);
+            }
+        });
+        return chunk.thenCompose(ignored -> addChunks(shard, games, positions, to, added));
+    }
+
+    // Shard thread only
+    private boolean add(Shard shard, Game game) {
+        String gameId = game.getGameId();
+        if (shard.games().containsKey(gameId) || shard.finished().containsKey(gameId)) {
+            return false;
+        }
+        game.addListener(compactor);
+        LiveGame live = new LiveGame(game);
+        shard.games().put(gameId, live);
+        arm(shard, live);
+        for (Consumer<Game> listener : registrationListeners) {
+            listener.accept(game);
+        }
+        return true;
+    }
+
+    // Sets the deadline for the game's current state, or clears it if that state has none
+    private void arm(Shard shard, LiveGame live) {
+        long delay = timeouts.deadlineNanos(live.game.getState());
+        if (delay > 0) {
+            shard.deadlines().schedule(live, delay, System.nanoTime());
+        } else {
+            shard.deadlines().cancel(live);
+        }
+    }
+
+    // After each command: a game that changed while in play gets a fresh turn deadline,
+    // and one that has just started or finished moves on to its new state's deadline
+    private void changed(Shard shard, LiveGame live) {
+        int version = live.game.getVersion();
+        if (version == live.version) {
+            return;
+        }
+        live.version = version;
+        if (live.game.getState() != Game.GameState.SETUP) {
+            arm(shard, live);
+        }
+        for (Consumer<Game> listener : changeListeners) {
+            listener.accept(live.game);
+        }
+    }
+
+    private void expired(LiveGame live) {
+        Shard shard = shard(live.game.getGameId());
+        try {
+            timeouts.expire(live.game);
+        } catch (RuntimeException e) {
+            // rather than stopping the shard, or leaving the game with no deadline at all,
+            // it gets another full deadline and the expiry is tried again then
+            timeouts.expiryFailed();
+            log.warn("Expiring game {} failed; its deadline is re-armed", live.game.getGameId(), e);
+            arm(shard, live);
+        }
+        changed(shard, live);
+    }
+
+    /**
+     * Called on the shard thread with each game just registered, before any
+     * command for it runs; a listener may add itself to the game.
+     */
+    public void addRegistrationListener(Consumer<Game> listener) {
+        registrationListeners.add(listener);
+    }
+
+    /**
+     * Called on the shard thread after each command or expired deadline that
+     * changed a live game, including the one that finished it.
+     */
+    public void addChangeListener(Consumer<Game> listener) {
+        changeListeners.add(listener);
+    }
+
+    /** Called on the shard thread with each game just compacted. */
+    public void addCompactionListener(Consumer<FinishedGame> listener) {
+        compactionListeners.add(listener);
+    }
+
+    /**
+     * Called on the shard thread with each finished game dropped beyond the
+     * retention limit; the engine no longer knows its id.
+     */
+    public void addEvictionListener(Consumer<FinishedGame> listener) {
+        evictionListeners.add(listener);
+    }
+
+    private void compact(Shard shard, Game game) {
+        String gameId = game.getGameId();
+        LiveGame live = shard.games().get(gameId);
+        if (live == null || live.game != game) {
+            return;
+        }
+        FinishedGame summary = FinishedGame.of(game);
+        shard.deadlines().cancel(live);
+        shard.games().remove(gameId);
+        shard.finished().put(gameId, summary);
+        for (Consumer<FinishedGame> listener : compactionListeners) {
+            listener.accept(summary);
+        }
+        if (finishedPerShard > 0 && shard.finished().size() > finishedPerShard) {
+            Iterator<FinishedGame> oldest = shard.finished().values().iterator();
+            FinishedGame evicted = oldest.next();
+            oldest.remove();
+            for (Consumer<FinishedGame> listener : evictionListeners) {
+                listener.accept(evicted);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code command} on the game's shard with the live game, or with
+     * null if no live game has that id. Finished games are only live until
+     * they are compacted; use {@link #submit(String, Function, Function)} to
+     * reach them afterwards. The command must not block: it holds up every
+     * other game on the shard.
+     */
+    public <T> CompletableFuture<T> submit(String gameId, Function<Game, T> command) {
+        Shard shard = shard(gameId);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        shard.execute(() -> {
+            LiveGame live = shard.games().get(gameId);
+            try {
+                result.complete(command.apply(live == null ? null : live.game));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            if (live != null) {
+                changed(shard, live);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs {@code live} with the game if it is live, {@code finished} with its
+     * summary if it has been compacted, and {@code live} with null if no game
+     * has that id.
+     */
+    public <T> CompletableFuture<T> submit(String gameId, Function<Game, T> live,
+                                           Function<FinishedGame, T> finished) {
+        Shard shard = shard(gameId);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        shard.execute(() -> {
+            LiveGame entry = shard.games().get(gameId);
+            FinishedGame summary = entry == null ? shard.finished().get(gameId) : null;
+            try {
+                if (summary != null) {
+                    result.complete(finished.apply(summary));
+                } else {
+                    result.complete(live.apply(entry == null ? null : entry.game));
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            if (entry != null) {
+                changed(shard, entry);
+            }
+        });
+        return result;
+    }
+
+    /** Every live game, gathered from all shards. */
+    public CompletableFuture<List<Game>> games() {
+        return gather(shard -> shard.games().values().stream().map(live -> live.game).toList());
+    }
+
+    /** Every compacted game, gathered from all shards. */
+    public CompletableFuture<List<FinishedGame>> finishedGames() {
+        return gather(shard -> shard.finished().values());
+    }
+
+    /**
+     * Every game, live or compacted, read {@code chunk} games at a time and one shard after another,
+     * so no more than a chunk is held at once. Each chunk is one command on its shard taking the next
+     * games in id order, so a game compacted during the walk is still seen exactly once. The values
+     * are made on the shard thread, and {@code next()} waits for the chunk they are in.
+     */
+    public <T> Iterator<T> walk(int chunk, Function<Game, T> live, Function<FinishedGame, T> finished) {
+        return new Walk<>(Math.max(1, chunk), live, finished);
+    }
+
+    private final class Walk<T> implements Iterator<T> {
+        private final int chunk;
+        private final Function<Game, T> live;
+        private final Function<FinishedGame, T> finished;
+        private int shard;
+        // last id read from the shard, or null before its first chunk; this and shardDone are
+        // set by the chunk's command and read after joining it
+        private String after;
+        private Iterator<T> values = Collections.emptyIterator();
+        private boolean shardDone;
+
+        Walk(int chunk, Function<Game, T> live, Function<FinishedGame, T> finished) {
+            this.chunk = chunk;
+            this.live = live;
+            this.finished = finished;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!values.hasNext() && shard < shards.length) {
+                if (shardDone) {
+                    shard++;
+                    after = null;
+                    shardDone = false;
+                    continue;
+                }
+                Shard current = shards[shard];
+                String from = after;
+                CompletableFuture<List<T>> part = new CompletableFuture<>();
+                current.execute(() -> {
+                    try {
+                        part.complete(read(current, from));
+                    } catch (Throwable e) {
+                        part.completeExceptionally(e);
+                    }
+                });
+                values = part.join().iterator();
+            }
+            return values.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return values.next();
+        }
+
+        // Shard thread only: the next chunk of ids after from, kept in a bounded heap whose head is the largest
+        private List<T> read(Shard current, String from) {
+            PriorityQueue<String> ids = new PriorityQueue<>(chunk + 1, Comparator.reverseOrder());
+            select(current.games().keySet(), from, ids);
+            select(current.finished().keySet(), from, ids);
+            List<String> sorted = new ArrayList<>(ids);
+            sorted.sort(null);
+            List<T> read = new ArrayList<>(sorted.size());
+            for (String gameId : sorted) {
+                LiveGame entry = current.games().get(gameId);
+                read.add(entry != null ? live.apply(entry.game) : finished.apply(current.finished().get(gameId)));
+            }
+            if (sorted.size() < chunk) {
+                shardDone = true;
+            } else {
+                after = sorted.get(sorted.size() - 1);
+            }
+            return read;
+        }
+
+        private void select(Collection<String> gameIds, String from, PriorityQueue<String> ids) {
+            for (String gameId : gameIds) {
+                if ((from == null || gameId.compareTo(from) > 0)
+                        && (ids.size() < chunk || gameId.compareTo(ids.peek()) < 0)) {
+                    ids.add(gameId);
+                    if (ids.size() > chunk) {
+                        ids.poll();
+                    }
+                }
+            }
+        }
+    }
+
+    /** Setup and turn deadlines currently armed, across all shards. */
+    public CompletableFuture<Integer> pendingDeadlines() {
+        return gather(shard -> List.of(shard.deadlines().size()))
+                .thenApply(sizes -> sizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private <T> CompletableFuture<List<T>> gather(Function<Shard, Collection<T>> values) {
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            CompletableFuture<List<T>> part = new CompletableFuture<>();
+            shard.execute(() -> {
+                try {
+                    part.complete(new ArrayList<>(values.apply(shard)));
+                } catch (Throwable e) {
+                    part.completeExceptionally(e);
+                }
+            });
+            parts.add(part);
+        }
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            List<T> all = new ArrayList<>();
+            for (CompletableFuture<List<T>> part : parts) {
+                all.addAll(part.join());
+            }
+            return all;
+        });
+    }
+
+    private Shard shard(String gameId) {
+        return shards[shardOf(gameId)];
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
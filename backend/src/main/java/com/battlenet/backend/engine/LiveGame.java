@@ -0,0 +1,19 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.Game;
+
+/**
+ * A game's entry in its shard, doubling as its deadline on the shard's
+ * {@link TimingWheel}. {@link #version} is the game version the deadline was
+ * last armed for, so a command that changed the game can be told apart from
+ * one that only read it.
+ */
+final class LiveGame extends TimingWheel.Timer {
+    final Game game;
+    int version;
+
+    LiveGame(Game game) {
+        this.game = game;
+        this.version = game.getVersion();
+    }
+}
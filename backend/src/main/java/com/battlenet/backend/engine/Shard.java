@@ -0,0 +1,127 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.FinishedGame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * One event loop owning a slice of the games. Only the loop thread reads or
+ * writes {@link #games}, {@link #finished} and {@link #deadlines}; other
+ * threads hand it work through the queue, which it drains in batches of up
+ * to {@link #BATCH} before parking. Between batches it expires the deadlines
+ * that are due, and it never parks past the wheel's next tick. A task or
+ * deadline that throws is logged and the loop goes on, since every other
+ * game on the shard, and every future waiting on it, depends on the loop.
+ */
+final class Shard implements Runnable {
+    static final int BATCH = 256;
+    private static final Logger log = LoggerFactory.getLogger(Shard.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // 1024 ticks of 100 ms: deadlines up to 102 s away sit in their final slot
+    static final int WHEEL_SLOTS = 1024;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final Map<String, LiveGame> games = new HashMap<>();
+    // in the order they finished, so the oldest is evicted first
+    private final Map<String, FinishedGame> finished = new LinkedHashMap<>();
+    private final TimingWheel deadlines = new TimingWheel(TICK_NANOS, WHEEL_SLOTS, System.nanoTime());
+    private final Consumer<TimingWheel.Timer> onDeadline;
+    private final Thread thread;
+    private volatile boolean parked;
+    private volatile boolean running = true;
+
+    Shard(int index, Consumer<TimingWheel.Timer> onDeadline) {
+        this.onDeadline = onDeadline;
+        this.thread = new Thread(this, "game-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void execute(Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Game engine is shut down");
+        }
+        queue.offer(task);
+        // parked is set before the loop's last emptiness check, so either the
+        // loop sees this task or this thread sees parked and wakes it
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** Loop-thread only. */
+    Map<String, LiveGame> games() {
+        return games;
+    }
+
+    /** Loop-thread only. Finished games, compacted out of {@link #games}. */
+    Map<String, FinishedGame> finished() {
+        return finished;
+    }
+
+    /** Loop-thread only. */
+    TimingWheel deadlines() {
+        return deadlines;
+    }
+
+    @Override
+    public void run() {
+        while (running || !queue.isEmpty()) {
+            int done = 0;
+            Runnable task;
+            while (done < BATCH && (task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    log.error("Task on {} failed", thread.getName(), e);
+                }
+                done++;
+            }
+            if (!deadlines.isEmpty()) {
+                deadlines.advance(System.nanoTime(), this::expire);
+            }
+            if (done == 0) {
+                parked = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(this, parkNanos());
+                }
+                parked = false;
+            }
+        }
+    }
+
+    // One timer's failure must not stop the rest of its slot from firing on time
+    private void expire(TimingWheel.Timer timer) {
+        try {
+            onDeadline.accept(timer);
+        } catch (Throwable e) {
+            log.error("Deadline on {} failed", thread.getName(), e);
+        }
+    }
+
+    private long parkNanos() {
+        if (deadlines.isEmpty()) {
+            return IDLE_PARK_NANOS;
+        }
+        return Math.max(1, Math.min(IDLE_PARK_NANOS, deadlines.nanosToNextTick(System.nanoTime())));
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
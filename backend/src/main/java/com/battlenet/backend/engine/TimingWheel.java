@@ -0,0 +1,128 @@
+package com.battlenet.backend.engine;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: deadlines are rounded up to whole ticks and hashed by
+ * tick into a fixed ring of slots, each a doubly linked list of timers.
+ * Scheduling, rescheduling and cancelling unlink or link one node, whatever
+ * the number of timers; each tick only walks its own slot, skipping timers
+ * whose deadline is one or more turns of the wheel away.
+ * <p>
+ * Timers are intrusive: the caller's object is the list node, so a pending
+ * deadline costs no allocation. Not thread-safe; a shard's wheel is only
+ * used from its loop thread.
+ */
+public final class TimingWheel {
+
+    /** A deadline, linked into at most one slot at a time. */
+    public static class Timer {
+        Timer prev;
+        Timer next;
+        long deadline;
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+    }
+
+    private final Timer[] slots;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    // the next tick to expire; everything before it has been processed
+    private long tick;
+    private int size;
+
+    /** {@code slots} is rounded up to a power of two. */
+    public TimingWheel(long tickNanos, int slots, long startNanos) {
+        if (tickNanos <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("Tick and slot count must be positive");
+        }
+        int count = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+        this.slots = new Timer[count];
+        for (int i = 0; i < count; i++) {
+            Timer head = new Timer();
+            head.prev = head;
+            head.next = head;
+            this.slots[i] = head;
+        }
+        this.mask = count - 1;
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+    }
+
+    /** Arms {@code timer} to expire {@code delayNanos} after {@code nowNanos}, replacing any earlier deadline. */
+    public void schedule(Timer timer, long delayNanos, long nowNanos) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+        long due = nowNanos - startNanos + Math.max(delayNanos, 0);
+        // round up, and never into a tick that has already been processed
+        long deadline = Math.max(tick, (due + tickNanos - 1) / tickNanos);
+        timer.deadline = deadline;
+        Timer head = slots[(int) (deadline & mask)];
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+        size++;
+    }
+
+    public void cancel(Timer timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        }
+    }
+
+    private void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+        size--;
+    }
+
+    /**
+     * Expires every timer due by {@code nowNanos}, in tick order, handing
+     * each to {@code expired} after unlinking it. The callback may schedule
+     * or cancel the timer it is given, but not other timers.
+     */
+    public int advance(long nowNanos, Consumer<? super Timer> expired) {
+        long last = (nowNanos - startNanos) / tickNanos;
+        int fired = 0;
+        while (tick <= last && size > 0) {
+            long current = tick;
+            // anything scheduled from a callback lands in a later tick
+            tick = current + 1;
+            Timer head = slots[(int) (current & mask)];
+            Timer timer = head.next;
+            while (timer != head) {
+                Timer next = timer.next;
+                if (timer.deadline <= current) {
+                    unlink(timer);
+                    expired.accept(timer);
+                    fired++;
+                }
+                timer = next;
+            }
+        }
+        if (size == 0 && tick <= last) {
+            tick = last + 1;
+        }
+        return fired;
+    }
+
+    /** Nanoseconds from {@code nowNanos} until the next tick is due, at least 0. */
+    public long nanosToNextTick(long nowNanos) {
+        return Math.max(0, startNanos + tick * tickNanos - nowNanos);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
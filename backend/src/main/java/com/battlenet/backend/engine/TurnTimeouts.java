@@ -0,0 +1,193 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.BoardSnapshot;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.placement.FleetPlacer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How long a game may sit in SETUP, and how long a player may take over a
+ * turn, before the engine steps in; a zero duration disables that deadline.
+ * On expiry a game either ends by forfeit or is played on for the absent
+ * player: fleets placed at random in SETUP, one random shot per turn, or
+ * in a salvo game a full salvo of random shots.
+ * <p>
+ * A setup forfeit goes against whoever hasn't placed their whole fleet; if
+ * neither has, the game ends without a winner, and if both have it starts.
+ */
+@Component
+public class TurnTimeouts implements MeterBinder {
+    public enum OnExpiry { FORFEIT, AUTO_PLAY }
+
+    public static final TurnTimeouts NONE = new TurnTimeouts(Duration.ZERO, Duration.ZERO, OnExpiry.FORFEIT);
+
+    private final long setupNanos;
+    private final long turnNanos;
+    private final OnExpiry onExpiry;
+    private final LongAdder setupExpired = new LongAdder();
+    private final LongAdder turnExpired = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public TurnTimeouts(
+            @Value("${battlenet.timeouts.setup:0s}") Duration setup,
+            @Value("${battlenet.timeouts.turn:0s}") Duration turn,
+            @Value("${battlenet.timeouts.on-expiry:FORFEIT}") OnExpiry onExpiry) {
+        this.setupNanos = setup.toNanos();
+        this.turnNanos = turn.toNanos();
+        this.onExpiry = onExpiry;
+    }
+
+    /** Time allowed in {@code state} before the game expires, or 0 for no deadline. */
+    public long deadlineNanos(Game.GameState state) {
+        return switch (state) {
+            case SETUP -> setupNanos;
+            case PLAYING -> turnNanos;
+            case FINISHED -> 0;
+        };
+    }
+
+    public boolean isEnabled() {
+        return setupNanos > 0 || turnNanos > 0;
+    }
+
+    public OnExpiry getOnExpiry() {
+        return onExpiry;
+    }
+
+    /** Applies the expiry action to a game whose deadline has passed. Runs on the game's shard. */
+    void expire(Game game) {
+        switch (game.getState()) {
+            case SETUP -> {
+                setupExpired.increment();
+                expireSetup(game);
+            }
+            case PLAYING -> {
+                turnExpired.increment();
+                expireTurn(game);
+            }
+            case FINISHED -> {
+                // ended by the command just before the deadline
+            }
+        }
+    }
+
+    private void expireSetup(Game game) {
+        if (onExpiry == OnExpiry.AUTO_PLAY) {
+            for (Player player : new Player[] {game.getPlayer1(), game.getPlayer2()}) {
+                if (!player.allShipsPlaced()) {
+                    FleetPlacer.STANDARD.placeRemaining(player.getBoard(), ThreadLocalRandom.current());
+                }
+            }
+        }
+        boolean player1Ready = game.getPlayer1().allShipsPlaced();
+        boolean player2Ready = game.getPlayer2().allShipsPlaced();
+        if (player1Ready && player2Ready) {
+            game.startGame();
+        } else if (player1Ready) {
+            game.forfeit(2);
+        } else if (player2Ready) {
+            game.forfeit(1);
+        } else {
+            game.setState(Game.GameState.FINISHED);
+        }
+    }
+
+    private void expireTurn(Game game) {
+        int player = game.isPlayer1Turn() ? 1 : 2;
+        if (onExpiry == OnExpiry.FORFEIT) {
+            game.forfeit(player);
+            return;
+        }
+        BoardSnapshot target = game.snapshot().board(player == 1 ? 2 : 1);
+        boolean salvo = game.getMode() == Game.Mode.SALVO;
+        int[] cells = randomUnshotCells(target, salvo ? game.getSalvoSize() : 1);
+        // a move that fires nothing would leave the game unchanged, and so without a new deadline
+        boolean fired = false;
+        if (cells != null) {
+            int size = target.getSize();
+            if (salvo) {
+                int[] xs = new int[cells.length];
+                int[] ys = new int[cells.length];
+                for (int i = 0; i < cells.length; i++) {
+                    xs[i] = cells[i] / size;
+                    ys[i] = cells[i] % size;
+                }
+                fired = game.salvo(player, xs, ys).isFired();
+            } else {
+                fired = game.shoot(player, cells[0] / size, cells[0] % size).isFired();
+            }
+        }
+        if (!fired) {
+            game.forfeit(player);
+        }
+    }
+
+    // Picks `count` distinct cells uniformly among those not yet shot, straight from the hit masks;
+    // null if there are not that many
+    private static int[] randomUnshotCells(BoardSnapshot board, int count) {
+        int cells = board.getSize() * board.getSize();
+        int[] open = new int[cells];
+        int n = 0;
+        for (int bit = 0; bit < cells; bit++) {
+            long mask = bit < 64 ? board.getHitsLo() >>> bit : board.getHitsHi() >>> (bit - 64);
+            if ((mask & 1L) == 0) {
+                open[n++] = bit;
+            }
+        }
+        if (count <= 0 || count > n) {
+            return null;
+        }
+        // the first `count` steps of a Fisher-Yates shuffle
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            int j = random.nextInt(i, n);
+            int swap = open[i];
+            open[i] = open[j];
+            open[j] = swap;
+        }
+        return Arrays.copyOf(open, count);
+    }
+
+    public long getSetupExpired() {
+        return setupExpired.sum();
+    }
+
+    public long getTurnExpired() {
+        return turnExpired.sum();
+    }
+
+    // An expiry action threw; counted by the engine, which re-arms the deadline
+    void expiryFailed() {
+        failed.increment();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("game.timeouts", setupExpired, LongAdder::sum)
+                .tag("phase", "setup")
+                .description("Games whose setup deadline passed")
+                .register(registry);
+        FunctionCounter.builder("game.timeouts", turnExpired, LongAdder::sum)
+                .tag("phase", "turn")
+                .description("Turns that ran out of time")
+                .register(registry);
+        FunctionCounter.builder("game.timeouts", failed, LongAdder::sum)
+                .tag("phase", "failed")
+                .description("Expiries whose action threw; the game gets a new deadline")
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.battlenet.backend.heatmap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node-wide per-cell counters fed by every board. Each cell is a
+ * {@link LongAdder}, so an uncontended increment is a single CAS and
+ * concurrent games hitting the same cell spread over striped cells
+ * instead of fighting over one word.
+ */
+public final class Heatmap {
+    public static final int SIZE = 10;
+
+    /** Every fired shot (repeats and out-of-bounds shots are not counted). */
+    public static final Heatmap SHOTS = new Heatmap(SIZE);
+    /** Every cell covered by a successfully placed ship. */
+    public static final Heatmap PLACEMENTS = new Heatmap(SIZE);
+
+    private final int size;
+    private final LongAdder[] cells;
+
+    public Heatmap(int size) {
+        this.size = size;
+        this.cells = new LongAdder[size * size];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new LongAdder();
+        }
+    }
+
+    public void increment(int x, int y) {
+        if (x >= 0 && x < size && y >= 0 && y < size) {
+            cells[x * size + y].increment();
+        }
+    }
+
+    public long count(int x, int y) {
+        return cells[x * size + y].sum();
+    }
+
+    /**
+     * Counts indexed as {@code [x][y]}. Cells are summed one at a time, so
+     * a snapshot taken under load is not an atomic cut across the grid.
+     */
+    public long[][] snapshot() {
+        long[][] grid = new long[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                grid[x][y] = cells[x * size + y].sum();
+            }
+        }
+        return grid;
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder cell : cells) {
+            total += cell.sum();
+        }
+        return total;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,147 @@
+package com.battlenet.backend.index;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Games listed by state, for lobby and ops views that would otherwise scan
+ * every shard.
+ * <p>
+ * Each state has a skip list of the games in it, keyed by a sequence number
+ * drawn when the game entered that state, so a state lists its games in the
+ * order they got there. A page is the walk from just after the cursor key:
+ * O(log n) to find the cursor and then one step per game returned. Games
+ * that enter the state during a walk get higher keys and show up on a later
+ * page, games that leave it drop out, and every game that stays in the
+ * state throughout is listed exactly once.
+ * <p>
+ * Games join the index when their shard registers them and are moved as
+ * they change state, both on the shard thread; compacted games stay listed
+ * under FINISHED until the engine drops their summary.
+ */
+@Component
+public class GameStateIndex implements GameListener, MeterBinder {
+    private final Map<Game.GameState, ConcurrentSkipListMap<Long, Listed>> byState = new EnumMap<>(Game.GameState.class);
+    private final Map<Game.GameState, AtomicInteger> counts = new EnumMap<>(Game.GameState.class);
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** What a listing shows of a game. */
+    public record Listed(String gameId, String player1Id, String player2Id) {
+    }
+
+    public record Page(List<Listed> games, Long nextCursor) {
+    }
+
+    private record Position(Game.GameState state, long key, Listed listed) {
+    }
+
+    public GameStateIndex(GameEngine engine) {
+        for (Game.GameState state : Game.GameState.values()) {
+            byState.put(state, new ConcurrentSkipListMap<>());
+            counts.put(state, new AtomicInteger());
+        }
+        engine.addRegistrationListener(this::add);
+        engine.addEvictionListener(summary -> remove(summary.gameId()));
+    }
+
+    // On the shard thread, as the game is registered
+    private void add(Game game) {
+        game.addListener(this);
+        update(game.getGameId(), game.getPlayer1().getId(), game.getPlayer2().getId(), game.getState());
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        update(game.getGameId(), game.getPlayer1().getId(), game.getPlayer2().getId(), game.getState());
+    }
+
+    /**
+     * Lists the game under {@code state}, moving it from the state it was
+     * listed under. Updates for one game must not run concurrently; the
+     * engine ensures that by making them on the game's shard.
+     */
+    public void update(String gameId, String player1Id, String player2Id, Game.GameState state) {
+        Position old = positions.get(gameId);
+        if (old != null && old.state() == state) {
+            return;
+        }
+        Listed listed = old != null ? old.listed() : new Listed(gameId, player1Id, player2Id);
+        long key = sequence.incrementAndGet();
+        // listed under the new state before leaving the old one, so a reader never misses it in both
+        byState.get(state).put(key, listed);
+        counts.get(state).incrementAndGet();
+        positions.put(gameId, new Position(state, key, listed));
+        if (old != null) {
+            byState.get(old.state()).remove(old.key());
+            counts.get(old.state()).decrementAndGet();
+        }
+    }
+
+    /** Stops listing the game; like {@link #update}, on the game's shard. */
+    public void remove(String gameId) {
+        Position old = positions.remove(gameId);
+        if (old != null) {
+            byState.get(old.state()).remove(old.key());
+            counts.get(old.state()).decrementAndGet();
+        }
+    }
+
+    /**
+     * Up to {@code limit} games in {@code state}, in the order they entered
+     * it, starting after {@code cursor} (null for the first page). The next
+     * cursor is null once the walk has reached the end.
+     */
+    public Page page(Game.GameState state, Long cursor, int limit) {
+        List<Listed> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (limit <= 0) {
+            return new Page(page, null);
+        }
+        ConcurrentNavigableMap<Long, Listed> games = byState.get(state);
+        ConcurrentNavigableMap<Long, Listed> from = cursor == null ? games : games.tailMap(cursor, false);
+        Long last = null;
+        for (Map.Entry<Long, Listed> e : from.entrySet()) {
+            if (page.size() == limit) {
+                return new Page(page, last);
+            }
+            page.add(e.getValue());
+            last = e.getKey();
+        }
+        return new Page(page, null);
+    }
+
+    /** The state the game is listed under, or null if it isn't indexed. */
+    public Game.GameState stateOf(String gameId) {
+        Position position = positions.get(gameId);
+        return position == null ? null : position.state();
+    }
+
+    public int count(Game.GameState state) {
+        return counts.get(state).get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Game.GameState state : Game.GameState.values()) {
+            Gauge.builder("game.state.count", counts.get(state), AtomicInteger::get)
+                    .tag("state", state.name().toLowerCase())
+                    .description("Games in each state, from the state index")
+                    .register(registry);
+        }
+    }
+}
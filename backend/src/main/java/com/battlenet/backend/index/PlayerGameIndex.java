@@ -0,0 +1,283 @@
+package com.battlenet.backend.index;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.Player;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Each player's active games and most recently finished ones, so a player
+ * can find their matches without the shards being scanned.
+ * <p>
+ * A player's games sit in one map ordered newest first: active games by
+ * when they were added, then finished games by when they finished. Keys of
+ * active games are offset by {@link #ACTIVE}, so they all sort after the
+ * finished ones, and a page is a walk down from the cursor key. Each
+ * player's map has its own lock, held for one update or one page.
+ * <p>
+ * Finished games are evicted oldest first, beyond {@code recent} per player
+ * or {@code maxFinished} across all players, and as soon as the engine
+ * evicts them, so the index never lists a game the engine no longer knows.
+ * {@code maxFinished} defaults to the engine's retention. A player left
+ * with no games is dropped from the index.
+ */
+@Component
+public class PlayerGameIndex implements GameListener, MeterBinder {
+    private static final long ACTIVE = 1L << 62;
+
+    private final Map<String, PlayerGames> players = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // every game that has finished, oldest first, including those already evicted by their player's limit
+    private final Queue<Finished> finishedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedQueued = new AtomicInteger();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final int recent;
+    private final int maxFinished;
+
+    public enum Result { WON, LOST, NONE }
+
+    /** One of the player's games, as seen from their seat; result is null until it finishes. */
+    public record Entry(String gameId, int seat, String opponentId, Game.GameState state, Result result) {
+    }
+
+    public record Page(List<Entry> games, Long nextCursor) {
+    }
+
+    private static final class PlayerGames {
+        private final String playerId;
+        private final NavigableMap<Long, Entry> byKey = new TreeMap<>();
+        private final Map<String, Long> keys = new HashMap<>();
+        private int finished;
+        private boolean dropped;
+
+        private PlayerGames(String playerId) {
+            this.playerId = playerId;
+        }
+    }
+
+    private record Finished(PlayerGames games, long key) {
+    }
+
+    /** {@code maxFinished} of 0 or less leaves the finished games to the per-player and engine limits. */
+    public PlayerGameIndex(int recent, int maxFinished) {
+        this.recent = recent;
+        this.maxFinished = maxFinished;
+    }
+
+    @Autowired
+    public PlayerGameIndex(GameEngine engine,
+            @Value("${battlenet.player-games.recent:20}") int recent,
+            @Value("${battlenet.player-games.max-finished:${battlenet.engine.finished-retention:"
+                    + GameEngine.DEFAULT_FINISHED_RETENTION + "}}") int maxFinished) {
+        this(recent, maxFinished);
+        engine.addEvictionListener(this::remove);
+    }
+
+    /**
+     * Indexes a game for both players. A game that finished before it got
+     * here is indexed as finished straight away.
+     */
+    public void add(Game game) {
+        long key = ACTIVE + sequence.incrementAndGet();
+        update(game, 1, key);
+        update(game, 2, key);
+        evictOverflow();
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        if (game.getState() == previous) {
+            return;
+        }
+        update(game, 1, 0);
+        update(game, 2, 0);
+        evictOverflow();
+    }
+
+    // Adds the game under addKey, or with addKey 0 moves an indexed game on to its current state
+    private void update(Game game, int seat, long addKey) {
+        Player player = seat == 1 ? game.getPlayer1() : game.getPlayer2();
+        Player opponent = seat == 1 ? game.getPlayer2() : game.getPlayer1();
+        if (player.getId() == null) {
+            return;
+        }
+        while (true) {
+            PlayerGames games = addKey != 0
+                    ? players.computeIfAbsent(player.getId(), PlayerGames::new)
+                    : players.get(player.getId());
+            if (games == null) {
+                return;
+            }
+            synchronized (games) {
+                if (games.dropped) {
+                    // emptied and removed after we looked it up
+                    continue;
+                }
+                Long key = games.keys.get(game.getGameId());
+                if (key == null && addKey == 0) {
+                    // not added yet: add() reads the state under this lock and catches up
+                    return;
+                }
+                if (key != null && key < ACTIVE) {
+                    // finished games don't change any more
+                    return;
+                }
+                // the state is read under the lock, so an update never loses to an older one
+                Game.GameState state = game.getState();
+                Entry entry = new Entry(game.getGameId(), seat, opponent.getId(), state, result(game, player));
+                if (key == null) {
+                    key = addKey;
+                } else {
+                    games.byKey.remove(key);
+                }
+                if (state == Game.GameState.FINISHED) {
+                    key = sequence.incrementAndGet();
+                    games.finished++;
+                    finishedCount.incrementAndGet();
+                    finishedOrder.offer(new Finished(games, key));
+                    finishedQueued.incrementAndGet();
+                }
+                games.byKey.put(key, entry);
+                games.keys.put(game.getGameId(), key);
+                while (games.finished > recent) {
+                    evict(games, games.byKey.firstKey());
+                }
+                return;
+            }
+        }
+    }
+
+    private static Result result(Game game, Player player) {
+        if (game.getState() != Game.GameState.FINISHED) {
+            return null;
+        }
+        Player winner = game.getWinner();
+        return winner == null ? Result.NONE : winner == player ? Result.WON : Result.LOST;
+    }
+
+    // Drops the oldest finished games across all players while there are too many. The queue is
+    // bounded rather than the games, so it can't fill up with games evicted by their player's limit.
+    private void evictOverflow() {
+        while (maxFinished > 0 && finishedQueued.get() > maxFinished) {
+            Finished oldest = finishedOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            finishedQueued.decrementAndGet();
+            synchronized (oldest.games()) {
+                // already gone if it was evicted by its player's own limit
+                if (oldest.games().byKey.containsKey(oldest.key())) {
+                    evict(oldest.games(), oldest.key());
+                }
+            }
+        }
+    }
+
+    // On the shard thread, as the engine forgets the game
+    void remove(FinishedGame game) {
+        remove(game.player1().id(), game.gameId());
+        remove(game.player2().id(), game.gameId());
+    }
+
+    private void remove(String playerId, String gameId) {
+        PlayerGames games = playerId == null ? null : players.get(playerId);
+        if (games == null) {
+            return;
+        }
+        synchronized (games) {
+            Long key = games.keys.get(gameId);
+            // still queued in finishedOrder, which skips it once it comes up
+            if (key != null && key < ACTIVE) {
+                evict(games, key);
+            }
+        }
+    }
+
+    // Holding the player's lock
+    private void evict(PlayerGames games, long key) {
+        Entry evicted = games.byKey.remove(key);
+        games.keys.remove(evicted.gameId());
+        games.finished--;
+        finishedCount.decrementAndGet();
+        if (games.byKey.isEmpty()) {
+            games.dropped = true;
+            players.remove(games.playerId, games);
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the player's games, active ones newest first and
+     * then finished ones latest first, starting after {@code cursor} (null
+     * for the first page). A game that finishes between two pages may show up
+     * on both: among the active games and again among the finished ones.
+     */
+    public Page page(String playerId, Long cursor, int limit) {
+        PlayerGames games = players.get(playerId);
+        List<Entry> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (games == null || limit <= 0) {
+            return new Page(page, null);
+        }
+        synchronized (games) {
+            NavigableMap<Long, Entry> from = cursor == null
+                    ? games.byKey.descendingMap()
+                    : games.byKey.headMap(cursor, false).descendingMap();
+            Long last = null;
+            for (Map.Entry<Long, Entry> e : from.entrySet()) {
+                if (page.size() == limit) {
+                    return new Page(page, last);
+                }
+                page.add(e.getValue());
+                last = e.getKey();
+            }
+            return new Page(page, null);
+        }
+    }
+
+    /** Number of the player's games currently indexed. */
+    public int count(String playerId) {
+        PlayerGames games = players.get(playerId);
+        if (games == null) {
+            return 0;
+        }
+        synchronized (games) {
+            return games.byKey.size();
+        }
+    }
+
+    public int playerCount() {
+        return players.size();
+    }
+
+    public int finishedCount() {
+        return finishedCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("player.index.players", players, Map::size)
+                .description("Players with games in the player-to-games index")
+                .register(registry);
+        Gauge.builder("player.index.finished", finishedCount, AtomicInteger::get)
+                .description("Finished games kept in the player-to-games index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.*;
+
+@Name(GameCreatedEvent.NAME)
+@Label("Game Created")
+@Category({"Battlenet", "Game"})
+@Description("A game was created and registered with its shard")
+@StackTrace(false)
+public class GameCreatedEvent extends Event {
+    public static final String NAME = "battlenet.GameCreated";
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Player 1 Id")
+    public String player1Id;
+
+    @Label("Player 2 Id")
+    public String player2Id;
+}
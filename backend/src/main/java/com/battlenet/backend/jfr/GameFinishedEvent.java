@@ -0,0 +1,24 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.*;
+
+@Name(GameFinishedEvent.NAME)
+@Label("Game Finished")
+@Category({"Battlenet", "Game"})
+@StackTrace(false)
+public class GameFinishedEvent extends Event {
+    public static final String NAME = "battlenet.GameFinished";
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Winner")
+    @Description("1 or 2, 0 when the game ended without a winner")
+    public int winner;
+
+    @Label("Player 1 Shots")
+    public int player1Shots;
+
+    @Label("Player 2 Shots")
+    public int player2Shots;
+}
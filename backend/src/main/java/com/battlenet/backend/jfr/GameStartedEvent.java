@@ -0,0 +1,14 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.*;
+
+@Name(GameStartedEvent.NAME)
+@Label("Game Started")
+@Category({"Battlenet", "Game"})
+@StackTrace(false)
+public class GameStartedEvent extends Event {
+    public static final String NAME = "battlenet.GameStarted";
+
+    @Label("Game Id")
+    public String gameId;
+}
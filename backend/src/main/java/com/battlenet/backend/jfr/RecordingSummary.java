@@ -0,0 +1,154 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarises the game events in a flight recording: lifecycle counts,
+ * placement rejections, shot outcomes, shot latency percentiles and the
+ * slowest shots.
+ * <p>
+ * {@code java -cp <classpath> com.battlenet.backend.jfr.RecordingSummary recording.jfr}
+ */
+public final class RecordingSummary {
+    private static final int SLOWEST = 5;
+
+    public record Shot(String gameId, int player, int x, int y, String outcome, long durationNanos) {
+    }
+
+    public record Summary(long gamesCreated, long gamesStarted, long gamesFinished, long gamesWon,
+                          long placementsAccepted, long placementsRejected,
+                          Map<String, Long> shotsByOutcome, long[] shotNanos, List<Shot> slowestShots,
+                          long shotsInFinishedGames) {
+
+        public long shots() {
+            return shotNanos.length;
+        }
+
+        /** Shot duration at quantile {@code q} (0..1), or 0 if no shots were recorded. */
+        public long shotPercentile(double q) {
+            if (shotNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(q * shotNanos.length) - 1;
+            return shotNanos[Math.max(0, Math.min(shotNanos.length - 1, index))];
+        }
+
+        public double averageShotsPerFinishedGame() {
+            return gamesFinished == 0 ? 0.0 : (double) shotsInFinishedGames / gamesFinished;
+        }
+
+        public String format() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("Games      created %d, started %d, finished %d (%d won, %d ended early)%n",
+                    gamesCreated, gamesStarted, gamesFinished, gamesWon, gamesFinished - gamesWon));
+            out.append(String.format("Placements accepted %d, rejected %d%n", placementsAccepted, placementsRejected));
+            out.append(String.format("Shots      %d, %.1f per finished game%n", shots(), averageShotsPerFinishedGame()));
+            shotsByOutcome.forEach((outcome, count) ->
+                    out.append(String.format("  %-14s %d%n", outcome, count)));
+            out.append(String.format("Shot time  p50 %s, p90 %s, p99 %s, max %s%n",
+                    micros(shotPercentile(0.50)), micros(shotPercentile(0.90)),
+                    micros(shotPercentile(0.99)), micros(shotPercentile(1.0))));
+            if (!slowestShots.isEmpty()) {
+                out.append("Slowest shots").append(System.lineSeparator());
+                for (Shot shot : slowestShots) {
+                    out.append(String.format("  %s game %s player %d (%d,%d) %s%n", micros(shot.durationNanos()),
+                            shot.gameId(), shot.player(), shot.x(), shot.y(), shot.outcome()));
+                }
+            }
+            return out.toString();
+        }
+
+        private static String micros(long nanos) {
+            return String.format("%.1f us", nanos / 1000.0);
+        }
+    }
+
+    private RecordingSummary() {
+    }
+
+    public static Summary summarize(Path recording) throws IOException {
+        long created = 0;
+        long started = 0;
+        long finished = 0;
+        long won = 0;
+        long accepted = 0;
+        long rejected = 0;
+        long shotsInFinished = 0;
+        Map<String, Long> byOutcome = new TreeMap<>();
+        long[] durations = new long[1024];
+        int shots = 0;
+        List<Shot> slowest = new ArrayList<>();
+
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                switch (event.getEventType().getName()) {
+                    case GameCreatedEvent.NAME -> created++;
+                    case GameStartedEvent.NAME -> started++;
+                    case GameFinishedEvent.NAME -> {
+                        finished++;
+                        if (event.getInt("winner") != 0) {
+                            won++;
+                        }
+                        shotsInFinished += event.getInt("player1Shots") + event.getInt("player2Shots");
+                    }
+                    case ShipPlacementEvent.NAME -> {
+                        if (event.getBoolean("accepted")) {
+                            accepted++;
+                        } else {
+                            rejected++;
+                        }
+                    }
+                    case ShotEvent.NAME -> {
+                        Shot shot = new Shot(event.getString("gameId"), event.getInt("player"),
+                                event.getInt("x"), event.getInt("y"), event.getString("outcome"),
+                                event.getDuration().toNanos());
+                        byOutcome.merge(shot.outcome(), 1L, Long::sum);
+                        if (shots == durations.length) {
+                            durations = Arrays.copyOf(durations, shots * 2);
+                        }
+                        durations[shots++] = shot.durationNanos();
+                        keepSlowest(slowest, shot);
+                    }
+                    default -> {
+                        // JDK events in the same recording are left to JMC
+                    }
+                }
+            }
+        }
+
+        long[] sorted = Arrays.copyOf(durations, shots);
+        Arrays.sort(sorted);
+        return new Summary(created, started, finished, won, accepted, rejected,
+                byOutcome, sorted, slowest, shotsInFinished);
+    }
+
+    private static void keepSlowest(List<Shot> slowest, Shot shot) {
+        if (slowest.size() == SLOWEST && shot.durationNanos() <= slowest.get(SLOWEST - 1).durationNanos()) {
+            return;
+        }
+        slowest.add(shot);
+        slowest.sort(Comparator.comparingLong(Shot::durationNanos).reversed());
+        if (slowest.size() > SLOWEST) {
+            slowest.remove(SLOWEST);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: RecordingSummary <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(summarize(Path.of(args[0])).format());
+    }
+}
@@ -0,0 +1,34 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.*;
+
+@Name(ShipPlacementEvent.NAME)
+@Label("Ship Placement")
+@Category({"Battlenet", "Game"})
+@Description("A ship placement on a board, accepted or rejected")
+@StackTrace(false)
+public class ShipPlacementEvent extends Event {
+    public static final String NAME = "battlenet.ShipPlacement";
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Player")
+    @Description("1 or 2, 0 for a board outside any game")
+    public int player;
+
+    @Label("Ship Type")
+    public String shipType;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Horizontal")
+    public boolean horizontal;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
@@ -0,0 +1,28 @@
+package com.battlenet.backend.jfr;
+
+import jdk.jfr.*;
+
+@Name(ShotEvent.NAME)
+@Label("Shot")
+@Category({"Battlenet", "Game"})
+@Description("A shot at a game, including refused ones; the duration covers resolving it, or its whole volley in a salvo")
+@StackTrace(false)
+public class ShotEvent extends Event {
+    public static final String NAME = "battlenet.Shot";
+
+    @Label("Game Id")
+    public String gameId;
+
+    @Label("Player")
+    @Description("1 or 2, 0 when the request did not name a player")
+    public int player;
+
+    @Label("X")
+    public int x;
+
+    @Label("Y")
+    public int y;
+
+    @Label("Outcome")
+    public String outcome;
+}
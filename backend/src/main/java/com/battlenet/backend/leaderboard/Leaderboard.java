@@ -0,0 +1,126 @@
+package com.battlenet.backend.leaderboard;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.Player;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Wins, losses and shots-to-win per player, updated as games finish.
+ * <p>
+ * Standings are kept in a {@link RankingTree} ordered by wins (desc),
+ * losses (asc) and player id, so every standing has a distinct position and
+ * a page seeks straight to its offset in O(log n), however many players are
+ * tied on wins. A Fenwick tree over win totals answers rank lookups in
+ * O(log n) without the tree's lock. Players with the same number of wins
+ * share a rank.
+ */
+@Component
+public class Leaderboard implements GameListener {
+    private static final Comparator<Standing> ORDER = Comparator
+            .comparingInt(Standing::wins).reversed()
+            .thenComparingInt(Standing::losses)
+            .thenComparing(Standing::playerId);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // guarded by rankingLock
+    private final RankingTree<Standing> ranking = new RankingTree<>(ORDER);
+    private final ReentrantReadWriteLock rankingLock = new ReentrantReadWriteLock();
+    private final WinCountIndex winIndex = new WinCountIndex();
+
+    public record Standing(String playerId, int wins, int losses, long shotsToWin) {
+        public double averageShotsToWin() {
+            return wins == 0 ? 0.0 : (double) shotsToWin / wins;
+        }
+    }
+
+    private static final class Entry {
+        private Standing current;
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        if (game.getState() != Game.GameState.FINISHED || previous == Game.GameState.FINISHED
+                || game.getWinner() == null) {
+            return;
+        }
+        Player winner = game.getWinner();
+        Player loser = winner == game.getPlayer1() ? game.getPlayer2() : game.getPlayer1();
+        // as with profiles, a game against a guest is not ranked for either player
+        if (Player.isGuestId(winner.getId()) || Player.isGuestId(loser.getId())) {
+            return;
+        }
+        int shots = winner == game.getPlayer1() ? game.getPlayer1Shots() : game.getPlayer2Shots();
+        recordResult(playerKey(winner), playerKey(loser), shots);
+    }
+
+    // Players without an id are ranked under their seat's name
+    static String playerKey(Player player) {
+        return player.getId() != null ? player.getId() : player.getName();
+    }
+
+    public void recordResult(String winnerId, String loserId, int winnerShots) {
+        update(winnerId, 1, 0, winnerShots);
+        update(loserId, 0, 1, 0);
+    }
+
+    private void update(String playerId, int wins, int losses, int shots) {
+        Entry entry = entries.computeIfAbsent(playerId, id -> new Entry());
+        synchronized (entry) {
+            Standing old = entry.current;
+            Standing next = old == null
+                    ? new Standing(playerId, wins, losses, shots)
+                    : new Standing(playerId, old.wins() + wins, old.losses() + losses, old.shotsToWin() + shots);
+            rankingLock.writeLock().lock();
+            try {
+                if (old != null) {
+                    ranking.remove(old);
+                }
+                ranking.add(next);
+            } finally {
+                rankingLock.writeLock().unlock();
+            }
+            winIndex.move(old == null ? -1 : old.wins(), next.wins());
+            entry.current = next;
+        }
+    }
+
+    public Standing getStanding(String playerId) {
+        Entry entry = entries.get(playerId);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            return entry.current;
+        }
+    }
+
+    /** 1-based rank of the player, or -1 if they have no finished games. */
+    public long rank(String playerId) {
+        Standing standing = getStanding(playerId);
+        return standing == null ? -1 : winIndex.countAbove(standing.wins()) + 1;
+    }
+
+    public List<Standing> top(int k) {
+        return page(0, k);
+    }
+
+    public List<Standing> page(long offset, int limit) {
+        rankingLock.readLock().lock();
+        try {
+            return ranking.range(offset, limit);
+        } finally {
+            rankingLock.readLock().unlock();
+        }
+    }
+
+    public long size() {
+        return winIndex.total();
+    }
+}
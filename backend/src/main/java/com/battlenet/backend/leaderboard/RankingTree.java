@@ -0,0 +1,159 @@
+package com.battlenet.backend.leaderboard;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distinct values in sorted order, as a treap whose nodes count their
+ * subtree, so the value at any position is found in O(log n) instead of by
+ * walking everything before it. Adds and removes are O(log n) expected.
+ * Not thread-safe.
+ */
+final class RankingTree<T> {
+    private final Comparator<? super T> order;
+    private Node<T> root;
+
+    private static final class Node<T> {
+        final T value;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<T> left;
+        Node<T> right;
+        int size = 1;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    // Everything before the split value, and everything from it on
+    private record Split<T>(Node<T> before, Node<T> from) {
+    }
+
+    RankingTree(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    /** Adds the value, which must not be in the tree already. */
+    void add(T value) {
+        root = insert(root, new Node<>(value));
+    }
+
+    /** Removes the value equal to the given one, if there is one. */
+    void remove(T value) {
+        root = delete(root, value);
+    }
+
+    /** Up to {@code limit} values in order, starting at the 0-based position {@code offset}. */
+    List<T> range(long offset, int limit) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (offset < 0 || limit <= 0 || offset >= size(root)) {
+            return result;
+        }
+        // the nodes still to visit in order, nearest first, down to the one at offset
+        Deque<Node<T>> pending = new ArrayDeque<>();
+        Node<T> node = root;
+        long skip = offset;
+        while (node != null) {
+            int before = size(node.left);
+            if (skip < before) {
+                pending.push(node);
+                node = node.left;
+            } else if (skip == before) {
+                pending.push(node);
+                break;
+            } else {
+                skip -= before + 1;
+                node = node.right;
+            }
+        }
+        while (result.size() < limit && !pending.isEmpty()) {
+            Node<T> next = pending.pop();
+            result.add(next.value);
+            for (Node<T> n = next.right; n != null; n = n.left) {
+                pending.push(n);
+            }
+        }
+        return result;
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Split<T> split = split(node, added.value);
+            added.left = split.before();
+            added.right = split.from();
+            return update(added);
+        }
+        if (order.compare(added.value, node.value) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+
+    private Node<T> delete(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int c = order.compare(value, node.value);
+        if (c == 0) {
+            return merge(node.left, node.right);
+        }
+        if (c < 0) {
+            node.left = delete(node.left, value);
+        } else {
+            node.right = delete(node.right, value);
+        }
+        return update(node);
+    }
+
+    private Split<T> split(Node<T> node, T value) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        if (order.compare(node.value, value) < 0) {
+            Split<T> rest = split(node.right, value);
+            node.right = rest.before();
+            return new Split<>(update(node), rest.from());
+        }
+        Split<T> rest = split(node.left, value);
+        node.left = rest.from();
+        return new Split<>(rest.before(), update(node));
+    }
+
+    // Every value under first comes before every value under second
+    private Node<T> merge(Node<T> first, Node<T> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            return update(first);
+        }
+        second.left = merge(first, second.left);
+        return update(second);
+    }
+
+    private static <T> Node<T> update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,90 @@
+package com.battlenet.backend.leaderboard;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fenwick tree counting players per win total, so "how many players have
+ * more wins" takes O(log maxWins). Updates are lock-free atomic adds; the
+ * tables only get locked exclusively when a new win record forces them to
+ * grow.
+ */
+final class WinCountIndex {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final StampedLock resizeLock = new StampedLock();
+    // tree index i covers win total i - 1
+    private volatile AtomicLongArray tree = new AtomicLongArray(INITIAL_CAPACITY + 1);
+    private volatile AtomicLongArray counts = new AtomicLongArray(INITIAL_CAPACITY);
+
+    /** Moves one player from {@code fromWins} to {@code toWins}; -1 means not yet ranked. */
+    void move(int fromWins, int toWins) {
+        ensureCapacity(toWins);
+        long stamp = resizeLock.readLock();
+        try {
+            if (fromWins >= 0) {
+                add(fromWins, -1);
+            }
+            add(toWins, 1);
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+
+    private void add(int wins, long delta) {
+        AtomicLongArray t = tree;
+        counts.addAndGet(wins, delta);
+        for (int i = wins + 1; i < t.length(); i += i & -i) {
+            t.addAndGet(i, delta);
+        }
+    }
+
+    private void ensureCapacity(int wins) {
+        if (wins < counts.length()) {
+            return;
+        }
+        long stamp = resizeLock.writeLock();
+        try {
+            int capacity = counts.length();
+            if (wins < capacity) {
+                return;
+            }
+            while (capacity <= wins) {
+                capacity *= 2;
+            }
+            AtomicLongArray grownCounts = new AtomicLongArray(capacity);
+            AtomicLongArray grownTree = new AtomicLongArray(capacity + 1);
+            for (int w = 0; w < counts.length(); w++) {
+                long c = counts.get(w);
+                grownCounts.set(w, c);
+                for (int i = w + 1; i <= capacity; i += i & -i) {
+                    grownTree.addAndGet(i, c);
+                }
+            }
+            counts = grownCounts;
+            tree = grownTree;
+        } finally {
+            resizeLock.unlockWrite(stamp);
+        }
+    }
+
+    /** Players with at most {@code wins} wins. */
+    private long countUpTo(int wins) {
+        AtomicLongArray t = tree;
+        long sum = 0;
+        for (int i = Math.min(wins + 1, t.length() - 1); i > 0; i -= i & -i) {
+            sum += t.get(i);
+        }
+        return sum;
+    }
+
+    long total() {
+        AtomicLongArray t = tree;
+        return countUpTo(t.length() - 2);
+    }
+
+    /** Players with strictly more than {@code wins} wins. */
+    long countAbove(int wins) {
+        return total() - countUpTo(wins);
+    }
+}
@@ -0,0 +1,315 @@
+package com.battlenet.backend.memory;
+
+import com.battlenet.backend.cache.GameViewCache;
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.BoardSnapshot;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.GameSnapshot;
+import com.battlenet.backend.model.MoveLog;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estimates the heap retained by each game from its structure and
+ * {@link ObjectLayout}, without walking the heap: the game and its status
+ * word, the move log, both players, their boards with the 100 cells and the
+ * grid arrays, the ships and their cell lists, the published snapshots, the
+ * listener chain, the cached JSON view and the game's entry in its shard.
+ * Compacted games count their {@link FinishedGame} summary instead.
+ * <p>
+ * Left out are objects shared between games (player name literals, ship
+ * types, the listener beans themselves) and the response maps, which are
+ * built per request and not retained. Games are read without stopping their
+ * shard, so a game changing during the walk can be off by one ship or shot.
+ */
+@Component
+public class GameFootprint implements MeterBinder {
+    public enum Part { GAME, MOVE_LOG, PLAYERS, BOARDS, CELLS, SHIPS, SNAPSHOTS, LISTENERS, VIEW, SUMMARIES, REGISTRY }
+
+    private static final int MOVE_LOG_INITIAL_CAPACITY = 32;
+    private static final int ARRAY_LIST_DEFAULT_CAPACITY = 10;
+    private static final long METRICS_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ObjectLayout layout;
+    private final GameEngine engine;
+    private final GameViewCache views;
+    private final long registryEntry;
+    private final long summaryEntry;
+    private final long viewEntry;
+    private volatile Report lastReport;
+
+    public record StateTotal(long games, long bytes) {
+        public long bytesPerGame() {
+            return games == 0 ? 0 : bytes / games;
+        }
+    }
+
+    public record Report(long games, long bytes, Map<Game.GameState, StateTotal> byState,
+                         Map<Part, Long> byPart, long takenAtNanos) {
+        public long bytesPerGame() {
+            return games == 0 ? 0 : bytes / games;
+        }
+    }
+
+    public GameFootprint(GameEngine engine, GameViewCache views) {
+        this.layout = ObjectLayout.current();
+        this.engine = engine;
+        this.views = views;
+        // shard map node plus its table slot, the table averaging half full; live games also
+        // have the entry that doubles as their deadline timer
+        this.summaryEntry = layout.instanceSize("java.util.HashMap$Node") + 2L * layout.getReferenceSize();
+        this.registryEntry = summaryEntry + layout.instanceSize("com.battlenet.backend.engine.LiveGame");
+        this.viewEntry = layout.instanceSize("java.util.concurrent.ConcurrentHashMap$Node")
+                + layout.instanceSize("com.battlenet.backend.cache.GameViewCache$CachedView")
+                + 2L * layout.getReferenceSize();
+    }
+
+    public ObjectLayout getLayout() {
+        return layout;
+    }
+
+    public long estimate(Game game) {
+        long[] parts = new long[Part.values().length];
+        estimate(game, parts);
+        long total = 0;
+        for (long part : parts) {
+            total += part;
+        }
+        return total;
+    }
+
+    public Map<Part, Long> breakdown(Game game) {
+        long[] parts = new long[Part.values().length];
+        estimate(game, parts);
+        return toMap(parts);
+    }
+
+    public long estimate(FinishedGame game) {
+        long[] parts = new long[Part.values().length];
+        estimate(game, parts);
+        long total = 0;
+        for (long part : parts) {
+            total += part;
+        }
+        return total;
+    }
+
+    public Map<Part, Long> breakdown(FinishedGame game) {
+        long[] parts = new long[Part.values().length];
+        estimate(game, parts);
+        return toMap(parts);
+    }
+
+    /** Estimate for every game in the engine, grouped by state and by part. */
+    public Report report() {
+        List<Game> games = engine.games().join();
+        List<FinishedGame> finished = engine.finishedGames().join();
+        long[] parts = new long[Part.values().length];
+        long[] stateGames = new long[Game.GameState.values().length];
+        long[] stateBytes = new long[Game.GameState.values().length];
+        long[] one = new long[parts.length];
+        for (Game game : games) {
+            Arrays.fill(one, 0);
+            estimate(game, one);
+            add(one, parts, game.getState(), stateGames, stateBytes);
+        }
+        for (FinishedGame game : finished) {
+            Arrays.fill(one, 0);
+            estimate(game, one);
+            add(one, parts, Game.GameState.FINISHED, stateGames, stateBytes);
+        }
+
+        long total = 0;
+        Map<Game.GameState, StateTotal> byState = new EnumMap<>(Game.GameState.class);
+        for (Game.GameState state : Game.GameState.values()) {
+            byState.put(state, new StateTotal(stateGames[state.ordinal()], stateBytes[state.ordinal()]));
+            total += stateBytes[state.ordinal()];
+        }
+        Report report = new Report(games.size() + finished.size(), total, byState, toMap(parts), System.nanoTime());
+        lastReport = report;
+        return report;
+    }
+
+    private static void add(long[] one, long[] parts, Game.GameState state, long[] stateGames, long[] stateBytes) {
+        long bytes = 0;
+        for (int i = 0; i < one.length; i++) {
+            parts[i] += one[i];
+            bytes += one[i];
+        }
+        stateGames[state.ordinal()]++;
+        stateBytes[state.ordinal()] += bytes;
+    }
+
+    // Gauges share one walk of the registry per scrape interval
+    private Report recentReport() {
+        Report report = lastReport;
+        if (report == null || System.nanoTime() - report.takenAtNanos() > METRICS_MAX_AGE_NANOS) {
+            report = report();
+        }
+        return report;
+    }
+
+    private void estimate(Game game, long[] parts) {
+        parts[Part.GAME.ordinal()] += layout.instanceSize(Game.class)
+                + layout.instanceSize(AtomicInteger.class)
+                + layout.stringSize(game.getGameId());
+
+        MoveLog moveLog = game.getMoveLog();
+        int capacity = MOVE_LOG_INITIAL_CAPACITY;
+        while (capacity < moveLog.size()) {
+            capacity *= 2;
+        }
+        parts[Part.MOVE_LOG.ordinal()] += layout.instanceSize(MoveLog.class) + layout.arraySize(int.class, capacity);
+
+        player(game.getPlayer1(), parts);
+        player(game.getPlayer2(), parts);
+        snapshots(game.snapshot(), parts);
+
+        parts[Part.LISTENERS.ordinal()] += listeners(game.getListener());
+
+        int viewLength = views.viewLength(game.getGameId());
+        if (viewLength >= 0) {
+            parts[Part.VIEW.ordinal()] += viewEntry + layout.arraySize(byte.class, viewLength);
+        }
+        parts[Part.REGISTRY.ordinal()] += registryEntry;
+    }
+
+    // The summary, its two sides, the packed moves and the strings only it still holds
+    private void estimate(FinishedGame game, long[] parts) {
+        long bytes = layout.instanceSize(FinishedGame.class) + 2L * layout.instanceSize(FinishedGame.Side.class)
+                + layout.arraySize(short.class, game.moves().length) + layout.stringSize(game.gameId());
+        for (FinishedGame.Side side : new FinishedGame.Side[] {game.player1(), game.player2()}) {
+            if (side.id() != null) {
+                bytes += layout.stringSize(side.id());
+            }
+            if (side.token() != null) {
+                bytes += layout.stringSize(side.token());
+            }
+        }
+        parts[Part.SUMMARIES.ordinal()] += bytes;
+        parts[Part.REGISTRY.ordinal()] += summaryEntry;
+    }
+
+    private void player(Player player, long[] parts) {
+        parts[Part.PLAYERS.ordinal()] += layout.instanceSize(Player.class)
+                + (player.getId() == null ? 0 : layout.stringSize(player.getId()))
+                + (player.getToken() == null ? 0 : layout.stringSize(player.getToken()));
+
+        Board board = player.getBoard();
+        int size = board.getSize();
+        // the cell grid and the ship-at grid: one outer array of rows each
+        long grid = layout.arraySize(Cell[].class, size) + size * layout.arraySize(Cell.class, size);
+        parts[Part.BOARDS.ordinal()] += layout.instanceSize(Board.class) + 2 * grid;
+        parts[Part.CELLS.ordinal()] += (long) size * size * layout.instanceSize(Cell.class);
+
+        List<Ship> ships = board.getShips();
+        int count = ships.size();
+        long shipBytes = layout.instanceSize(ArrayList.class);
+        if (count > 0) {
+            shipBytes += layout.arraySize(Ship.class, arrayListCapacity(count));
+        }
+        for (int i = 0; i < count; i++) {
+            Ship ship = ships.get(i);
+            if (ship == null) {
+                continue;
+            }
+            shipBytes += layout.instanceSize(Ship.class);
+            List<Cell> cells = ship.getCells();
+            shipBytes += layout.instanceSize(cells.getClass());
+            if (cells instanceof ArrayList) {
+                // the board copies a ship's cells into a list sized to fit
+                shipBytes += layout.arraySize(Cell.class, cells.size());
+            }
+        }
+        parts[Part.SHIPS.ordinal()] += shipBytes;
+    }
+
+    private void snapshots(GameSnapshot snapshot, long[] parts) {
+        long bytes = layout.instanceSize(GameSnapshot.class);
+        for (BoardSnapshot board : new BoardSnapshot[] {snapshot.board1(), snapshot.board2()}) {
+            bytes += layout.instanceSize(BoardSnapshot.class);
+            List<BoardSnapshot.PlacedShip> ships = board.getShips();
+            if (!ships.isEmpty()) {
+                // an unmodifiable wrapper over a list sized to fit
+                bytes += layout.instanceSize(ships.getClass()) + layout.instanceSize(ArrayList.class)
+                        + layout.arraySize(Object.class, ships.size())
+                        + ships.size() * layout.instanceSize(BoardSnapshot.PlacedShip.class);
+            }
+        }
+        parts[Part.SNAPSHOTS.ordinal()] += bytes;
+    }
+
+    // Composites made by GameListener.both belong to the game; the listeners they wrap are shared beans
+    private long listeners(GameListener listener) {
+        if (listener == null || listener.getClass().getEnclosingClass() != GameListener.class
+                || listener == GameListener.NONE) {
+            return 0;
+        }
+        long bytes = layout.instanceSize(listener.getClass());
+        for (Field field : listener.getClass().getDeclaredFields()) {
+            if (field.getType() == GameListener.class) {
+                try {
+                    field.setAccessible(true);
+                    bytes += listeners((GameListener) field.get(listener));
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // leave the wrapped listener uncounted
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // ArrayList grows from 10 by half its size each time it fills up
+    private static int arrayListCapacity(int size) {
+        int capacity = ARRAY_LIST_DEFAULT_CAPACITY;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+
+    private static Map<Part, Long> toMap(long[] parts) {
+        Map<Part, Long> map = new EnumMap<>(Part.class);
+        for (Part part : Part.values()) {
+            map.put(part, parts[part.ordinal()]);
+        }
+        return map;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Game.GameState state : Game.GameState.values()) {
+            String tag = state.name().toLowerCase();
+            Gauge.builder("game.memory.bytes", this, f -> f.recentReport().byState().get(state).bytes())
+                    .tag("state", tag)
+                    .description("Estimated heap retained by games in this state")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("game.memory.games", this, f -> f.recentReport().byState().get(state).games())
+                    .tag("state", tag)
+                    .description("Games in this state")
+                    .register(registry);
+        }
+        Gauge.builder("game.memory.bytes.per.game", this, f -> f.recentReport().bytesPerGame())
+                .description("Estimated heap retained by an average game")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
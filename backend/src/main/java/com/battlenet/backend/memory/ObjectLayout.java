@@ -0,0 +1,143 @@
+package com.battlenet.backend.memory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Object sizes under the running JVM's layout: header and reference sizes
+ * come from its compressed-pointer settings, and instance fields are packed
+ * the way HotSpot has done since JDK 15 (small fields fill the gap a 12-byte
+ * header leaves before the first 8-byte field). Sizes are shallow and
+ * rounded up to the object alignment.
+ */
+public final class ObjectLayout {
+    private final boolean compressedOops;
+    private final int objectHeader;
+    private final int arrayHeader;
+    private final int referenceSize;
+    private final int alignment;
+    private final ClassValue<Long> instanceSizes = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return computeInstanceSize(type);
+        }
+    };
+
+    ObjectLayout(boolean compressedOops, boolean compressedClassPointers, int alignment) {
+        this.compressedOops = compressedOops;
+        this.objectHeader = compressedClassPointers ? 12 : 16;
+        this.arrayHeader = compressedClassPointers ? 16 : 24;
+        this.referenceSize = compressedOops ? 4 : 8;
+        this.alignment = alignment;
+    }
+
+    /** Layout of this JVM; the HotSpot defaults if its flags cannot be read (e.g. in a native image). */
+    public static ObjectLayout current() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return new ObjectLayout(
+                    Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue()),
+                    Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedClassPointers").getValue()),
+                    Integer.parseInt(hotSpot.getVMOption("ObjectAlignmentInBytes").getValue()));
+        } catch (RuntimeException | LinkageError e) {
+            return new ObjectLayout(true, true, 8);
+        }
+    }
+
+    public long instanceSize(Class<?> type) {
+        return instanceSizes.get(type);
+    }
+
+    /** Size of a class that cannot be named from here, such as a private nested class. */
+    public long instanceSize(String className) {
+        try {
+            return instanceSize(Class.forName(className));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown class " + className, e);
+        }
+    }
+
+    public long arraySize(Class<?> componentType, int length) {
+        return align(arrayHeader + (long) length * fieldSize(componentType));
+    }
+
+    /** A string and its backing array, Latin-1 if every char fits in a byte. */
+    public long stringSize(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return instanceSize(String.class) + arraySize(byte.class, value.length() * bytesPerChar);
+    }
+
+    public boolean isCompressedOops() {
+        return compressedOops;
+    }
+
+    public int getObjectHeader() {
+        return objectHeader;
+    }
+
+    public int getArrayHeader() {
+        return arrayHeader;
+    }
+
+    public int getReferenceSize() {
+        return referenceSize;
+    }
+
+    public int getAlignment() {
+        return alignment;
+    }
+
+    private long computeInstanceSize(Class<?> type) {
+        long wide = 0;
+        long narrow = 0;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                int size = fieldSize(field.getType());
+                if (size == 8) {
+                    wide += size;
+                } else {
+                    narrow += size;
+                }
+            }
+        }
+        long size = objectHeader + wide + narrow;
+        int gap = objectHeader % 8 == 0 ? 0 : 8 - objectHeader % 8;
+        if (wide > 0 && narrow < gap) {
+            // nothing small enough to fill the space before the first 8-byte field
+            size += gap - narrow;
+        }
+        return align(size);
+    }
+
+    private int fieldSize(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return referenceSize;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private long align(long size) {
+        return (size + alignment - 1) / alignment * alignment;
+    }
+}
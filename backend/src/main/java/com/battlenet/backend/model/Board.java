@@ -1,5 +1,8 @@
 package com.battlenet.backend.model;
 
+import com.battlenet.backend.heatmap.Heatmap;
+import com.battlenet.backend.jfr.ShipPlacementEvent;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,6 +10,18 @@ public class Board {
     private int size = 10;
     private Cell[][] grid;
     private List<Ship> ships;
+    private Ship[][] shipAt;
+    private int shipCellsAfloat;
+    // cells covered by ships, bit = x * size + y
+    private long occupiedLo;
+    private long occupiedHi;
+    private int version;
+    private String gameId;
+    private MoveLog moveLog;
+    private int logIndex;
+    private Game owner;
+    // replaced, never modified, after every change
+    private volatile BoardSnapshot snapshot;
 
     public Board() {
         grid = new Cell[size][size];
@@ -14,9 +29,21 @@ public class Board {
             for (int j = 0; j < size; j++)
                 grid[i][j] = new Cell(i, j);
         ships = new ArrayList<>();
+        shipAt = new Ship[size][size];
+        snapshot = BoardSnapshot.empty(size);
     }
 
     public boolean placeShip(Ship ship) {
+        List<Cell> cells = ship.getCells();
+        Cell first = cells.isEmpty() ? null : cells.get(0);
+        return placementEvent(placeCells(ship), ship.getType(),
+                first == null ? -1 : first.getX(), first == null ? -1 : first.getY(), ship.isHorizontal());
+    }
+
+    private boolean placeCells(Ship ship) {
+        long lo = 0L;
+        long hi = 0L;
+        List<Cell> boardCells = new ArrayList<>(ship.getCells().size());
         for (Cell cell : ship.getCells()) {
             int x = cell.getX();
             int y = cell.getY();
@@ -28,45 +55,265 @@ public class Board {
             if (grid[x][y].hasShip()) {
                 return false;
             }
+
+            int bit = x * size + y;
+            if (bit < 64) {
+                lo |= 1L << bit;
+            } else {
+                hi |= 1L << (bit - 64);
+            }
+            boardCells.add(grid[x][y]);
         }
-        
-        ships.add(ship);
-        ship.getCells().forEach(c -> grid[c.getX()][c.getY()].setShip(true));
+
+        // From here on the ship reads hits straight from the board's cells
+        ship.setCells(boardCells);
+        addShip(ship, lo, hi);
         return true;
     }
 
-    public boolean shoot(int x, int y) {
+    public boolean placeShip(Ship.ShipType type, int x, int y, boolean horizontal) {
         if (x < 0 || x >= size || y < 0 || y >= size) {
+            return placementEvent(false, type, x, y, horizontal);
+        }
+        return placeShip(ShipPlacement.encode(type, x, y, horizontal));
+    }
+
+    /**
+     * Places a ship from its {@link ShipPlacement} encoding. The overlap check
+     * uses the precomputed footprint, and the ship's cells are a view over
+     * this board's grid rather than new objects.
+     */
+    public boolean placeShip(int placement) {
+        return placementEvent(placeEncoded(placement), ShipPlacement.type(placement),
+                ShipPlacement.x(placement), ShipPlacement.y(placement), ShipPlacement.horizontal(placement));
+    }
+
+    private boolean placeEncoded(int placement) {
+        if (size != ShipPlacement.BOARD_SIZE || !ShipPlacement.fits(placement)) {
             return false;
         }
+        long lo = ShipPlacement.footprintLo(placement);
+        long hi = ShipPlacement.footprintHi(placement);
+        if ((occupiedLo & lo) != 0 || (occupiedHi & hi) != 0) {
+            return false;
+        }
+
+        Ship.ShipType type = ShipPlacement.type(placement);
+        boolean horizontal = ShipPlacement.horizontal(placement);
+        List<Cell> cells = new ShipCells(grid, ShipPlacement.x(placement), ShipPlacement.y(placement),
+                horizontal, type.getSize());
+        addShip(new Ship(type, cells, horizontal), lo, hi);
+        return true;
+    }
+
+    private boolean placementEvent(boolean accepted, Ship.ShipType type, int x, int y, boolean horizontal) {
+        ShipPlacementEvent event = new ShipPlacementEvent();
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.player = moveLog == null ? 0 : logIndex + 1;
+            event.shipType = type == null ? null : type.name();
+            event.x = x;
+            event.y = y;
+            event.horizontal = horizontal;
+            event.accepted = accepted;
+            event.commit();
+        }
+        return accepted;
+    }
+
+    private void addShip(Ship ship, long lo, long hi) {
+        occupiedLo |= lo;
+        occupiedHi |= hi;
+        ships.add(ship);
+        List<Cell> cells = ship.getCells();
+        for (int i = 0; i < cells.size(); i++) {
+            Cell cell = cells.get(i);
+            cell.setShip(true);
+            shipAt[cell.getX()][cell.getY()] = ship;
+            Heatmap.PLACEMENTS.increment(cell.getX(), cell.getY());
+            if (!cell.isHit()) {
+                shipCellsAfloat++;
+            }
+        }
+        version++;
+        if (moveLog != null) {
+            moveLog.recordPlacement(logIndex, ship);
+        }
+        // logged first, so every move a snapshot includes is already in the log
+        Cell first = cells.isEmpty() ? null : cells.get(0);
+        snapshot = snapshot.withShip(new BoardSnapshot.PlacedShip(ship.getType(),
+                first == null ? -1 : first.getX(), first == null ? -1 : first.getY(),
+                ship.isHorizontal(), cells.size(), lo, hi), version, shipCellsAfloat);
+        if (owner != null) {
+            owner.boardChanged();
+        }
+    }
+
+    public ShotOutcome shoot(int x, int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            return ShotOutcome.OUT_OF_BOUNDS;
+        }
         
         Cell cell = grid[x][y];
         
         if (cell.isHit()) {
-            return false;
+            return ShotOutcome.REPEAT;
         }
         
         cell.markHit();
-        return cell.hasShip();
+        version++;
+        Heatmap.SHOTS.increment(x, y);
+        if (moveLog != null) {
+            moveLog.recordShot(logIndex, x, y, cell.hasShip());
+        }
+        ShotOutcome outcome;
+        Ship ship = shipAt[x][y];
+        if (!cell.hasShip()) {
+            outcome = ShotOutcome.MISS;
+        } else if (ship == null) {
+            outcome = ShotOutcome.HIT;
+        } else {
+            shipCellsAfloat--;
+            outcome = ship.isSunk() ? ShotOutcome.sunk(ship.getType()) : ShotOutcome.HIT;
+        }
+        snapshot = snapshot.withHit(x * size + y, version, shipCellsAfloat);
+        return outcome;
     }
 
-    public boolean allShipsSunk() {
-        for (Ship ship : ships) {
-            if (!ship.isSunk()) {
-                return false;
+    /**
+     * Fires a whole volley, or refuses it without firing any shot when one
+     * is off the board, already shot, or given twice. The shots are gathered
+     * into one mask, checked against the hits and split into hits and misses
+     * against the ships with a few mask operations; ships the volley sank
+     * are those it hit whose footprint is now covered, reported on the last
+     * shot that hit them. The board publishes one snapshot for the volley.
+     */
+    public SalvoOutcome salvo(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Got " + xs.length + " x and " + ys.length + " y coordinates");
+        }
+        long lo = 0L;
+        long hi = 0L;
+        for (int i = 0; i < xs.length; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            if (x < 0 || x >= size || y < 0 || y >= size) {
+                return SalvoOutcome.refused(ShotOutcome.OUT_OF_BOUNDS);
+            }
+            int bit = x * size + y;
+            if (bit < 64 ? (lo & 1L << bit) != 0 : (hi & 1L << (bit - 64)) != 0) {
+                // the same cell twice in one volley
+                return SalvoOutcome.refused(ShotOutcome.REPEAT);
+            }
+            if (bit < 64) {
+                lo |= 1L << bit;
+            } else {
+                hi |= 1L << (bit - 64);
             }
         }
-        return true;
+        BoardSnapshot current = snapshot;
+        if ((lo & current.getHitsLo()) != 0 || (hi & current.getHitsHi()) != 0) {
+            return SalvoOutcome.refused(ShotOutcome.REPEAT);
+        }
+
+        long hitLo = lo & occupiedLo;
+        long hitHi = hi & occupiedHi;
+        ShotOutcome[] outcomes = new ShotOutcome[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            int x = xs[i];
+            int y = ys[i];
+            int bit = x * size + y;
+            boolean hit = bit < 64 ? (hitLo & 1L << bit) != 0 : (hitHi & 1L << (bit - 64)) != 0;
+            grid[x][y].markHit();
+            Heatmap.SHOTS.increment(x, y);
+            if (moveLog != null) {
+                moveLog.recordShot(logIndex, x, y, hit);
+            }
+            outcomes[i] = hit ? ShotOutcome.HIT : ShotOutcome.MISS;
+        }
+        long shotLo = current.getHitsLo() | lo;
+        long shotHi = current.getHitsHi() | hi;
+        for (BoardSnapshot.PlacedShip ship : current.getShips()) {
+            boolean hitNow = (ship.lo() & hitLo) != 0 || (ship.hi() & hitHi) != 0;
+            if (hitNow && (shotLo & ship.lo()) == ship.lo() && (shotHi & ship.hi()) == ship.hi()) {
+                outcomes[lastShotOn(ship, xs, ys)] = ShotOutcome.sunk(ship.type());
+            }
+        }
+        shipCellsAfloat -= Long.bitCount(hitLo) + Long.bitCount(hitHi);
+        version += xs.length;
+        snapshot = current.withHits(lo, hi, version, shipCellsAfloat);
+        return SalvoOutcome.fired(outcomes);
+    }
+
+    private int lastShotOn(BoardSnapshot.PlacedShip ship, int[] xs, int[] ys) {
+        for (int i = xs.length - 1; i >= 0; i--) {
+            if (ship.covers(xs[i] * size + ys[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No shot of the volley hit the ship");
+    }
+
+    // Placements and shots on this board are appended to the game's log
+    void attach(String gameId, MoveLog moveLog, int logIndex) {
+        this.gameId = gameId;
+        this.moveLog = moveLog;
+        this.logIndex = logIndex;
+    }
+
+    // Placements are published to the owning game's snapshot as well; shots go through the game
+    void ownedBy(Game game) {
+        this.owner = game;
+    }
+
+    /**
+     * The board as of its last change. Safe to read from any thread without
+     * locking; unlike {@link #getGrid()} and {@link #getShips()} it never
+     * changes underneath the reader.
+     */
+    public BoardSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public boolean allShipsSunk() {
+        return shipCellsAfloat == 0;
+    }
+
+    // Bumped on every real change to the board (ship placed or new shot)
+    public int getVersion() {
+        return version;
+    }
+
+    /** Cells covered by ships, bits 0-63 (bit = x * size + y). */
+    public long getOccupiedLo() {
+        return occupiedLo;
+    }
+
+    /** Cells covered by ships, bits 64 and up. */
+    public long getOccupiedHi() {
+        return occupiedHi;
     }
 
     public int getSize() {
         return size;
     }
 
+    /** The live grid; only the thread that owns the game may read it while shots are fired. */
     public Cell[][] getGrid() {
         return grid;
     }
 
+    /** Whether a ship of that type is on the board. */
+    public boolean hasShip(Ship.ShipType type) {
+        for (Ship ship : ships) {
+            if (ship.getType() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The live ship list; see {@link #snapshot()} for reading from other threads. */
     public List<Ship> getShips() {
         return ships;
     }
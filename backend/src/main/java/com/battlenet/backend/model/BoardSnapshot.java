@@ -0,0 +1,152 @@
+package com.battlenet.backend.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable state of a board at one version: where the ships are, which
+ * cells have been shot, and the ships themselves. Cells are bits in two
+ * longs (bit = x * size + y), so a shot produces a new snapshot that shares
+ * the ship list with the previous one and differs only in its hit mask.
+ */
+public final class BoardSnapshot {
+
+    /** A ship as placed: its type (null for untyped ships), first cell and footprint. */
+    public record PlacedShip(Ship.ShipType type, int x, int y, boolean horizontal, int size, long lo, long hi) {
+
+        public boolean isSunk(BoardSnapshot board) {
+            return (board.hitsLo & lo) == lo && (board.hitsHi & hi) == hi;
+        }
+
+        public boolean covers(int bit) {
+            return bit < 64 ? (lo & 1L << bit) != 0 : (hi & 1L << (bit - 64)) != 0;
+        }
+    }
+
+    private final int size;
+    private final int version;
+    private final long shipsLo;
+    private final long shipsHi;
+    private final long hitsLo;
+    private final long hitsHi;
+    private final int shipCellsAfloat;
+    private final List<PlacedShip> ships;
+
+    private BoardSnapshot(int size, int version, long shipsLo, long shipsHi, long hitsLo, long hitsHi,
+                          int shipCellsAfloat, List<PlacedShip> ships) {
+        this.size = size;
+        this.version = version;
+        this.shipsLo = shipsLo;
+        this.shipsHi = shipsHi;
+        this.hitsLo = hitsLo;
+        this.hitsHi = hitsHi;
+        this.shipCellsAfloat = shipCellsAfloat;
+        this.ships = ships;
+    }
+
+    static BoardSnapshot empty(int size) {
+        return new BoardSnapshot(size, 0, 0L, 0L, 0L, 0L, 0, List.of());
+    }
+
+    BoardSnapshot withShip(PlacedShip ship, int version, int shipCellsAfloat) {
+        List<PlacedShip> placed = new ArrayList<>(ships.size() + 1);
+        placed.addAll(ships);
+        placed.add(ship);
+        return new BoardSnapshot(size, version, shipsLo | ship.lo(), shipsHi | ship.hi(), hitsLo, hitsHi,
+                shipCellsAfloat, Collections.unmodifiableList(placed));
+    }
+
+    BoardSnapshot withHit(int bit, int version, int shipCellsAfloat) {
+        long lo = bit < 64 ? 1L << bit : 0L;
+        long hi = bit < 64 ? 0L : 1L << (bit - 64);
+        return withHits(lo, hi, version, shipCellsAfloat);
+    }
+
+    // Several cells shot at once, as by a salvo
+    BoardSnapshot withHits(long lo, long hi, int version, int shipCellsAfloat) {
+        return new BoardSnapshot(size, version, shipsLo, shipsHi, hitsLo | lo, hitsHi | hi, shipCellsAfloat, ships);
+    }
+
+    private int bit(int x, int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") is off the board");
+        }
+        return x * size + y;
+    }
+
+    private static boolean test(long lo, long hi, int bit) {
+        return bit < 64 ? (lo & 1L << bit) != 0 : (hi & 1L << (bit - 64)) != 0;
+    }
+
+    public boolean isHit(int x, int y) {
+        return test(hitsLo, hitsHi, bit(x, y));
+    }
+
+    public boolean hasShip(int x, int y) {
+        return test(shipsLo, shipsHi, bit(x, y));
+    }
+
+    /** Same values as {@link Cell#getState()}: HIT, MISS, SHIP or EMPTY. */
+    public String cellState(int x, int y) {
+        int bit = bit(x, y);
+        boolean hit = test(hitsLo, hitsHi, bit);
+        boolean ship = test(shipsLo, shipsHi, bit);
+        if (hit && ship) {
+            return "HIT";
+        } else if (hit) {
+            return "MISS";
+        } else if (ship) {
+            return "SHIP";
+        } else {
+            return "EMPTY";
+        }
+    }
+
+    /** The ship covering the cell, or null. */
+    public PlacedShip shipAt(int x, int y) {
+        int bit = bit(x, y);
+        for (PlacedShip ship : ships) {
+            if (ship.covers(bit)) {
+                return ship;
+            }
+        }
+        return null;
+    }
+
+    public List<PlacedShip> getShips() {
+        return ships;
+    }
+
+    public boolean allShipsSunk() {
+        return shipCellsAfloat == 0;
+    }
+
+    public int getShotCount() {
+        return Long.bitCount(hitsLo) + Long.bitCount(hitsHi);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getShipsLo() {
+        return shipsLo;
+    }
+
+    public long getShipsHi() {
+        return shipsHi;
+    }
+
+    public long getHitsLo() {
+        return hitsLo;
+    }
+
+    public long getHitsHi() {
+        return hitsHi;
+    }
+}
@@ -0,0 +1,68 @@
+package com.battlenet.backend.model;
+
+/**
+ * What is kept of a game once it has finished: its mode, who played, who
+ * won, the shot counts, each final board as ship and hit bitmasks
+ * (bit = x * 10 + y) and the move log packed one {@code short} per move. That is enough to
+ * answer the info endpoint and the replay export exactly as the full game
+ * did, in a few hundred bytes instead of the players, boards, cells and
+ * ships.
+ */
+public record FinishedGame(String gameId, Game.Mode mode, Side player1, Side player2, boolean player1Turn,
+                           int winner, int version, short[] moves) {
+
+    /** One player, their seat token, and the final state of their board. */
+    public record Side(String id, String token, String name, boolean ready, int ships, int shots,
+                       long shipsLo, long shipsHi, long hitsLo, long hitsHi) {
+
+        public boolean allShipsPlaced() {
+            return ships == Ship.ShipType.values().length;
+        }
+    }
+
+    /** Summary of a finished game, read from its latest snapshot. */
+    public static FinishedGame of(Game game) {
+        GameSnapshot snapshot = game.snapshot();
+        if (!snapshot.isGameOver()) {
+            throw new IllegalStateException("Game " + game.getGameId() + " has not finished");
+        }
+        MoveLog log = game.getMoveLog();
+        short[] moves = new short[Math.min(log.size(), snapshot.moveCount())];
+        for (int i = 0; i < moves.length; i++) {
+            // events use bits 0-14
+            moves[i] = (short) log.get(i);
+        }
+        return new FinishedGame(snapshot.gameId(), game.getMode(),
+                side(game.getPlayer1(), snapshot.board1(), snapshot.player1Shots()),
+                side(game.getPlayer2(), snapshot.board2(), snapshot.player2Shots()),
+                snapshot.player1Turn(), snapshot.winner(), snapshot.version(), moves);
+    }
+
+    private static Side side(Player player, BoardSnapshot board, int shots) {
+        return new Side(player.getId(), player.getToken(), player.getName(), player.isReady(), board.getShips().size(), shots,
+                board.getShipsLo(), board.getShipsHi(), board.getHitsLo(), board.getHitsHi());
+    }
+
+    public Side side(int player) {
+        return player == 1 ? player1 : player2;
+    }
+
+    /** Name of the winner, or null if the game was ended without one. */
+    public String winnerName() {
+        return winner == 0 ? null : side(winner).name();
+    }
+
+    /** Name of the player whose turn it was when the game ended. */
+    public String currentPlayerName() {
+        return player1Turn ? player1.name() : player2.name();
+    }
+
+    /** A fresh log holding the game's moves, for code that reads {@link MoveLog}s. */
+    public MoveLog moveLog() {
+        int[] events = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            events[i] = moves[i];
+        }
+        return new MoveLog(events);
+    }
+}
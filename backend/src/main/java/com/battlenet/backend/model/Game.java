@@ -1,12 +1,46 @@
 package com.battlenet.backend.model;
 
+import com.battlenet.backend.jfr.GameFinishedEvent;
+import com.battlenet.backend.jfr.GameStartedEvent;
+import com.battlenet.backend.jfr.ShotEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Game state, whose turn it is and the winner live in a single int that only
+ * changes through compare-and-set transitions, so readers never block and
+ * never see a torn combination. A writer (a shot, a state transition or a
+ * ship placement) first claims the word by setting {@link #CLAIMED}; the
+ * boards are only touched by the claiming thread, which publishes a new
+ * {@link GameSnapshot} and then clears the flag with the transition that
+ * makes its result visible. A writer that throws, even an {@link Error},
+ * clears the flag and leaves the word as it was.
+ */
 public class Game {
+    // status word: state ordinal (bits 0-1), player 2 to move (bit 2),
+    // winner (bits 3-4: 0 none, 1 or 2), claimed by a writer (bit 5),
+    // change counter (bits 6-31)
+    private static final int STATE_MASK = 0b11;
+    private static final int PLAYER2_TURN = 1 << 2;
+    private static final int WINNER_SHIFT = 3;
+    private static final int WINNER_MASK = 0b11 << WINNER_SHIFT;
+    private static final int CLAIMED = 1 << 5;
+    private static final int CHANGE = 1 << 6;
+    private static final GameState[] STATES = GameState.values();
+
     private String gameId;
+    private final Mode mode;
     private Player player1;
     private Player player2;
-    private boolean player1Turn;
-    private GameState state;
-    private Player winner;
+    private final AtomicInteger status = new AtomicInteger(GameState.SETUP.ordinal());
+    private final MoveLog moveLog = new MoveLog();
+    // only written by the thread holding CLAIMED
+    private int player1Shots;
+    private int player2Shots;
+    private GameListener listener = GameListener.NONE;
+    private volatile GameSnapshot snapshot;
 
     public enum GameState {
         SETUP,      
@@ -14,48 +48,367 @@ public class Game {
         FINISHED   
     }
 
+    /**
+     * CLASSIC: one shot per turn, and the turn passes on a miss. SALVO: one
+     * shot per ship the player still has afloat, all fired together, and
+     * the turn passes after every salvo.
+     */
+    public enum Mode {
+        CLASSIC,
+        SALVO
+    }
+
     public Game(String gameId, String name1, String name2) {
+        this(gameId, name1, name2, Mode.CLASSIC);
+    }
+
+    public Game(String gameId, String name1, String name2, Mode mode) {
         this.gameId = gameId;
+        this.mode = mode;
         this.player1 = new Player(name1);
         this.player2 = new Player(name2);
-        this.player1Turn = true;
-        this.state = GameState.SETUP;
-        this.winner = null;
+        this.player1.getBoard().attach(gameId, moveLog, 0);
+        this.player2.getBoard().attach(gameId, moveLog, 1);
+        this.player1.getBoard().ownedBy(this);
+        this.player2.getBoard().ownedBy(this);
+        publish(status.get());
+    }
+
+    private static GameState state(int word) {
+        return STATES[word & STATE_MASK];
     }
 
-    public String shoot(int x, int y) {
-        if (state != GameState.PLAYING) {
-            return "Game not ready!";
+    private static boolean player1Turn(int word) {
+        return (word & PLAYER2_TURN) == 0;
+    }
+
+    public ShotOutcome shoot(int x, int y) {
+        return fire(0, x, y);
+    }
+
+    /** Shot fired by the given player (1 or 2), rejected when it is not their turn. */
+    public ShotOutcome shoot(int player, int x, int y) {
+        return fire(player, x, y);
+    }
+
+    private ShotOutcome fire(int player, int x, int y) {
+        if (mode == Mode.SALVO) {
+            return ShotOutcome.SALVO_ONLY;
         }
+        ShotEvent event = new ShotEvent();
+        event.begin();
+        ShotOutcome outcome = resolve(player, x, y);
+        if (event.shouldCommit()) {
+            event.gameId = gameId;
+            event.player = player;
+            event.x = x;
+            event.y = y;
+            event.outcome = outcome.getType().name();
+            event.commit();
+        }
+        return outcome;
+    }
 
+    private ShotOutcome resolve(int player, int x, int y) {
+        int claimed = claim(word -> refuseShot(player, word) != null);
+        if ((claimed & CLAIMED) == 0) {
+            return refuseShot(player, claimed);
+        }
+
+        boolean player1Turn = player1Turn(claimed);
         Player target = player1Turn ? player2 : player1;
-        boolean hit = target.getBoard().shoot(x, y);
-        
-        if (hit) {
-            if (target.getBoard().allShipsSunk()) {
-                state = GameState.FINISHED;
-                winner = player1Turn ? player1 : player2;
-                return "Hit! Game Over! " + winner.getName() + " wins!";
+        ShotOutcome outcome;
+        // the word the claim is released to: unchanged unless the shot is published
+        int released = claimed & ~CLAIMED;
+        try {
+            outcome = target.getBoard().shoot(x, y);
+            if (!outcome.isFired()) {
+                return outcome;
+            }
+
+            if (player1Turn) {
+                player1Shots++;
+            } else {
+                player2Shots++;
+            }
+            int next = released + CHANGE;
+            if (outcome.getType() == ShotOutcome.Type.MISS) {
+                next ^= PLAYER2_TURN;
+            } else if (outcome.getType() == ShotOutcome.Type.SUNK && target.getBoard().allShipsSunk()) {
+                int winner = player1Turn ? 1 : 2;
+                next = (next & ~STATE_MASK) | GameState.FINISHED.ordinal() | winner << WINNER_SHIFT;
+                outcome = ShotOutcome.win(outcome.getShipType());
+            }
+            publish(next);
+            released = next;
+        } finally {
+            // whatever was thrown, an Error too, or every other writer spins on the claim forever
+            release(claimed, released);
+        }
+        if (outcome.getType() == ShotOutcome.Type.WIN) {
+            stateChanged(GameState.PLAYING);
+        }
+        return outcome;
+    }
+
+    // Why the player may not shoot in this status word, or null. The turn is only settled once unclaimed.
+    private static ShotOutcome refuseShot(int player, int word) {
+        if (state(word) != GameState.PLAYING) {
+            return ShotOutcome.NOT_PLAYING;
+        }
+        if ((word & CLAIMED) == 0 && player != 0 && (player == 1) != player1Turn(word)) {
+            return ShotOutcome.NOT_YOUR_TURN;
+        }
+        return null;
+    }
+
+    /**
+     * A salvo fired by the given player (1 or 2, or 0 for whoever is to
+     * move) at the cells {@code (xs[i], ys[i])}: one shot for each of their
+     * ships still afloat, or for each cell left when fewer are unshot (see
+     * {@link #getSalvoSize()}). The volley is resolved against the opposing
+     * board in one pass and published as one change; the turn then passes,
+     * unless the volley won the game. A refused volley fires nothing.
+     */
+    public SalvoOutcome salvo(int player, int[] xs, int[] ys) {
+        if (mode != Mode.SALVO) {
+            return SalvoOutcome.refused(ShotOutcome.SINGLE_SHOTS_ONLY);
+        }
+        // the volley's shots resolve together, so each shot's event times the whole volley
+        ShotEvent[] events = new ShotEvent[xs.length];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new ShotEvent();
+            events[i].begin();
+        }
+        int claimed = claim(word -> refuseShot(player, word) != null);
+        if ((claimed & CLAIMED) == 0) {
+            return SalvoOutcome.refused(refuseShot(player, claimed));
+        }
+
+        boolean player1Turn = player1Turn(claimed);
+        Board own = (player1Turn ? player1 : player2).getBoard();
+        Board target = (player1Turn ? player2 : player1).getBoard();
+        SalvoOutcome outcome;
+        int released = claimed & ~CLAIMED;
+        try {
+            outcome = xs.length != salvoSize(own.snapshot(), target.snapshot())
+                    ? SalvoOutcome.refused(ShotOutcome.WRONG_SALVO_SIZE)
+                    : target.salvo(xs, ys);
+            if (!outcome.isFired()) {
+                return outcome;
+            }
+
+            if (player1Turn) {
+                player1Shots += xs.length;
+            } else {
+                player2Shots += xs.length;
+            }
+            int next = released + CHANGE;
+            if (target.allShipsSunk()) {
+                int winner = player1Turn ? 1 : 2;
+                next = (next & ~STATE_MASK) | GameState.FINISHED.ordinal() | winner << WINNER_SHIFT;
+                outcome.win();
+            } else {
+                next ^= PLAYER2_TURN;
+            }
+            publish(next);
+            released = next;
+        } finally {
+            release(claimed, released);
+        }
+        List<ShotOutcome> shots = outcome.getShots();
+        for (int i = 0; i < shots.size(); i++) {
+            ShotEvent event = events[i];
+            if (event.shouldCommit()) {
+                event.gameId = gameId;
+                event.player = player1Turn ? 1 : 2;
+                event.x = xs[i];
+                event.y = ys[i];
+                event.outcome = shots.get(i).getType().name();
+                event.commit();
+            }
+        }
+        if (outcome.isWin()) {
+            stateChanged(GameState.PLAYING);
+        }
+        return outcome;
+    }
+
+    /**
+     * Shots the player to move must fire in their next salvo. Read from the
+     * latest snapshot, so it is safe from any thread.
+     */
+    public int getSalvoSize() {
+        GameSnapshot current = snapshot;
+        return current.player1Turn()
+                ? salvoSize(current.board1(), current.board2())
+                : salvoSize(current.board2(), current.board1());
+    }
+
+    private static int salvoSize(BoardSnapshot own, BoardSnapshot target) {
+        int afloat = 0;
+        for (BoardSnapshot.PlacedShip ship : own.getShips()) {
+            if (!ship.isSunk(own)) {
+                afloat++;
+            }
+        }
+        int unshot = target.getSize() * target.getSize() - target.getShotCount();
+        return Math.min(afloat, unshot);
+    }
+
+    // Spins while another writer holds the game
+    private int claim() {
+        return claim(word -> false);
+    }
+
+    // Claims the game unless refused says no to the status word first, and then returns that word
+    // unclaimed. Refusals are checked on every read, claimed or not: the other writer takes
+    // nanoseconds, and may change the turn or the state while this one spins
+    private int claim(IntPredicate refused) {
+        while (true) {
+            int word = status.get();
+            if (refused.test(word)) {
+                return word & ~CLAIMED;
+            }
+            if ((word & CLAIMED) != 0) {
+                Thread.onSpinWait();
+            } else if (status.compareAndSet(word, word | CLAIMED)) {
+                return word | CLAIMED;
             }
-            return "Hit!";
-        } else {
-            player1Turn = !player1Turn;
-            return "Miss!";
         }
     }
 
+    // Every claim is released exactly once, from a finally, and every other writer waits while CLAIMED
+    // is set, so the claim is still held here. The assert only catches a broken invariant; it doesn't
+    // throw from the finally, where it would hide whatever the claim's holder threw
+    private void release(int claimed, int next) {
+        boolean released = status.compareAndSet(claimed, next);
+        assert released : "Game status changed while a shot was in progress";
+    }
+
     public boolean isGameOver() {
-        return state == GameState.FINISHED;
+        return getState() == GameState.FINISHED;
+    }
+
+    /** SETUP to PLAYING; false if the game has already started or finished. */
+    public boolean startGame() {
+        return setState(GameState.PLAYING);
+    }
+
+    /**
+     * Moves the game to {@code state} if the transition is legal: SETUP to
+     * PLAYING, or SETUP or PLAYING to FINISHED (ending it without a winner).
+     * Returns false, leaving the game unchanged, for any other transition.
+     */
+    public boolean setState(GameState state) {
+        return transition(state, 0);
+    }
+
+    /**
+     * Ends the game with the other player as winner, as when {@code player}
+     * (1 or 2) walks away. False if the game has already finished.
+     */
+    public boolean forfeit(int player) {
+        return transition(GameState.FINISHED, player == 1 ? 2 : 1);
+    }
+
+    private boolean transition(GameState state, int winner) {
+        while (true) {
+            int word = status.get();
+            GameState previous = state(word);
+            boolean legal = state == GameState.PLAYING
+                    ? previous == GameState.SETUP
+                    : state == GameState.FINISHED && previous != GameState.FINISHED;
+            if (!legal) {
+                return false;
+            }
+            if ((word & CLAIMED) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (status.compareAndSet(word, word | CLAIMED)) {
+                int next = ((word & ~STATE_MASK) | state.ordinal() | winner << WINNER_SHIFT) + CHANGE;
+                int released = word;
+                try {
+                    publish(next);
+                    released = next;
+                } finally {
+                    release(word | CLAIMED, released);
+                }
+                stateChanged(previous);
+                return true;
+            }
+        }
+    }
+
+    private void stateChanged(GameState previous) {
+        GameState state = getState();
+        if (state == GameState.PLAYING) {
+            GameStartedEvent event = new GameStartedEvent();
+            if (event.shouldCommit()) {
+                event.gameId = gameId;
+                event.commit();
+            }
+        } else if (state == GameState.FINISHED) {
+            GameFinishedEvent event = new GameFinishedEvent();
+            if (event.shouldCommit()) {
+                Player winner = getWinner();
+                event.gameId = gameId;
+                event.winner = winner == null ? 0 : winner == player1 ? 1 : 2;
+                event.player1Shots = player1Shots;
+                event.player2Shots = player2Shots;
+                event.commit();
+            }
+        }
+        listener.onStateChanged(this, previous);
+    }
+
+    // A ship was placed on one of the boards
+    void boardChanged() {
+        int claimed = claim();
+        try {
+            publish(claimed & ~CLAIMED);
+        } finally {
+            release(claimed, claimed & ~CLAIMED);
+        }
+    }
+
+    // Called with the game claimed (or before it is shared), so snapshots are published in order
+    private void publish(int word) {
+        int winner = (word & WINNER_MASK) >>> WINNER_SHIFT;
+        snapshot = new GameSnapshot(gameId, state(word), player1Turn(word), winner,
+                player1Shots, player2Shots, version(word),
+                player1.getBoard().snapshot(), player2.getBoard().snapshot());
     }
 
-    public void startGame() {
-        this.state = GameState.PLAYING;
+    /**
+     * The game as of its last change, readable from any thread without
+     * locking and without copying the boards.
+     */
+    public GameSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Version of the whole game: changes whenever the game, its players or
+     * their boards change, so cached views of the game can be validated.
+     */
+    public int getVersion() {
+        return version(status.get());
+    }
+
+    private int version(int word) {
+        return (word >>> 6) + player1.getVersion() + player2.getVersion();
     }
 
     public String getGameId() {
         return gameId;
     }
 
+    public Mode getMode() {
+        return mode;
+    }
+
     public Player getPlayer1() {
         return player1;
     }
@@ -65,26 +418,43 @@ public class Game {
     }
 
     public boolean isPlayer1Turn() {
-        return player1Turn;
+        return player1Turn(status.get());
     }
 
     public GameState getState() {
-        return state;
+        return state(status.get());
+    }
+
+    public int getPlayer1Shots() {
+        return player1Shots;
+    }
+
+    public int getPlayer2Shots() {
+        return player2Shots;
+    }
+
+    public void addListener(GameListener listener) {
+        this.listener = GameListener.both(this.listener, listener);
+    }
+
+    public GameListener getListener() {
+        return listener;
     }
 
-    public void setState(GameState state) {
-        this.state = state;
+    public MoveLog getMoveLog() {
+        return moveLog;
     }
 
     public Player getWinner() {
-        return winner;
+        int winner = (status.get() & WINNER_MASK) >>> WINNER_SHIFT;
+        return winner == 0 ? null : winner == 1 ? player1 : player2;
     }
 
     public Player getCurrentPlayer() {
-        return player1Turn ? player1 : player2;
+        return isPlayer1Turn() ? player1 : player2;
     }
 
     public Player getOpponent() {
-        return player1Turn ? player2 : player1;
+        return isPlayer1Turn() ? player2 : player1;
     }
 }
\ No newline at end of file
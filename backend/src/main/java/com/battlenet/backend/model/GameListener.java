@@ -0,0 +1,27 @@
+package com.battlenet.backend.model;
+
+/**
+ * Callback for game lifecycle changes. Methods are invoked on the thread
+ * that made the change, after the game has been updated.
+ */
+public interface GameListener {
+    GameListener NONE = new GameListener() {
+    };
+
+    default void onStateChanged(Game game, Game.GameState previous) {
+    }
+
+    /** Listener that notifies {@code first} and then {@code second}. */
+    static GameListener both(GameListener first, GameListener second) {
+        if (first == NONE) {
+            return second;
+        }
+        return new GameListener() {
+            @Override
+            public void onStateChanged(Game game, Game.GameState previous) {
+                first.onStateChanged(game, previous);
+                second.onStateChanged(game, previous);
+            }
+        };
+    }
+}
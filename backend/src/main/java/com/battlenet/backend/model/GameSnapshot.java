@@ -0,0 +1,26 @@
+package com.battlenet.backend.model;
+
+/**
+ * Immutable state of a game at one version, taken by the thread that made
+ * the change while it still held the game, so the state, turn, winner, shot
+ * counts and both boards always belong together. Winner is 0 (none), 1 or 2.
+ */
+public record GameSnapshot(String gameId, Game.GameState state, boolean player1Turn, int winner,
+                           int player1Shots, int player2Shots, int version,
+                           BoardSnapshot board1, BoardSnapshot board2) {
+
+    public boolean isGameOver() {
+        return state == Game.GameState.FINISHED;
+    }
+
+    /** Placements and shots this snapshot includes: a prefix of the game's {@link MoveLog}. */
+    public int moveCount() {
+        return board1.getShips().size() + board2.getShips().size()
+                + board1.getShotCount() + board2.getShotCount();
+    }
+
+    /** The board owned by player 1 or 2. */
+    public BoardSnapshot board(int player) {
+        return player == 1 ? board1 : board2;
+    }
+}
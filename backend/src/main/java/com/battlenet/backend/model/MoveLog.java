@@ -0,0 +1,101 @@
+package com.battlenet.backend.model;
+
+/**
+ * Ordered record of the placements and shots of one game. Each event is
+ * packed into a single int so recording a move costs one array store.
+ * <p>
+ * Writers append from the game's request thread; readers may iterate
+ * concurrently and see a consistent prefix of the log.
+ */
+public class MoveLog {
+    public static final int PLACEMENT = 0;
+    public static final int SHOT = 1;
+
+    private static final int INITIAL_CAPACITY = 32;
+    private static final Ship.ShipType[] SHIP_TYPES = Ship.ShipType.values();
+
+    private volatile int[] events;
+    private volatile int size;
+
+    public MoveLog() {
+        this.events = new int[INITIAL_CAPACITY];
+    }
+
+    /** A log already holding {@code events}, as kept by {@link FinishedGame}. */
+    MoveLog(int[] events) {
+        this.events = events.length == 0 ? new int[INITIAL_CAPACITY] : events;
+        this.size = events.length;
+    }
+
+    // bits: 0 kind | 1 board (0 = player1, 1 = player2) | 2-5 x | 6-9 y
+    //       10-12 ship type ordinal + 1 (0 = untyped) | 13 horizontal | 14 hit
+    void recordPlacement(int board, Ship ship) {
+        if (ship.getCells().isEmpty()) {
+            return;
+        }
+        Cell first = ship.getCells().get(0);
+        int type = ship.getType() == null ? 0 : ship.getType().ordinal() + 1;
+        append(PLACEMENT | board << 1 | first.getX() << 2 | first.getY() << 6
+                | type << 10 | (ship.isHorizontal() ? 1 << 13 : 0));
+    }
+
+    void recordShot(int board, int x, int y, boolean hit) {
+        append(SHOT | board << 1 | x << 2 | y << 6 | (hit ? 1 << 14 : 0));
+    }
+
+    private synchronized void append(int event) {
+        int[] current = events;
+        int n = size;
+        if (n == current.length) {
+            int[] grown = new int[n * 2];
+            System.arraycopy(current, 0, grown, 0, n);
+            current = grown;
+            events = grown;
+        }
+        current[n] = event;
+        size = n + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Packed event at the given position; decode it with the static accessors. */
+    public int get(int index) {
+        int n = size;
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return events[index];
+    }
+
+    public static int kind(int event) {
+        return event & 1;
+    }
+
+    /** 1 or 2: the player who owns the board the event happened on. */
+    public static int boardOwner(int event) {
+        return ((event >>> 1) & 1) + 1;
+    }
+
+    public static int x(int event) {
+        return (event >>> 2) & 0xF;
+    }
+
+    public static int y(int event) {
+        return (event >>> 6) & 0xF;
+    }
+
+    public static Ship.ShipType shipType(int event) {
+        int type = (event >>> 10) & 0x7;
+        return type == 0 ? null : SHIP_TYPES[type - 1];
+    }
+
+    public static boolean horizontal(int event) {
+        return (event & 1 << 13) != 0;
+    }
+
+    public static boolean hit(int event) {
+        return (event & 1 << 14) != 0;
+    }
+}
@@ -1,10 +1,20 @@
 package com.battlenet.backend.model;
 
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
 public class Player {
+    /** Prefix of the ids given to players who start a game without one. */
+    public static final String GUEST_PREFIX = "guest-";
+    private static final SecureRandom TOKENS = new SecureRandom();
+
     private String id;
+    private String token;
     private String name;
     private Board board;
     private boolean ready;
+    private int version;
 
     public Player(String name) {
         this.name = name;
@@ -19,10 +29,40 @@ public class Player {
         this.ready = false;
     }
 
+    /**
+     * A new guest id: a valid player id the client can keep and send back to
+     * find the player's games again. Guests are not rated or ranked.
+     */
+    public static String newGuestId() {
+        return GUEST_PREFIX + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    /**
+     * A new seat token: the secret that proves a caller sits in this seat. Unlike the id it is
+     * handed out once, to whoever created the game, and never shown to anyone else.
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[16];
+        TOKENS.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static boolean isGuestId(String id) {
+        return id != null && id.startsWith(GUEST_PREFIX);
+    }
+
     public boolean placeShip(Ship ship) {
         return board.placeShip(ship);
     }
 
+    /** Places one ship of the fleet; false if it doesn't fit, or a ship of that type is already placed. */
+    public boolean placeShip(Ship.ShipType type, int x, int y, boolean horizontal) {
+        if (board.hasShip(type)) {
+            return false;
+        }
+        return board.placeShip(type, x, y, horizontal);
+    }
+
     public boolean allShipsPlaced() {
         return board.getShips().size() == 5;
     }
@@ -34,18 +74,32 @@ public class Player {
 
     public void setId(String id) {
         this.id = id;
+        version++;
     }
 
     public Board getBoard() {
         return board;
     }
 
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
     public String getName() {
         return name;
     }
 
     public void setName(String name) {
         this.name = name;
+        version++;
+    }
+
+    public int getVersion() {
+        return version + board.getVersion();
     }
 
     public boolean isReady() {
@@ -54,5 +108,6 @@ public class Player {
 
     public void setReady(boolean ready) {
         this.ready = ready;
+        version++;
     }
 }
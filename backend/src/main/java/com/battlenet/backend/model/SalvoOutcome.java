@@ -0,0 +1,90 @@
+package com.battlenet.backend.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a salvo: either refused as a whole, with the reason and no shot
+ * fired, or fired, with the outcome of each shot in the order the shots
+ * were given. A ship sunk by the volley is reported on the last of its
+ * shots that hit it; the one that ends the game is a WIN.
+ */
+public final class SalvoOutcome {
+    private final ShotOutcome refusal;
+    private final ShotOutcome[] shots;
+
+    private SalvoOutcome(ShotOutcome refusal, ShotOutcome[] shots) {
+        this.refusal = refusal;
+        this.shots = shots;
+    }
+
+    static SalvoOutcome refused(ShotOutcome reason) {
+        return new SalvoOutcome(reason, new ShotOutcome[0]);
+    }
+
+    static SalvoOutcome fired(ShotOutcome[] shots) {
+        return new SalvoOutcome(null, shots);
+    }
+
+    // The volley sank the last ship: its sinking shot becomes the win. Only before the outcome is returned.
+    void win() {
+        for (int i = shots.length - 1; i >= 0; i--) {
+            if (shots[i].getType() == ShotOutcome.Type.SUNK) {
+                shots[i] = ShotOutcome.win(shots[i].getShipType());
+                return;
+            }
+        }
+    }
+
+    /** True when the volley was fired; false when it was refused and nothing changed. */
+    public boolean isFired() {
+        return refusal == null;
+    }
+
+    /** Why the volley was refused, or null if it was fired. */
+    public ShotOutcome getRefusal() {
+        return refusal;
+    }
+
+    /** Outcome of each shot, in the order given; empty when refused. */
+    public List<ShotOutcome> getShots() {
+        return Collections.unmodifiableList(Arrays.asList(shots));
+    }
+
+    /** Types of the ships the volley sank, in the order of their sinking shots. */
+    public List<Ship.ShipType> getSunkShips() {
+        List<Ship.ShipType> sunk = new ArrayList<>();
+        for (ShotOutcome shot : shots) {
+            if (shot.getType() == ShotOutcome.Type.SUNK || shot.getType() == ShotOutcome.Type.WIN) {
+                sunk.add(shot.getShipType());
+            }
+        }
+        return sunk;
+    }
+
+    public boolean isWin() {
+        for (ShotOutcome shot : shots) {
+            if (shot.getType() == ShotOutcome.Type.WIN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getHits() {
+        int hits = 0;
+        for (ShotOutcome shot : shots) {
+            if (shot.isHit()) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Override
+    public String toString() {
+        return refusal != null ? "REFUSED(" + refusal + ")" : Arrays.toString(shots);
+    }
+}
@@ -0,0 +1,38 @@
+package com.battlenet.backend.model;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The cells of a straight ship as a read-only view over the board grid, so
+ * a ship placed from a {@link ShipPlacement} allocates no cells of its own
+ * and sees exactly the hits recorded on the board.
+ */
+final class ShipCells extends AbstractList<Cell> implements RandomAccess {
+    private final Cell[][] grid;
+    private final int x;
+    private final int y;
+    private final boolean horizontal;
+    private final int length;
+
+    ShipCells(Cell[][] grid, int x, int y, boolean horizontal, int length) {
+        this.grid = grid;
+        this.x = x;
+        this.y = y;
+        this.horizontal = horizontal;
+        this.length = length;
+    }
+
+    @Override
+    public Cell get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return horizontal ? grid[x][y + index] : grid[x + index][y];
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+}
@@ -0,0 +1,103 @@
+package com.battlenet.backend.model;
+
+/**
+ * A ship placement packed into one int: {@code x | y << 8 | horizontal << 16
+ * | type ordinal << 20}. The low 17 bits match the positions produced by
+ * {@link com.battlenet.backend.placement.FleetPlacer}.
+ * <p>
+ * Every placement on a standard board has a precomputed 128-bit footprint
+ * (two longs, bit = x * size + y), so checking a placement against the
+ * occupied cells of a board is two ANDs.
+ */
+public final class ShipPlacement {
+    public static final int BOARD_SIZE = 10;
+    private static final Ship.ShipType[] TYPES = Ship.ShipType.values();
+
+    // indexed by slot(): ((type * 2 + horizontal) * BOARD_SIZE + x) * BOARD_SIZE + y
+    private static final long[] FOOTPRINT_LO = new long[TYPES.length * 2 * BOARD_SIZE * BOARD_SIZE];
+    private static final long[] FOOTPRINT_HI = new long[FOOTPRINT_LO.length];
+    private static final boolean[] FITS = new boolean[FOOTPRINT_LO.length];
+
+    static {
+        for (Ship.ShipType type : TYPES) {
+            for (int h = 0; h <= 1; h++) {
+                for (int x = 0; x < BOARD_SIZE; x++) {
+                    for (int y = 0; y < BOARD_SIZE; y++) {
+                        int length = type.getSize();
+                        if ((h == 1 ? y : x) + length > BOARD_SIZE) {
+                            continue;
+                        }
+                        int slot = slot(type.ordinal(), h, x, y);
+                        for (int i = 0; i < length; i++) {
+                            int bit = h == 1 ? x * BOARD_SIZE + y + i : (x + i) * BOARD_SIZE + y;
+                            if (bit < 64) {
+                                FOOTPRINT_LO[slot] |= 1L << bit;
+                            } else {
+                                FOOTPRINT_HI[slot] |= 1L << (bit - 64);
+                            }
+                        }
+                        FITS[slot] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private ShipPlacement() {
+    }
+
+    private static int slot(int type, int h, int x, int y) {
+        return ((type * 2 + h) * BOARD_SIZE + x) * BOARD_SIZE + y;
+    }
+
+    private static int slot(int placement) {
+        return slot(typeOrdinal(placement), horizontal(placement) ? 1 : 0, x(placement), y(placement));
+    }
+
+    /** Coordinates must be in 0..255; use {@link #fits(int)} to check the result against the board. */
+    public static int encode(Ship.ShipType type, int x, int y, boolean horizontal) {
+        if ((x | y) >>> 8 != 0) {
+            throw new IllegalArgumentException("Coordinates out of range: " + x + "," + y);
+        }
+        return x | y << 8 | (horizontal ? 1 << 16 : 0) | type.ordinal() << 20;
+    }
+
+    /** True when the whole ship lies on a standard board. */
+    public static boolean fits(int placement) {
+        return typeOrdinal(placement) < TYPES.length
+                && x(placement) < BOARD_SIZE && y(placement) < BOARD_SIZE
+                && FITS[slot(placement)];
+    }
+
+    /** Footprint bits 0-63; only meaningful when {@link #fits(int)}. */
+    public static long footprintLo(int placement) {
+        return FOOTPRINT_LO[slot(placement)];
+    }
+
+    /** Footprint bits 64-99; only meaningful when {@link #fits(int)}. */
+    public static long footprintHi(int placement) {
+        return FOOTPRINT_HI[slot(placement)];
+    }
+
+    public static int x(int placement) {
+        return placement & 0xFF;
+    }
+
+    public static int y(int placement) {
+        return (placement >>> 8) & 0xFF;
+    }
+
+    public static boolean horizontal(int placement) {
+        return (placement & 1 << 16) != 0;
+    }
+
+    private static int typeOrdinal(int placement) {
+        return placement >>> 20;
+    }
+
+    /** The ship type, or null if the encoding names no known type. */
+    public static Ship.ShipType type(int placement) {
+        int type = typeOrdinal(placement);
+        return type < TYPES.length ? TYPES[type] : null;
+    }
+}
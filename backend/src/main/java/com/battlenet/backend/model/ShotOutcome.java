@@ -0,0 +1,90 @@
+package com.battlenet.backend.model;
+
+/**
+ * Result of a single shot. All outcomes are shared constants, so resolving
+ * a shot never allocates; SUNK and WIN carry the type of the ship sunk.
+ */
+public final class ShotOutcome {
+
+    public enum Type {
+        MISS,
+        HIT,
+        SUNK,
+        WIN,
+        REPEAT,
+        OUT_OF_BOUNDS,
+        NOT_YOUR_TURN,
+        NOT_PLAYING,
+        WRONG_MODE,
+        WRONG_SALVO_SIZE
+    }
+
+    public static final ShotOutcome MISS = new ShotOutcome(Type.MISS, null, "Miss!");
+    public static final ShotOutcome HIT = new ShotOutcome(Type.HIT, null, "Hit!");
+    public static final ShotOutcome REPEAT = new ShotOutcome(Type.REPEAT, null, "Cell already shot");
+    public static final ShotOutcome OUT_OF_BOUNDS = new ShotOutcome(Type.OUT_OF_BOUNDS, null, "Shot outside the board");
+    public static final ShotOutcome NOT_YOUR_TURN = new ShotOutcome(Type.NOT_YOUR_TURN, null, "Not your turn");
+    public static final ShotOutcome NOT_PLAYING = new ShotOutcome(Type.NOT_PLAYING, null, "Game not ready!");
+    public static final ShotOutcome SALVO_ONLY = new ShotOutcome(Type.WRONG_MODE, null, "This game is played in salvos");
+    public static final ShotOutcome SINGLE_SHOTS_ONLY = new ShotOutcome(Type.WRONG_MODE, null, "This game is played one shot at a time");
+    public static final ShotOutcome WRONG_SALVO_SIZE = new ShotOutcome(Type.WRONG_SALVO_SIZE, null,
+            "Fire one shot per ship still afloat");
+
+    private static final Ship.ShipType[] SHIP_TYPES = Ship.ShipType.values();
+    private static final ShotOutcome SUNK_UNTYPED = new ShotOutcome(Type.SUNK, null, "Hit! Ship sunk!");
+    private static final ShotOutcome WIN_UNTYPED = new ShotOutcome(Type.WIN, null, "Hit! Game Over!");
+    private static final ShotOutcome[] SUNK_BY_TYPE = new ShotOutcome[SHIP_TYPES.length];
+    private static final ShotOutcome[] WIN_BY_TYPE = new ShotOutcome[SHIP_TYPES.length];
+
+    static {
+        for (Ship.ShipType type : SHIP_TYPES) {
+            SUNK_BY_TYPE[type.ordinal()] = new ShotOutcome(Type.SUNK, type, "Hit! " + type.getDisplayName() + " sunk!");
+            WIN_BY_TYPE[type.ordinal()] = new ShotOutcome(Type.WIN, type, "Hit! " + type.getDisplayName() + " sunk! Game Over!");
+        }
+    }
+
+    private final Type type;
+    private final Ship.ShipType shipType;
+    private final String message;
+
+    private ShotOutcome(Type type, Ship.ShipType shipType, String message) {
+        this.type = type;
+        this.shipType = shipType;
+        this.message = message;
+    }
+
+    public static ShotOutcome sunk(Ship.ShipType shipType) {
+        return shipType == null ? SUNK_UNTYPED : SUNK_BY_TYPE[shipType.ordinal()];
+    }
+
+    public static ShotOutcome win(Ship.ShipType shipType) {
+        return shipType == null ? WIN_UNTYPED : WIN_BY_TYPE[shipType.ordinal()];
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Type of the ship sunk by this shot, or null. */
+    public Ship.ShipType getShipType() {
+        return shipType;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isHit() {
+        return type == Type.HIT || type == Type.SUNK || type == Type.WIN;
+    }
+
+    /** True when the shot was actually fired, i.e. it landed on a fresh cell. */
+    public boolean isFired() {
+        return isHit() || type == Type.MISS;
+    }
+
+    @Override
+    public String toString() {
+        return shipType == null ? type.name() : type.name() + "(" + shipType.name() + ")";
+    }
+}
@@ -0,0 +1,172 @@
+package com.battlenet.backend.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Rows stored over JDBC in an embedded, in-process database: H2 in file
+ * mode by default ({@code jdbc:h2:file:./data/battlenet}), though the SQL is
+ * plain enough for SQLite too. A blank URL switches persistence off.
+ * <p>
+ * The connection is opened, and the tables created if missing, on the first
+ * write; after a failed write it is dropped and opened again on the next.
+ * A batch goes in with one JDBC batch per table and one commit.
+ */
+@Component
+public class JdbcRowStore implements RowStore {
+    static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS games (game_id VARCHAR(64) NOT NULL, mode VARCHAR(16) NOT NULL,"
+                    + " player1_id VARCHAR(64), player2_id VARCHAR(64), created_at BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS placements (game_id VARCHAR(64) NOT NULL, seq INT NOT NULL,"
+                    + " player INT NOT NULL, ship_type VARCHAR(16), x INT NOT NULL, y INT NOT NULL,"
+                    + " horizontal BOOLEAN NOT NULL, placed_at BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS shots (game_id VARCHAR(64) NOT NULL, seq INT NOT NULL,"
+                    + " player INT NOT NULL, x INT NOT NULL, y INT NOT NULL, hit BOOLEAN NOT NULL,"
+                    + " shot_at BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS results (game_id VARCHAR(64) NOT NULL, winner INT NOT NULL,"
+                    + " player1_shots INT NOT NULL, player2_shots INT NOT NULL, finished_at BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS games_game_id ON games (game_id)",
+            "CREATE INDEX IF NOT EXISTS placements_game_id ON placements (game_id)",
+            "CREATE INDEX IF NOT EXISTS shots_game_id ON shots (game_id)",
+            "CREATE INDEX IF NOT EXISTS results_game_id ON results (game_id)"
+    };
+    private static final String INSERT_GAME =
+            "INSERT INTO games (game_id, mode, player1_id, player2_id, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PLACEMENT = "INSERT INTO placements"
+            + " (game_id, seq, player, ship_type, x, y, horizontal, placed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SHOT =
+            "INSERT INTO shots (game_id, seq, player, x, y, hit, shot_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RESULT = "INSERT INTO results"
+            + " (game_id, winner, player1_shots, player2_shots, finished_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final String url;
+    private Connection connection;
+
+    public JdbcRowStore(@Value("${battlenet.persistence.url:}") String url) {
+        this.url = url.isBlank() ? null : url;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return url != null;
+    }
+
+    @Override
+    public synchronized void write(List<Row> rows) throws SQLException {
+        Connection c = connection();
+        try (PreparedStatement games = c.prepareStatement(INSERT_GAME);
+             PreparedStatement placements = c.prepareStatement(INSERT_PLACEMENT);
+             PreparedStatement shots = c.prepareStatement(INSERT_SHOT);
+             PreparedStatement results = c.prepareStatement(INSERT_RESULT)) {
+            int[] batched = new int[4];
+            for (Row row : rows) {
+                switch (row) {
+                    case Row.Created created -> {
+                        games.setString(1, created.gameId());
+                        games.setString(2, created.mode());
+                        setNullableString(games, 3, created.player1Id());
+                        setNullableString(games, 4, created.player2Id());
+                        games.setLong(5, created.createdAt());
+                        games.addBatch();
+                        batched[0]++;
+                    }
+                    case Row.Placed placed -> {
+                        placements.setString(1, placed.gameId());
+                        placements.setInt(2, placed.seq());
+                        placements.setInt(3, placed.player());
+                        setNullableString(placements, 4, placed.shipType());
+                        placements.setInt(5, placed.x());
+                        placements.setInt(6, placed.y());
+                        placements.setBoolean(7, placed.horizontal());
+                        placements.setLong(8, placed.placedAt());
+                        placements.addBatch();
+                        batched[1]++;
+                    }
+                    case Row.Shot shot -> {
+                        shots.setString(1, shot.gameId());
+                        shots.setInt(2, shot.seq());
+                        shots.setInt(3, shot.player());
+                        shots.setInt(4, shot.x());
+                        shots.setInt(5, shot.y());
+                        shots.setBoolean(6, shot.hit());
+                        shots.setLong(7, shot.shotAt());
+                        shots.addBatch();
+                        batched[2]++;
+                    }
+                    case Row.Result result -> {
+                        results.setString(1, result.gameId());
+                        results.setInt(2, result.winner());
+                        results.setInt(3, result.player1Shots());
+                        results.setInt(4, result.player2Shots());
+                        results.setLong(5, result.finishedAt());
+                        results.addBatch();
+                        batched[3]++;
+                    }
+                }
+            }
+            PreparedStatement[] statements = {games, placements, shots, results};
+            for (int i = 0; i < statements.length; i++) {
+                if (batched[i] > 0) {
+                    statements[i].executeBatch();
+                }
+            }
+            c.commit();
+        } catch (SQLException | RuntimeException e) {
+            // start over on a fresh connection next time, whatever state this one is in
+            closeConnection();
+            throw e;
+        }
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (url == null) {
+            throw new SQLException("Persistence is disabled");
+        }
+        if (connection == null) {
+            Connection c = DriverManager.getConnection(url);
+            try (Statement statement = c.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            } catch (SQLException e) {
+                c.close();
+                throw e;
+            }
+            c.setAutoCommit(false);
+            connection = c;
+        }
+        return connection;
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // nothing left to do with it
+            }
+            connection = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeConnection();
+    }
+}
@@ -0,0 +1,250 @@
+package com.battlenet.backend.persistence;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.MoveLog;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind persistence of games: creations, placements, shots and
+ * results are queued in memory as they happen and written to the
+ * {@link RowStore} by one background thread, so no database write sits on
+ * a game command.
+ * <p>
+ * The shard queues a game's row when it is registered, and after each
+ * command that changed it, the moves its {@link MoveLog} gained and, once
+ * it has finished, its result. The writer takes up to {@code batchSize}
+ * rows per transaction, waiting at most {@code flushInterval} after the
+ * oldest for more to arrive.
+ * <p>
+ * A failing store never holds up a game: the writer retries a batch a few
+ * times with backoff and then drops it, and once the queue is full new rows
+ * are dropped instead of waiting. Both are counted.
+ */
+@Component
+public class MatchPersistence implements MeterBinder, AutoCloseable {
+    static final int MAX_ATTEMPTS = 5;
+    private static final long FIRST_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final RowStore store;
+    private final BlockingQueue<Row> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    // games being followed, and how much of each one's move log has been queued; shard threads only touch their own games
+    private final Map<String, Integer> logged = new ConcurrentHashMap<>();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // written by the writer only
+    private volatile int lastBatchRows;
+    private volatile double lastBatchRowsPerSecond;
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    /** What the writer has done so far; lag runs from a row being queued to its batch being committed. */
+    public record Stats(boolean enabled, int queued, long flushed, long dropped, long failures, long batches,
+                        int lastBatchRows, double lastBatchRowsPerSecond, double lastLagMillis,
+                        double maxLagMillis) {
+    }
+
+    public MatchPersistence(
+            GameEngine engine, RowStore store,
+            @Value("${battlenet.persistence.queue-capacity:1000000}") int queueCapacity,
+            @Value("${battlenet.persistence.batch-size:5000}") int batchSize,
+            @Value("${battlenet.persistence.flush-interval:200ms}") Duration flushInterval) {
+        this.store = store;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.writer = new Thread(this::run, "persistence-writer");
+        this.writer.setDaemon(true);
+        if (store.isEnabled()) {
+            engine.addRegistrationListener(this::registered);
+            engine.addChangeListener(this::changed);
+            // the result row normally ends a game's entry; never let it outlive the live game
+            engine.addCompactionListener(summary -> logged.remove(summary.gameId()));
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return store.isEnabled();
+    }
+
+    // On the game's shard
+    private void registered(Game game) {
+        offer(new Row.Created(game.getGameId(), game.getMode().name(), game.getPlayer1().getId(),
+                game.getPlayer2().getId(), System.currentTimeMillis(), System.nanoTime()));
+        logged.put(game.getGameId(), 0);
+        changed(game);
+    }
+
+    // On the game's shard, after a command that changed it
+    private void changed(Game game) {
+        Integer from = logged.get(game.getGameId());
+        if (from == null) {
+            // its result is already queued
+            return;
+        }
+        MoveLog log = game.getMoveLog();
+        int to = log.size();
+        long now = System.currentTimeMillis();
+        for (int seq = from; seq < to; seq++) {
+            offer(row(game.getGameId(), seq, log.get(seq), now));
+        }
+        if (game.isGameOver()) {
+            Player winner = game.getWinner();
+            offer(new Row.Result(game.getGameId(), winner == null ? 0 : winner == game.getPlayer1() ? 1 : 2,
+                    game.getPlayer1Shots(), game.getPlayer2Shots(), now, System.nanoTime()));
+            logged.remove(game.getGameId());
+        } else if (to != from) {
+            logged.put(game.getGameId(), to);
+        }
+    }
+
+    private static Row row(String gameId, int seq, int event, long at) {
+        int owner = MoveLog.boardOwner(event);
+        if (MoveLog.kind(event) == MoveLog.PLACEMENT) {
+            Ship.ShipType type = MoveLog.shipType(event);
+            return new Row.Placed(gameId, seq, owner, type == null ? null : type.name(),
+                    MoveLog.x(event), MoveLog.y(event), MoveLog.horizontal(event), at, System.nanoTime());
+        }
+        // a shot lands on the board of the player who didn't fire it
+        return new Row.Shot(gameId, seq, 3 - owner, MoveLog.x(event), MoveLog.y(event), MoveLog.hit(event),
+                at, System.nanoTime());
+    }
+
+    private void offer(Row row) {
+        if (!queue.offer(row)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<Row> batch = new ArrayList<>(Math.min(batchSize, 65_536));
+        while (running || !queue.isEmpty()) {
+            try {
+                Row first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long flushAt = first.queuedAt() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = flushAt - System.nanoTime();
+                    if (batch.size() == batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    // in slices, so close() need not wait out a long interval
+                    Row next = queue.poll(Math.min(wait, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // only close() stops the writer; write what was gathered and carry on draining
+                Thread.interrupted();
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Row> batch) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                store.write(batch);
+                long end = System.nanoTime();
+                flushed.add(batch.size());
+                batches.increment();
+                // rows are queued in order, so the first one has waited longest
+                long lag = end - batch.get(0).queuedAt();
+                lastLagNanos = lag;
+                maxLagNanos = Math.max(maxLagNanos, lag);
+                lastBatchRows = batch.size();
+                lastBatchRowsPerSecond = batch.size() * 1e9 / Math.max(1, end - start);
+                return;
+            } catch (SQLException | RuntimeException e) {
+                failures.increment();
+                if (attempt == MAX_ATTEMPTS || !running) {
+                    dropped.add(batch.size());
+                    return;
+                }
+                LockSupport.parkNanos(Math.min(MAX_BACKOFF_NANOS, FIRST_BACKOFF_NANOS << (attempt - 1)));
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(store.isEnabled(), queue.size(), flushed.sum(), dropped.sum(), failures.sum(),
+                batches.sum(), lastBatchRows, lastBatchRowsPerSecond, lastLagNanos / 1e6, maxLagNanos / 1e6);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("persistence.queue.size", queue, BlockingQueue::size)
+                .description("Rows waiting for the write-behind writer")
+                .register(registry);
+        FunctionCounter.builder("persistence.rows", flushed, LongAdder::sum)
+                .tag("outcome", "flushed")
+                .description("Rows written to the database")
+                .register(registry);
+        FunctionCounter.builder("persistence.rows", dropped, LongAdder::sum)
+                .tag("outcome", "dropped")
+                .description("Rows dropped on a full queue, or after a failing store's last retry")
+                .register(registry);
+        FunctionCounter.builder("persistence.flush.failures", failures, LongAdder::sum)
+                .description("Batch writes that failed, including retried ones")
+                .register(registry);
+        Gauge.builder("persistence.flush.rows.per.second", this, p -> p.lastBatchRowsPerSecond)
+                .description("Rows per second written by the last batch")
+                .register(registry);
+        Gauge.builder("persistence.lag", this, p -> p.lastLagNanos / 1e6)
+                .baseUnit("milliseconds")
+                .description("From queueing to commit, for the oldest row of the last batch")
+                .register(registry);
+        Gauge.builder("persistence.lag.max", this, p -> p.maxLagNanos / 1e6)
+                .baseUnit("milliseconds")
+                .description("Longest lag from queueing to commit so far")
+                .register(registry);
+    }
+
+    /** Stops taking rows from the games and writes out what is queued, waiting up to ten seconds. */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            LockSupport.unpark(writer);
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.battlenet.backend.persistence;
+
+/**
+ * One row waiting to be written, one record per table. Times are epoch
+ * milliseconds; {@link #queuedAt()} is the {@link System#nanoTime()} it was
+ * queued at, from which the writer measures its lag. {@code seq} is the
+ * move's position in the game's {@link com.battlenet.backend.model.MoveLog}.
+ */
+public sealed interface Row {
+
+    long queuedAt();
+
+    record Created(String gameId, String mode, String player1Id, String player2Id, long createdAt,
+                   long queuedAt) implements Row {
+    }
+
+    /** A ship placed by {@code player} (1 or 2) on their own board; shipType is null for untyped ships. */
+    record Placed(String gameId, int seq, int player, String shipType, int x, int y, boolean horizontal,
+                  long placedAt, long queuedAt) implements Row {
+    }
+
+    /** A shot fired by {@code player} (1 or 2) at the opponent's board. */
+    record Shot(String gameId, int seq, int player, int x, int y, boolean hit, long shotAt,
+                long queuedAt) implements Row {
+    }
+
+    /** How the game ended; winner is 0 when it ended without one. */
+    record Result(String gameId, int winner, int player1Shots, int player2Shots, long finishedAt,
+                  long queuedAt) implements Row {
+    }
+}
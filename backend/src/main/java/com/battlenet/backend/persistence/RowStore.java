@@ -0,0 +1,20 @@
+package com.battlenet.backend.persistence;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Where {@link MatchPersistence} writes its rows. Each call to
+ * {@link #write(List)} is one transaction: all of the rows are stored, or,
+ * when it throws, none of them.
+ */
+public interface RowStore extends AutoCloseable {
+
+    /** False when persistence is switched off; nothing is queued then. */
+    boolean isEnabled();
+
+    void write(List<Row> rows) throws SQLException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,197 @@
+package com.battlenet.backend.placement;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.model.ShipPlacement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates random legal fleets. Every legal position of every ship length
+ * is precomputed as a 128-bit footprint mask (two longs, bit = x * size + y),
+ * so a layout is drawn by picking table entries and checking overlaps with
+ * a couple of AND operations.
+ * <p>
+ * Each ship is drawn uniformly from its table and the whole draw restarts
+ * on any overlap, which makes the result uniform over all valid layouts.
+ */
+public final class FleetPlacer {
+    private static final Ship.ShipType[] FLEET = Ship.ShipType.values();
+    private static final int MAX_ATTEMPTS = 100_000;
+
+    public static final FleetPlacer STANDARD = new FleetPlacer(10);
+
+    private final int size;
+    // per fleet ship (ShipType ordinal): packed positions and their footprints
+    private final int[][] positions;
+    private final long[][] masksLo;
+    private final long[][] masksHi;
+
+    public FleetPlacer(int size) {
+        if (size < 1 || size * size > 128) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        this.size = size;
+        this.positions = new int[FLEET.length][];
+        this.masksLo = new long[FLEET.length][];
+        this.masksHi = new long[FLEET.length][];
+
+        int maxLength = 0;
+        for (Ship.ShipType type : FLEET) {
+            maxLength = Math.max(maxLength, type.getSize());
+        }
+        int[][] positionsByLength = new int[maxLength + 1][];
+        long[][] loByLength = new long[maxLength + 1][];
+        long[][] hiByLength = new long[maxLength + 1][];
+        for (Ship.ShipType type : FLEET) {
+            int length = type.getSize();
+            if (positionsByLength[length] == null) {
+                buildTable(length, positionsByLength, loByLength, hiByLength);
+            }
+            positions[type.ordinal()] = positionsByLength[length];
+            masksLo[type.ordinal()] = loByLength[length];
+            masksHi[type.ordinal()] = hiByLength[length];
+        }
+    }
+
+    private void buildTable(int length, int[][] positionsByLength, long[][] loByLength, long[][] hiByLength) {
+        int span = size - length + 1;
+        int count = span <= 0 ? 0 : 2 * size * span;
+        int[] packed = new int[count];
+        long[] lo = new long[count];
+        long[] hi = new long[count];
+
+        int n = 0;
+        for (int h = 0; h <= 1; h++) {
+            boolean horizontal = h == 1;
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if ((horizontal ? y : x) + length > size) {
+                        continue;
+                    }
+                    for (int i = 0; i < length; i++) {
+                        int bit = horizontal ? x * size + y + i : (x + i) * size + y;
+                        if (bit < 64) {
+                            lo[n] |= 1L << bit;
+                        } else {
+                            hi[n] |= 1L << (bit - 64);
+                        }
+                    }
+                    packed[n++] = pack(x, y, horizontal);
+                }
+            }
+        }
+        positionsByLength[length] = packed;
+        loByLength[length] = lo;
+        hiByLength[length] = hi;
+    }
+
+    /** Number of legal positions for a ship type on an empty board. */
+    public int legalPositions(Ship.ShipType type) {
+        return positions[type.ordinal()].length;
+    }
+
+    /** Random layout for the whole fleet, one packed position per ShipType ordinal. */
+    public int[] randomFleet(RandomGenerator random) {
+        int[] out = new int[FLEET.length];
+        randomFleet(random, out);
+        return out;
+    }
+
+    /** Allocation-free variant of {@link #randomFleet(RandomGenerator)} writing into {@code out}. */
+    public void randomFleet(RandomGenerator random, int[] out) {
+        if (!randomFleet(random, 0L, 0L, null, out)) {
+            throw new IllegalStateException("No legal fleet layout for board size " + size);
+        }
+    }
+
+    private boolean randomFleet(RandomGenerator random, long occupiedLo, long occupiedHi,
+                                boolean[] skip, int[] out) {
+        attempts:
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long lo = occupiedLo;
+            long hi = occupiedHi;
+            for (int i = 0; i < FLEET.length; i++) {
+                if (skip != null && skip[i]) {
+                    continue;
+                }
+                int[] table = positions[i];
+                if (table.length == 0) {
+                    return false;
+                }
+                int k = random.nextInt(table.length);
+                long ml = masksLo[i][k];
+                long mh = masksHi[i][k];
+                if ((lo & ml) != 0 || (hi & mh) != 0) {
+                    continue attempts;
+                }
+                lo |= ml;
+                hi |= mh;
+                out[i] = table[k];
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Places every fleet ship type not yet on the board at random, around the
+     * ships already placed. Returns the ships added, or an empty list when the
+     * fleet is already complete, no layout fits, or the board holds two ships
+     * of one type and so can never be the fleet.
+     */
+    public List<Ship> placeRemaining(Board board, RandomGenerator random) {
+        if (board.getSize() != size) {
+            throw new IllegalArgumentException("Board size " + board.getSize() + " does not match " + size);
+        }
+        boolean[] skip = new boolean[FLEET.length];
+        int missing = FLEET.length;
+        for (Ship ship : board.getShips()) {
+            if (ship.getType() == null) {
+                continue;
+            }
+            if (skip[ship.getType().ordinal()]) {
+                return List.of();
+            }
+            skip[ship.getType().ordinal()] = true;
+            missing--;
+        }
+        if (missing == 0) {
+            return List.of();
+        }
+
+        int[] layout = new int[FLEET.length];
+        if (!randomFleet(random, board.getOccupiedLo(), board.getOccupiedHi(), skip, layout)) {
+            return List.of();
+        }
+
+        List<Ship> placed = new ArrayList<>(missing);
+        for (Ship.ShipType type : FLEET) {
+            if (skip[type.ordinal()]) {
+                continue;
+            }
+            int position = layout[type.ordinal()];
+            board.placeShip(ShipPlacement.encode(type, x(position), y(position), horizontal(position)));
+            placed.add(board.getShips().get(board.getShips().size() - 1));
+        }
+        return placed;
+    }
+
+    static int pack(int x, int y, boolean horizontal) {
+        return x | y << 8 | (horizontal ? 1 << 16 : 0);
+    }
+
+    public static int x(int position) {
+        return position & 0xFF;
+    }
+
+    public static int y(int position) {
+        return (position >>> 8) & 0xFF;
+    }
+
+    public static boolean horizontal(int position) {
+        return (position & 1 << 16) != 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.battlenet.backend.profile;
+
+/**
+ * Standard Elo rating update with a fixed K-factor.
+ */
+public final class Elo {
+    public static final double K_FACTOR = 32.0;
+
+    private Elo() {
+    }
+
+    /** Probability that a player rated {@code rating} beats one rated {@code opponentRating}. */
+    public static double expectedScore(double rating, double opponentRating) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponentRating - rating) / 400.0));
+    }
+
+    /** Points the winner gains and the loser gives up. */
+    public static double delta(double winnerRating, double loserRating) {
+        return K_FACTOR * (1.0 - expectedScore(winnerRating, loserRating));
+    }
+}
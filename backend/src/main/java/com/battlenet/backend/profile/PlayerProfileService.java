@@ -0,0 +1,65 @@
+package com.battlenet.backend.profile;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.Player;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Owns the player profile store and updates ratings as games finish.
+ * With no {@code battlenet.profiles.path} configured the profiles are kept
+ * off-heap in memory only.
+ */
+@Component
+public class PlayerProfileService implements GameListener, AutoCloseable {
+    private final PlayerProfileStore store;
+
+    public PlayerProfileService(
+            @Value("${battlenet.profiles.path:}") String path,
+            @Value("${battlenet.profiles.initial-capacity:100000}") int initialCapacity) {
+        this.store = path.isBlank()
+                ? PlayerProfileStore.inMemory(initialCapacity)
+                : PlayerProfileStore.open(Path.of(path), initialCapacity);
+    }
+
+    public boolean isValidId(String playerId) {
+        return PlayerProfileStore.isValidId(playerId);
+    }
+
+    /** Creates the player's profile if there is none yet; guests get none. */
+    public void register(String playerId) {
+        if (Player.isGuestId(playerId)) {
+            return;
+        }
+        store.register(playerId);
+    }
+
+    public PlayerProfileStore.PlayerProfile getProfile(String playerId) {
+        return store.get(playerId);
+    }
+
+    @Override
+    public void onStateChanged(Game game, Game.GameState previous) {
+        if (game.getState() != Game.GameState.FINISHED || previous == Game.GameState.FINISHED
+                || game.getWinner() == null) {
+            return;
+        }
+        Player winner = game.getWinner();
+        Player loser = winner == game.getPlayer1() ? game.getPlayer2() : game.getPlayer1();
+        if (isRated(winner.getId()) && isRated(loser.getId())) {
+            store.recordMatch(winner.getId(), loser.getId());
+        }
+    }
+
+    private boolean isRated(String playerId) {
+        return isValidId(playerId) && !Player.isGuestId(playerId);
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
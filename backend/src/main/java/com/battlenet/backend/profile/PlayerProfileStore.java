@@ -0,0 +1,394 @@
+package com.battlenet.backend.profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Player profiles stored as fixed-width records in a memory-mapped file.
+ * <p>
+ * The file is an open-addressing hash table keyed by player id: a 64-byte
+ * header followed by {@code capacity} slots of {@link #RECORD_SIZE} bytes.
+ * Lookups hash the id's chars and compare them against the slot bytes in
+ * place, so reads allocate nothing and profiles never live on the Java
+ * heap. When the table gets too full it is rebuilt into a file twice the
+ * size and swapped in atomically.
+ * <p>
+ * Ids are limited to {@value #MAX_ID_LENGTH} ASCII letters, digits, '-' and '_'.
+ */
+public class PlayerProfileStore implements AutoCloseable {
+    public static final int RECORD_SIZE = 64;
+    public static final int MAX_ID_LENGTH = 32;
+    public static final double INITIAL_RATING = 1500.0;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x424E5046;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    // header fields
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+
+    // record fields
+    private static final int R_USED = 0;
+    private static final int R_ID_LENGTH = 1;
+    private static final int R_ID = 2;
+    private static final int R_GAMES = 36;
+    private static final int R_WINS = 40;
+    private static final int R_LOSSES = 44;
+    private static final int R_RATING = 48;
+    private static final int R_UPDATED = 56;
+
+    private final Path path;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private int capacity;
+    private int size;
+
+    public record PlayerProfile(String id, double rating, int gamesPlayed, int wins, int losses, long updatedAt) {
+    }
+
+    private PlayerProfileStore(Path path) {
+        this.path = path;
+    }
+
+    /** Opens or creates the store file at {@code path}. */
+    public static PlayerProfileStore open(Path path, int initialCapacity) {
+        PlayerProfileStore store = new PlayerProfileStore(path);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            boolean exists = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+            store.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (exists) {
+                store.load();
+            } else {
+                store.format(tableCapacity(initialCapacity));
+            }
+        } catch (IOException e) {
+            store.close();
+            throw new UncheckedIOException("Cannot open player profile store " + path, e);
+        }
+        return store;
+    }
+
+    /** Store backed by direct (off-heap) memory only; contents are lost on close. */
+    public static PlayerProfileStore inMemory(int initialCapacity) {
+        PlayerProfileStore store = new PlayerProfileStore(null);
+        try {
+            store.format(tableCapacity(initialCapacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return store;
+    }
+
+    private static int tableCapacity(int expectedProfiles) {
+        int wanted = (int) Math.min(MAX_CAPACITY, Math.max(MIN_CAPACITY, expectedProfiles * 2L));
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+
+    private void load() throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(H_MAGIC) != MAGIC || header.getInt(H_VERSION) != FORMAT_VERSION) {
+            throw new IOException("Not a player profile store");
+        }
+        capacity = header.getInt(H_CAPACITY);
+        size = header.getInt(H_SIZE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileLength(capacity));
+    }
+
+    private void format(int newCapacity) throws IOException {
+        buffer = allocate(channel, newCapacity);
+        capacity = newCapacity;
+        size = 0;
+        writeHeader(buffer, capacity, 0);
+    }
+
+    private static ByteBuffer allocate(FileChannel target, int capacity) throws IOException {
+        return target == null
+                ? ByteBuffer.allocateDirect((int) fileLength(capacity))
+                : target.map(FileChannel.MapMode.READ_WRITE, 0, fileLength(capacity));
+    }
+
+    private static long fileLength(int capacity) {
+        return HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    }
+
+    private static void writeHeader(ByteBuffer target, int capacity, int size) {
+        target.putInt(H_MAGIC, MAGIC);
+        target.putInt(H_VERSION, FORMAT_VERSION);
+        target.putInt(H_CAPACITY, capacity);
+        target.putInt(H_SIZE, size);
+    }
+
+    public static boolean isValidId(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkId(String id) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Invalid player id: " + id);
+        }
+    }
+
+    private static int hash(String id) {
+        int h = 0;
+        for (int i = 0; i < id.length(); i++) {
+            h = 31 * h + id.charAt(i);
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    /** Slot holding {@code id}, or {@code -(insertionSlot + 1)} when absent. */
+    private int find(ByteBuffer table, int tableCapacity, String id) {
+        int mask = tableCapacity - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int base = offset(slot);
+            if (table.get(base + R_USED) == 0) {
+                return -(slot + 1);
+            }
+            if (idEquals(table, base, id)) {
+                return slot;
+            }
+        }
+    }
+
+    private static boolean idEquals(ByteBuffer table, int base, String id) {
+        if (table.get(base + R_ID_LENGTH) != id.length()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (table.get(base + R_ID + i) != (byte) id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readId(ByteBuffer table, int base) {
+        int length = table.get(base + R_ID_LENGTH);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) table.get(base + R_ID + i);
+        }
+        return new String(chars);
+    }
+
+    public boolean contains(String id) {
+        if (!isValidId(id)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return find(buffer, capacity, id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public PlayerProfile get(String id) {
+        if (!isValidId(id)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(buffer, capacity, id);
+            if (slot < 0) {
+                return null;
+            }
+            int base = offset(slot);
+            return new PlayerProfile(id, buffer.getDouble(base + R_RATING), buffer.getInt(base + R_GAMES),
+                    buffer.getInt(base + R_WINS), buffer.getInt(base + R_LOSSES), buffer.getLong(base + R_UPDATED));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Current rating, or {@link #INITIAL_RATING} for unknown players. */
+    public double getRating(String id) {
+        if (!isValidId(id)) {
+            return INITIAL_RATING;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(buffer, capacity, id);
+            return slot < 0 ? INITIAL_RATING : buffer.getDouble(offset(slot) + R_RATING);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Creates the profile with the initial rating if it does not exist yet. */
+    public void register(String id) {
+        checkId(id);
+        lock.writeLock().lock();
+        try {
+            slotFor(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applies the result of a finished match to both profiles, creating them if needed. */
+    public void recordMatch(String winnerId, String loserId) {
+        checkId(winnerId);
+        checkId(loserId);
+        lock.writeLock().lock();
+        try {
+            slotFor(winnerId);
+            int loser = offset(slotFor(loserId));
+            // creating the loser's profile may have grown the table and moved the winner's
+            int winner = offset(find(buffer, capacity, winnerId));
+            double winnerRating = buffer.getDouble(winner + R_RATING);
+            double loserRating = buffer.getDouble(loser + R_RATING);
+            double delta = Elo.delta(winnerRating, loserRating);
+            long now = System.currentTimeMillis();
+
+            buffer.putDouble(winner + R_RATING, winnerRating + delta);
+            buffer.putInt(winner + R_GAMES, buffer.getInt(winner + R_GAMES) + 1);
+            buffer.putInt(winner + R_WINS, buffer.getInt(winner + R_WINS) + 1);
+            buffer.putLong(winner + R_UPDATED, now);
+
+            buffer.putDouble(loser + R_RATING, loserRating - delta);
+            buffer.putInt(loser + R_GAMES, buffer.getInt(loser + R_GAMES) + 1);
+            buffer.putInt(loser + R_LOSSES, buffer.getInt(loser + R_LOSSES) + 1);
+            buffer.putLong(loser + R_UPDATED, now);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private int slotFor(String id) {
+        int slot = find(buffer, capacity, id);
+        if (slot >= 0) {
+            return slot;
+        }
+        if ((size + 1) * 10L > capacity * 7L) {
+            grow();
+            slot = find(buffer, capacity, id);
+        }
+        slot = -slot - 1;
+        int base = offset(slot);
+        buffer.put(base + R_ID_LENGTH, (byte) id.length());
+        for (int i = 0; i < id.length(); i++) {
+            buffer.put(base + R_ID + i, (byte) id.charAt(i));
+        }
+        buffer.putDouble(base + R_RATING, INITIAL_RATING);
+        buffer.put(base + R_USED, (byte) 1);
+        size++;
+        buffer.putInt(H_SIZE, size);
+        return slot;
+    }
+
+    private void grow() {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Player profile store is full");
+        }
+        int newCapacity = capacity * 2;
+        try {
+            Path tmp = path == null ? null : path.resolveSibling(path.getFileName() + ".grow");
+            FileChannel newChannel = tmp == null ? null : FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer grown = allocate(newChannel, newCapacity);
+            writeHeader(grown, newCapacity, size);
+            for (int slot = 0; slot < capacity; slot++) {
+                int base = offset(slot);
+                if (buffer.get(base + R_USED) == 0) {
+                    continue;
+                }
+                int target = offset(-find(grown, newCapacity, readId(buffer, base)) - 1);
+                for (int i = 0; i < RECORD_SIZE; i++) {
+                    grown.put(target + i, buffer.get(base + i));
+                }
+            }
+            if (newChannel != null) {
+                ((MappedByteBuffer) grown).force();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                channel = newChannel;
+            }
+            buffer = grown;
+            capacity = newCapacity;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow player profile store", e);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        lock.readLock().lock();
+        try {
+            return capacity;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Forces written records to disk. */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            if (buffer instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (buffer instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.battlenet.backend.replay;
+
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameSnapshot;
+import com.battlenet.backend.model.MoveLog;
+import com.battlenet.backend.model.Ship;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Writes game replays as newline-delimited JSON, one game per line. Games
+ * and their move logs are streamed straight into the output, so memory use
+ * does not depend on how many games are exported.
+ */
+@Component
+public class ReplayExporter {
+    private final ObjectMapper objectMapper;
+
+    public ReplayExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * What a replay line is written from: a live game read through one
+     * snapshot, or a finished game's summary. Only the first {@code moves}
+     * entries of the log belong to it.
+     */
+    public record Replay(String gameId, Game.GameState state, String player1, String player2, String winner,
+                         MoveLog log, int moves) {
+
+        // Exports run off the games' shards, so everything comes from one snapshot
+        public static Replay of(Game game) {
+            GameSnapshot snapshot = game.snapshot();
+            String player1 = game.getPlayer1().getName();
+            String player2 = game.getPlayer2().getName();
+            MoveLog log = game.getMoveLog();
+            return new Replay(snapshot.gameId(), snapshot.state(), player1, player2,
+                    snapshot.winner() == 0 ? null : snapshot.winner() == 1 ? player1 : player2,
+                    log, Math.min(log.size(), snapshot.moveCount()));
+        }
+
+        public static Replay of(FinishedGame game) {
+            MoveLog log = game.moveLog();
+            return new Replay(game.gameId(), Game.GameState.FINISHED, game.player1().name(), game.player2().name(),
+                    game.winnerName(), log, log.size());
+        }
+    }
+
+    public void export(Iterable<Game> games, OutputStream out) throws IOException {
+        exportReplays(() -> StreamSupport.stream(games.spliterator(), false).map(Replay::of).iterator(), out);
+    }
+
+    public void exportReplays(Iterable<Replay> replays, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Replay replay : replays) {
+                writeReplay(generator, replay);
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+        }
+    }
+
+    private void writeReplay(JsonGenerator generator, Replay replay) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("gameId", replay.gameId());
+        generator.writeStringField("state", replay.state().toString());
+        generator.writeStringField("player1", replay.player1());
+        generator.writeStringField("player2", replay.player2());
+        generator.writeStringField("winner", replay.winner());
+
+        MoveLog log = replay.log();
+        generator.writeArrayFieldStart("events");
+        for (int i = 0; i < replay.moves(); i++) {
+            writeEvent(generator, log.get(i));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeEvent(JsonGenerator generator, int event) throws IOException {
+        int owner = MoveLog.boardOwner(event);
+        generator.writeStartObject();
+        if (MoveLog.kind(event) == MoveLog.PLACEMENT) {
+            Ship.ShipType type = MoveLog.shipType(event);
+            generator.writeStringField("type", "PLACE");
+            generator.writeNumberField("player", owner);
+            generator.writeStringField("ship", type != null ? type.name() : null);
+            generator.writeNumberField("x", MoveLog.x(event));
+            generator.writeNumberField("y", MoveLog.y(event));
+            generator.writeBooleanField("horizontal", MoveLog.horizontal(event));
+        } else {
+            generator.writeStringField("type", "SHOT");
+            generator.writeNumberField("player", owner == 1 ? 2 : 1);
+            generator.writeNumberField("x", MoveLog.x(event));
+            generator.writeNumberField("y", MoveLog.y(event));
+            generator.writeBooleanField("hit", MoveLog.hit(event));
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,88 @@
+package com.battlenet.backend.view;
+
+import com.battlenet.backend.model.BoardSnapshot;
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.MoveLog;
+import com.battlenet.backend.model.ShipPlacement;
+
+import java.util.Base64;
+
+/**
+ * One board as bitmasks (bit = x * size + y): the cells covered by ships,
+ * the cells shot, and the cells of ships already sunk. It is read from a
+ * snapshot or a compacted game without touching any cell.
+ * <p>
+ * On the wire each mask is its {@code size * size} bits packed into bytes,
+ * least significant bit first (bit 0 is the low bit of byte 0), then base64
+ * without padding. That is 18 characters for a 10x10 board, and a client
+ * tests cell {@code b} as {@code bytes[b >> 3] >> (b & 7) & 1}.
+ */
+public record BoardView(int size, long shipsLo, long shipsHi, long shotsLo, long shotsHi,
+                        long sunkLo, long sunkHi) {
+
+    private static final Base64.Encoder BASE64 = Base64.getEncoder().withoutPadding();
+
+    public static BoardView of(BoardSnapshot board) {
+        long sunkLo = 0L;
+        long sunkHi = 0L;
+        for (BoardSnapshot.PlacedShip ship : board.getShips()) {
+            if (ship.isSunk(board)) {
+                sunkLo |= ship.lo();
+                sunkHi |= ship.hi();
+            }
+        }
+        return new BoardView(board.getSize(), board.getShipsLo(), board.getShipsHi(),
+                board.getHitsLo(), board.getHitsHi(), sunkLo, sunkHi);
+    }
+
+    /** Player 1's or 2's final board; the ships are found again from the placements in the move log. */
+    public static BoardView of(FinishedGame game, int player) {
+        FinishedGame.Side side = game.side(player);
+        long sunkLo = 0L;
+        long sunkHi = 0L;
+        for (short move : game.moves()) {
+            if (MoveLog.kind(move) != MoveLog.PLACEMENT || MoveLog.boardOwner(move) != player
+                    || MoveLog.shipType(move) == null) {
+                continue;
+            }
+            int placement = ShipPlacement.encode(MoveLog.shipType(move), MoveLog.x(move), MoveLog.y(move),
+                    MoveLog.horizontal(move));
+            long lo = ShipPlacement.footprintLo(placement);
+            long hi = ShipPlacement.footprintHi(placement);
+            if ((side.hitsLo() & lo) == lo && (side.hitsHi() & hi) == hi) {
+                sunkLo |= lo;
+                sunkHi |= hi;
+            }
+        }
+        return new BoardView(ShipPlacement.BOARD_SIZE, side.shipsLo(), side.shipsHi(),
+                side.hitsLo(), side.hitsHi(), sunkLo, sunkHi);
+    }
+
+    /** Cells covered by the owner's ships; only the owner's view shows these. */
+    public String ships() {
+        return encode(shipsLo, shipsHi);
+    }
+
+    /** Cells shot that held a ship. */
+    public String hits() {
+        return encode(shotsLo & shipsLo, shotsHi & shipsHi);
+    }
+
+    /** Cells shot that held nothing. */
+    public String misses() {
+        return encode(shotsLo & ~shipsLo, shotsHi & ~shipsHi);
+    }
+
+    /** Cells of the ships sunk so far, which the opponent may see whole. */
+    public String sunk() {
+        return encode(sunkLo, sunkHi);
+    }
+
+    private String encode(long lo, long hi) {
+        byte[] bytes = new byte[(size * size + 7) / 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i < 8 ? lo >>> (8 * i) : hi >>> (8 * (i - 8)));
+        }
+        return BASE64.encodeToString(bytes);
+    }
+}
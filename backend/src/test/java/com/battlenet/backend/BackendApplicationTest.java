@@ -7,7 +7,8 @@ import org.springframework.context.ApplicationContext;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"battlenet.profiles.path=", "battlenet.archive.path=",
+        "battlenet.persistence.url="})
 class BackendApplicationTest {
     
     @Autowired
@@ -21,7 +22,8 @@ class BackendApplicationTest {
     @Test
     void mainMethodStartsApplication() {
         assertDoesNotThrow(() -> {
-            BackendApplication.main(new String[] {});
+            BackendApplication.main(new String[] {"--battlenet.profiles.path=", "--battlenet.archive.path=",
+                    "--battlenet.persistence.url="});
         });
     }
     
@@ -0,0 +1,74 @@
+package com.battlenet.backend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveLimitTest {
+    private static final long FAST = 1_000_000;
+
+    @Test
+    void tryAcquire_refusesOverTheLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+
+        limit.release(FAST);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void limit_growsWhileLatencyStaysLowUnderLoad() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100);
+        for (int round = 0; round < 50; round++) {
+            fillAndRelease(limit, FAST);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void limit_doesNotGrowWhenMostlyIdle() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(FAST);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void limit_shrinksWhenLatencyClimbs() {
+        AdaptiveLimit limit = new AdaptiveLimit(50, 2, 100);
+        fillAndRelease(limit, FAST);
+        int before = limit.getLimit();
+
+        for (int round = 0; round < 30; round++) {
+            fillAndRelease(limit, FAST * 20);
+        }
+
+        assertTrue(limit.getLimit() < before / 2, "limit was " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 2);
+    }
+
+    @Test
+    void constructor_rejectsInconsistentBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(20, 1, 10));
+    }
+
+    private static void fillAndRelease(AdaptiveLimit limit, long latencyNanos) {
+        int taken = 0;
+        while (limit.tryAcquire()) {
+            taken++;
+        }
+        for (int i = 0; i < taken; i++) {
+            limit.release(latencyNanos);
+        }
+    }
+}
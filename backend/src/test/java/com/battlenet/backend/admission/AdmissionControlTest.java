@@ -0,0 +1,69 @@
+package com.battlenet.backend.admission;
+
+import com.battlenet.backend.model.Game;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    void tryOpenGame_capsActiveGamesUntilOneFinishes() {
+        AdmissionControl admission = new AdmissionControl(2, 4, 10);
+        Game game = new Game("g1", "player1", "player2");
+        game.addListener(admission);
+
+        assertTrue(admission.tryOpenGame());
+        assertTrue(admission.tryOpenGame());
+        assertFalse(admission.tryOpenGame());
+
+        game.setState(Game.GameState.FINISHED);
+        assertEquals(1, admission.getActiveGames());
+        assertTrue(admission.tryOpenGame());
+
+        // a repeated FINISHED notification must not free a second slot
+        game.setState(Game.GameState.FINISHED);
+        assertEquals(2, admission.getActiveGames());
+    }
+
+    @Test
+    void tryOpenGames_reservesAllOrNothing() {
+        AdmissionControl admission = new AdmissionControl(10, 4, 10);
+
+        assertTrue(admission.tryOpenGames(7));
+        assertFalse(admission.tryOpenGames(4));
+        assertEquals(7, admission.getActiveGames());
+        assertTrue(admission.tryOpenGames(3));
+        assertFalse(admission.tryOpenGame());
+
+        admission.releaseGames(5);
+        assertEquals(5, admission.getActiveGames());
+        assertTrue(admission.tryOpenGames(5));
+    }
+
+    @Test
+    void tryAcquire_shedsCreationBeforeShots() {
+        AdmissionControl admission = new AdmissionControl(100, 4, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.SHOT));
+        }
+        assertFalse(admission.tryAcquire(AdmissionControl.Endpoint.CREATE));
+        assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.SHOT));
+        assertFalse(admission.tryAcquire(AdmissionControl.Endpoint.SHOT));
+
+        admission.release(AdmissionControl.Endpoint.SHOT, 1_000_000);
+        admission.release(AdmissionControl.Endpoint.SHOT, 1_000_000);
+        assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.CREATE));
+    }
+
+    @Test
+    void tryAcquire_endpointsHaveSeparateLimits() {
+        AdmissionControl admission = new AdmissionControl(100, 1, 10);
+
+        assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.OTHER));
+        assertFalse(admission.tryAcquire(AdmissionControl.Endpoint.OTHER));
+        assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.SHOT));
+        assertEquals(1, admission.getLimit(AdmissionControl.Endpoint.OTHER).getRejected());
+    }
+}
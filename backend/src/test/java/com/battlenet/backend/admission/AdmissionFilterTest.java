@@ -0,0 +1,76 @@
+package com.battlenet.backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    @Test
+    void classify_recognisesCreateAndShot() {
+        assertEquals(AdmissionControl.Endpoint.CREATE, AdmissionFilter.classify("POST", "/api/game/create"));
+        assertEquals(AdmissionControl.Endpoint.CREATE, AdmissionFilter.classify("POST", "/api/game/create/bulk"));
+        assertEquals(AdmissionControl.Endpoint.SHOT, AdmissionFilter.classify("POST", "/api/game/abc123/shoot"));
+        assertEquals(AdmissionControl.Endpoint.SHOT, AdmissionFilter.classify("POST", "/api/game/abc123/salvo"));
+        assertEquals(AdmissionControl.Endpoint.OTHER, AdmissionFilter.classify("POST", "/api/game/abc123"));
+        assertEquals(AdmissionControl.Endpoint.OTHER, AdmissionFilter.classify("GET", "/api/leaderboard"));
+        assertNull(AdmissionFilter.classify("GET", "/actuator/health"));
+    }
+
+    @Test
+    void doFilter_passesAndReleasesWhenAdmitted() throws Exception {
+        AdmissionControl admission = new AdmissionControl(100, 1, 10);
+        AdmissionFilter filter = new AdmissionFilter(admission, new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/game/abc123/shoot"), response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, admission.getLimit(AdmissionControl.Endpoint.SHOT).getInFlight());
+    }
+
+    @Test
+    void doFilter_holdsThePermitUntilAnAsyncResponseCompletes() throws Exception {
+        AdmissionControl admission = new AdmissionControl(100, 1, 10);
+        AdmissionFilter filter = new AdmissionFilter(admission, new ObjectMapper());
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/game/abc123/shoot");
+        request.setAsyncSupported(true);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.startAsync();
+            }
+        });
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertEquals(1, admission.getLimit(AdmissionControl.Endpoint.SHOT).getInFlight());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, admission.getLimit(AdmissionControl.Endpoint.SHOT).getInFlight());
+    }
+
+    @Test
+    void doFilter_shedsWith503AndRetryAfter() throws Exception {
+        AdmissionControl admission = new AdmissionControl(100, 1, 10);
+        assertTrue(admission.tryAcquire(AdmissionControl.Endpoint.SHOT));
+        AdmissionFilter filter = new AdmissionFilter(admission, new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/game/abc123/shoot"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals(String.valueOf(AdmissionControl.RETRY_AFTER_SECONDS), response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"success\":false"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.battlenet.backend.archive;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final long JAN_2025 = Instant.parse("2025-01-15T10:00:00Z").toEpochMilli();
+    private static final long FEB_2025 = Instant.parse("2025-02-03T10:00:00Z").toEpochMilli();
+
+    // One-cell ship on each board; player 1 wins after `misses` rounds of misses each
+    static Game finishedGame(String id, boolean player1Wins, int misses) {
+        Game game = new Game(id, "player1", "player2");
+        Board board1 = game.getPlayer1().getBoard();
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer1().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board1.getCell(9, 9)), true)));
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(9, 9)), true)));
+        game.startGame();
+        for (int i = 0; i < misses; i++) {
+            game.shoot(0, i);
+            game.shoot(0, i);
+        }
+        if (!player1Wins) {
+            game.shoot(1, 0);
+        }
+        game.shoot(9, 9);
+        assertTrue(game.isGameOver());
+        return game;
+    }
+
+    @Test
+    void queries_scanFlushedSegments() {
+        GameArchive archive = new GameArchive(tempDir.toString());
+        archive.archive(finishedGame("a", true, 0), JAN_2025);
+        archive.archive(finishedGame("b", true, 2), JAN_2025);
+        archive.archive(finishedGame("c", false, 1), FEB_2025);
+        archive.flush();
+
+        GameArchive.WinRate winRate = archive.firstPlayerWinRate();
+        assertEquals(3, winRate.games());
+        assertEquals(2, winRate.firstPlayerWins());
+        assertEquals(2.0 / 3, winRate.rate(), 1e-9);
+
+        SortedMap<YearMonth, Double> byMonth = archive.averageGameLengthByMonth();
+        // a: 1 shot, b: 5 shots, c: 2 misses + miss + hit by player 2 = 4 shots
+        assertEquals(3.0, byMonth.get(YearMonth.of(2025, 1)), 1e-9);
+        assertEquals(4.0, byMonth.get(YearMonth.of(2025, 2)), 1e-9);
+        assertEquals(3, archive.archivedGames());
+    }
+
+    @Test
+    void fullSegments_areWrittenAutomatically_andReopenKeepsNumbering() throws Exception {
+        GameArchive archive = new GameArchive(tempDir.toString());
+        Game game = finishedGame("g", true, 0);
+        for (int i = 0; i < GameArchive.SEGMENT_ROWS + 10; i++) {
+            archive.archive(game, JAN_2025);
+        }
+        // the full segment goes to the writer thread; the ten rows after it stay buffered
+        archive.awaitWrites();
+        assertEquals(GameArchive.SEGMENT_ROWS, archive.archivedGames());
+        archive.close();
+
+        GameArchive reopened = new GameArchive(tempDir.toString());
+        reopened.archive(game, FEB_2025);
+        reopened.flush();
+        assertEquals(GameArchive.SEGMENT_ROWS + 11, reopened.archivedGames());
+        try (var entries = Files.list(tempDir)) {
+            assertEquals(3, entries.count());
+        }
+    }
+
+    @Test
+    void columns_holdShipMasksAndShotSequence() throws Exception {
+        GameArchive archive = new GameArchive(tempDir.toString());
+        archive.archive(finishedGame("xyz", false, 1), JAN_2025);
+        archive.flush();
+        Path segment = tempDir.resolve("seg-00000000");
+
+        assertArrayEquals("xyz".getBytes(), Columns.readBytes(segment.resolve(GameArchive.GAME_ID)));
+        assertArrayEquals(new byte[] {2}, Columns.readBytes(segment.resolve(GameArchive.WINNER)));
+        // cell (9, 9) is bit 99, i.e. bit 35 of the high word
+        assertArrayEquals(new long[] {1L << 35}, Columns.readLongs(segment.resolve(GameArchive.SHIPS_2_HI)));
+        assertArrayEquals(new long[] {0L}, Columns.readLongs(segment.resolve(GameArchive.SHIPS_2_LO)));
+        // p1 (0,0) miss, p2 (0,0) miss, p1 (1,0) miss, p2 (9,9) hit
+        assertArrayEquals(new byte[] {0, (byte) 0x80, 10, (byte) (0x80 | 99)},
+                Columns.readBytes(segment.resolve(GameArchive.SHOT_SEQ)));
+    }
+
+    @Test
+    void failedWrites_areCounted_andNeverReachTheGame() throws Exception {
+        Path directory = tempDir.resolve("archive");
+        GameArchive archive = new GameArchive(directory.toString());
+        // a file where the archive directory should be, so no segment can be created
+        Files.delete(directory);
+        Files.createFile(directory);
+
+        Game game = finishedGame("g", true, 0);
+        for (int i = 0; i < GameArchive.SEGMENT_ROWS; i++) {
+            archive.archive(game, JAN_2025);
+        }
+        archive.onStateChanged(finishedGame("last", true, 0), Game.GameState.PLAYING);
+        archive.flush();
+        assertEquals(2, archive.failedSegments());
+        assertEquals(0, archive.writtenSegments());
+
+        Files.delete(directory);
+        Files.createDirectories(directory);
+        archive.archive(game, FEB_2025);
+        archive.close();
+        assertEquals(1, archive.writtenSegments());
+        assertEquals(1, archive.archivedGames());
+    }
+
+    @Test
+    void disabledArchive_ignoresGames() {
+        GameArchive archive = new GameArchive("");
+        assertFalse(archive.isEnabled());
+        archive.archive(finishedGame("a", true, 0), JAN_2025);
+        archive.close();
+        assertEquals(0, archive.firstPlayerWinRate().games());
+        assertTrue(archive.averageGameLengthByMonth().isEmpty());
+    }
+
+    @Test
+    void monthKey_matchesJavaTime() {
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            long millis = random.nextLong(-5_000_000_000_000L, 5_000_000_000_000L);
+            YearMonth expected = YearMonth.from(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+            int key = GameArchive.monthKey(millis);
+            assertEquals(expected, YearMonth.of(Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.archive.GameArchive;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.placement.FleetPlacer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parallel analytics scans over an archive of {@value #GAMES} finished
+ * games. Scores are reported per game, i.e. games scanned per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArchiveScanBenchmark {
+    static final int GAMES = 200_000;
+    private static final int DISTINCT_GAMES = 512;
+    private static final long YEAR_MILLIS = 365L * 24 * 3600 * 1000;
+
+    private Path directory;
+    private GameArchive archive;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("archive-bench");
+        archive = new GameArchive(directory.toString());
+        SplittableRandom random = new SplittableRandom(7);
+        Game[] games = new Game[DISTINCT_GAMES];
+        for (int i = 0; i < DISTINCT_GAMES; i++) {
+            games[i] = playRandomGame("g" + i, random);
+        }
+        long start = System.currentTimeMillis() - YEAR_MILLIS;
+        for (int i = 0; i < GAMES; i++) {
+            archive.archive(games[i % DISTINCT_GAMES], start + random.nextLong(YEAR_MILLIS));
+        }
+        archive.flush();
+    }
+
+    static Game playRandomGame(String id, SplittableRandom random) {
+        Game game = new Game(id, "player1", "player2");
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        game.startGame();
+        while (!game.isGameOver()) {
+            game.shoot(random.nextInt(10), random.nextInt(10));
+        }
+        return game;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public GameArchive.WinRate firstPlayerWinRate() {
+        return archive.firstPlayerWinRate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public SortedMap<?, Double> averageGameLengthByMonth() {
+        return archive.averageGameLengthByMonth();
+    }
+}
@@ -0,0 +1,96 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.placement.FleetPlacer;
+import com.battlenet.backend.view.BoardView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A board view serialized to JSON, from a game in play (full fleet, 40
+ * shots): the owner's and the fog-of-war view as base64 bitmasks built
+ * from the snapshot, against the grid's {@link Cell}s serialized as they
+ * are and a fog view built as one object per cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardViewBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Game game;
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        game = new Game("bench", "player1", "player2");
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        game.startGame();
+        board = game.getPlayer2().getBoard();
+        for (int shots = 0; shots < 40; ) {
+            if (board.shoot(random.nextInt(10), random.nextInt(10)).isFired()) {
+                shots++;
+            }
+        }
+    }
+
+    private static Map<String, Object> compact(BoardView view, boolean owner) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("size", view.size());
+        if (owner) {
+            response.put("ships", view.ships());
+        } else {
+            response.put("sunk", view.sunk());
+        }
+        response.put("hits", view.hits());
+        response.put("misses", view.misses());
+        return response;
+    }
+
+    @Benchmark
+    public byte[] compactOwner() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compact(BoardView.of(board.snapshot()), true));
+    }
+
+    @Benchmark
+    public byte[] compactFog() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(compact(BoardView.of(board.snapshot()), false));
+    }
+
+    @Benchmark
+    public byte[] naiveOwner() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(board.getGrid());
+    }
+
+    @Benchmark
+    public byte[] naiveFog() throws JsonProcessingException {
+        List<List<Map<String, Object>>> rows = new ArrayList<>();
+        for (Cell[] row : board.getGrid()) {
+            List<Map<String, Object>> cells = new ArrayList<>();
+            for (Cell cell : row) {
+                Map<String, Object> view = new HashMap<>();
+                view.put("x", cell.getX());
+                view.put("y", cell.getY());
+                view.put("state", cell.isHit() ? cell.getState() : "UNKNOWN");
+                cells.add(view);
+            }
+            rows.add(cells);
+        }
+        return objectMapper.writeValueAsBytes(rows);
+    }
+}
@@ -0,0 +1,36 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.placement.FleetPlacer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random fleet generation from the precomputed placement tables, with and
+ * without applying the layout to a fresh Board.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FleetPlacerBenchmark {
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final int[] layout = new int[5];
+
+    @Benchmark
+    public int[] randomFleet() {
+        FleetPlacer.STANDARD.randomFleet(random, layout);
+        return layout;
+    }
+
+    @Benchmark
+    public Board placeOnNewBoard() {
+        Board board = new Board();
+        FleetPlacer.STANDARD.placeRemaining(board, random);
+        return board;
+    }
+}
@@ -0,0 +1,91 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same game operation (a shot plus a version read, as an info request
+ * would do) dispatched thread-per-request, with request threads calling into
+ * games held in a shared map, and through the sharded engine, one request at
+ * a time or pipelined {@value #PIPELINE} deep.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class GameEngineBenchmark {
+    private static final int PIPELINE = 32;
+
+    @Param({"10000"})
+    public int games;
+
+    private final Map<String, Game> registry = new ConcurrentHashMap<>();
+    private String[] ids;
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(0, TurnTimeouts.NONE);
+        ids = new String[games];
+        for (int i = 0; i < games; i++) {
+            ids[i] = "game-" + i;
+            Game shared = new Game(ids[i], "player1", "player2");
+            shared.startGame();
+            registry.put(ids[i], shared);
+            Game sharded = new Game(ids[i], "player1", "player2");
+            sharded.startGame();
+            engine.register(sharded).join();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    private static int play(Game game) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        game.shoot(random.nextInt(10), random.nextInt(10));
+        return game.getVersion();
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public int threadPerRequest() {
+        return play(registry.get(randomId()));
+    }
+
+    @Benchmark
+    public int sharded() {
+        return engine.submit(randomId(), GameEngineBenchmark::play).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    @SuppressWarnings("unchecked")
+    public int shardedPipelined() {
+        CompletableFuture<Integer>[] replies = new CompletableFuture[PIPELINE];
+        for (int i = 0; i < PIPELINE; i++) {
+            replies[i] = engine.submit(randomId(), GameEngineBenchmark::play);
+        }
+        int sum = 0;
+        for (CompletableFuture<Integer> reply : replies) {
+            sum += reply.join();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,95 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.index.GameStateIndex;
+import com.battlenet.backend.model.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listing a page of PLAYING games out of {@code games} resident games, a
+ * fifth in SETUP, half playing and the rest finished, while other threads
+ * move games between states. The index walks from the cursor; the scan is
+ * what a listing costs without it, filtering every game up to the page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GameStateIndexBenchmark {
+    private static final int PAGE = 50;
+
+    @Param({"1000000"})
+    public int games;
+
+    private GameEngine engine;
+    private GameStateIndex index;
+    private Map<String, Game.GameState> resident;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(1, TurnTimeouts.NONE);
+        index = new GameStateIndex(engine);
+        resident = new HashMap<>();
+        for (int i = 0; i < games; i++) {
+            Game.GameState state = i % 10 < 2 ? Game.GameState.SETUP
+                    : i % 10 < 7 ? Game.GameState.PLAYING : Game.GameState.FINISHED;
+            index.update(gameId(i), "player-" + i, "player-" + (i + 1), state);
+            resident.put(gameId(i), state);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    private static String gameId(int i) {
+        return "game-" + i;
+    }
+
+    @Benchmark
+    @Group("index")
+    @GroupThreads(1)
+    public GameStateIndex.Page indexPage() {
+        // a cursor anywhere in the walk, as one lobby client pages through
+        long cursor = ThreadLocalRandom.current().nextLong(games);
+        return index.page(Game.GameState.PLAYING, cursor, PAGE);
+    }
+
+    @Benchmark
+    @Group("index")
+    @GroupThreads(1)
+    public void indexStateChange() {
+        // one move to FINISHED and one back, so the mix of states holds steady
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int game = random.nextInt(games);
+        boolean finished = random.nextBoolean();
+        index.update(gameId(game), null, null, finished ? Game.GameState.FINISHED : Game.GameState.PLAYING);
+    }
+
+    @Benchmark
+    public List<String> scanPage() {
+        // the same page found by scanning: skip a random number of matches, then fill the page
+        long skip = ThreadLocalRandom.current().nextLong(games / 2);
+        List<String> page = new ArrayList<>(PAGE);
+        for (Map.Entry<String, Game.GameState> e : resident.entrySet()) {
+            if (e.getValue() == Game.GameState.PLAYING && skip-- <= 0) {
+                page.add(e.getKey());
+                if (page.size() == PAGE) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+}
@@ -0,0 +1,63 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.heatmap.Heatmap;
+import com.battlenet.backend.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cost the heatmap adds to the shot path. {@code increment*} measure the
+ * counter alone, contended and not, against a single shared
+ * {@link AtomicLongArray}; {@code shootWholeBoard} is the full
+ * {@link Board#shoot} path per shot, heatmap included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeatmapBenchmark {
+    private final Heatmap heatmap = new Heatmap(10);
+    private final AtomicLongArray unstriped = new AtomicLongArray(100);
+
+    @Benchmark
+    @Threads(1)
+    public void incrementUncontended() {
+        heatmap.increment(4, 4);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void incrementHotCell() {
+        heatmap.increment(4, 4);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void unstripedHotCell() {
+        unstriped.incrementAndGet(44);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void incrementRandomCell() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        heatmap.increment(random.nextInt(10), random.nextInt(10));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public Board shootWholeBoard() {
+        Board board = new Board();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                board.shoot(x, y);
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,68 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.leaderboard.Leaderboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard updates and queries running concurrently against a
+ * pre-populated board of {@code players} players.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int players;
+
+    private Leaderboard leaderboard;
+
+    @Setup
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < players; i++) {
+            leaderboard.recordResult(playerId(i), playerId(random.nextInt(players)), 17 + random.nextInt(60));
+        }
+    }
+
+    private static String playerId(int i) {
+        return "player-" + i;
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void finishGame() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        leaderboard.recordResult(playerId(random.nextInt(players)), playerId(random.nextInt(players)), 17 + random.nextInt(60));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<Leaderboard.Standing> top10() {
+        return leaderboard.top(10);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public long rank() {
+        return leaderboard.rank(playerId(ThreadLocalRandom.current().nextInt(players)));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<Leaderboard.Standing> deepPage() {
+        return leaderboard.page(ThreadLocalRandom.current().nextInt(players / 2), 20);
+    }
+}
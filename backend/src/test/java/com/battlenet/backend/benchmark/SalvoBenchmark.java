@@ -0,0 +1,147 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.SalvoOutcome;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.model.ShotOutcome;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same {@value #SHOTS} shots, fired as salvos of five or one at a time,
+ * reported per shot. Each invocation plays a fresh game: both fleets in
+ * rows 0-4, and each board takes its five hits first (none of them sinking
+ * a ship, so every salvo stays five shots) and then 55 misses. The shard
+ * variants send each salvo or each shot to an engine shard and wait for
+ * the reply, as the endpoints do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SalvoBenchmark {
+    private static final int VOLLEY = 5;
+    private static final int PER_BOARD = 60;
+    private static final int SHOTS = 2 * PER_BOARD;
+    private static final int[] XS = new int[PER_BOARD];
+    private static final int[] YS = new int[PER_BOARD];
+    private static final int[][] VOLLEY_XS = new int[PER_BOARD / VOLLEY][];
+    private static final int[][] VOLLEY_YS = new int[PER_BOARD / VOLLEY][];
+
+    static {
+        int n = 0;
+        for (int x = 0; x < 10; x++, n++) {
+            XS[n] = x;
+        }
+        for (int y = 5; y < 10; y++) {
+            for (int x = 0; x < 10; x++, n++) {
+                XS[n] = x;
+                YS[n] = y;
+            }
+        }
+        for (int v = 0; v < VOLLEY_XS.length; v++) {
+            VOLLEY_XS[v] = new int[VOLLEY];
+            VOLLEY_YS[v] = new int[VOLLEY];
+            System.arraycopy(XS, v * VOLLEY, VOLLEY_XS[v], 0, VOLLEY);
+            System.arraycopy(YS, v * VOLLEY, VOLLEY_YS[v], 0, VOLLEY);
+        }
+    }
+
+    private GameEngine engine;
+    private Game classic;
+    private Game salvo;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(1, TurnTimeouts.NONE);
+        engine.register(new Game("anchor", "player1", "player2")).join();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void newGames() {
+        classic = newGame(Game.Mode.CLASSIC);
+        salvo = newGame(Game.Mode.SALVO);
+    }
+
+    private static Game newGame(Game.Mode mode) {
+        Game game = new Game("bench", "player1", "player2", mode);
+        Ship.ShipType[] fleet = Ship.ShipType.values();
+        for (Player player : new Player[] {game.getPlayer1(), game.getPlayer2()}) {
+            for (int x = 0; x < fleet.length; x++) {
+                player.placeShip(fleet[x], x, 0, true);
+            }
+        }
+        game.startGame();
+        return game;
+    }
+
+    // Next shot at the board of whoever is not to move; cursors[0] for player 1's board
+    private static ShotOutcome shootNext(Game game, int[] cursors) {
+        int board = game.isPlayer1Turn() ? 1 : 0;
+        int i = cursors[board]++;
+        return game.shoot(XS[i], YS[i]);
+    }
+
+    private static SalvoOutcome fireNext(Game game, int[] cursors) {
+        int board = game.isPlayer1Turn() ? 1 : 0;
+        int v = cursors[board]++;
+        return game.salvo(0, VOLLEY_XS[v], VOLLEY_YS[v]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHOTS)
+    public int singleShots() {
+        int[] cursors = new int[2];
+        int hits = 0;
+        for (int i = 0; i < SHOTS; i++) {
+            hits += shootNext(classic, cursors).isHit() ? 1 : 0;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHOTS)
+    public int salvos() {
+        int[] cursors = new int[2];
+        int hits = 0;
+        for (int v = 0; v < SHOTS / VOLLEY; v++) {
+            hits += fireNext(salvo, cursors).getHits();
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHOTS)
+    public int shardSingleShots() {
+        int[] cursors = new int[2];
+        Game game = classic;
+        int hits = 0;
+        for (int i = 0; i < SHOTS; i++) {
+            hits += engine.submit("anchor", g -> shootNext(game, cursors)).join().isHit() ? 1 : 0;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SHOTS)
+    public int shardSalvos() {
+        int[] cursors = new int[2];
+        Game game = salvo;
+        int hits = 0;
+        for (int v = 0; v < SHOTS / VOLLEY; v++) {
+            hits += engine.submit("anchor", g -> fireNext(game, cursors)).join().getHits();
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,124 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.model.BoardSnapshot;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameSnapshot;
+import com.battlenet.backend.placement.FleetPlacer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three readers summarising a game (shots and sunk ships per board, as a
+ * spectator view would) while one writer keeps shooting, replacing the game
+ * when it ends. Readers use the published snapshot, the live grid without
+ * any locking (fast but racy), or the live grid under the game's monitor
+ * with the writer taking the same monitor.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotBenchmark {
+    private volatile Game game;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        game = newGame();
+    }
+
+    private static Game newGame() {
+        Game game = new Game("bench", "player1", "player2");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        game.startGame();
+        return game;
+    }
+
+    private void shootOnce(Game current) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        current.shoot(random.nextInt(10), random.nextInt(10));
+        if (current.isGameOver()) {
+            game = newGame();
+        }
+    }
+
+    private static int summarise(BoardSnapshot board) {
+        int sunk = 0;
+        for (BoardSnapshot.PlacedShip ship : board.getShips()) {
+            if (ship.isSunk(board)) {
+                sunk++;
+            }
+        }
+        return board.getShotCount() * 8 + sunk;
+    }
+
+    private static int summarise(Cell[][] grid) {
+        int shots = 0;
+        for (Cell[] row : grid) {
+            for (Cell cell : row) {
+                if (cell.isHit()) {
+                    shots++;
+                }
+            }
+        }
+        return shots * 8;
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public int snapshotRead() {
+        GameSnapshot snapshot = game.snapshot();
+        return summarise(snapshot.board1()) + summarise(snapshot.board2()) + snapshot.version();
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void snapshotWrite() {
+        shootOnce(game);
+    }
+
+    @Benchmark
+    @Group("unlocked")
+    @GroupThreads(3)
+    public int unlockedRead() {
+        Game current = game;
+        return summarise(current.getPlayer1().getBoard().getGrid())
+                + summarise(current.getPlayer2().getBoard().getGrid()) + current.getVersion();
+    }
+
+    @Benchmark
+    @Group("unlocked")
+    @GroupThreads(1)
+    public void unlockedWrite() {
+        shootOnce(game);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public int lockedRead() {
+        Game current = game;
+        synchronized (current) {
+            return summarise(current.getPlayer1().getBoard().getGrid())
+                    + summarise(current.getPlayer2().getBoard().getGrid()) + current.getVersion();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedWrite() {
+        Game current = game;
+        synchronized (current) {
+            shootOnce(current);
+        }
+    }
+}
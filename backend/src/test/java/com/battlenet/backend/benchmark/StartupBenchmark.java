@@ -0,0 +1,127 @@
+package com.battlenet.backend.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time from process launch to the first successful {@code /api/game/create},
+ * and the resident set size at that moment, for each packaged build mode
+ * found under {@code target/}:
+ * <ul>
+ *   <li>{@code jvm}: the plain executable jar ({@code mvn package})</li>
+ *   <li>{@code aot-cds}: AOT classes plus the CDS archive ({@code mvn -Pfast-start package})</li>
+ *   <li>{@code native}: the GraalVM image ({@code mvn -Pnative native:compile})</li>
+ * </ul>
+ * Not a JMH benchmark, since each sample is a fresh process:
+ * {@code java -cp target/test-classes com.battlenet.backend.benchmark.StartupBenchmark [runs] [targetDir]}
+ */
+public class StartupBenchmark {
+    private static final String JAR = "backend-0.0.1-SNAPSHOT.jar";
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    record Mode(String name, Path artifact, List<String> command) {
+    }
+
+    record Sample(long millisToFirstCreate, long rssKb) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path target = Path.of(args.length > 1 ? args[1] : "target");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Mode> modes = List.of(
+                new Mode("jvm", target.resolve(JAR),
+                        List.of(java, "-jar", target.resolve(JAR).toString())),
+                new Mode("aot-cds", target.resolve("fast-start/application.jsa"),
+                        List.of(java, "-XX:SharedArchiveFile=" + target.resolve("fast-start/application.jsa"),
+                                "-Dspring.aot.enabled=true",
+                                "-jar", target.resolve("fast-start/" + JAR).toString())),
+                new Mode("native", target.resolve("backend"),
+                        List.of(target.resolve("backend").toString())));
+
+        System.out.printf("%-8s %6s %12s %12s %10s%n", "mode", "runs", "median ms", "best ms", "RSS MB");
+        for (Mode mode : modes) {
+            if (!Files.exists(mode.artifact())) {
+                System.out.printf("%-8s skipped, %s not built%n", mode.name(), mode.artifact());
+                continue;
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                samples.add(measure(mode));
+            }
+            long[] millis = samples.stream().mapToLong(Sample::millisToFirstCreate).sorted().toArray();
+            long[] rss = samples.stream().mapToLong(Sample::rssKb).sorted().toArray();
+            System.out.printf("%-8s %6d %12d %12d %10s%n", mode.name(), runs,
+                    millis[millis.length / 2], millis[0],
+                    rss[rss.length / 2] < 0 ? "n/a" : String.valueOf(rss[rss.length / 2] / 1024));
+        }
+    }
+
+    static Sample measure(Mode mode) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.command());
+        command.addAll(Arrays.asList("--server.port=" + port,
+                "--battlenet.profiles.path=", "--battlenet.archive.path=", "--battlenet.persistence.url="));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest create = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/game/create"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(create, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        return new Sample(millis, rssKb(process.pid()));
+                    }
+                } catch (IOException notListeningYet) {
+                    // keep polling until the port opens
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(mode.name() + " did not answer within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    // Linux only; other platforms report -1
+    static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // fall through
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
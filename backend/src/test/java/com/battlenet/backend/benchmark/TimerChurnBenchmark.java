@@ -0,0 +1,89 @@
+package com.battlenet.backend.benchmark;
+
+import com.battlenet.backend.engine.TimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turn deadline churn with many games in play: every shot re-arms its
+ * game's deadline, and every finished game cancels one while a new game
+ * arms another. The shard's timing wheel relinks the game's own timer node;
+ * the alternative of a scheduler task per game cancels a
+ * {@link ScheduledFuture} and schedules a new one, which allocates and
+ * reorders the executor's heap.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimerChurnBenchmark {
+    private static final long TURN_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Runnable EXPIRE = () -> {
+    };
+
+    @Param({"100000", "500000"})
+    public int games;
+
+    private TimingWheel wheel;
+    private TimingWheel.Timer[] timers;
+    private ScheduledThreadPoolExecutor executor;
+    private ScheduledFuture<?>[] tasks;
+
+    @Setup
+    public void setUp() {
+        long now = System.nanoTime();
+        wheel = new TimingWheel(TICK_NANOS, 1024, now);
+        timers = new TimingWheel.Timer[games];
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        tasks = new ScheduledFuture<?>[games];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < games; i++) {
+            // spread deadlines over a whole turn, as games move at different times
+            long delay = random.nextLong(TURN_NANOS);
+            timers[i] = new TimingWheel.Timer();
+            wheel.schedule(timers[i], delay, now);
+            tasks[i] = executor.schedule(EXPIRE, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private int randomGame() {
+        return ThreadLocalRandom.current().nextInt(games);
+    }
+
+    @Benchmark
+    public int wheelRearm() {
+        wheel.schedule(timers[randomGame()], TURN_NANOS, System.nanoTime());
+        return wheel.size();
+    }
+
+    @Benchmark
+    public int wheelCancelAndArm() {
+        int game = randomGame();
+        wheel.cancel(timers[game]);
+        TimingWheel.Timer next = new TimingWheel.Timer();
+        wheel.schedule(next, TURN_NANOS, System.nanoTime());
+        timers[game] = next;
+        return wheel.size();
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> executorRearm() {
+        int game = randomGame();
+        tasks[game].cancel(false);
+        tasks[game] = executor.schedule(EXPIRE, TURN_NANOS, TimeUnit.NANOSECONDS);
+        return tasks[game];
+    }
+}
@@ -0,0 +1,99 @@
+package com.battlenet.backend.cache;
+
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameViewCacheTest {
+
+    private GameViewCache cache;
+    private Game game;
+    private AtomicInteger serializations;
+    private Function<Game, byte[]> serializer;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GameViewCache();
+        game = new Game("g1", "Alice", "Bob");
+        serializations = new AtomicInteger();
+        serializer = g -> {
+            serializations.incrementAndGet();
+            return (g.getGameId() + ":" + g.getVersion()).getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    @Test
+    void repeatedReads_ofUnchangedGame_areServedFromCache() {
+        byte[] first = cache.get(game, serializer);
+        byte[] second = cache.get(game, serializer);
+
+        assertSame(first, second);
+        assertEquals(1, serializations.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void placeShip_invalidatesCachedView() {
+        cache.get(game, serializer);
+        Cell c = game.getPlayer1().getBoard().getCell(0, 0);
+        assertTrue(game.getPlayer1().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(c), true)));
+
+        cache.get(game, serializer);
+        assertEquals(2, serializations.get());
+    }
+
+    @Test
+    void rejectedPlacement_keepsCachedView() {
+        Ship outside = new Ship(Ship.ShipType.DESTROYER, List.of(new Cell(10, 10)), true);
+        cache.get(game, serializer);
+        assertFalse(game.getPlayer1().placeShip(outside));
+
+        cache.get(game, serializer);
+        assertEquals(1, serializations.get());
+    }
+
+    @Test
+    void startGame_and_shoot_invalidateCachedView() {
+        cache.get(game, serializer);
+        game.startGame();
+        cache.get(game, serializer);
+        game.shoot(5, 5);
+        cache.get(game, serializer);
+
+        assertEquals(3, serializations.get());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void evict_removesEntry() {
+        cache.get(game, serializer);
+        assertEquals(1, cache.size());
+        cache.evict("g1");
+        assertEquals(0, cache.size());
+        cache.get(game, serializer);
+        assertEquals(2, serializations.get());
+    }
+
+    @Test
+    void hitRatio_isZero_beforeAnyRead() {
+        assertEquals(0.0, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void viewLength_isCachedByteCount() {
+        assertEquals(-1, cache.viewLength("g1"));
+        byte[] view = cache.get(game, serializer);
+        assertEquals(view.length, cache.viewLength("g1"));
+    }
+}
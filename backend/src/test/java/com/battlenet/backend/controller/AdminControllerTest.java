@@ -0,0 +1,63 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.cache.GameViewCache;
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.memory.GameFootprint;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.persistence.JdbcRowStore;
+import com.battlenet.backend.persistence.MatchPersistence;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@WebMvcTest(value = AdminController.class, properties = "battlenet.persistence.url=")
+@Import({GameFootprint.class, GameEngine.class, TurnTimeouts.class, GameViewCache.class, JdbcRowStore.class,
+        MatchPersistence.class})
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GameEngine engine;
+
+    @Autowired
+    private GameFootprint footprint;
+
+    @Test
+    void testMemory_ReportsEstimatesByStateAndPart() throws Exception {
+        Game game = new Game("admin1", "player1", "player2");
+        engine.register(game).join();
+        long estimate = footprint.estimate(game);
+
+        mockMvc.perform(get("/api/admin/memory"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.games").value(1))
+                .andExpect(jsonPath("$.bytes").value((int) estimate))
+                .andExpect(jsonPath("$.bytesPerGame").value((int) estimate))
+                .andExpect(jsonPath("$.byState.SETUP.games").value(1))
+                .andExpect(jsonPath("$.byState.PLAYING.games").value(0))
+                .andExpect(jsonPath("$.byState.FINISHED.bytes").value(0))
+                .andExpect(jsonPath("$.byPart.CELLS", greaterThan(0)))
+                .andExpect(jsonPath("$.layout.referenceSize", anyOf(is(4), is(8))));
+    }
+
+    @Test
+    void testPersistence_ReportsTheWriterWhenSwitchedOff() throws Exception {
+        mockMvc.perform(get("/api/admin/persistence"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.enabled").value(false))
+                .andExpect(jsonPath("$.queued").value(0))
+                .andExpect(jsonPath("$.flushedRows").value(0))
+                .andExpect(jsonPath("$.droppedRows").value(0));
+    }
+}
@@ -1,23 +1,58 @@
 package com.battlenet.backend.controller;
 
+import com.battlenet.backend.admission.AdmissionControl;
+import com.battlenet.backend.archive.GameArchive;
+import com.battlenet.backend.cache.GameViewCache;
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.index.GameStateIndex;
+import com.battlenet.backend.index.PlayerGameIndex;
+import com.battlenet.backend.leaderboard.Leaderboard;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.profile.PlayerProfileService;
+import com.battlenet.backend.replay.ReplayExporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @WebMvcTest(GameController.class)
+@Import({GameViewCache.class, ReplayExporter.class, Leaderboard.class, PlayerProfileService.class,
+        GameArchive.class, AdmissionControl.class, GameEngine.class, TurnTimeouts.class, PlayerGameIndex.class,
+        GameStateIndex.class})
+@TestPropertySource(properties = {"battlenet.profiles.path=", "battlenet.archive.path="})
 class GameControllerTest {
     
     @Autowired
@@ -25,12 +60,31 @@ class GameControllerTest {
     
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private GameEngine engine;
+
+    @Autowired
+    private PlayerGameIndex playerGames;
+
+    @Autowired
+    private AdmissionControl admission;
     
     private String gameId;
+    private String player1Token;
+    private String player2Token;
     
+    // Game commands reply once the game's shard has run them
+    private ResultActions perform(RequestBuilder builder) throws Exception {
+        MvcResult pending = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending));
+    }
+
     @BeforeEach
     void setUp() throws Exception {
-        MvcResult result = mockMvc.perform(post("/api/game/create"))
+        MvcResult result = perform(post("/api/game/create"))
                 .andExpect(status().isOk())
                 .andReturn();
         
@@ -38,11 +92,14 @@ class GameControllerTest {
         Map<String, Object> responseMap = objectMapper.readValue(response, 
             new TypeReference<Map<String, Object>>() {});
         this.gameId = (String) responseMap.get("gameId");
+        Map<?, ?> game = (Map<?, ?>) responseMap.get("game");
+        this.player1Token = (String) ((Map<?, ?>) game.get("player1")).get("token");
+        this.player2Token = (String) ((Map<?, ?>) game.get("player2")).get("token");
     }
     
     @Test
     void testCreateGame() throws Exception {
-        mockMvc.perform(post("/api/game/create"))
+        perform(post("/api/game/create"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.gameId").exists())
                 .andExpect(jsonPath("$.message").value("Game created successfully"))
@@ -54,10 +111,159 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.game.currentTurn").value("player1"));
     }
     
+    @SuppressWarnings("null")
+    @Test
+    void testCreateGame_WithPlayerIds() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("player1Id", "alice");
+        request.put("player2Id", "bob");
+
+        perform(post("/api/game/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.game.player1.id").value("alice"))
+                .andExpect(jsonPath("$.game.player2.id").value("bob"))
+                .andExpect(jsonPath("$.game.player1.name").value("player1"));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testCreateGame_GivesGuestIdsAndIndexesThePlayers() throws Exception {
+        String body = perform(post("/api/game/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("player1Id", "erin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.game.player1.id").value("erin"))
+                .andExpect(jsonPath("$.game.player2.id").value(startsWith(Player.GUEST_PREFIX)))
+                .andReturn().getResponse().getContentAsString();
+        Map<String, Object> response = objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+        String createdId = (String) response.get("gameId");
+
+        PlayerGameIndex.Entry entry = playerGames.page("erin", null, 1).games().get(0);
+        assertEquals(createdId, entry.gameId());
+        assertTrue(Player.isGuestId(entry.opponentId()));
+        assertEquals(1, playerGames.count(entry.opponentId()));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testCreateGame_InvalidPlayerId() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("player1Id", "not valid!");
+
+        perform(post("/api/game/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testCreateGames_StreamsOneLinePerPairingInOrder() throws Exception {
+        List<Map<String, Object>> pairings = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            pairings.add(Map.of("player1Id", "home-" + i, "player2Id", "away-" + i));
+        }
+        pairings.add(Map.of());
+
+        MvcResult pending = mockMvc.perform(post("/api/game/create/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("pairings", pairings))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(pairings.size(), lines.length);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < lines.length; i++) {
+            Map<String, Object> line = objectMapper.readValue(lines[i], new TypeReference<Map<String, Object>>() {});
+            if (i < lines.length - 1) {
+                assertEquals(pairings.get(i).get("player1Id"), line.get("player1Id"));
+                assertEquals(pairings.get(i).get("player2Id"), line.get("player2Id"));
+            } else {
+                assertTrue(Player.isGuestId((String) line.get("player1Id")), "a pairing without ids gets guests");
+                assertTrue(Player.isGuestId((String) line.get("player2Id")));
+            }
+            assertNotNull(line.get("player1Token"));
+            assertNotEquals(line.get("player1Token"), line.get("player2Token"));
+            ids.add((String) line.get("gameId"));
+        }
+        assertEquals(lines.length, ids.size());
+
+        Map<String, Object> first = objectMapper.readValue(lines[0], new TypeReference<Map<String, Object>>() {});
+        perform(post("/api/game/" + first.get("gameId")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("SETUP"))
+                .andExpect(jsonPath("$.player1.id").value("home-0"))
+                .andExpect(jsonPath("$.player2.id").value("away-0"))
+                .andExpect(jsonPath("$.player1.token").doesNotExist());
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testCreateGames_InvalidPairingRefusesTheWholeRequest() throws Exception {
+        int games = engine.games().join().size();
+        List<Map<String, Object>> pairings = List.of(Map.of("player1Id", "alice"), Map.of("player1Id", "not valid!"));
+
+        MvcResult pending = mockMvc.perform(post("/api/game/create/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("pairings", pairings))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false));
+
+        assertEquals(games, engine.games().join().size());
+    }
+
+    @Test
+    void testListGames_FollowsTheGameFromSetupToPlaying() throws Exception {
+        assertTrue(listedIds("SETUP").contains(gameId));
+
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"));
+
+        assertTrue(listedIds("PLAYING").contains(gameId));
+        assertFalse(listedIds("SETUP").contains(gameId));
+        mockMvc.perform(get("/api/game/list").param("state", "PLAYING").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("PLAYING"))
+                .andExpect(jsonPath("$.total").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.games.length()").value(1))
+                .andExpect(jsonPath("$.games[0].gameId").exists());
+    }
+
+    // Every game listed under the state, a page at a time
+    private List<String> listedIds(String state) throws Exception {
+        List<String> ids = new ArrayList<>();
+        Object cursor = null;
+        do {
+            var request = get("/api/game/list").param("state", state).param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor.toString());
+            }
+            String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            Map<String, Object> page = objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+            for (Object game : (List<?>) page.get("games")) {
+                ids.add((String) ((Map<?, ?>) game).get("gameId"));
+            }
+            cursor = page.get("nextCursor");
+        } while (cursor != null);
+        return ids;
+    }
+
     @SuppressWarnings("null")
     @Test
     void testGetGameInfo_ExistingGame() throws Exception {
-        mockMvc.perform(post("/api/game/" + gameId))
+        perform(post("/api/game/" + gameId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.gameId").value(gameId))
                 .andExpect(jsonPath("$.state").value("SETUP"))
@@ -67,9 +273,24 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.winner").value(nullValue()));
     }
     
+    @Test
+    void testGetGameInfo_ReflectsPlacementAfterCachedRead() throws Exception {
+        perform(post("/api/game/" + gameId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.player1.shipsCount").value(0));
+
+        placeAllShipsForPlayer(1);
+
+        perform(post("/api/game/" + gameId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.player1.shipsCount").value(5))
+                .andExpect(jsonPath("$.player1.shipsPlaced").value(true));
+    }
+    
     @Test
     void testGetGameInfo_NonExistingGame() throws Exception {
-        mockMvc.perform(post("/api/game/nonexistent"))
+        perform(post("/api/game/nonexistent"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.error").value("Game not found"));
     }
@@ -84,7 +305,7 @@ class GameControllerTest {
         request.put("y", 0);
         request.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -104,7 +325,7 @@ class GameControllerTest {
         request.put("y", 0);
         request.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/nonexistent/place-ship")
+        perform(post("/api/game/nonexistent/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -122,7 +343,7 @@ class GameControllerTest {
         request.put("y", 0);
         request.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -140,7 +361,7 @@ class GameControllerTest {
         request1.put("y", 0);
         request1.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request1)))
                 .andExpect(status().isOk())
@@ -153,7 +374,7 @@ class GameControllerTest {
         request2.put("y", 0);
         request2.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request2)))
                 .andExpect(status().isOk())
@@ -162,6 +383,36 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.reason").exists());
     }
     
+    @SuppressWarnings("null")
+    @Test
+    void testPlaceShip_SecondShipOfATypeIsRefused() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("player", 1);
+        request.put("shipType", "CARRIER");
+        request.put("x", 0);
+        request.put("y", 0);
+        request.put("horizontal", true);
+        perform(post("/api/game/" + gameId + "/place-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(true));
+
+        request.put("x", 5);
+        perform(post("/api/game/" + gameId + "/place-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message", endsWith("is already placed")));
+
+        // the fleet can still be completed around the one carrier
+        request.remove("shipType");
+        perform(post("/api/game/" + gameId + "/auto-place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.shipsPlaced").value(5));
+    }
+
     @SuppressWarnings("null")
     @Test
     void testPlaceShip_VerticalPlacement() throws Exception {
@@ -172,7 +423,7 @@ class GameControllerTest {
         request.put("y", 0);
         request.put("horizontal", false);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -191,7 +442,7 @@ class GameControllerTest {
         request.put("y", 0);
         request.put("horizontal", true);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -199,9 +450,73 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.shipType").value("SUBMARINE"));
     }
     
+    @Test
+    @DirtiesContext
+    void testCreateGame_GivesBackItsSlotWhenTheGameIsNotRegistered() throws Exception {
+        int active = admission.getActiveGames();
+        engine.close();
+
+        mockMvc.perform(post("/api/game/create"))
+                .andExpect(request().asyncStarted());
+
+        assertEquals(active, admission.getActiveGames());
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testPlaceShip_RefusedOnceTheGameHasStarted() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(jsonPath("$.success").value(true));
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("player", 1);
+        request.put("shipType", "DESTROYER");
+        request.put("x", 8);
+        request.put("y", 8);
+        request.put("horizontal", true);
+        perform(post("/api/game/" + gameId + "/place-ship")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Ships can only be placed during SETUP"));
+
+        assertEquals(5, engine.submit(gameId, g -> g.getPlayer1().getBoard().getShips().size()).join());
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testAutoPlace_CompletesFleet_AndAllowsStart() throws Exception {
+        Map<String, Object> request = new HashMap<>();
+        request.put("player", 1);
+        perform(post("/api/game/" + gameId + "/auto-place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.ships", hasSize(5)))
+                .andExpect(jsonPath("$.allShipsPlaced").value(true));
+
+        request.put("player", 2);
+        perform(post("/api/game/" + gameId + "/auto-place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(true));
+
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(jsonPath("$.success").value(true));
+
+        perform(post("/api/game/" + gameId + "/auto-place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Ships can only be placed during SETUP"));
+    }
+    
     @Test
     void testStartGame_GameNotFound() throws Exception {
-        mockMvc.perform(post("/api/game/nonexistent/start"))
+        perform(post("/api/game/nonexistent/start"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Game not found"));
@@ -209,7 +524,7 @@ class GameControllerTest {
     
     @Test
     void testStartGame_PlayersNotReady() throws Exception {
-        mockMvc.perform(post("/api/game/" + gameId + "/start"))
+        perform(post("/api/game/" + gameId + "/start"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Both players must place all ships before starting the game"))
@@ -222,13 +537,27 @@ class GameControllerTest {
         placeAllShipsForPlayer(1);
         placeAllShipsForPlayer(2);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/start"))
+        perform(post("/api/game/" + gameId + "/start"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Game started!"))
                 .andExpect(jsonPath("$.state").value("PLAYING"))
                 .andExpect(jsonPath("$.currentTurn").exists());
     }
+
+    @Test
+    void testStartGame_AlreadyStarted() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(jsonPath("$.success").value(true));
+
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Game has already started"))
+                .andExpect(jsonPath("$.state").value("PLAYING"));
+    }
     
     @SuppressWarnings("null")
     @Test
@@ -237,7 +566,7 @@ class GameControllerTest {
         request.put("x", 0);
         request.put("y", 0);
         
-        mockMvc.perform(post("/api/game/nonexistent/shoot")
+        perform(post("/api/game/nonexistent/shoot")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -252,7 +581,7 @@ class GameControllerTest {
         request.put("x", 0);
         request.put("y", 0);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/shoot")
+        perform(post("/api/game/" + gameId + "/shoot")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -266,14 +595,14 @@ class GameControllerTest {
         placeAllShipsForPlayer(1);
         placeAllShipsForPlayer(2);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/start"))
+        perform(post("/api/game/" + gameId + "/start"))
                 .andExpect(status().isOk());
         
         Map<String, Object> request = new HashMap<>();
         request.put("x", 0);
         request.put("y", 0);
         
-        mockMvc.perform(post("/api/game/" + gameId + "/shoot")
+        perform(post("/api/game/" + gameId + "/shoot")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -283,6 +612,297 @@ class GameControllerTest {
                 .andExpect(jsonPath("$.isGameOver").exists());
     }
     
+    @SuppressWarnings("null")
+    @Test
+    void testShoot_ReturnsStructuredOutcomes() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(status().isOk());
+
+        Map<String, Object> outOfTurn = new HashMap<>();
+        outOfTurn.put("player", 2);
+        outOfTurn.put("x", 0);
+        outOfTurn.put("y", 0);
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(outOfTurn)))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.result").value("NOT_YOUR_TURN"))
+                .andExpect(jsonPath("$.currentTurn").value("player1"));
+
+        Map<String, Object> hit = new HashMap<>();
+        hit.put("player", 1);
+        hit.put("x", 4);
+        hit.put("y", 0);
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(hit)))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.result").value("HIT"));
+
+        hit.put("y", 1);
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(hit)))
+                .andExpect(jsonPath("$.result").value("SUNK"))
+                .andExpect(jsonPath("$.sunkShip").value("DESTROYER"));
+
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(hit)))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.result").value("REPEAT"))
+                .andExpect(jsonPath("$.currentTurn").value("player1"));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testSalvo_ResolvesTheVolleyInOneRequest() throws Exception {
+        String body = perform(post("/api/game/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("mode", "SALVO"))))
+                .andExpect(jsonPath("$.game.mode").value("SALVO"))
+                .andReturn().getResponse().getContentAsString();
+        gameId = (String) objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {}).get("gameId");
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(jsonPath("$.success").value(true));
+
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("player", 1, "x", 0, "y", 0))))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.result").value("WRONG_MODE"));
+        perform(post("/api/game/" + gameId + "/salvo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("player", 1,
+                                "shots", List.of(Map.of("x", 0, "y", 0))))))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.result").value("WRONG_SALVO_SIZE"));
+
+        // five ships afloat, five shots: the destroyer sunk, a miss and two hits on the carrier;
+        // player 2 then has four ships afloat, so four shots
+        List<Map<String, Object>> shots = List.of(Map.of("x", 4, "y", 0), Map.of("x", 4, "y", 1),
+                Map.of("x", 9, "y", 9), Map.of("x", 0, "y", 0), Map.of("x", 0, "y", 1));
+        perform(post("/api/game/" + gameId + "/salvo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("player", 1, "shots", shots))))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.shots[0].result").value("HIT"))
+                .andExpect(jsonPath("$.shots[1].result").value("SUNK"))
+                .andExpect(jsonPath("$.shots[1].sunkShip").value("DESTROYER"))
+                .andExpect(jsonPath("$.shots[2].result").value("MISS"))
+                .andExpect(jsonPath("$.shots[4].x").value(0))
+                .andExpect(jsonPath("$.shots[4].y").value(1))
+                .andExpect(jsonPath("$.sunkShips[0]").value("DESTROYER"))
+                .andExpect(jsonPath("$.currentTurn").value("player2"))
+                .andExpect(jsonPath("$.nextSalvoSize").value(4))
+                .andExpect(jsonPath("$.isGameOver").value(false));
+
+        perform(post("/api/game/" + gameId))
+                .andExpect(jsonPath("$.mode").value("SALVO"));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testBoardViews_OwnerSeesShips_OpponentOnlyShotsAndSunkShips() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"));
+        // player 1 sinks the destroyer and misses
+        shootAs(1, 4, 0);
+        shootAs(1, 4, 1);
+        shootAs(1, 9, 9);
+
+        Map<String, Object> owner = getJson("/api/game/" + gameId + "/board/2?token=" + player2Token);
+        assertEquals(true, owner.get("success"));
+        assertEquals("owner", owner.get("view"));
+        assertEquals(17, bits((String) owner.get("ships")));
+        assertEquals(2, bits((String) owner.get("hits")));
+        assertEquals(1, bits((String) owner.get("misses")));
+
+        Map<String, Object> fog = getJson("/api/game/" + gameId + "/board/2/fog");
+        assertFalse(fog.containsKey("ships"));
+        assertEquals(owner.get("hits"), fog.get("hits"));
+        assertEquals(owner.get("misses"), fog.get("misses"));
+        assertEquals(2, bits((String) fog.get("sunk")));
+        assertEquals(0, bits((String) getJson("/api/game/" + gameId + "/board/1/fog").get("hits")));
+
+        // the opponent asking for the owner's view with their own token gets the fog view
+        Map<String, Object> peek = getJson("/api/game/" + gameId + "/board/2?token=" + player1Token);
+        assertEquals("fog", peek.get("view"));
+        assertFalse(peek.containsKey("ships"));
+        assertEquals(fog.get("sunk"), peek.get("sunk"));
+        mockMvc.perform(get("/api/game/" + gameId + "/board/2"))
+                .andExpect(status().isBadRequest());
+
+        perform(get("/api/game/" + gameId + "/board/3").param("token", player1Token))
+                .andExpect(jsonPath("$.success").value(false));
+        perform(get("/api/game/nope/board/1").param("token", player1Token))
+                .andExpect(jsonPath("$.message").value("Game not found"));
+    }
+
+    @SuppressWarnings("null")
+    @Test
+    void testBoardView_PlayerIdFromGameInfoDoesNotUnlockOwnerView() throws Exception {
+        placeAllShipsForPlayer(2);
+
+        Map<?, ?> info = objectMapper.readValue(perform(post("/api/game/" + gameId))
+                .andReturn().getResponse().getContentAsString(), Map.class);
+        Map<?, ?> player2 = (Map<?, ?>) info.get("player2");
+        assertFalse(player2.containsKey("token"));
+        String player2Id = (String) player2.get("id");
+
+        Map<String, Object> view = getJson("/api/game/" + gameId + "/board/2?token=" + player2Id);
+        assertEquals("fog", view.get("view"));
+        assertFalse(view.containsKey("ships"));
+        assertEquals("owner", getJson("/api/game/" + gameId + "/board/2?token=" + player2Token).get("view"));
+    }
+
+    private Map<String, Object> getJson(String path) throws Exception {
+        String body = perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+    }
+
+    // Cells set in a base64 board mask
+    private static int bits(String mask) {
+        int n = 0;
+        for (byte b : Base64.getDecoder().decode(mask)) {
+            n += Integer.bitCount(b & 0xFF);
+        }
+        return n;
+    }
+
+    @Test
+    void testExportGames_StreamsRequestedGameAsNdjson() throws Exception {
+        placeAllShipsForPlayer(1);
+
+        MvcResult pending = mockMvc.perform(get("/api/game/export").param("ids", gameId, "nonexistent"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(1, lines.length);
+        Map<String, Object> line = objectMapper.readValue(lines[0], new TypeReference<Map<String, Object>>() {});
+        assertEquals(gameId, line.get("gameId"));
+        assertEquals(5, ((List<?>) line.get("events")).size());
+    }
+    
+    @Test
+    void testGetGameInfo_SameJsonAfterCompaction() throws Exception {
+        Game created = engine.submit(gameId, g -> g).join();
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"));
+        playToWin();
+
+        // the same game played directly and finished before it is registered, so it is never compacted
+        Game live = new Game("live01", "player1", "player2");
+        live.getPlayer1().setId(created.getPlayer1().getId());
+        live.getPlayer2().setId(created.getPlayer2().getId());
+        for (Ship.ShipType type : Ship.ShipType.values()) {
+            live.getPlayer1().placeShip(type, type.ordinal(), 0, true);
+            live.getPlayer2().placeShip(type, type.ordinal(), 0, true);
+        }
+        live.startGame();
+        live.shoot(1, 9, 9);
+        live.shoot(2, 9, 9);
+        for (Ship.ShipType type : Ship.ShipType.values()) {
+            for (int y = 0; y < type.getSize(); y++) {
+                live.shoot(1, type.ordinal(), y);
+            }
+        }
+        assertTrue(live.isGameOver());
+        assertTrue(engine.register(live).join());
+
+        assertNull(engine.submit(gameId, g -> g).join(), "finished game is compacted");
+        String compacted = perform(post("/api/game/" + gameId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("FINISHED"))
+                .andExpect(jsonPath("$.isGameOver").value(true))
+                .andExpect(jsonPath("$.winner").value("player1"))
+                .andExpect(jsonPath("$.player2.shipsCount").value(5))
+                .andReturn().getResponse().getContentAsString();
+
+        String expected = perform(post("/api/game/live01"))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(expected.replace("live01", gameId), compacted);
+    }
+
+    @Test
+    void testCompactedGame_RefusesFurtherCommands() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"));
+        playToWin();
+
+        perform(post("/api/game/" + gameId + "/shoot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"x\":5,\"y\":5}"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Game is not in PLAYING state"));
+        perform(post("/api/game/" + gameId + "/start"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Game has already started"))
+                .andExpect(jsonPath("$.state").value("FINISHED"));
+        perform(post("/api/game/" + gameId + "/auto-place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"player\":1}"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Ships can only be placed during SETUP"));
+    }
+
+    @Test
+    void testExportGames_IncludesCompactedGame() throws Exception {
+        placeAllShipsForPlayer(1);
+        placeAllShipsForPlayer(2);
+        perform(post("/api/game/" + gameId + "/start"));
+        playToWin();
+
+        MvcResult pending = mockMvc.perform(get("/api/game/export")
+                        .param("ids", gameId).param("state", "FINISHED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        Map<String, Object> line = objectMapper.readValue(lines[0], new TypeReference<Map<String, Object>>() {});
+        assertEquals("FINISHED", line.get("state"));
+        assertEquals("player1", line.get("winner"));
+        // ten placements, two misses and the seventeen hits that sank player 2's fleet
+        assertEquals(29, ((List<?>) line.get("events")).size());
+    }
+
+    // player 1 and player 2 each miss once, then player 1 sinks the fleet laid out by placeAllShipsForPlayer
+    private void playToWin() throws Exception {
+        shootAs(1, 9, 9);
+        shootAs(2, 9, 9);
+        int[] sizes = {5, 4, 3, 3, 2};
+        for (int x = 0; x < sizes.length; x++) {
+            for (int y = 0; y < sizes[x]; y++) {
+                shootAs(1, x, y);
+            }
+        }
+    }
+
+    private void shootAs(int player, int x, int y) throws Exception {
+        perform(post("/api/game/" + gameId + "/shoot")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("player", player, "x", x, "y", y))));
+    }
+
     @SuppressWarnings("null")
     private void placeAllShipsForPlayer(int player) throws Exception {
         Map<String, Object> carrier = new HashMap<>();
@@ -291,7 +911,7 @@ class GameControllerTest {
         carrier.put("x", 0);
         carrier.put("y", 0);
         carrier.put("horizontal", true);
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(carrier)));
         
@@ -301,7 +921,7 @@ class GameControllerTest {
         battleship.put("x", 1);
         battleship.put("y", 0);
         battleship.put("horizontal", true);
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(battleship)));
         
@@ -311,7 +931,7 @@ class GameControllerTest {
         cruiser.put("x", 2);
         cruiser.put("y", 0);
         cruiser.put("horizontal", true);
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(cruiser)));
         
@@ -321,7 +941,7 @@ class GameControllerTest {
         submarine.put("x", 3);
         submarine.put("y", 0);
         submarine.put("horizontal", true);
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(submarine)));
         
@@ -331,7 +951,7 @@ class GameControllerTest {
         destroyer.put("x", 4);
         destroyer.put("y", 0);
         destroyer.put("horizontal", true);
-        mockMvc.perform(post("/api/game/" + gameId + "/place-ship")
+        perform(post("/api/game/" + gameId + "/place-ship")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(destroyer)));
     }
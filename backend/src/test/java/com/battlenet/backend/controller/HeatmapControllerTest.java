@@ -0,0 +1,33 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.heatmap.Heatmap;
+import com.battlenet.backend.model.Board;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@WebMvcTest(HeatmapController.class)
+class HeatmapControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testSnapshot_ReturnsShotAndPlacementGrids() throws Exception {
+        new Board().shoot(0, 9);
+        long shots = Heatmap.SHOTS.count(0, 9);
+
+        mockMvc.perform(get("/api/heatmap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(10))
+                .andExpect(jsonPath("$.shots", hasSize(10)))
+                .andExpect(jsonPath("$.shots[0]", hasSize(10)))
+                .andExpect(jsonPath("$.shots[0][9]", greaterThanOrEqualTo((int) shots)))
+                .andExpect(jsonPath("$.placements", hasSize(10)));
+    }
+}
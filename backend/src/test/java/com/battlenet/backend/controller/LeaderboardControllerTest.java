@@ -0,0 +1,68 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.leaderboard.Leaderboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+@WebMvcTest(LeaderboardController.class)
+@Import(Leaderboard.class)
+// each test seeds the leaderboard afresh, so none may see another's results
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LeaderboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard.recordResult("alice", "bob", 30);
+        leaderboard.recordResult("alice", "carol", 40);
+        leaderboard.recordResult("carol", "bob", 50);
+    }
+
+    @Test
+    void testTop_ReturnsPlayersByWins() throws Exception {
+        mockMvc.perform(get("/api/leaderboard/top").param("k", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.players", hasSize(2)))
+                .andExpect(jsonPath("$.players[0].playerId").value("alice"))
+                .andExpect(jsonPath("$.players[0].rank").value(1))
+                .andExpect(jsonPath("$.players[0].averageShotsToWin").value(35.0))
+                .andExpect(jsonPath("$.players[1].playerId").value("carol"));
+    }
+
+    @Test
+    void testPage_UsesOffset() throws Exception {
+        mockMvc.perform(get("/api/leaderboard").param("offset", "2").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.players", hasSize(1)))
+                .andExpect(jsonPath("$.players[0].playerId").value("bob"))
+                .andExpect(jsonPath("$.players[0].rank").value(3));
+    }
+
+    @Test
+    void testPlayer_KnownAndUnknown() throws Exception {
+        mockMvc.perform(get("/api/leaderboard/players/carol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.wins").value(1))
+                .andExpect(jsonPath("$.losses").value(1))
+                .andExpect(jsonPath("$.rank").value(2));
+
+        mockMvc.perform(get("/api/leaderboard/players/nobody"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value("Player not ranked"));
+    }
+}
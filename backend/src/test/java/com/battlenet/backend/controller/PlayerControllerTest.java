@@ -0,0 +1,90 @@
+package com.battlenet.backend.controller;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.index.PlayerGameIndex;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.profile.PlayerProfileService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PlayerController.class)
+@Import({PlayerProfileService.class, PlayerGameIndex.class, GameEngine.class, TurnTimeouts.class})
+@TestPropertySource(properties = "battlenet.profiles.path=")
+class PlayerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlayerProfileService profiles;
+
+    @Autowired
+    private PlayerGameIndex playerGames;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testGetProfile_RegisteredPlayer() throws Exception {
+        profiles.register("alice");
+
+        mockMvc.perform(get("/api/players/alice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("alice"))
+                .andExpect(jsonPath("$.rating").value(1500))
+                .andExpect(jsonPath("$.gamesPlayed").value(0));
+    }
+
+    @Test
+    void testGetProfile_UnknownPlayer() throws Exception {
+        mockMvc.perform(get("/api/players/nobody"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").value("Player not found"));
+    }
+
+    @Test
+    void testGetGames_PagesThroughThePlayersGames() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Game game = new Game("game-" + i, "player1", "player2");
+            game.getPlayer1().setId("carol");
+            game.getPlayer2().setId("dave");
+            playerGames.add(game);
+        }
+
+        String first = mockMvc.perform(get("/api/players/dave/games").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.games.length()").value(2))
+                .andExpect(jsonPath("$.games[0].gameId").value("game-2"))
+                .andExpect(jsonPath("$.games[0].seat").value(2))
+                .andExpect(jsonPath("$.games[0].opponentId").value("carol"))
+                .andExpect(jsonPath("$.games[0].state").value("SETUP"))
+                .andExpect(jsonPath("$.nextCursor").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        String next = objectMapper.readTree(first).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/players/dave/games").param("limit", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.games.length()").value(1))
+                .andExpect(jsonPath("$.games[0].gameId").value("game-0"))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void testGetGames_UnknownPlayerHasNone() throws Exception {
+        mockMvc.perform(get("/api/players/nobody/games"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0))
+                .andExpect(jsonPath("$.games").isEmpty());
+    }
+}
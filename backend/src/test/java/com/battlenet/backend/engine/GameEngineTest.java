@@ -0,0 +1,407 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.placement.FleetPlacer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(4, TurnTimeouts.NONE);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    @Test
+    void submit_runsCommandsForAGameOnItsShardThread() {
+        Game game = new Game("abc123", "player1", "player2");
+        assertTrue(engine.register(game).join());
+
+        Set<String> threads = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            threads.add(engine.submit("abc123", g -> {
+                assertSame(game, g);
+                return Thread.currentThread().getName();
+            }).join());
+        }
+
+        assertEquals(Set.of("game-shard-" + engine.shardOf("abc123")), threads);
+    }
+
+    @Test
+    void submit_passesNullForUnknownGame() {
+        assertNull(engine.submit("missing", g -> g).join());
+    }
+
+    @Test
+    void register_rejectsDuplicateId() {
+        assertTrue(engine.register(new Game("dup", "player1", "player2")).join());
+        assertFalse(engine.register(new Game("dup", "player1", "player2")).join());
+    }
+
+    @Test
+    void submit_reportsCommandFailure() {
+        CompletableFuture<Object> result = engine.submit("x", g -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        assertNull(engine.submit("x", g -> g).join(), "shard keeps running after a failed command");
+    }
+
+    @Test
+    void throwingListener_leavesTheShardRunning() throws InterruptedException {
+        engine.close();
+        engine = new GameEngine(1, TurnTimeouts.NONE);
+        engine.addChangeListener(game -> {
+            throw new IllegalStateException("listener failed");
+        });
+        engine.register(new Game("g", "player1", "player2")).join();
+
+        assertEquals("changed", engine.submit("g", g -> {
+            g.getPlayer1().setName("renamed");
+            return "changed";
+        }).join());
+        // the shard thread survived the listener: later commands and gathers still complete
+        assertEquals("renamed", engine.submit("g", g -> g.getPlayer1().getName()).join());
+        assertEquals(1, engine.games().join().size());
+    }
+
+    @Test
+    void walk_failsWhenReadingAChunkFails() {
+        engine.register(new Game("g", "player1", "player2")).join();
+
+        Iterator<String> walk = engine.walk(10, g -> {
+            throw new IllegalStateException("read failed");
+        }, FinishedGame::gameId);
+        assertThrows(CompletionException.class, walk::hasNext);
+        assertEquals(1, engine.games().join().size());
+    }
+
+    @Test
+    void games_collectsFromEveryShard() {
+        for (int i = 0; i < 50; i++) {
+            engine.register(new Game("game-" + i, "player1", "player2")).join();
+        }
+
+        List<Game> games = engine.games().join();
+        assertEquals(50, games.size());
+    }
+
+    @Test
+    void walk_readsEveryGameOnce_inChunks_evenAsGamesAreCompacted() {
+        for (int i = 0; i < 50; i++) {
+            engine.register(new Game("game-" + i, "player1", "player2")).join();
+        }
+        for (int i = 0; i < 10; i++) {
+            engine.submit("game-" + i, g -> {
+                g.setState(Game.GameState.FINISHED);
+                return null;
+            }).join();
+        }
+
+        Iterator<String> walk = engine.walk(3, Game::getGameId, FinishedGame::gameId);
+        List<String> read = new ArrayList<>();
+        while (walk.hasNext()) {
+            read.add(walk.next());
+            if (read.size() == 20) {
+                // compacted between chunks, so some are read live and the rest as summaries
+                for (int i = 10; i < 50; i++) {
+                    engine.submit("game-" + i, g -> {
+                        g.setState(Game.GameState.FINISHED);
+                        return null;
+                    }).join();
+                }
+            }
+        }
+
+        assertEquals(50, read.size());
+        assertEquals(50, new HashSet<>(read).size());
+        assertFalse(walk.hasNext());
+        assertThrows(NoSuchElementException.class, walk::next);
+    }
+
+    @Test
+    void finishedGame_isCompactedAfterTheFinishingCommand() {
+        Game game = new Game("done", "player1", "player2");
+        engine.register(game).join();
+        List<String> compacted = new CopyOnWriteArrayList<>();
+        engine.addCompactionListener(summary -> compacted.add(summary.gameId()));
+
+        // the command that finishes the game still sees it live
+        assertSame(game, engine.submit("done", g -> {
+            g.setState(Game.GameState.FINISHED);
+            return g;
+        }).join());
+
+        assertNull(engine.submit("done", g -> g).join());
+        FinishedGame summary = engine.submit("done", g -> null, f -> f).join();
+        assertEquals("done", summary.gameId());
+        assertEquals(0, summary.winner());
+        assertEquals(List.of("done"), compacted);
+        assertEquals(List.of(summary), engine.finishedGames().join());
+        assertTrue(engine.games().join().isEmpty());
+    }
+
+    @Test
+    void submit_withSummaryFallback_passesLiveGameOrNull() {
+        Game game = new Game("live", "player1", "player2");
+        engine.register(game).join();
+
+        assertSame(game, engine.submit("live", g -> g, f -> null).join());
+        assertNull(engine.submit("missing", g -> g, f -> {
+            throw new AssertionError("no summary for an unknown id");
+        }).join());
+    }
+
+    @Test
+    void registerAll_addsEachGame_refusingTakenIds() {
+        assertTrue(engine.register(new Game("taken", "player1", "player2")).join());
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            games.add(new Game("bulk-" + i, "player1", "player2"));
+        }
+        games.add(new Game("taken", "player1", "player2"));
+        games.add(new Game("bulk-7", "player1", "player2"));
+
+        boolean[] added = engine.registerAll(games).join();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(added[i], "game " + i);
+            Game game = games.get(i);
+            assertSame(game, engine.submit(game.getGameId(), g -> g).join());
+        }
+        assertFalse(added[1000], "id of a game already registered");
+        assertFalse(added[1001], "id used earlier in the same list");
+        assertEquals(1001, engine.games().join().size());
+        assertEquals(0, engine.registerAll(List.of()).join().length);
+    }
+
+    @Test
+    void registerAll_letsOtherCommandsInBetweenChunks() throws InterruptedException {
+        engine.close();
+        engine = new GameEngine(1, TurnTimeouts.NONE);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 40 * Shard.BATCH; i++) {
+            games.add(new Game("bulk-" + i, "player1", "player2"));
+        }
+
+        CompletableFuture<boolean[]> bulk = engine.registerAll(games);
+        int seen = engine.games().join().size();
+
+        assertTrue(seen < games.size(), "a command queued after the list doesn't wait for all of it");
+        assertEquals(games.size(), bulk.join().length);
+    }
+
+    @Test
+    void register_rejectsIdOfCompactedGame() {
+        Game game = new Game("dup", "player1", "player2");
+        engine.register(game).join();
+        engine.submit("dup", g -> g.setState(Game.GameState.FINISHED)).join();
+
+        assertFalse(engine.register(new Game("dup", "player1", "player2")).join());
+    }
+
+    @Test
+    void finishedSummaries_beyondTheRetentionLimit_areEvictedOldestFirst() throws InterruptedException {
+        engine.close();
+        engine = new GameEngine(1, TurnTimeouts.NONE, 3);
+        List<String> evicted = new CopyOnWriteArrayList<>();
+        engine.addEvictionListener(summary -> evicted.add(summary.gameId()));
+
+        for (int i = 0; i < 5; i++) {
+            engine.register(new Game("g" + i, "player1", "player2")).join();
+            engine.submit("g" + i, g -> g.setState(Game.GameState.FINISHED)).join();
+        }
+        // the last compaction is queued behind the finishing command
+        engine.submit("g4", g -> g).join();
+
+        assertEquals(List.of("g0", "g1"), evicted);
+        assertEquals(Set.of("g2", "g3", "g4"),
+                new HashSet<>(engine.finishedGames().join().stream().map(FinishedGame::gameId).toList()));
+        assertNull(engine.submit("g0", g -> g, f -> f).join());
+        assertTrue(engine.register(new Game("g0", "player1", "player2")).join(), "an evicted id is free again");
+    }
+
+    private static Game readyGame(String id) {
+        Game game = new Game(id, "player1", "player2");
+        Random random = new Random(id.hashCode());
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        return game;
+    }
+
+    // Polls until the game has been compacted, returning its summary
+    private static FinishedGame awaitFinished(GameEngine engine, String gameId, long timeoutMillis)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            FinishedGame summary = engine.submit(gameId, g -> null, f -> f).join();
+            if (summary != null) {
+                return summary;
+            }
+            Thread.sleep(20);
+        }
+        return null;
+    }
+
+    @Test
+    void turnDeadline_forfeitsTheIdlePlayer() throws Exception {
+        try (GameEngine timed = new GameEngine(2, new TurnTimeouts(Duration.ZERO, Duration.ofMillis(300),
+                TurnTimeouts.OnExpiry.FORFEIT))) {
+            Game game = readyGame("idle");
+            timed.register(game).join();
+            timed.submit("idle", Game::startGame).join();
+
+            FinishedGame summary = awaitFinished(timed, "idle", 5_000);
+
+            assertNotNull(summary, "idle game is forfeited");
+            assertEquals(2, summary.winner(), "player 1 was to move and did not");
+        }
+    }
+
+    @Test
+    void failedExpiry_isCounted_andTriedAgainAfterANewDeadline() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        TurnTimeouts failingOnce = new TurnTimeouts(Duration.ZERO, Duration.ofMillis(200),
+                TurnTimeouts.OnExpiry.FORFEIT) {
+            @Override
+            void expire(Game game) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("expiry failed");
+                }
+                super.expire(game);
+            }
+        };
+        try (GameEngine timed = new GameEngine(1, failingOnce)) {
+            timed.register(readyGame("flaky")).join();
+            timed.submit("flaky", Game::startGame).join();
+
+            FinishedGame summary = awaitFinished(timed, "flaky", 5_000);
+
+            assertNotNull(summary, "the second deadline forfeits the game");
+            assertEquals(2, attempts.get());
+            assertEquals(1, failingOnce.getFailed());
+            assertEquals(1, failingOnce.getTurnExpired());
+        }
+    }
+
+    @Test
+    void turnDeadline_isReArmedByEveryChange_notByReads() throws Exception {
+        try (GameEngine timed = new GameEngine(1, new TurnTimeouts(Duration.ZERO, Duration.ofMillis(400),
+                TurnTimeouts.OnExpiry.FORFEIT))) {
+            Game game = readyGame("busy");
+            timed.register(game).join();
+            timed.submit("busy", Game::startGame).join();
+
+            // a shot every 100 ms keeps the game alive well past one deadline
+            int[] next = new int[2];
+            for (int i = 0; i < 12; i++) {
+                Thread.sleep(100);
+                assertNotNull(timed.submit("busy", g -> {
+                    int player = g.isPlayer1Turn() ? 1 : 2;
+                    int cell = next[player - 1]++;
+                    g.shoot(player, cell / 10, cell % 10);
+                    return g;
+                }).join(), "still live after " + (i + 1) * 100 + " ms of play");
+            }
+            // reads alone don't extend it
+            long start = System.currentTimeMillis();
+            FinishedGame summary = null;
+            while (summary == null && System.currentTimeMillis() - start < 5_000) {
+                summary = timed.submit("busy", g -> null, f -> f).join();
+                Thread.sleep(20);
+            }
+
+            assertNotNull(summary);
+            assertTrue(System.currentTimeMillis() - start >= 300);
+        }
+    }
+
+    @Test
+    void setupDeadline_autoPlayStartsTheGame() throws Exception {
+        try (GameEngine timed = new GameEngine(1, new TurnTimeouts(Duration.ofMillis(200), Duration.ZERO,
+                TurnTimeouts.OnExpiry.AUTO_PLAY))) {
+            Game game = new Game("slow", "player1", "player2");
+            timed.register(game).join();
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (game.getState() == Game.GameState.SETUP && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(Game.GameState.PLAYING, timed.submit("slow", Game::getState).join());
+            assertTrue(timed.submit("slow", g -> g.getPlayer1().allShipsPlaced()
+                    && g.getPlayer2().allShipsPlaced()).join());
+        }
+    }
+
+    @Test
+    void finishedGame_hasNoDeadlineLeft() throws Exception {
+        try (GameEngine timed = new GameEngine(1, new TurnTimeouts(Duration.ofMillis(200), Duration.ofMillis(200),
+                TurnTimeouts.OnExpiry.FORFEIT))) {
+            Game game = readyGame("ended");
+            timed.register(game).join();
+            timed.submit("ended", g -> g.setState(Game.GameState.FINISHED)).join();
+            Thread.sleep(500);
+
+            FinishedGame summary = timed.submit("ended", g -> null, f -> f).join();
+            assertEquals(0, summary.winner(), "not forfeited after it ended");
+            assertEquals(0, timed.pendingDeadlines().join());
+        }
+    }
+
+    @Test
+    void submit_keepsPerGameOrderUnderConcurrentProducers() throws InterruptedException {
+        engine.register(new Game("counter", "player1", "player2")).join();
+        int[] counter = new int[1];
+        List<Thread> producers = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    CompletableFuture<Integer> r = engine.submit("counter", g -> ++counter[0]);
+                    if (i == 9_999) {
+                        synchronized (results) {
+                            results.add(r);
+                        }
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        results.forEach(CompletableFuture::join);
+
+        // the plain int is only ever touched by the shard thread, so no increment is lost
+        assertEquals(40_000, engine.submit("counter", g -> counter[0]).join());
+    }
+}
@@ -0,0 +1,133 @@
+package com.battlenet.backend.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private static final long TICK = 100;
+
+    private final TimingWheel wheel = new TimingWheel(TICK, 8, 0);
+    private final List<TimingWheel.Timer> fired = new ArrayList<>();
+
+    @Test
+    void timer_firesOnceItsDeadlineHasPassed_neverBefore() {
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        wheel.schedule(timer, 250, 0);
+
+        assertEquals(0, wheel.advance(299, fired::add));
+        assertTrue(timer.isScheduled());
+        assertEquals(1, wheel.advance(300, fired::add));
+        assertEquals(List.of(timer), fired);
+        assertFalse(timer.isScheduled());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void reschedule_replacesTheEarlierDeadline() {
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        wheel.schedule(timer, 200, 0);
+        wheel.schedule(timer, 500, 150);
+
+        assertEquals(1, wheel.size());
+        assertEquals(0, wheel.advance(600, fired::add));
+        assertEquals(1, wheel.advance(700, fired::add));
+    }
+
+    @Test
+    void cancel_unlinksTheTimer() {
+        TimingWheel.Timer kept = new TimingWheel.Timer();
+        TimingWheel.Timer cancelled = new TimingWheel.Timer();
+        wheel.schedule(kept, 100, 0);
+        wheel.schedule(cancelled, 100, 0);
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        assertEquals(1, wheel.size());
+        wheel.advance(100, fired::add);
+        assertEquals(List.of(kept), fired);
+    }
+
+    @Test
+    void deadlineSeveralTurnsAway_waitsForItsTurn() {
+        TimingWheel.Timer far = new TimingWheel.Timer();
+        TimingWheel.Timer near = new TimingWheel.Timer();
+        // 8 slots of 100: 2500 shares a slot with 100, 900 and 1700
+        wheel.schedule(far, 2500, 0);
+        wheel.schedule(near, 100, 0);
+
+        wheel.advance(100, fired::add);
+        assertEquals(List.of(near), fired);
+        wheel.advance(2400, fired::add);
+        assertEquals(1, fired.size());
+        wheel.advance(2500, fired::add);
+        assertEquals(List.of(near, far), fired);
+    }
+
+    @Test
+    void timersFireInDeadlineOrderAcrossTicks() {
+        List<TimingWheel.Timer> timers = new ArrayList<>();
+        for (int i = 5; i >= 1; i--) {
+            TimingWheel.Timer timer = new TimingWheel.Timer();
+            wheel.schedule(timer, i * TICK, 0);
+            timers.add(0, timer);
+        }
+
+        assertEquals(5, wheel.advance(10_000, fired::add));
+        assertEquals(timers, fired);
+    }
+
+    @Test
+    void callbackMayRescheduleItsTimer() {
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        wheel.schedule(timer, 0, 0);
+        int[] count = new int[1];
+
+        wheel.advance(0, t -> {
+            count[0]++;
+            wheel.schedule(t, 0, 0);
+        });
+
+        assertEquals(1, count[0], "a timer rescheduled for now waits for the next tick");
+        assertTrue(timer.isScheduled());
+        wheel.advance(TICK, t -> count[0]++);
+        assertEquals(2, count[0]);
+    }
+
+    @Test
+    void scheduleAfterIdleTime_usesTheCurrentTime() {
+        wheel.advance(1_000_000, fired::add);
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        wheel.schedule(timer, 200, 1_000_000);
+
+        assertEquals(0, wheel.advance(1_000_100, fired::add));
+        assertEquals(1, wheel.advance(1_000_200, fired::add));
+    }
+
+    @Test
+    void nanosToNextTick_countsDownToTheNextBoundary() {
+        wheel.schedule(new TimingWheel.Timer(), 1000, 0);
+        wheel.advance(250, fired::add);
+
+        assertEquals(50, wheel.nanosToNextTick(250));
+        assertEquals(0, wheel.nanosToNextTick(400));
+    }
+
+    @Test
+    void slotCount_isRoundedUpToAPowerOfTwo() {
+        TimingWheel odd = new TimingWheel(TICK, 5, 0);
+        TimingWheel.Timer a = new TimingWheel.Timer();
+        TimingWheel.Timer b = new TimingWheel.Timer();
+        // with 8 slots these land in different slots and turns
+        odd.schedule(a, 100, 0);
+        odd.schedule(b, 900, 0);
+
+        odd.advance(100, fired::add);
+        assertEquals(List.of(a), fired);
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, 8, 0));
+    }
+}
@@ -0,0 +1,143 @@
+package com.battlenet.backend.engine;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.placement.FleetPlacer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TurnTimeoutsTest {
+
+    private static TurnTimeouts timeouts(TurnTimeouts.OnExpiry onExpiry) {
+        return new TurnTimeouts(Duration.ofMinutes(5), Duration.ofSeconds(30), onExpiry);
+    }
+
+    private static Game withFleets(boolean player1, boolean player2) {
+        return withFleets(player1, player2, Game.Mode.CLASSIC);
+    }
+
+    private static Game withFleets(boolean player1, boolean player2, Game.Mode mode) {
+        Game game = new Game("g1", "player1", "player2", mode);
+        Random random = new Random(1);
+        if (player1) {
+            FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        }
+        if (player2) {
+            FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        }
+        return game;
+    }
+
+    @Test
+    void deadlineNanos_perState() {
+        TurnTimeouts timeouts = timeouts(TurnTimeouts.OnExpiry.FORFEIT);
+
+        assertEquals(Duration.ofMinutes(5).toNanos(), timeouts.deadlineNanos(Game.GameState.SETUP));
+        assertEquals(Duration.ofSeconds(30).toNanos(), timeouts.deadlineNanos(Game.GameState.PLAYING));
+        assertEquals(0, timeouts.deadlineNanos(Game.GameState.FINISHED));
+        assertTrue(timeouts.isEnabled());
+        assertFalse(TurnTimeouts.NONE.isEnabled());
+    }
+
+    @Test
+    void setupForfeit_goesAgainstThePlayerWithoutAFleet() {
+        Game game = withFleets(false, true);
+
+        timeouts(TurnTimeouts.OnExpiry.FORFEIT).expire(game);
+
+        assertTrue(game.isGameOver());
+        assertSame(game.getPlayer2(), game.getWinner());
+    }
+
+    @Test
+    void setupForfeit_noFleetsEndsWithoutWinner_bothFleetsStarts() {
+        Game empty = withFleets(false, false);
+        Game ready = withFleets(true, true);
+        TurnTimeouts timeouts = timeouts(TurnTimeouts.OnExpiry.FORFEIT);
+
+        timeouts.expire(empty);
+        timeouts.expire(ready);
+
+        assertTrue(empty.isGameOver());
+        assertNull(empty.getWinner());
+        assertEquals(Game.GameState.PLAYING, ready.getState());
+        assertEquals(2, timeouts.getSetupExpired());
+    }
+
+    @Test
+    void setupAutoPlay_completesFleetsAndStarts() {
+        Game game = withFleets(true, false);
+
+        timeouts(TurnTimeouts.OnExpiry.AUTO_PLAY).expire(game);
+
+        assertEquals(Game.GameState.PLAYING, game.getState());
+        assertTrue(game.getPlayer2().allShipsPlaced());
+    }
+
+    @Test
+    void turnForfeit_playerToMoveLoses() {
+        Game game = withFleets(true, true);
+        game.startGame();
+        game.shoot(1, 0, 0);
+        Game.GameState before = game.getState();
+        int mover = game.isPlayer1Turn() ? 1 : 2;
+        TurnTimeouts timeouts = timeouts(TurnTimeouts.OnExpiry.FORFEIT);
+
+        timeouts.expire(game);
+
+        assertEquals(Game.GameState.PLAYING, before);
+        assertTrue(game.isGameOver());
+        assertSame(mover == 1 ? game.getPlayer2() : game.getPlayer1(), game.getWinner());
+        assertEquals(1, timeouts.getTurnExpired());
+    }
+
+    @Test
+    void turnAutoPlay_firesAtAnUnshotCell() {
+        Game game = withFleets(true, true);
+        game.startGame();
+        TurnTimeouts timeouts = timeouts(TurnTimeouts.OnExpiry.AUTO_PLAY);
+
+        for (int i = 0; i < 1000 && !game.isGameOver(); i++) {
+            int shots = game.getPlayer1Shots() + game.getPlayer2Shots();
+            timeouts.expire(game);
+            assertEquals(shots + 1, game.getPlayer1Shots() + game.getPlayer2Shots(), "every expiry fires one shot");
+        }
+
+        assertTrue(game.isGameOver(), "auto-play alone finishes the game");
+        assertNotNull(game.getWinner());
+    }
+
+    @Test
+    void turnAutoPlay_salvoGameFiresAFullSalvo() {
+        Game game = withFleets(true, true, Game.Mode.SALVO);
+        game.startGame();
+        TurnTimeouts timeouts = timeouts(TurnTimeouts.OnExpiry.AUTO_PLAY);
+
+        for (int i = 0; i < 1000 && !game.isGameOver(); i++) {
+            int shots = game.getPlayer1Shots() + game.getPlayer2Shots();
+            int salvoSize = game.getSalvoSize();
+            boolean player1Turn = game.isPlayer1Turn();
+            timeouts.expire(game);
+            assertEquals(shots + salvoSize, game.getPlayer1Shots() + game.getPlayer2Shots(),
+                    "every expiry fires a full salvo");
+            assertTrue(game.isGameOver() || game.isPlayer1Turn() != player1Turn, "the turn passes");
+        }
+
+        assertTrue(game.isGameOver(), "auto-play alone finishes the game");
+        assertNotNull(game.getWinner());
+    }
+
+    @Test
+    void expire_finishedGameIsLeftAlone() {
+        Game game = withFleets(false, false);
+        game.setState(Game.GameState.FINISHED);
+        int version = game.getVersion();
+
+        timeouts(TurnTimeouts.OnExpiry.AUTO_PLAY).expire(game);
+
+        assertEquals(version, game.getVersion());
+    }
+}
@@ -0,0 +1,68 @@
+package com.battlenet.backend.heatmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeatmapTest {
+
+    @Test
+    void increment_countsPerCell() {
+        Heatmap heatmap = new Heatmap(10);
+        heatmap.increment(3, 4);
+        heatmap.increment(3, 4);
+        heatmap.increment(9, 0);
+
+        assertEquals(2, heatmap.count(3, 4));
+        assertEquals(1, heatmap.count(9, 0));
+        assertEquals(0, heatmap.count(4, 3));
+        assertEquals(3, heatmap.total());
+    }
+
+    @Test
+    void increment_ignoresOutOfRangeCells() {
+        Heatmap heatmap = new Heatmap(10);
+        heatmap.increment(-1, 0);
+        heatmap.increment(0, 10);
+
+        assertEquals(0, heatmap.total());
+    }
+
+    @Test
+    void snapshot_isIndexedByXThenY() {
+        Heatmap heatmap = new Heatmap(10);
+        heatmap.increment(1, 7);
+
+        long[][] grid = heatmap.snapshot();
+        assertEquals(10, grid.length);
+        assertEquals(1, grid[1][7]);
+        assertEquals(0, grid[7][1]);
+    }
+
+    @Test
+    void concurrentIncrements_areNotLost() throws InterruptedException {
+        Heatmap heatmap = new Heatmap(10);
+        int threads = 8;
+        int perThread = 50_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    heatmap.increment(5, 5);
+                    heatmap.increment(i % 10, i / 10 % 10);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(2L * threads * perThread, heatmap.total());
+        assertTrue(heatmap.count(5, 5) >= (long) threads * perThread);
+    }
+}
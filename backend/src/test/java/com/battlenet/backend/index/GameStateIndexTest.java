@@ -0,0 +1,140 @@
+package com.battlenet.backend.index;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateIndexTest {
+
+    private GameEngine engine;
+    private GameStateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(2, TurnTimeouts.NONE);
+        index = new GameStateIndex(engine);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    private Game register(String gameId) {
+        Game game = new Game(gameId, "player1", "player2");
+        game.getPlayer1().setId("alice");
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true)));
+        assertTrue(engine.register(game).join());
+        return game;
+    }
+
+    private List<String> ids(Game.GameState state) {
+        return index.page(state, null, 1000).games().stream().map(GameStateIndex.Listed::gameId).toList();
+    }
+
+    @Test
+    void registeredGames_areListedUnderTheirState_inTheOrderTheyGotThere() {
+        register("g1");
+        register("g2");
+        register("g3");
+
+        engine.submit("g2", Game::startGame).join();
+        engine.submit("g1", Game::startGame).join();
+
+        assertEquals(List.of("g3"), ids(Game.GameState.SETUP));
+        assertEquals(List.of("g2", "g1"), ids(Game.GameState.PLAYING));
+        assertEquals(1, index.count(Game.GameState.SETUP));
+        assertEquals(2, index.count(Game.GameState.PLAYING));
+        assertEquals(new GameStateIndex.Listed("g3", "alice", null), index.page(Game.GameState.SETUP, null, 1)
+                .games().get(0));
+    }
+
+    @Test
+    void finishedGames_stayListedAfterCompaction() {
+        register("g1");
+
+        engine.submit("g1", g -> {
+            g.startGame();
+            return g.shoot(0, 0);
+        }).join();
+
+        assertNull(engine.submit("g1", g -> g).join(), "compacted");
+        assertEquals(List.of("g1"), ids(Game.GameState.FINISHED));
+        assertEquals(Game.GameState.FINISHED, index.stateOf("g1"));
+        assertEquals(0, index.count(Game.GameState.PLAYING));
+    }
+
+    @Test
+    void evictedSummaries_leaveTheIndex() throws InterruptedException {
+        engine.close();
+        engine = new GameEngine(1, TurnTimeouts.NONE, 1);
+        index = new GameStateIndex(engine);
+
+        for (String id : List.of("g1", "g2")) {
+            register(id);
+            engine.submit(id, g -> g.setState(Game.GameState.FINISHED)).join();
+        }
+        engine.submit("g2", g -> g).join();
+
+        assertEquals(List.of("g2"), ids(Game.GameState.FINISHED));
+        assertEquals(1, index.count(Game.GameState.FINISHED));
+        assertNull(index.stateOf("g1"));
+    }
+
+    @Test
+    void page_walksFromTheCursor() {
+        for (int i = 0; i < 7; i++) {
+            index.update("g" + i, null, null, Game.GameState.SETUP);
+        }
+
+        GameStateIndex.Page first = index.page(Game.GameState.SETUP, null, 3);
+        GameStateIndex.Page second = index.page(Game.GameState.SETUP, first.nextCursor(), 3);
+        GameStateIndex.Page last = index.page(Game.GameState.SETUP, second.nextCursor(), 3);
+
+        assertEquals(List.of("g0", "g1", "g2"), first.games().stream().map(GameStateIndex.Listed::gameId).toList());
+        assertEquals(List.of("g3", "g4", "g5"), second.games().stream().map(GameStateIndex.Listed::gameId).toList());
+        assertEquals(List.of("g6"), last.games().stream().map(GameStateIndex.Listed::gameId).toList());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void walk_listsGamesThatStayExactlyOnce_whileOthersMove() {
+        for (int i = 0; i < 1000; i++) {
+            index.update("g" + i, null, null, Game.GameState.PLAYING);
+        }
+
+        List<String> seen = new ArrayList<>();
+        Long cursor = null;
+        int moved = 0;
+        do {
+            GameStateIndex.Page page = index.page(Game.GameState.PLAYING, cursor, 50);
+            page.games().forEach(g -> seen.add(g.gameId()));
+            cursor = page.nextCursor();
+            // between pages: odd games finish, and new games join at the end
+            for (int i = 0; i < 10; i++, moved++) {
+                index.update("g" + (2 * moved + 1) % 1000, null, null, Game.GameState.FINISHED);
+                index.update("new" + moved, null, null, Game.GameState.PLAYING);
+            }
+        } while (cursor != null);
+
+        Set<String> unique = new HashSet<>(seen);
+        assertEquals(seen.size(), unique.size(), "no game listed twice");
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(unique.contains("g" + i), "game that stayed in PLAYING: g" + i);
+        }
+        assertTrue(unique.contains("new0"), "a game that joined during the walk is reached at the end");
+    }
+}
@@ -0,0 +1,196 @@
+package com.battlenet.backend.index;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerGameIndexTest {
+
+    private final PlayerGameIndex index = new PlayerGameIndex(3, 100);
+
+    private Game game(String gameId, String player1Id, String player2Id) {
+        Game game = new Game(gameId, "player1", "player2");
+        game.getPlayer1().setId(player1Id);
+        game.getPlayer2().setId(player2Id);
+        game.addListener(index);
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true)));
+        return game;
+    }
+
+    // player 1 sinks player 2's one-cell fleet
+    private static void finish(Game game) {
+        game.startGame();
+        game.shoot(0, 0);
+        assertTrue(game.isGameOver());
+    }
+
+    private List<String> ids(String playerId) {
+        return index.page(playerId, null, 100).games().stream().map(PlayerGameIndex.Entry::gameId).toList();
+    }
+
+    @Test
+    void add_indexesTheGameForBothSeats() {
+        index.add(game("g1", "alice", "bob"));
+
+        PlayerGameIndex.Entry alice = index.page("alice", null, 10).games().get(0);
+        PlayerGameIndex.Entry bob = index.page("bob", null, 10).games().get(0);
+        assertEquals(new PlayerGameIndex.Entry("g1", 1, "bob", Game.GameState.SETUP, null), alice);
+        assertEquals(new PlayerGameIndex.Entry("g1", 2, "alice", Game.GameState.SETUP, null), bob);
+        assertEquals(0, index.count("nobody"));
+    }
+
+    @Test
+    void stateChanges_followTheGame_andFinishedGamesComeAfterActiveOnes() {
+        Game first = game("g1", "alice", "bob");
+        Game second = game("g2", "alice", "carol");
+        Game third = game("g3", "alice", "dave");
+        index.add(first);
+        index.add(second);
+        index.add(third);
+
+        second.startGame();
+        finish(first);
+
+        List<PlayerGameIndex.Entry> games = index.page("alice", null, 10).games();
+        assertEquals(List.of("g3", "g2", "g1"), games.stream().map(PlayerGameIndex.Entry::gameId).toList());
+        assertEquals(Game.GameState.PLAYING, games.get(1).state());
+        assertEquals(PlayerGameIndex.Result.WON, games.get(2).result());
+        assertEquals(PlayerGameIndex.Result.LOST, index.page("bob", null, 10).games().get(0).result());
+    }
+
+    @Test
+    void gameFinishedBeforeItIsAdded_isIndexedAsFinished() {
+        Game game = game("g1", "alice", "bob");
+        finish(game);
+
+        index.add(game);
+
+        PlayerGameIndex.Entry entry = index.page("alice", null, 10).games().get(0);
+        assertEquals(Game.GameState.FINISHED, entry.state());
+        assertEquals(PlayerGameIndex.Result.WON, entry.result());
+    }
+
+    @Test
+    void page_walksFromTheCursor() {
+        for (int i = 0; i < 7; i++) {
+            index.add(game("g" + i, "alice", "bob"));
+        }
+
+        List<String> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            PlayerGameIndex.Page page = index.page("alice", cursor, 3);
+            page.games().forEach(e -> seen.add(e.gameId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("g6", "g5", "g4", "g3", "g2", "g1", "g0"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void finishedGames_beyondThePlayerLimitAreEvicted() {
+        for (int i = 0; i < 5; i++) {
+            Game game = game("g" + i, "alice", "player-" + i);
+            index.add(game);
+            finish(game);
+        }
+        index.add(game("live", "alice", "bob"));
+
+        assertEquals(List.of("live", "g4", "g3", "g2"), ids("alice"));
+        assertEquals(List.of("g4"), ids("player-4"));
+        // their only game was evicted from alice's list but not from theirs
+        assertEquals(List.of("g0"), ids("player-0"));
+    }
+
+    @Test
+    void finishedGames_beyondTheOverallLimitAreEvicted_andEmptyPlayersDropped() {
+        PlayerGameIndex small = new PlayerGameIndex(3, 4);
+        for (int i = 0; i < 4; i++) {
+            Game game = game("g" + i, "p" + i, "q" + i);
+            game.addListener(small);
+            small.add(game);
+            finish(game);
+        }
+
+        assertTrue(small.finishedCount() <= 4);
+        assertEquals(0, small.count("p0"));
+        assertEquals(0, small.count("q1"));
+        assertEquals(1, small.count("p3"));
+        assertEquals(4, small.playerCount());
+    }
+
+    @Test
+    void finishedGames_evictedByTheEngine_leaveTheIndex() throws InterruptedException {
+        try (GameEngine engine = new GameEngine(1, TurnTimeouts.NONE, 2)) {
+            PlayerGameIndex tied = new PlayerGameIndex(engine, 20, 0);
+            for (int i = 0; i < 3; i++) {
+                Game game = game("g" + i, "alice", "q" + i);
+                game.addListener(tied);
+                engine.register(game).join();
+                tied.add(game);
+                engine.submit(game.getGameId(), g -> {
+                    finish(g);
+                    return null;
+                }).join();
+            }
+            // the compaction and eviction queued behind the last finishing command have run
+            engine.submit("g2", g -> null).join();
+
+            assertEquals(List.of("g2", "g1"), tied.page("alice", null, 100).games().stream()
+                    .map(PlayerGameIndex.Entry::gameId).toList());
+            assertEquals(0, tied.count("q0"));
+            // two of alice's, one each of q1's and q2's
+            assertEquals(4, tied.finishedCount());
+        }
+    }
+
+    @Test
+    void playersWithoutIds_areNotIndexed() {
+        index.add(game("g1", null, "bob"));
+
+        assertEquals(1, index.count("bob"));
+        assertEquals(1, index.playerCount());
+    }
+
+    @Test
+    void concurrentUpdates_leaveEveryGameIndexedOnce() throws InterruptedException {
+        PlayerGameIndex shared = new PlayerGameIndex(10_000, 100_000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Game game = game("t" + thread + "-" + i, "alice", "opponent-" + thread);
+                    game.addListener(shared);
+                    shared.add(game);
+                    if (i % 2 == 0) {
+                        finish(game);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, shared.count("alice"));
+        assertEquals(4000, shared.page("alice", null, 5000).games().stream().map(PlayerGameIndex.Entry::gameId)
+                .distinct().count());
+        assertEquals(4000, shared.finishedCount());
+        assertEquals(2000, shared.page("alice", null, 2000).games().stream()
+                .filter(e -> e.state() == Game.GameState.SETUP).count());
+    }
+}
@@ -0,0 +1,83 @@
+package com.battlenet.backend.jfr;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingSummaryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void summarize_countsGameEventsFromARecording() throws Exception {
+        Path file = dir.resolve("game.jfr");
+        try (Recording recording = new Recording(packagedProfile())) {
+            recording.start();
+            playShortGame();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordingSummary.Summary summary = RecordingSummary.summarize(file);
+
+        assertEquals(1, summary.gamesStarted());
+        assertEquals(1, summary.gamesFinished());
+        assertEquals(1, summary.gamesWon());
+        assertEquals(2, summary.placementsAccepted());
+        assertEquals(1, summary.placementsRejected());
+        assertEquals(4, summary.shots());
+        assertEquals(1L, summary.shotsByOutcome().get("MISS"));
+        assertEquals(1L, summary.shotsByOutcome().get("HIT"));
+        assertEquals(1L, summary.shotsByOutcome().get("WIN"));
+        assertEquals(1L, summary.shotsByOutcome().get("NOT_YOUR_TURN"));
+        assertEquals(3.0, summary.averageShotsPerFinishedGame(), 1e-9);
+        assertEquals(4, summary.slowestShots().size());
+        assertTrue(summary.shotPercentile(1.0) >= summary.shotPercentile(0.5));
+        assertTrue(summary.format().contains("started 1, finished 1"));
+    }
+
+    @Test
+    void summarize_emptyRecordingHasNoShots() throws Exception {
+        Path file = dir.resolve("empty.jfr");
+        try (Recording recording = new Recording(packagedProfile())) {
+            recording.start();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordingSummary.Summary summary = RecordingSummary.summarize(file);
+        assertEquals(0, summary.shots());
+        assertEquals(0, summary.shotPercentile(0.99));
+        assertEquals(0.0, summary.averageShotsPerFinishedGame(), 1e-9);
+    }
+
+    private static Configuration packagedProfile() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                RecordingSummaryTest.class.getResourceAsStream("/jfr/battlenet.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    private static void playShortGame() {
+        Game game = new Game("jfr001", "player1", "player2");
+        game.getPlayer1().getBoard().placeShip(Ship.ShipType.DESTROYER, 0, 0, true);
+        game.getPlayer2().getBoard().placeShip(Ship.ShipType.DESTROYER, 5, 5, true);
+        game.getPlayer2().getBoard().placeShip(Ship.ShipType.CARRIER, 5, 4, true); // overlaps
+        game.startGame();
+        game.shoot(1, 9, 9);  // miss, turn passes
+        game.shoot(1, 5, 5);  // not player 1's turn
+        game.shoot(2, 0, 0);  // hit
+        game.shoot(2, 0, 1);  // sinks the only ship: win
+    }
+}
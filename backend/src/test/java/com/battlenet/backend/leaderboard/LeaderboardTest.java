@@ -0,0 +1,121 @@
+package com.battlenet.backend.leaderboard;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    private Leaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new Leaderboard();
+    }
+
+    @Test
+    void finishedGame_recordsWinAndLoss() {
+        Game game = new Game("g1", "Alice", "Bob");
+        game.addListener(leaderboard);
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer2().placeShip(
+                new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0), board2.getCell(0, 1)), true)));
+        game.startGame();
+        game.shoot(5, 5);   // Alice misses
+        game.shoot(5, 5);   // Bob misses
+        game.shoot(0, 0);
+        game.shoot(0, 1);
+
+        assertTrue(game.isGameOver());
+        Leaderboard.Standing alice = leaderboard.getStanding("Alice");
+        assertEquals(1, alice.wins());
+        assertEquals(0, alice.losses());
+        assertEquals(3.0, alice.averageShotsToWin(), 1e-9);
+        assertEquals(1, leaderboard.getStanding("Bob").losses());
+        assertEquals(1, leaderboard.rank("Alice"));
+        assertEquals(2, leaderboard.rank("Bob"));
+        assertEquals(-1, leaderboard.rank("Nobody"));
+    }
+
+    @Test
+    void gamesAgainstGuests_areNotRanked() {
+        Game game = new Game("g1", "Alice", "Bob");
+        game.getPlayer1().setId(Player.newGuestId());
+        game.getPlayer2().setId("bob");
+        game.addListener(leaderboard);
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true)));
+        game.startGame();
+        game.shoot(0, 0);
+
+        assertTrue(game.isGameOver());
+        assertNull(leaderboard.getStanding("Alice"));
+        assertNull(leaderboard.getStanding(game.getPlayer1().getId()));
+        assertNull(leaderboard.getStanding("bob"));
+        assertEquals(0, leaderboard.size());
+    }
+
+    @Test
+    void top_ordersByWinsThenLosses_andTiesShareRank() {
+        leaderboard.recordResult("a", "b", 20);
+        leaderboard.recordResult("a", "c", 30);
+        leaderboard.recordResult("c", "d", 40);
+        leaderboard.recordResult("b", "d", 40);
+
+        List<Leaderboard.Standing> top = leaderboard.top(3);
+        assertEquals(List.of("a", "b", "c"), top.stream().map(Leaderboard.Standing::playerId).toList());
+        assertEquals(25.0, top.get(0).averageShotsToWin(), 1e-9);
+        assertEquals(1, leaderboard.rank("a"));
+        assertEquals(2, leaderboard.rank("b"));
+        assertEquals(2, leaderboard.rank("c"));
+        assertEquals(4, leaderboard.rank("d"));
+        assertEquals(4, leaderboard.size());
+    }
+
+    @Test
+    void page_matchesFullOrdering_atEveryOffset() {
+        for (int i = 0; i < 300; i++) {
+            for (int w = 0; w < i % 7; w++) {
+                leaderboard.recordResult("p" + i, "loser" + (i % 11), 17 + w);
+            }
+        }
+        List<Leaderboard.Standing> all = leaderboard.page(0, 10_000);
+        assertEquals(leaderboard.size(), all.size());
+        for (int offset = 0; offset < all.size(); offset += 13) {
+            List<Leaderboard.Standing> page = leaderboard.page(offset, 5);
+            assertEquals(all.subList(offset, Math.min(offset + 5, all.size())), page);
+        }
+        assertTrue(leaderboard.page(all.size(), 5).isEmpty());
+    }
+
+    @Test
+    void page_seeksIntoALargeGroupOfTies() {
+        for (int i = 0; i < 5000; i++) {
+            leaderboard.recordResult(String.format("winner%04d", i), String.format("loser%04d", i), 17);
+        }
+        // winners before losers, and each group of ties by player id
+        assertEquals(List.of("winner4998", "winner4999", "loser0000", "loser0001"),
+                leaderboard.page(4998, 4).stream().map(Leaderboard.Standing::playerId).toList());
+        assertEquals(List.of("loser4999"),
+                leaderboard.page(9999, 5).stream().map(Leaderboard.Standing::playerId).toList());
+        assertTrue(leaderboard.page(10_000, 5).isEmpty());
+    }
+
+    @Test
+    void winIndex_growsPastInitialCapacity() {
+        for (int i = 0; i < 200; i++) {
+            leaderboard.recordResult("champion", "other", 17);
+        }
+        assertEquals(200, leaderboard.getStanding("champion").wins());
+        assertEquals(1, leaderboard.rank("champion"));
+        assertEquals(2, leaderboard.rank("other"));
+        assertEquals("other", leaderboard.page(1, 1).get(0).playerId());
+    }
+}
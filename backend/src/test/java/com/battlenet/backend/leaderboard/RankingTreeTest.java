@@ -0,0 +1,48 @@
+package com.battlenet.backend.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingTreeTest {
+
+    @Test
+    void range_matchesASortedSet_afterRandomAddsAndRemoves() {
+        RankingTree<Integer> tree = new RankingTree<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (expected.add(value)) {
+                tree.add(value);
+            } else if (random.nextBoolean()) {
+                expected.remove(value);
+                tree.remove(value);
+            }
+        }
+
+        List<Integer> all = new ArrayList<>(expected);
+        assertEquals(all.size(), tree.size());
+        assertEquals(all, tree.range(0, all.size() + 10));
+        for (int offset = 0; offset < all.size(); offset += 37) {
+            assertEquals(all.subList(offset, Math.min(offset + 25, all.size())), tree.range(offset, 25));
+        }
+    }
+
+    @Test
+    void range_pastTheEndOrEmpty_isEmpty() {
+        RankingTree<String> tree = new RankingTree<>(Comparator.naturalOrder());
+        assertTrue(tree.range(0, 10).isEmpty());
+        tree.add("a");
+        tree.remove("missing");
+        assertEquals(List.of("a"), tree.range(0, 10));
+        assertTrue(tree.range(1, 10).isEmpty());
+        assertTrue(tree.range(0, 0).isEmpty());
+    }
+}
@@ -0,0 +1,268 @@
+package com.battlenet.backend.memory;
+
+import com.battlenet.backend.cache.GameViewCache;
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.placement.FleetPlacer;
+import com.battlenet.backend.soak.HeapHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameFootprintTest {
+    private static final int GAMES = 2000;
+    private static final GameListener SHARED = new GameListener() {
+    };
+
+    private GameEngine engine;
+    private GameViewCache views;
+    private GameFootprint footprint;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(2, TurnTimeouts.NONE);
+        views = new GameViewCache();
+        footprint = new GameFootprint(engine, views);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    /** A game with both fleets placed, some shots fired and a two-listener chain. */
+    private static Game playedGame(String id, Random random, int shots) {
+        Game game = new Game(id, "player1", "player2");
+        game.addListener(SHARED);
+        game.addListener(SHARED);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        game.startGame();
+        for (int i = 0; i < shots && !game.isGameOver(); i++) {
+            game.shoot(game.isPlayer1Turn() ? 1 : 2, random.nextInt(10), random.nextInt(10));
+        }
+        return game;
+    }
+
+    /** A game played until one fleet is sunk, each player firing at cells in a shuffled order. */
+    private static Game finishedGame(String id, Random random) {
+        Game game = playedGame(id, random, 0);
+        List<List<Integer>> targets = new ArrayList<>();
+        for (int player = 0; player < 2; player++) {
+            List<Integer> cells = new ArrayList<>();
+            for (int cell = 0; cell < 100; cell++) {
+                cells.add(cell);
+            }
+            Collections.shuffle(cells, random);
+            targets.add(cells);
+        }
+        while (!game.isGameOver()) {
+            int player = game.isPlayer1Turn() ? 1 : 2;
+            int cell = targets.get(player - 1).remove(targets.get(player - 1).size() - 1);
+            game.shoot(player, cell / 10, cell % 10);
+        }
+        return game;
+    }
+
+    // only the classes a game is made of, so objects other tests leave behind or free don't count
+    private static List<String> gameClasses(Game sample) {
+        return List.of(Game.class.getName(), "com.battlenet.backend.model.Player",
+                Board.class.getName(), Cell.class.getName(), Ship.class.getName(),
+                "com.battlenet.backend.model.ShipCells", "com.battlenet.backend.model.MoveLog",
+                "com.battlenet.backend.model.GameSnapshot", "com.battlenet.backend.model.BoardSnapshot",
+                "com.battlenet.backend.model.BoardSnapshot$PlacedShip",
+                "java.util.Collections$UnmodifiableRandomAccessList",
+                sample.getListener().getClass().getName(), "java.util.concurrent.atomic.AtomicInteger",
+                "java.util.ArrayList", "java.lang.String", "[B", "[I", "[Ljava.lang.Object;",
+                "[Lcom.battlenet.backend.model.Cell;", "[[Lcom.battlenet.backend.model.Cell;",
+                "[Lcom.battlenet.backend.model.Ship;", "[[Lcom.battlenet.backend.model.Ship;",
+                FinishedGame.class.getName(), FinishedGame.Side.class.getName(), "[S");
+    }
+
+    // A histogram holds a string per class name, which the next capture counts. Taking the
+    // baseline while another histogram is still reachable cancels that out.
+    private static HeapHistogram baseline() {
+        HeapHistogram previous = HeapHistogram.capture();
+        HeapHistogram baseline = HeapHistogram.capture();
+        Reference.reachabilityFence(previous);
+        return baseline;
+    }
+
+    @Test
+    void estimate_matchesMeasuredHeapPerGame() {
+        Random random = new Random(7);
+        HeapHistogram before = baseline();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(playedGame(String.format("game-%06d", i), random, 60));
+        }
+        HeapHistogram after = HeapHistogram.capture();
+
+        long estimated = 0;
+        for (Game game : games) {
+            Map<GameFootprint.Part, Long> parts = footprint.breakdown(game);
+            // these games are in a plain list, not in a shard or the view cache
+            estimated += footprint.estimate(game) - parts.get(GameFootprint.Part.REGISTRY);
+        }
+        List<String> classes = gameClasses(games.get(0));
+        long measured = after.bytes(classes) - before.bytes(classes);
+        double error = Math.abs(estimated - measured) / (double) measured;
+        assertTrue(error < 0.02, "estimated " + estimated / GAMES + " B/game, measured " + measured / GAMES);
+    }
+
+    // Plays and compacts the games; once this returns only their summaries are reachable
+    private static List<FinishedGame> compactedGames(List<String> classes, HeapHistogram before, long[] full) {
+        Random random = new Random(13);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(finishedGame(String.format("game-%06d", i), random));
+        }
+        full[0] = HeapHistogram.capture().bytes(classes) - before.bytes(classes);
+        List<FinishedGame> summaries = new ArrayList<>();
+        for (Game game : games) {
+            summaries.add(FinishedGame.of(game));
+        }
+        return summaries;
+    }
+
+    @Test
+    void compaction_keepsAFractionOfTheMeasuredHeap() {
+        List<String> classes = gameClasses(playedGame("sample", new Random(1), 0));
+        HeapHistogram before = baseline();
+        long[] full = new long[1];
+        List<FinishedGame> summaries = compactedGames(classes, before, full);
+        long kept = HeapHistogram.capture().bytes(classes) - before.bytes(classes);
+
+        long estimated = 0;
+        for (FinishedGame summary : summaries) {
+            estimated += footprint.breakdown(summary).get(GameFootprint.Part.SUMMARIES);
+        }
+        double error = Math.abs(estimated - kept) / (double) kept;
+        assertTrue(error < 0.05, "estimated " + estimated / GAMES + " B/summary, measured " + kept / GAMES);
+        assertTrue(kept * 10 < full[0], "summaries keep " + kept / GAMES + " B/game of " + full[0] / GAMES);
+    }
+
+    @Test
+    void report_countsCompactedGamesAsFinished() {
+        Game game = finishedGame("compacted", new Random(9));
+        FinishedGame summary = FinishedGame.of(game);
+        // registered mid-game so the engine sees it finish and compacts it
+        Game live = playedGame("live", new Random(9), 0);
+        assertTrue(engine.register(live).join());
+        engine.submit("live", g -> g.setState(Game.GameState.FINISHED)).join();
+        FinishedGame compacted = engine.submit("live", g -> null, f -> f).join();
+        assertNotNull(compacted);
+
+        GameFootprint.Report report = footprint.report();
+
+        assertEquals(1, report.games());
+        assertEquals(footprint.estimate(compacted), report.byState().get(Game.GameState.FINISHED).bytes());
+        assertEquals(report.bytes(), report.byPart().get(GameFootprint.Part.SUMMARIES)
+                + report.byPart().get(GameFootprint.Part.REGISTRY));
+        assertTrue(footprint.estimate(summary) * 10 < footprint.estimate(game));
+    }
+
+    @Test
+    void cellsAndShips_matchMeasuredClassTotals() {
+        Random random = new Random(11);
+        HeapHistogram before = HeapHistogram.capture();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(playedGame("g" + i, random, 0));
+        }
+        HeapHistogram after = HeapHistogram.capture();
+
+        long cells = 0;
+        for (Game game : games) {
+            cells += footprint.breakdown(game).get(GameFootprint.Part.CELLS);
+        }
+        String cell = Cell.class.getName();
+        String ship = Ship.class.getName();
+        assertEquals(after.get(cell).bytes() - before.get(cell).bytes(), cells);
+        assertEquals(after.instances(ship) - before.instances(ship), GAMES * 10L);
+    }
+
+    @Test
+    void estimate_growsWithShotsAndCachedView() {
+        Game fresh = new Game("g1", "player1", "player2");
+        Game played = playedGame("g2", new Random(3), 80);
+
+        assertTrue(footprint.estimate(played) > footprint.estimate(fresh));
+
+        long before = footprint.estimate(fresh);
+        views.get(fresh, g -> new byte[500]);
+        long view = footprint.breakdown(fresh).get(GameFootprint.Part.VIEW);
+        assertTrue(view >= 500);
+        assertEquals(before + view, footprint.estimate(fresh));
+    }
+
+    @Test
+    void listeners_countOnlyTheGamesOwnWrappers() {
+        Game none = new Game("g1", "player1", "player2");
+        Game one = new Game("g2", "player1", "player2");
+        one.addListener(SHARED);
+        Game three = new Game("g3", "player1", "player2");
+        three.addListener(SHARED);
+        three.addListener(SHARED);
+        three.addListener(SHARED);
+
+        assertEquals(0, footprint.breakdown(none).get(GameFootprint.Part.LISTENERS));
+        assertEquals(0, footprint.breakdown(one).get(GameFootprint.Part.LISTENERS));
+        long wrappers = footprint.breakdown(three).get(GameFootprint.Part.LISTENERS);
+        assertTrue(wrappers > 0);
+        three.addListener(SHARED);
+        assertEquals(wrappers * 3 / 2, footprint.breakdown(three).get(GameFootprint.Part.LISTENERS));
+    }
+
+    @Test
+    void report_groupsRegisteredGamesByState() {
+        Random random = new Random(5);
+        Game setup = new Game("setup", "player1", "player2");
+        Game playing = playedGame("playing", random, 4);
+        Game finished = playedGame("finished", random, 0);
+        finished.setState(Game.GameState.FINISHED);
+        for (Game game : List.of(setup, playing, finished)) {
+            assertTrue(engine.register(game).join());
+        }
+
+        GameFootprint.Report report = footprint.report();
+
+        assertEquals(3, report.games());
+        assertEquals(1, report.byState().get(Game.GameState.SETUP).games());
+        assertEquals(footprint.estimate(setup), report.byState().get(Game.GameState.SETUP).bytes());
+        assertEquals(footprint.estimate(finished), report.byState().get(Game.GameState.FINISHED).bytes());
+        assertEquals(footprint.estimate(setup) + footprint.estimate(playing) + footprint.estimate(finished),
+                report.bytes());
+        long parts = report.byPart().values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(report.bytes(), parts);
+        assertEquals(report.bytes() / 3, report.bytesPerGame());
+    }
+
+    @Test
+    void emptyBoard_hasNoShipArray() {
+        Board board = new Board();
+        Game game = new Game("g", "player1", "player2");
+        long empty = footprint.breakdown(game).get(GameFootprint.Part.SHIPS);
+
+        assertTrue(game.getPlayer1().getBoard().placeShip(Ship.ShipType.DESTROYER, 0, 0, true));
+        long oneShip = footprint.breakdown(game).get(GameFootprint.Part.SHIPS);
+
+        assertTrue(oneShip > empty);
+        assertTrue(board.getShips().isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package com.battlenet.backend.memory;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.MoveLog;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.soak.HeapHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the layout model against the sizes the JVM reports for live
+ * objects in a class histogram.
+ */
+class ObjectLayoutTest {
+    private final ObjectLayout layout = ObjectLayout.current();
+
+    @Test
+    void instanceSizes_matchMeasuredShallowSizes() {
+        List<Object> keep = new ArrayList<>();
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            Game game = new Game("g" + i, "Alice", "Bob");
+            game.getPlayer1().placeShip(Ship.ShipType.CARRIER, 0, 0, true);
+            keep.add(game);
+            keep.add(new AtomicInteger(i));
+            keep.add(new ArrayList<>());
+            map.put("k" + i, "v");
+        }
+        keep.add(map);
+
+        HeapHistogram histogram = HeapHistogram.capture();
+
+        for (Class<?> type : List.of(Game.class, Player.class, Board.class, Cell.class, Ship.class,
+                MoveLog.class, AtomicInteger.class, ArrayList.class, String.class)) {
+            assertEquals(measured(histogram, type.getName()), layout.instanceSize(type), type.getName());
+        }
+        for (String type : List.of("com.battlenet.backend.model.ShipCells", "java.util.HashMap$Node")) {
+            assertEquals(measured(histogram, type), layout.instanceSize(type), type);
+        }
+        assertFalse(keep.isEmpty());
+    }
+
+    @Test
+    void arraySizes_matchMeasuredBoardRows() {
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            boards.add(new Board());
+        }
+
+        HeapHistogram histogram = HeapHistogram.capture();
+
+        // every Cell[] is a board row and every Ship[] a row of the ship-at grid
+        assertEquals(measured(histogram, "[Lcom.battlenet.backend.model.Cell;"), layout.arraySize(Cell.class, 10));
+        assertEquals(measured(histogram, "[Lcom.battlenet.backend.model.Ship;"), layout.arraySize(Ship.class, 10));
+        assertEquals(100, boards.size());
+    }
+
+    @Test
+    void uncompressedLayout_usesWideHeadersAndReferences() {
+        ObjectLayout wide = new ObjectLayout(false, false, 8);
+
+        assertEquals(16, wide.getObjectHeader());
+        assertEquals(8, wide.getReferenceSize());
+        // header 16 + two ints + two booleans
+        assertEquals(32, wide.instanceSize(Cell.class));
+        assertEquals(24 + 10 * 8, wide.arraySize(Cell.class, 10));
+    }
+
+    @Test
+    void compressedLayout_fillsHeaderGapBeforeLongs() {
+        ObjectLayout compressed = new ObjectLayout(true, true, 8);
+
+        assertEquals(24, compressed.instanceSize(Cell.class));
+        // header 12 + long: the int-sized gap stays empty
+        assertEquals(24, compressed.instanceSize(java.util.concurrent.atomic.AtomicLong.class));
+        assertEquals(16 + 32 * 4, compressed.arraySize(int.class, 32));
+        assertEquals(compressed.instanceSize(String.class) + 24, compressed.stringSize("abcdef"));
+        assertEquals(compressed.instanceSize(String.class) + 32, compressed.stringSize("á中文abc"));
+    }
+
+    private static long measured(HeapHistogram histogram, String className) {
+        HeapHistogram.Entry entry = histogram.get(className);
+        assertTrue(entry.instances() > 0, "no live " + className);
+        return entry.bytes() / entry.instances();
+    }
+}
@@ -0,0 +1,103 @@
+package com.battlenet.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSnapshotTest {
+
+    @Test
+    void emptyBoard_snapshotHasNoShipsOrShots() {
+        BoardSnapshot snapshot = new Board().snapshot();
+
+        assertEquals(10, snapshot.getSize());
+        assertTrue(snapshot.getShips().isEmpty());
+        assertEquals(0, snapshot.getShotCount());
+        assertEquals("EMPTY", snapshot.cellState(9, 9));
+        assertTrue(snapshot.allShipsSunk());
+    }
+
+    @Test
+    void placementAndShots_publishNewSnapshots_andOldOnesStayUnchanged() {
+        Board board = new Board();
+        BoardSnapshot empty = board.snapshot();
+        assertTrue(board.placeShip(Ship.ShipType.DESTROYER, 2, 3, true));
+        BoardSnapshot placed = board.snapshot();
+        board.shoot(2, 3);
+        BoardSnapshot hit = board.snapshot();
+        board.shoot(0, 0);
+        BoardSnapshot missed = board.snapshot();
+
+        assertTrue(empty.getShips().isEmpty());
+        assertEquals("SHIP", placed.cellState(2, 3));
+        assertEquals("HIT", hit.cellState(2, 3));
+        assertEquals("SHIP", hit.cellState(2, 4));
+        assertEquals("EMPTY", hit.cellState(0, 0));
+        assertEquals("MISS", missed.cellState(0, 0));
+        assertEquals(board.getVersion(), missed.getVersion());
+        // shots share the ship list instead of copying it
+        assertSame(placed.getShips(), missed.getShips());
+    }
+
+    @Test
+    void snapshot_matchesLiveCellStates() {
+        Board board = new Board();
+        board.placeShip(Ship.ShipType.CARRIER, 0, 0, false);
+        board.placeShip(Ship.ShipType.CRUISER, 9, 7, true);
+        board.placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(new Cell(6, 6), new Cell(7, 6)), false));
+        board.shoot(0, 0);
+        board.shoot(9, 9);
+        board.shoot(5, 5);
+
+        BoardSnapshot snapshot = board.snapshot();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                assertEquals(board.getCell(x, y).getState(), snapshot.cellState(x, y), "(" + x + "," + y + ")");
+            }
+        }
+        assertEquals(3, snapshot.getShotCount());
+    }
+
+    @Test
+    void placedShips_reportTypePositionAndSinking() {
+        Board board = new Board();
+        board.placeShip(Ship.ShipType.DESTROYER, 4, 4, false);
+
+        BoardSnapshot.PlacedShip ship = board.snapshot().getShips().get(0);
+        assertEquals(Ship.ShipType.DESTROYER, ship.type());
+        assertEquals(4, ship.x());
+        assertEquals(4, ship.y());
+        assertFalse(ship.horizontal());
+        assertEquals(2, ship.size());
+        assertSame(ship, board.snapshot().shipAt(5, 4));
+        assertNull(board.snapshot().shipAt(4, 5));
+
+        board.shoot(4, 4);
+        assertFalse(ship.isSunk(board.snapshot()));
+        board.shoot(5, 4);
+        assertTrue(ship.isSunk(board.snapshot()));
+        assertTrue(board.snapshot().allShipsSunk());
+    }
+
+    @Test
+    void rejectedShots_publishNothing() {
+        Board board = new Board();
+        board.shoot(1, 1);
+        BoardSnapshot before = board.snapshot();
+
+        board.shoot(1, 1);
+        board.shoot(10, 0);
+
+        assertSame(before, board.snapshot());
+    }
+
+    @Test
+    void cellOffTheBoard_isRejected() {
+        BoardSnapshot snapshot = new Board().snapshot();
+
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.isHit(10, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.hasShip(0, -1));
+    }
+}
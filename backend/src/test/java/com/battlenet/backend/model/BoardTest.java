@@ -1,5 +1,6 @@
 package com.battlenet.backend.model;
 
+import com.battlenet.backend.heatmap.Heatmap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -65,19 +66,19 @@ class BoardTest {
     }
 
     @Test
-    void shoot_outOfBounds_returnsFalse() {
-        assertFalse(board.shoot(-1, 0));
-        assertFalse(board.shoot(0, -1));
-        assertFalse(board.shoot(10, 0));
-        assertFalse(board.shoot(0, 10));
+    void shoot_outOfBounds_returnsOutOfBounds() {
+        assertSame(ShotOutcome.OUT_OF_BOUNDS, board.shoot(-1, 0));
+        assertSame(ShotOutcome.OUT_OF_BOUNDS, board.shoot(0, -1));
+        assertSame(ShotOutcome.OUT_OF_BOUNDS, board.shoot(10, 0));
+        assertSame(ShotOutcome.OUT_OF_BOUNDS, board.shoot(0, 10));
     }
 
     @Test
     void shoot_miss_and_repeat_missAlreadyHit() {
         // no ship at 0,0 initially
-        assertFalse(board.shoot(0, 0)); // miss
-        // now hitting again should return false (already hit)
-        assertFalse(board.shoot(0, 0));
+        assertSame(ShotOutcome.MISS, board.shoot(0, 0)); // miss
+        // now hitting again is a repeat (already hit)
+        assertSame(ShotOutcome.REPEAT, board.shoot(0, 0));
     }
 
     @Test
@@ -87,11 +88,13 @@ class BoardTest {
         Ship s = new Ship(Ship.ShipType.DESTROYER, List.of(c), true);
         assertTrue(board.placeShip(s));
 
-        // shoot the cell -> should be a hit
-        assertTrue(board.shoot(5, 5));
+        // shoot the cell -> should be a hit that sinks the one-cell ship
+        ShotOutcome outcome = board.shoot(5, 5);
+        assertTrue(outcome.isHit());
+        assertSame(ShotOutcome.sunk(Ship.ShipType.DESTROYER), outcome);
         assertTrue(c.isHit());
-        // shooting again returns false (already hit)
-        assertFalse(board.shoot(5, 5));
+        // shooting again is a repeat (already hit)
+        assertSame(ShotOutcome.REPEAT, board.shoot(5, 5));
     }
 
     @Test
@@ -108,12 +111,23 @@ class BoardTest {
         assertFalse(board.allShipsSunk(), "After placing but before hitting, not all sunk");
 
         // hit the ship
-        assertTrue(board.shoot(6, 6));
+        assertTrue(board.shoot(6, 6).isHit());
 
         // after hitting, now it's sunk
         assertTrue(board.allShipsSunk(), "After hitting the only ship, allShipsSunk() should return true");
     }   
 
+    @Test
+    void ship_built_from_copied_cells_sinks_on_board_hits() {
+        Ship s = new Ship(Ship.ShipType.DESTROYER, List.of(new Cell(7, 1), new Cell(7, 2)), true);
+        assertTrue(board.placeShip(s));
+
+        assertSame(ShotOutcome.HIT, board.shoot(7, 1));
+        assertFalse(board.allShipsSunk());
+        assertSame(ShotOutcome.sunk(Ship.ShipType.DESTROYER), board.shoot(7, 2));
+        assertTrue(board.allShipsSunk());
+    }
+
     @Test
     void cell_getState_covers_all_branches() {
         Cell cell = new Cell(0, 0);
@@ -139,4 +153,99 @@ class BoardTest {
         assertEquals(5, cell.getX());
         assertEquals(6, cell.getY());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shootAndPlace_feedGlobalHeatmaps() {
+        long placedBefore = Heatmap.PLACEMENTS.count(6, 1);
+        long shotsBefore = Heatmap.SHOTS.count(6, 1);
+
+        board.placeShip(new Ship(Ship.ShipType.CRUISER, List.of(new Cell(6, 1), new Cell(6, 2)), true));
+        board.shoot(6, 1);
+        board.shoot(6, 1); // repeat is not a new shot
+        board.shoot(-1, 1);
+
+        assertTrue(Heatmap.PLACEMENTS.count(6, 1) >= placedBefore + 1);
+        assertTrue(Heatmap.SHOTS.count(6, 1) >= shotsBefore + 1);
+    }
+
+    @Test
+    void placeShip_encoded_sharesCellsWithBoard() {
+        assertTrue(board.placeShip(Ship.ShipType.DESTROYER, 4, 4, false));
+
+        Ship ship = board.getShips().get(0);
+        assertSame(board.getCell(4, 4), ship.getCells().get(0));
+        assertSame(board.getCell(5, 4), ship.getCells().get(1));
+        assertTrue(board.getCell(5, 4).hasShip());
+
+        board.shoot(4, 4);
+        assertEquals(1, ship.getHitCount());
+        assertEquals(ShotOutcome.Type.SUNK, board.shoot(5, 4).getType());
+        assertTrue(ship.isSunk());
+    }
+
+    @Test
+    void placeShip_encoded_rejectsOverlapAndOutOfBounds() {
+        assertTrue(board.placeShip(Ship.ShipType.CARRIER, 2, 0, true));
+
+        assertFalse(board.placeShip(Ship.ShipType.DESTROYER, 1, 4, false), "crosses the carrier at (2,4)");
+        assertFalse(board.placeShip(Ship.ShipType.DESTROYER, 0, 9, true), "runs off the right edge");
+        assertFalse(board.placeShip(Ship.ShipType.DESTROYER, -1, 0, true));
+        assertTrue(board.placeShip(Ship.ShipType.DESTROYER, 1, 5, false));
+        assertEquals(2, board.getShips().size());
+    }
+
+    @Test
+    void placeShip_withCopiedCells_readsHitsFromBoard() {
+        Ship ship = new Ship(Ship.ShipType.DESTROYER, List.of(new Cell(0, 0), new Cell(0, 1)), true);
+        assertTrue(board.placeShip(ship));
+
+        board.shoot(0, 0);
+        board.shoot(0, 1);
+        assertTrue(ship.isSunk());
+        assertEquals(0b11L, board.getOccupiedLo());
+    }
+
+    @Test
+    void salvo_resolvesEveryShot_andReportsASunkShipOnItsLastShot() {
+        assertTrue(board.placeShip(Ship.ShipType.DESTROYER, 0, 0, true));
+        assertTrue(board.placeShip(Ship.ShipType.SUBMARINE, 9, 7, true));
+        int version = board.getVersion();
+
+        // the destroyer's two cells, given in reverse, a miss, and a hit on the submarine (bit 98)
+        SalvoOutcome outcome = board.salvo(new int[] {0, 5, 0, 9}, new int[] {1, 5, 0, 8});
+
+        assertTrue(outcome.isFired());
+        assertEquals(List.of(ShotOutcome.HIT, ShotOutcome.MISS, ShotOutcome.sunk(Ship.ShipType.DESTROYER),
+                ShotOutcome.HIT), outcome.getShots());
+        assertEquals(List.of(Ship.ShipType.DESTROYER), outcome.getSunkShips());
+        assertTrue(board.getShips().get(0).isSunk());
+        assertTrue(board.getCell(5, 5).isHit());
+        assertEquals(version + 4, board.getVersion());
+        assertEquals(4, board.snapshot().getShotCount());
+        assertTrue(board.snapshot().isHit(9, 8));
+        assertFalse(board.allShipsSunk());
+
+        // the single-shot path agrees with what the volley left behind
+        assertSame(ShotOutcome.REPEAT, board.shoot(9, 8));
+        assertSame(ShotOutcome.HIT, board.shoot(9, 7));
+        assertSame(ShotOutcome.sunk(Ship.ShipType.SUBMARINE), board.shoot(9, 9));
+        assertTrue(board.allShipsSunk());
+    }
+
+    @Test
+    void salvo_withAnyBadShot_firesNothing() {
+        assertTrue(board.placeShip(Ship.ShipType.DESTROYER, 0, 0, true));
+        board.shoot(4, 4);
+        int version = board.getVersion();
+        BoardSnapshot before = board.snapshot();
+
+        assertEquals(ShotOutcome.OUT_OF_BOUNDS, board.salvo(new int[] {0, 10}, new int[] {0, 0}).getRefusal());
+        assertEquals(ShotOutcome.REPEAT, board.salvo(new int[] {0, 4}, new int[] {0, 4}).getRefusal());
+        assertEquals(ShotOutcome.REPEAT, board.salvo(new int[] {0, 0}, new int[] {1, 1}).getRefusal());
+
+        assertEquals(version, board.getVersion());
+        assertSame(before, board.snapshot());
+        assertFalse(board.getCell(0, 0).isHit());
+        assertTrue(board.salvo(new int[] {0, 0}, new int[] {0, 1}).isFired());
+    }
+}
@@ -0,0 +1,87 @@
+package com.battlenet.backend.model;
+
+import com.battlenet.backend.placement.FleetPlacer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinishedGameTest {
+
+    private static Game playedToTheEnd(long seed) {
+        Random random = new Random(seed);
+        Game game = new Game("game-1", "Alice", "Bob");
+        game.getPlayer2().setId("bob-42");
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer1().getBoard(), random);
+        FleetPlacer.STANDARD.placeRemaining(game.getPlayer2().getBoard(), random);
+        game.startGame();
+        int[] next = new int[2];
+        while (!game.isGameOver()) {
+            int player = game.isPlayer1Turn() ? 1 : 2;
+            int cell = next[player - 1]++;
+            game.shoot(player, cell / 10, cell % 10);
+        }
+        return game;
+    }
+
+    @Test
+    void of_keepsResultShotCountsAndFinalBoards() {
+        Game game = playedToTheEnd(3);
+        GameSnapshot snapshot = game.snapshot();
+
+        FinishedGame summary = FinishedGame.of(game);
+
+        assertEquals("game-1", summary.gameId());
+        assertEquals(game.getWinner().getName(), summary.winnerName());
+        assertEquals(game.getCurrentPlayer().getName(), summary.currentPlayerName());
+        assertEquals(snapshot.version(), summary.version());
+        assertEquals(game.getPlayer1Shots(), summary.player1().shots());
+        assertEquals(game.getPlayer2Shots(), summary.player2().shots());
+        assertNull(summary.player1().id());
+        assertEquals("bob-42", summary.side(2).id());
+        for (int player = 1; player <= 2; player++) {
+            BoardSnapshot board = snapshot.board(player);
+            FinishedGame.Side side = summary.side(player);
+            assertEquals(5, side.ships());
+            assertTrue(side.allShipsPlaced());
+            assertEquals(board.getShipsLo(), side.shipsLo());
+            assertEquals(board.getShipsHi(), side.shipsHi());
+            assertEquals(board.getHitsLo(), side.hitsLo());
+            assertEquals(board.getHitsHi(), side.hitsHi());
+        }
+    }
+
+    @Test
+    void moveLog_replaysTheSameEvents() {
+        Game game = playedToTheEnd(5);
+
+        MoveLog log = FinishedGame.of(game).moveLog();
+
+        assertEquals(game.getMoveLog().size(), log.size());
+        for (int i = 0; i < log.size(); i++) {
+            assertEquals(game.getMoveLog().get(i), log.get(i));
+        }
+    }
+
+    @Test
+    void of_gameEndedWithoutWinner() {
+        Game game = new Game("game-2", "Alice", "Bob");
+        game.setState(Game.GameState.FINISHED);
+
+        FinishedGame summary = FinishedGame.of(game);
+
+        assertEquals(0, summary.winner());
+        assertNull(summary.winnerName());
+        assertFalse(summary.player1().allShipsPlaced());
+        assertEquals(0, summary.moveLog().size());
+    }
+
+    @Test
+    void of_rejectsGameStillInPlay() {
+        Game game = new Game("game-3", "Alice", "Bob");
+        game.startGame();
+
+        assertThrows(IllegalStateException.class, () -> FinishedGame.of(game));
+    }
+}
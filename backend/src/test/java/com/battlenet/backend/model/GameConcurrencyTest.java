@@ -0,0 +1,173 @@
+package com.battlenet.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads racing on one game. The finer-grained interleavings are
+ * covered by the jcstress tests in the {@code stress} package.
+ */
+class GameConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void concurrentStarts_exactlyOneSucceeds() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            Game game = new Game("g", "Alice", "Bob");
+            AtomicInteger started = new AtomicInteger();
+            race(() -> {
+                if (game.startGame()) {
+                    started.incrementAndGet();
+                }
+            });
+            assertEquals(1, started.get());
+            assertEquals(Game.GameState.PLAYING, game.getState());
+        }
+    }
+
+    @Test
+    void racingShotsFromOnePlayer_useOneTurn() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            Game game = new Game("g", "Alice", "Bob");
+            game.startGame();
+            AtomicInteger misses = new AtomicInteger();
+            AtomicInteger cell = new AtomicInteger();
+            race(() -> {
+                int c = cell.getAndIncrement();
+                ShotOutcome outcome = game.shoot(1, c / 10, c % 10);
+                if (outcome == ShotOutcome.MISS) {
+                    misses.incrementAndGet();
+                } else {
+                    assertSame(ShotOutcome.NOT_YOUR_TURN, outcome);
+                }
+            });
+            assertEquals(1, misses.get(), "only one shot can use player 1's turn");
+            assertFalse(game.isPlayer1Turn());
+        }
+    }
+
+    @Test
+    void hammeredGame_finishesOnceWithConsistentCounts() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            Game game = new Game("g", "Alice", "Bob");
+            placeFleet(game.getPlayer1().getBoard());
+            placeFleet(game.getPlayer2().getBoard());
+            AtomicInteger finished = new AtomicInteger();
+            game.addListener(new GameListener() {
+                @Override
+                public void onStateChanged(Game g, Game.GameState previous) {
+                    if (g.getState() == Game.GameState.FINISHED) {
+                        finished.incrementAndGet();
+                    }
+                }
+            });
+            game.startGame();
+
+            AtomicInteger wins = new AtomicInteger();
+            race(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!game.isGameOver()) {
+                    ShotOutcome outcome = game.shoot(1 + random.nextInt(2), random.nextInt(10), random.nextInt(10));
+                    if (outcome.getType() == ShotOutcome.Type.WIN) {
+                        wins.incrementAndGet();
+                    }
+                }
+            });
+
+            assertEquals(1, wins.get());
+            assertEquals(1, finished.get());
+            Player winner = game.getWinner();
+            assertNotNull(winner);
+            Player loser = winner == game.getPlayer1() ? game.getPlayer2() : game.getPlayer1();
+            assertTrue(loser.getBoard().allShipsSunk());
+            assertEquals(game.getPlayer1Shots(), hitCells(game.getPlayer2().getBoard()));
+            assertEquals(game.getPlayer2Shots(), hitCells(game.getPlayer1().getBoard()));
+        }
+    }
+
+    @Test
+    void snapshotReaders_alwaysSeeConsistentGames() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Game game = new Game("g", "Alice", "Bob");
+            placeFleet(game.getPlayer1().getBoard());
+            placeFleet(game.getPlayer2().getBoard());
+            game.startGame();
+
+            AtomicInteger role = new AtomicInteger();
+            race(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                if (role.getAndIncrement() < 2) {
+                    while (!game.isGameOver()) {
+                        game.shoot(1 + random.nextInt(2), random.nextInt(10), random.nextInt(10));
+                    }
+                    return;
+                }
+                int lastVersion = -1;
+                GameSnapshot snapshot;
+                do {
+                    snapshot = game.snapshot();
+                    assertTrue(snapshot.version() >= lastVersion, "snapshots went backwards");
+                    lastVersion = snapshot.version();
+                    assertEquals(snapshot.player1Shots(), snapshot.board2().getShotCount());
+                    assertEquals(snapshot.player2Shots(), snapshot.board1().getShotCount());
+                    if (snapshot.winner() != 0) {
+                        assertTrue(snapshot.isGameOver());
+                        assertTrue(snapshot.board(3 - snapshot.winner()).allShipsSunk());
+                    }
+                } while (!snapshot.isGameOver());
+            });
+        }
+    }
+
+    private static void placeFleet(Board board) {
+        Ship.ShipType[] types = Ship.ShipType.values();
+        for (int i = 0; i < types.length; i++) {
+            assertTrue(board.placeShip(types[i], i * 2, 0, true));
+        }
+    }
+
+    private static int hitCells(Board board) {
+        int hits = 0;
+        for (int x = 0; x < board.getSize(); x++) {
+            for (int y = 0; y < board.getSize(); y++) {
+                if (board.getCell(x, y).isHit()) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static void race(Runnable action) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    action.run();
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+}
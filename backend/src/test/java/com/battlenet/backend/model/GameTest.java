@@ -3,6 +3,8 @@ package com.battlenet.backend.model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,9 +30,9 @@ class GameTest {
     }
 
     @Test
-    void shoot_when_not_playing_returnsGameNotReady() {
-        String res = game.shoot(0, 0);
-        assertEquals("Game not ready!", res);
+    void shoot_when_not_playing_returnsNotPlaying() {
+        ShotOutcome res = game.shoot(0, 0);
+        assertSame(ShotOutcome.NOT_PLAYING, res);
         // still in setup
         assertEquals(Game.GameState.SETUP, game.getState());
     }
@@ -40,8 +42,8 @@ class GameTest {
         game.startGame();
         assertEquals(Game.GameState.PLAYING, game.getState());
         // choose coordinates where there is no ship
-        String res = game.shoot(9, 9);
-        assertEquals("Miss!", res);
+        ShotOutcome res = game.shoot(9, 9);
+        assertSame(ShotOutcome.MISS, res);
         // turn must have switched to player2
         assertFalse(game.isPlayer1Turn());
         assertEquals(game.getPlayer2(), game.getCurrentPlayer());
@@ -51,7 +53,7 @@ class GameTest {
     }
 
     @Test
-    void hit_but_not_gameOver_returnsHit() {
+    void sinking_one_of_two_ships_returnsSunk_and_keepsTurn() {
         game.startGame();
         // place two ships on player2 so hitting one does not finish the game
         Player target = game.getPlayer2();
@@ -63,11 +65,12 @@ class GameTest {
         assertTrue(target.placeShip(ship2));
 
         // player1 shoots at first ship
-        String res1 = game.shoot(1, 1);
-        // Because the state is PLAYING, this is a Hit (and not Game Over since one ship remains)
-        assertEquals("Hit!", res1);
+        ShotOutcome res1 = game.shoot(1, 1);
+        // Because the state is PLAYING, this sinks a ship (and not Game Over since one ship remains)
+        assertSame(ShotOutcome.sunk(Ship.ShipType.DESTROYER), res1);
         assertFalse(game.isGameOver());
         assertNull(game.getWinner());
+        assertTrue(game.isPlayer1Turn(), "A hit keeps the turn");
     }
 
     @Test
@@ -79,10 +82,10 @@ class GameTest {
         Ship ship = new Ship(Ship.ShipType.DESTROYER, List.of(s), true);
         assertTrue(target.placeShip(ship));
 
-        // now shoot that position -> should be Hit! Game Over! Alice wins!
-        String result = game.shoot(3, 3);
-        assertTrue(result.startsWith("Hit!"));
-        assertTrue(result.contains("Game Over"));
+        // now shoot that position -> should be a win for Alice
+        ShotOutcome result = game.shoot(3, 3);
+        assertEquals(ShotOutcome.Type.WIN, result.getType());
+        assertEquals(Ship.ShipType.DESTROYER, result.getShipType());
         assertTrue(game.isGameOver());
         assertNotNull(game.getWinner());
         assertEquals("Alice", game.getWinner().getName());
@@ -93,18 +96,17 @@ class GameTest {
     @Test
     void setters_and_turns_and_current_opponent_logic() {
         // set state directly
-        game.setState(Game.GameState.FINISHED);
-        assertEquals(Game.GameState.FINISHED, game.getState());
+        assertTrue(game.setState(Game.GameState.PLAYING));
+        assertEquals(Game.GameState.PLAYING, game.getState());
 
-        // reset to playing and test getCurrentPlayer/getOpponent flipping
-        game.setState(Game.GameState.PLAYING);
+        // test getCurrentPlayer/getOpponent flipping
         // initially player1Turn true
         assertEquals(game.getPlayer1(), game.getCurrentPlayer());
         assertEquals(game.getPlayer2(), game.getOpponent());
 
         // simulate a miss to flip turn
-        String res = game.shoot(0, 0); // will be "Miss!"
-        assertEquals("Miss!", res);
+        ShotOutcome res = game.shoot(0, 0); // will be a miss
+        assertSame(ShotOutcome.MISS, res);
         // now current player should be player2
         assertEquals(game.getPlayer2(), game.getCurrentPlayer());
     }
@@ -118,7 +120,7 @@ class GameTest {
 
         // Cambiamos el turno para que dispare Player2
         // Simulamos un fallo de Player1 para pasar el turno
-        assertEquals("Miss!", game.shoot(9, 9));
+        assertSame(ShotOutcome.MISS, game.shoot(9, 9));
 
         // Ahora es turno de Player2
         Cell shipCell = p1.getBoard().getCell(0, 0);
@@ -126,12 +128,229 @@ class GameTest {
         assertTrue(p1.placeShip(ship));
 
         // Player2 dispara y gana
-        String result = game.shoot(0, 0);
-        assertTrue(result.contains("wins"), "Debe indicar que hay un ganador");
+        ShotOutcome result = game.shoot(0, 0);
+        assertEquals(ShotOutcome.Type.WIN, result.getType(), "Debe indicar que hay un ganador");
         assertEquals(Game.GameState.FINISHED, game.getState());
         assertNotNull(game.getWinner());
         assertEquals("Bob", game.getWinner().getName());
     }
 
+    @Test
+    void hit_on_partially_damaged_ship_returnsHit() {
+        game.startGame();
+        Board board = game.getPlayer2().getBoard();
+        Ship ship = new Ship(Ship.ShipType.DESTROYER, List.of(board.getCell(0, 0), board.getCell(0, 1)), true);
+        assertTrue(game.getPlayer2().placeShip(ship));
+
+        assertSame(ShotOutcome.HIT, game.shoot(0, 0));
+        assertSame(ShotOutcome.win(Ship.ShipType.DESTROYER), game.shoot(0, 1));
+    }
+
+    @Test
+    void repeat_and_outOfBounds_shots_doNotFlipTurn() {
+        game.startGame();
+        assertSame(ShotOutcome.OUT_OF_BOUNDS, game.shoot(10, 0));
+        assertTrue(game.isPlayer1Turn());
+
+        assertSame(ShotOutcome.MISS, game.shoot(4, 4));
+        assertFalse(game.isPlayer1Turn());
+        assertSame(ShotOutcome.MISS, game.shoot(4, 4));
+        assertTrue(game.isPlayer1Turn());
+
+        // player1 already shot (4,4) on player2's board
+        assertSame(ShotOutcome.REPEAT, game.shoot(4, 4));
+        assertTrue(game.isPlayer1Turn());
+    }
+
+    @Test
+    void shoot_by_player_out_of_turn_isRejected() {
+        game.startGame();
+        assertSame(ShotOutcome.NOT_YOUR_TURN, game.shoot(2, 0, 0));
+        assertTrue(game.isPlayer1Turn());
+        assertSame(ShotOutcome.MISS, game.shoot(1, 0, 0));
+        assertSame(ShotOutcome.MISS, game.shoot(2, 0, 0));
+    }
+
+    @Test
+    void illegalTransitions_areRejected() {
+        assertTrue(game.startGame());
+        assertFalse(game.startGame(), "already playing");
+        assertFalse(game.setState(Game.GameState.SETUP));
+
+        assertTrue(game.setState(Game.GameState.FINISHED));
+        assertFalse(game.setState(Game.GameState.FINISHED));
+        assertFalse(game.startGame(), "a finished game cannot be restarted");
+        assertEquals(Game.GameState.FINISHED, game.getState());
+        assertNull(game.getWinner());
+    }
+
+    @Test
+    void transitions_bumpVersionAndNotifyOnce() {
+        List<Game.GameState> previous = new ArrayList<>();
+        game.addListener(new GameListener() {
+            @Override
+            public void onStateChanged(Game g, Game.GameState p) {
+                previous.add(p);
+            }
+        });
+        int version = game.getVersion();
+
+        game.startGame();
+        game.startGame();
+        assertNotEquals(version, game.getVersion());
+        assertEquals(List.of(Game.GameState.SETUP), previous);
+    }
+
+    @Test
+    void snapshot_followsEveryChange() {
+        Game g = new Game("snap", "Alice", "Bob");
+        GameSnapshot created = g.snapshot();
+        assertEquals("snap", created.gameId());
+        assertEquals(Game.GameState.SETUP, created.state());
+
+        g.getPlayer2().getBoard().placeShip(Ship.ShipType.DESTROYER, 0, 0, true);
+        GameSnapshot placed = g.snapshot();
+        assertEquals(1, placed.board2().getShips().size());
+        assertTrue(created.board2().getShips().isEmpty());
+
+        g.startGame();
+        g.shoot(1, 5, 5);
+        GameSnapshot missed = g.snapshot();
+        assertEquals(Game.GameState.PLAYING, missed.state());
+        assertFalse(missed.player1Turn());
+        assertEquals(1, missed.player1Shots());
+        assertEquals("MISS", missed.board2().cellState(5, 5));
+        assertEquals(g.getVersion(), missed.version());
+
+        g.shoot(2, 3, 3);
+        g.shoot(1, 0, 0);
+        g.shoot(1, 0, 1);
+        GameSnapshot won = g.snapshot();
+        assertTrue(won.isGameOver());
+        assertEquals(1, won.winner());
+        assertEquals(3, won.player1Shots());
+        assertEquals(1, won.player2Shots());
+        assertTrue(won.board(2).allShipsSunk());
+        // earlier snapshots are never modified
+        assertEquals(Game.GameState.PLAYING, missed.state());
+        assertEquals(1, missed.board2().getShotCount());
+    }
+
+    @Test
+    void snapshot_abortedGame_isFinishedWithoutWinner() {
+        Game g = new Game("snap", "Alice", "Bob");
+        g.setState(Game.GameState.FINISHED);
+
+        assertTrue(g.snapshot().isGameOver());
+        assertEquals(0, g.snapshot().winner());
+    }
+
+    @Test
+    void forfeit_opponentWins_onlyWhileNotFinished() {
+        game.startGame();
+        List<Game.GameState> notified = new ArrayList<>();
+        game.addListener(new GameListener() {
+            @Override
+            public void onStateChanged(Game g, Game.GameState previous) {
+                notified.add(previous);
+            }
+        });
+
+        assertTrue(game.forfeit(1));
+
+        assertTrue(game.isGameOver());
+        assertSame(game.getPlayer2(), game.getWinner());
+        assertEquals(2, game.snapshot().winner());
+        assertEquals(List.of(Game.GameState.PLAYING), notified);
+        assertFalse(game.forfeit(2), "a finished game cannot be forfeited");
+        assertSame(game.getPlayer2(), game.getWinner());
+    }
+
+    // A salvo game in play, each side with a destroyer in row 0 and a submarine in row 9
+    private static Game salvoGame() {
+        Game salvo = new Game("salvo", "Alice", "Bob", Game.Mode.SALVO);
+        for (Player player : List.of(salvo.getPlayer1(), salvo.getPlayer2())) {
+            assertTrue(player.placeShip(Ship.ShipType.DESTROYER, 0, 0, true));
+            assertTrue(player.placeShip(Ship.ShipType.SUBMARINE, 9, 0, true));
+        }
+        assertTrue(salvo.startGame());
+        return salvo;
+    }
+
+    @Test
+    void salvo_firesOneShotPerShipAfloat_andAlwaysPassesTheTurn() {
+        Game salvo = salvoGame();
+        assertEquals(Game.Mode.SALVO, salvo.getMode());
+        assertEquals(2, salvo.getSalvoSize());
 
-}
\ No newline at end of file
+        assertSame(ShotOutcome.SALVO_ONLY, salvo.shoot(0, 0));
+        assertSame(ShotOutcome.WRONG_SALVO_SIZE, salvo.salvo(1, new int[] {0}, new int[] {0}).getRefusal());
+        assertSame(ShotOutcome.NOT_YOUR_TURN, salvo.salvo(2, new int[] {0, 0}, new int[] {0, 1}).getRefusal());
+
+        // both shots hit, sinking the destroyer, and still the turn passes
+        SalvoOutcome first = salvo.salvo(1, new int[] {0, 0}, new int[] {0, 1});
+        assertEquals(List.of(ShotOutcome.HIT, ShotOutcome.sunk(Ship.ShipType.DESTROYER)), first.getShots());
+        assertFalse(salvo.isPlayer1Turn());
+        assertEquals(2, salvo.getPlayer1Shots());
+        assertEquals(1, salvo.getSalvoSize(), "Bob lost his destroyer");
+
+        assertEquals(List.of(ShotOutcome.HIT), salvo.salvo(2, new int[] {0}, new int[] {0}).getShots());
+        assertEquals(2, salvo.getSalvoSize(), "Alice's destroyer is hit but afloat");
+        assertSame(ShotOutcome.WRONG_SALVO_SIZE, salvo.salvo(1, new int[] {9}, new int[] {0}).getRefusal());
+    }
+
+    @Test
+    void salvo_thatSinksTheLastShip_winsTheGame() {
+        Game salvo = salvoGame();
+        List<Game.GameState> notified = new ArrayList<>();
+        salvo.addListener(new GameListener() {
+            @Override
+            public void onStateChanged(Game g, Game.GameState previous) {
+                notified.add(previous);
+            }
+        });
+        assertTrue(salvo.salvo(1, new int[] {0, 0}, new int[] {0, 1}).isFired());
+        assertTrue(salvo.salvo(2, new int[] {5}, new int[] {5}).isFired());
+        // Alice keeps two shots a turn, one short of the submarine's three cells
+        assertTrue(salvo.salvo(1, new int[] {9, 9}, new int[] {0, 1}).isFired());
+        assertTrue(salvo.salvo(2, new int[] {6}, new int[] {6}).isFired());
+        SalvoOutcome last = salvo.salvo(1, new int[] {9, 4}, new int[] {2, 4});
+
+        assertTrue(last.isWin());
+        assertEquals(List.of(ShotOutcome.win(Ship.ShipType.SUBMARINE), ShotOutcome.MISS), last.getShots());
+        assertEquals(Game.GameState.FINISHED, salvo.getState());
+        assertSame(salvo.getPlayer1(), salvo.getWinner());
+        assertEquals(List.of(Game.GameState.PLAYING), notified);
+        assertEquals(6, salvo.snapshot().player1Shots());
+        assertSame(ShotOutcome.NOT_PLAYING, salvo.salvo(2, new int[] {7, 7}, new int[] {7, 8}).getRefusal());
+    }
+
+    @Test
+    void classicGame_refusesSalvos() {
+        game.startGame();
+        assertEquals(Game.Mode.CLASSIC, game.getMode());
+        assertSame(ShotOutcome.SINGLE_SHOTS_ONLY, game.salvo(1, new int[] {0}, new int[] {0}).getRefusal());
+        assertEquals(0, game.getPlayer1Shots());
+    }
+
+    @Test
+    void errorWhileShooting_releasesTheGame() {
+        Board board2 = game.getPlayer2().getBoard();
+        Ship failing = new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true) {
+            @Override
+            public boolean isSunk() {
+                throw new StackOverflowError();
+            }
+        };
+        assertTrue(game.getPlayer2().placeShip(failing));
+        game.startGame();
+
+        assertThrows(StackOverflowError.class, () -> game.shoot(1, 0, 0));
+        // a claim left behind would have the next writer spin forever
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertTrue(game.isPlayer1Turn(), "the failed shot did not pass the turn");
+            assertSame(ShotOutcome.MISS, game.shoot(1, 5, 5));
+            assertTrue(game.setState(Game.GameState.FINISHED));
+        });
+    }
+}
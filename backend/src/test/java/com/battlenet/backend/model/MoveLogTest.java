@@ -0,0 +1,80 @@
+package com.battlenet.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveLogTest {
+
+    @Test
+    void placements_and_shots_areRecordedInOrder() {
+        Game game = new Game("g1", "Alice", "Bob");
+        Board board2 = game.getPlayer2().getBoard();
+        Ship ship = new Ship(Ship.ShipType.CRUISER,
+                List.of(board2.getCell(3, 4), board2.getCell(4, 4), board2.getCell(5, 4)), false);
+        assertTrue(game.getPlayer2().placeShip(ship));
+        game.startGame();
+        game.shoot(3, 4);
+        game.shoot(9, 9);
+
+        MoveLog log = game.getMoveLog();
+        assertEquals(3, log.size());
+
+        int placement = log.get(0);
+        assertEquals(MoveLog.PLACEMENT, MoveLog.kind(placement));
+        assertEquals(2, MoveLog.boardOwner(placement));
+        assertEquals(Ship.ShipType.CRUISER, MoveLog.shipType(placement));
+        assertEquals(3, MoveLog.x(placement));
+        assertEquals(4, MoveLog.y(placement));
+        assertFalse(MoveLog.horizontal(placement));
+
+        int hit = log.get(1);
+        assertEquals(MoveLog.SHOT, MoveLog.kind(hit));
+        assertEquals(2, MoveLog.boardOwner(hit));
+        assertTrue(MoveLog.hit(hit));
+
+        int miss = log.get(2);
+        assertEquals(9, MoveLog.x(miss));
+        assertEquals(9, MoveLog.y(miss));
+        assertFalse(MoveLog.hit(miss));
+    }
+
+    @Test
+    void rejectedMoves_areNotRecorded() {
+        Game game = new Game("g1", "Alice", "Bob");
+        Ship outside = new Ship(Ship.ShipType.DESTROYER, List.of(new Cell(10, 10)), true);
+        assertFalse(game.getPlayer1().placeShip(outside));
+        game.startGame();
+        game.shoot(-1, 0);
+
+        assertEquals(0, game.getMoveLog().size());
+    }
+
+    @Test
+    void log_growsPastInitialCapacity() {
+        Game game = new Game("g1", "Alice", "Bob");
+        game.startGame();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                game.shoot(x, y);
+            }
+        }
+        MoveLog log = game.getMoveLog();
+        assertEquals(100, log.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(100));
+    }
+
+    @Test
+    void untypedShip_decodesToNullType() {
+        Board board = new Board();
+        MoveLog log = new MoveLog();
+        board.attach("g1", log, 0);
+        assertTrue(board.placeShip(new Ship(1, List.of(board.getCell(0, 0)))));
+
+        assertEquals(1, MoveLog.boardOwner(log.get(0)));
+        assertNull(MoveLog.shipType(log.get(0)));
+        assertTrue(MoveLog.horizontal(log.get(0)));
+    }
+}
@@ -23,6 +23,31 @@ class PlayerTest {
         assertEquals("Alice", player.getName());
     }
 
+    @Test
+    void newGuestId_isAValidIdMarkedAsGuest() {
+        String id = Player.newGuestId();
+
+        assertTrue(Player.isGuestId(id));
+        assertTrue(id.matches("[A-Za-z0-9_-]{1,32}"), id);
+        assertNotEquals(id, Player.newGuestId());
+        assertFalse(Player.isGuestId("alice"));
+        assertFalse(Player.isGuestId(null));
+    }
+
+    @Test
+    void placeShip_refusesASecondShipOfTheSameType() {
+        Player player = new Player("Alice");
+        assertTrue(player.placeShip(Ship.ShipType.CARRIER, 0, 0, true));
+        assertFalse(player.placeShip(Ship.ShipType.CARRIER, 5, 0, true));
+        assertEquals(1, player.getBoard().getShips().size());
+
+        assertTrue(player.placeShip(Ship.ShipType.BATTLESHIP, 1, 0, true));
+        assertTrue(player.placeShip(Ship.ShipType.CRUISER, 2, 0, true));
+        assertTrue(player.placeShip(Ship.ShipType.SUBMARINE, 3, 0, true));
+        assertTrue(player.placeShip(Ship.ShipType.DESTROYER, 4, 0, true));
+        assertTrue(player.allShipsPlaced());
+    }
+
     @Test
     void testSetters() {
         Player player = new Player("Bob");
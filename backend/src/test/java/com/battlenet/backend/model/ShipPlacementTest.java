@@ -0,0 +1,44 @@
+package com.battlenet.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShipPlacementTest {
+
+    @Test
+    void encode_roundTripsFields() {
+        int placement = ShipPlacement.encode(Ship.ShipType.SUBMARINE, 7, 2, true);
+
+        assertEquals(Ship.ShipType.SUBMARINE, ShipPlacement.type(placement));
+        assertEquals(7, ShipPlacement.x(placement));
+        assertEquals(2, ShipPlacement.y(placement));
+        assertTrue(ShipPlacement.horizontal(placement));
+    }
+
+    @Test
+    void encode_rejectsNegativeCoordinates() {
+        assertThrows(IllegalArgumentException.class, () -> ShipPlacement.encode(Ship.ShipType.DESTROYER, -1, 0, true));
+    }
+
+    @Test
+    void fits_checksTheWholeShipAgainstTheBoard() {
+        assertTrue(ShipPlacement.fits(ShipPlacement.encode(Ship.ShipType.CARRIER, 0, 5, true)));
+        assertFalse(ShipPlacement.fits(ShipPlacement.encode(Ship.ShipType.CARRIER, 0, 6, true)));
+        assertTrue(ShipPlacement.fits(ShipPlacement.encode(Ship.ShipType.CARRIER, 5, 9, false)));
+        assertFalse(ShipPlacement.fits(ShipPlacement.encode(Ship.ShipType.CARRIER, 6, 9, false)));
+        assertFalse(ShipPlacement.fits(ShipPlacement.encode(Ship.ShipType.DESTROYER, 10, 0, true)));
+    }
+
+    @Test
+    void footprint_coversExactlyTheShipCells() {
+        int vertical = ShipPlacement.encode(Ship.ShipType.CRUISER, 5, 3, false);
+        // cells (5,3), (6,3), (7,3): bits 53, 63 and 73
+        assertEquals(1L << 53 | 1L << 63, ShipPlacement.footprintLo(vertical));
+        assertEquals(1L << (73 - 64), ShipPlacement.footprintHi(vertical));
+
+        int horizontal = ShipPlacement.encode(Ship.ShipType.DESTROYER, 0, 0, true);
+        assertEquals(0b11L, ShipPlacement.footprintLo(horizontal));
+        assertEquals(0L, ShipPlacement.footprintHi(horizontal));
+    }
+}
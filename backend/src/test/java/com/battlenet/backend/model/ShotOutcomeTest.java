@@ -0,0 +1,44 @@
+package com.battlenet.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShotOutcomeTest {
+
+    @Test
+    void sunk_and_win_returnSharedConstantsPerShipType() {
+        for (Ship.ShipType type : Ship.ShipType.values()) {
+            assertSame(ShotOutcome.sunk(type), ShotOutcome.sunk(type));
+            assertSame(ShotOutcome.win(type), ShotOutcome.win(type));
+            assertEquals(ShotOutcome.Type.SUNK, ShotOutcome.sunk(type).getType());
+            assertEquals(ShotOutcome.Type.WIN, ShotOutcome.win(type).getType());
+            assertEquals(type, ShotOutcome.win(type).getShipType());
+        }
+        assertNull(ShotOutcome.sunk(null).getShipType());
+        assertEquals(ShotOutcome.Type.WIN, ShotOutcome.win(null).getType());
+    }
+
+    @Test
+    void hit_and_fired_flags() {
+        assertTrue(ShotOutcome.HIT.isHit());
+        assertTrue(ShotOutcome.sunk(Ship.ShipType.CARRIER).isHit());
+        assertTrue(ShotOutcome.win(Ship.ShipType.CARRIER).isHit());
+        assertFalse(ShotOutcome.MISS.isHit());
+        assertTrue(ShotOutcome.MISS.isFired());
+
+        assertFalse(ShotOutcome.REPEAT.isFired());
+        assertFalse(ShotOutcome.OUT_OF_BOUNDS.isFired());
+        assertFalse(ShotOutcome.NOT_YOUR_TURN.isFired());
+        assertFalse(ShotOutcome.NOT_PLAYING.isFired());
+        assertFalse(ShotOutcome.SALVO_ONLY.isFired());
+        assertFalse(ShotOutcome.WRONG_SALVO_SIZE.isFired());
+    }
+
+    @Test
+    void toString_includesShipType() {
+        assertEquals("MISS", ShotOutcome.MISS.toString());
+        assertEquals("SUNK(CRUISER)", ShotOutcome.sunk(Ship.ShipType.CRUISER).toString());
+        assertEquals("Hit!", ShotOutcome.HIT.getMessage());
+    }
+}
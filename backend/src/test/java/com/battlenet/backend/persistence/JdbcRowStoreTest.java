@@ -0,0 +1,74 @@
+package com.battlenet.backend.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcRowStoreTest {
+
+    private static final String URL = "jdbc:h2:mem:rowstore;DB_CLOSE_DELAY=-1";
+
+    private final JdbcRowStore store = new JdbcRowStore(URL);
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        store.close();
+        try (Connection c = DriverManager.getConnection(URL); Statement statement = c.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private static long count(String sql) throws SQLException {
+        try (Connection c = DriverManager.getConnection(URL);
+             Statement statement = c.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return result.getLong(1);
+        }
+    }
+
+    @Test
+    void write_storesEachRowInItsTable() throws SQLException {
+        store.write(List.of(
+                new Row.Created("g1", "SALVO", "alice", null, 1000, 0),
+                new Row.Placed("g1", 0, 1, "DESTROYER", 3, 4, true, 1001, 0),
+                new Row.Placed("g1", 1, 2, null, 5, 6, false, 1002, 0),
+                new Row.Shot("g1", 2, 1, 5, 6, true, 1003, 0),
+                new Row.Result("g1", 1, 1, 0, 1004, 0)));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM games WHERE mode = 'SALVO' AND player2_id IS NULL"));
+        assertEquals(2, count("SELECT COUNT(*) FROM placements WHERE game_id = 'g1'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM placements WHERE ship_type IS NULL AND NOT horizontal"));
+        assertEquals(1, count("SELECT COUNT(*) FROM shots WHERE hit AND x = 5 AND y = 6 AND seq = 2"));
+        assertEquals(1, count("SELECT winner FROM results WHERE game_id = 'g1'"));
+    }
+
+    @Test
+    void failedWrite_storesNothing_andTheNextOneReconnects() throws SQLException {
+        // games go in before placements, and the placement without a game id fails the batch
+        List<Row> failing = List.of(
+                new Row.Created("g1", "CLASSIC", "alice", "bob", 1000, 0),
+                new Row.Placed(null, 0, 1, "DESTROYER", 0, 0, true, 1000, 0));
+        assertThrows(SQLException.class, () -> store.write(failing));
+        assertEquals(0, count("SELECT COUNT(*) FROM games"));
+
+        store.write(List.of(new Row.Created("g2", "CLASSIC", "alice", "bob", 1000, 0)));
+        assertEquals(1, count("SELECT COUNT(*) FROM games"));
+    }
+
+    @Test
+    void blankUrl_disablesTheStore() {
+        JdbcRowStore disabled = new JdbcRowStore("");
+        assertFalse(disabled.isEnabled());
+        assertTrue(store.isEnabled());
+        assertThrows(SQLException.class, () -> disabled.write(List.of()));
+    }
+}
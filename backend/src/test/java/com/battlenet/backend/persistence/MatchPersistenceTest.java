@@ -0,0 +1,233 @@
+package com.battlenet.backend.persistence;
+
+import com.battlenet.backend.engine.GameEngine;
+import com.battlenet.backend.engine.TurnTimeouts;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import com.battlenet.backend.model.ShotOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchPersistenceTest {
+
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GameEngine(2, TurnTimeouts.NONE);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.close();
+    }
+
+    // Keeps every batch written; fails the first `failures` writes
+    static class RecordingStore implements RowStore {
+        final List<List<Row>> batches = new CopyOnWriteArrayList<>();
+        final boolean enabled;
+        int failures;
+        int calls;
+
+        RecordingStore(boolean enabled, int failures) {
+            this.enabled = enabled;
+            this.failures = failures;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void write(List<Row> rows) throws SQLException {
+            calls++;
+            if (failures > 0) {
+                failures--;
+                throw new SQLException("database unavailable");
+            }
+            batches.add(List.copyOf(rows));
+        }
+
+        List<Row> rows() {
+            List<Row> rows = new ArrayList<>();
+            batches.forEach(rows::addAll);
+            return rows;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private MatchPersistence persistence(RowStore store, int capacity, int batchSize) {
+        return new MatchPersistence(engine, store, capacity, batchSize, Duration.ofMillis(50));
+    }
+
+    // One-cell ship on each board, placed before the game is registered
+    private static Game readyGame(String id) {
+        Game game = new Game(id, "player1", "player2");
+        Board board1 = game.getPlayer1().getBoard();
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer1().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board1.getCell(9, 9)), true)));
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(9, 9)), true)));
+        game.startGame();
+        return game;
+    }
+
+    // The command's future completes before the change listeners run; the next command waits for them
+    private void shoot(String gameId, int x, int y) {
+        engine.submit(gameId, g -> g.shoot(x, y)).join();
+        engine.submit(gameId, g -> g).join();
+    }
+
+    @Test
+    void gameLifecycle_isWrittenInOrderOnce() throws Exception {
+        RecordingStore store = new RecordingStore(true, 0);
+        MatchPersistence persistence = persistence(store, 1000, 100);
+
+        assertTrue(engine.register(readyGame("g1")).join());
+        shoot("g1", 0, 0);
+        shoot("g1", 0, 0);
+        shoot("g1", 9, 9);
+        persistence.close();
+
+        List<Row> rows = store.rows();
+        assertEquals(7, rows.size(), rows.toString());
+        Row.Created created = assertInstanceOf(Row.Created.class, rows.get(0));
+        assertEquals("g1", created.gameId());
+        assertEquals("CLASSIC", created.mode());
+
+        Row.Placed placed = assertInstanceOf(Row.Placed.class, rows.get(1));
+        assertEquals(1, placed.player());
+        assertEquals("DESTROYER", placed.shipType());
+        assertEquals(9, placed.x());
+        assertEquals(2, assertInstanceOf(Row.Placed.class, rows.get(2)).player());
+
+        Row.Shot first = assertInstanceOf(Row.Shot.class, rows.get(3));
+        assertEquals(1, first.player());
+        assertEquals(2, first.seq());
+        assertFalse(first.hit());
+        assertEquals(2, assertInstanceOf(Row.Shot.class, rows.get(4)).player());
+        Row.Shot last = assertInstanceOf(Row.Shot.class, rows.get(5));
+        assertEquals(1, last.player());
+        assertTrue(last.hit());
+
+        Row.Result result = assertInstanceOf(Row.Result.class, rows.get(6));
+        assertEquals(1, result.winner());
+        assertEquals(2, result.player1Shots());
+        assertEquals(1, result.player2Shots());
+
+        MatchPersistence.Stats stats = persistence.stats();
+        assertEquals(7, stats.flushed());
+        assertEquals(0, stats.dropped());
+        assertEquals(0, stats.queued());
+        assertTrue(stats.maxLagMillis() >= stats.lastLagMillis());
+    }
+
+    @Test
+    void failedWrites_areRetried() throws Exception {
+        RecordingStore store = new RecordingStore(true, 2);
+        MatchPersistence persistence = persistence(store, 1000, 100);
+
+        assertTrue(engine.register(readyGame("g1")).join());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.batches.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        persistence.close();
+
+        assertEquals(3, store.rows().size());
+        MatchPersistence.Stats stats = persistence.stats();
+        assertEquals(2, stats.failures());
+        assertEquals(3, stats.flushed());
+        assertEquals(0, stats.dropped());
+    }
+
+    @Test
+    void failingStore_neverHoldsUpTheGame_andDropsAreCounted() throws Exception {
+        RecordingStore store = new RecordingStore(true, Integer.MAX_VALUE);
+        MatchPersistence persistence = persistence(store, 1000, 100);
+
+        assertTrue(engine.register(readyGame("g1")).join());
+        assertEquals(ShotOutcome.Type.WIN, engine.submit("g1", g -> g.shoot(9, 9)).join().getType());
+        engine.submit("g1", g -> g).join();
+        persistence.close();
+
+        MatchPersistence.Stats stats = persistence.stats();
+        assertEquals(0, stats.flushed());
+        assertEquals(5, stats.dropped());
+        assertTrue(stats.failures() >= 1);
+    }
+
+    @Test
+    void fullQueue_dropsRowsInsteadOfBlocking() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RowStore stuck = new RecordingStore(true, 0) {
+            @Override
+            public void write(List<Row> rows) throws SQLException {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(rows);
+            }
+        };
+        MatchPersistence persistence = persistence(stuck, 2, 1);
+
+        assertTrue(engine.register(new Game("first", "player1", "player2")).join());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.register(new Game("g" + i, "player1", "player2")).join());
+        }
+        assertEquals(3, persistence.stats().dropped());
+
+        release.countDown();
+        persistence.close();
+        assertEquals(3, persistence.stats().flushed());
+    }
+
+    @Test
+    void batches_areCappedAtBatchSize() throws Exception {
+        RecordingStore store = new RecordingStore(true, 0);
+        MatchPersistence persistence = new MatchPersistence(engine, store, 1000, 3, Duration.ofSeconds(10));
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.register(new Game("g" + i, "player1", "player2")).join());
+        }
+        persistence.close();
+
+        assertEquals(10, store.rows().size());
+        assertTrue(store.batches.stream().allMatch(batch -> batch.size() <= 3), store.batches.toString());
+        assertEquals(4, persistence.stats().batches());
+    }
+
+    @Test
+    void disabledStore_queuesNothing() throws Exception {
+        RecordingStore store = new RecordingStore(false, 0);
+        MatchPersistence persistence = persistence(store, 1000, 100);
+
+        assertTrue(engine.register(readyGame("g1")).join());
+        shoot("g1", 9, 9);
+        persistence.close();
+
+        assertFalse(persistence.stats().enabled());
+        assertEquals(0, store.calls);
+        assertEquals(0, persistence.stats().queued());
+    }
+}
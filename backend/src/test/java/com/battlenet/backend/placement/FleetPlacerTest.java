@@ -0,0 +1,91 @@
+package com.battlenet.backend.placement;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetPlacerTest {
+
+    @Test
+    void legalPositions_coverEveryOrientationAndOffset() {
+        // 10 rows x (10 - length + 1) offsets, in both orientations
+        assertEquals(120, FleetPlacer.STANDARD.legalPositions(Ship.ShipType.CARRIER));
+        assertEquals(140, FleetPlacer.STANDARD.legalPositions(Ship.ShipType.BATTLESHIP));
+        assertEquals(160, FleetPlacer.STANDARD.legalPositions(Ship.ShipType.CRUISER));
+        assertEquals(180, FleetPlacer.STANDARD.legalPositions(Ship.ShipType.DESTROYER));
+    }
+
+    @Test
+    void randomFleet_isAlwaysPlaceableOnBoard() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            int[] layout = FleetPlacer.STANDARD.randomFleet(random);
+            Board board = new Board();
+            for (Ship.ShipType type : Ship.ShipType.values()) {
+                int p = layout[type.ordinal()];
+                int x = FleetPlacer.x(p);
+                int y = FleetPlacer.y(p);
+                boolean horizontal = FleetPlacer.horizontal(p);
+                List<Cell> cells = new ArrayList<>();
+                for (int i = 0; i < type.getSize(); i++) {
+                    cells.add(horizontal ? new Cell(x, y + i) : new Cell(x + i, y));
+                }
+                assertTrue(board.placeShip(new Ship(type, cells, horizontal)), "layout must be legal");
+            }
+        }
+    }
+
+    @Test
+    void placeRemaining_completesFleet_aroundExistingShips() {
+        Player player = new Player("p");
+        Board board = player.getBoard();
+        Ship carrier = new Ship(Ship.ShipType.CARRIER,
+                List.of(board.getCell(0, 0), board.getCell(0, 1), board.getCell(0, 2), board.getCell(0, 3), board.getCell(0, 4)), true);
+        assertTrue(player.placeShip(carrier));
+
+        List<Ship> placed = FleetPlacer.STANDARD.placeRemaining(board, new Random(7));
+
+        assertEquals(4, placed.size());
+        assertTrue(player.allShipsPlaced());
+        for (Ship ship : placed) {
+            assertNotEquals(Ship.ShipType.CARRIER, ship.getType());
+            for (Cell c : ship.getCells()) {
+                assertFalse(c.getX() == 0 && c.getY() < 5, "must avoid the carrier");
+            }
+        }
+    }
+
+    @Test
+    void placeRemaining_onCompleteFleet_placesNothing() {
+        Board board = new Board();
+        FleetPlacer.STANDARD.placeRemaining(board, new Random(1));
+        assertEquals(5, board.getShips().size());
+
+        assertTrue(FleetPlacer.STANDARD.placeRemaining(board, new Random(2)).isEmpty());
+        assertEquals(5, board.getShips().size());
+    }
+
+    @Test
+    void placeRemaining_withTwoShipsOfOneType_placesNothing() {
+        Board board = new Board();
+        assertTrue(board.placeShip(Ship.ShipType.CARRIER, 0, 0, true));
+        assertTrue(board.placeShip(Ship.ShipType.CARRIER, 5, 0, true));
+
+        assertTrue(FleetPlacer.STANDARD.placeRemaining(board, new Random(1)).isEmpty());
+        assertEquals(2, board.getShips().size());
+    }
+
+    @Test
+    void unsupportedBoardSize_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new FleetPlacer(12));
+        assertThrows(IllegalStateException.class, () -> new FleetPlacer(2).randomFleet(new Random(1)));
+    }
+}
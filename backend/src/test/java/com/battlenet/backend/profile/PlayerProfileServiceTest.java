@@ -0,0 +1,57 @@
+package com.battlenet.backend.profile;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerProfileServiceTest {
+
+    private Game finishGame(String player1Id, String player2Id, PlayerProfileService service) {
+        Game game = new Game("g1", "player1", "player2");
+        game.getPlayer1().setId(player1Id);
+        game.getPlayer2().setId(player2Id);
+        game.addListener(service);
+        Board board2 = game.getPlayer2().getBoard();
+        assertTrue(game.getPlayer2().placeShip(new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true)));
+        game.startGame();
+        game.shoot(0, 0);
+        assertTrue(game.isGameOver());
+        return game;
+    }
+
+    @Test
+    void finishedGame_updatesRatings() {
+        try (PlayerProfileService service = new PlayerProfileService("", 16)) {
+            finishGame("alice", "bob", service);
+
+            assertEquals(1516.0, service.getProfile("alice").rating(), 1e-9);
+            assertEquals(1484.0, service.getProfile("bob").rating(), 1e-9);
+        }
+    }
+
+    @Test
+    void gamesWithoutPlayerIds_areNotRated() {
+        try (PlayerProfileService service = new PlayerProfileService("", 16)) {
+            finishGame(null, "bob", service);
+            assertNull(service.getProfile("bob"));
+        }
+    }
+
+    @Test
+    void guests_getNoProfileAndAreNotRated() {
+        try (PlayerProfileService service = new PlayerProfileService("", 16)) {
+            String guest = Player.newGuestId();
+            service.register(guest);
+            finishGame(guest, "bob", service);
+
+            assertNull(service.getProfile(guest));
+            assertNull(service.getProfile("bob"));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.battlenet.backend.profile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerProfileStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void register_createsProfileWithInitialRating() {
+        try (PlayerProfileStore store = PlayerProfileStore.inMemory(16)) {
+            assertNull(store.get("alice"));
+            store.register("alice");
+            store.register("alice");
+
+            PlayerProfileStore.PlayerProfile alice = store.get("alice");
+            assertEquals("alice", alice.id());
+            assertEquals(PlayerProfileStore.INITIAL_RATING, alice.rating(), 1e-9);
+            assertEquals(0, alice.gamesPlayed());
+            assertEquals(1, store.size());
+            assertTrue(store.contains("alice"));
+            assertFalse(store.contains("bob"));
+        }
+    }
+
+    @Test
+    void recordMatch_appliesEloToBothPlayers() {
+        try (PlayerProfileStore store = PlayerProfileStore.inMemory(16)) {
+            store.recordMatch("alice", "bob");
+
+            PlayerProfileStore.PlayerProfile alice = store.get("alice");
+            PlayerProfileStore.PlayerProfile bob = store.get("bob");
+            assertEquals(1516.0, alice.rating(), 1e-9);
+            assertEquals(1484.0, bob.rating(), 1e-9);
+            assertEquals(1, alice.wins());
+            assertEquals(1, bob.losses());
+            assertEquals(1, bob.gamesPlayed());
+            assertTrue(alice.updatedAt() > 0);
+            assertEquals(alice.rating(), store.getRating("alice"), 1e-9);
+            assertEquals(PlayerProfileStore.INITIAL_RATING, store.getRating("carol"), 1e-9);
+        }
+    }
+
+    @Test
+    void profiles_surviveReopen() {
+        Path file = tempDir.resolve("profiles.dat");
+        try (PlayerProfileStore store = PlayerProfileStore.open(file, 16)) {
+            store.recordMatch("alice", "bob");
+        }
+        try (PlayerProfileStore store = PlayerProfileStore.open(file, 16)) {
+            assertEquals(2, store.size());
+            assertEquals(1516.0, store.get("alice").rating(), 1e-9);
+            assertEquals(1, store.get("bob").losses());
+        }
+    }
+
+    @Test
+    void store_growsAndKeepsProfiles_acrossReopen() {
+        Path file = tempDir.resolve("profiles.dat");
+        try (PlayerProfileStore store = PlayerProfileStore.open(file, 16)) {
+            int initialCapacity = store.capacity();
+            for (int i = 0; i < 5000; i++) {
+                store.recordMatch("p" + i, "p" + (i + 1));
+            }
+            assertTrue(store.capacity() > initialCapacity);
+            assertEquals(5001, store.size());
+        }
+        try (PlayerProfileStore store = PlayerProfileStore.open(file, 16)) {
+            assertEquals(5001, store.size());
+            assertEquals(2, store.get("p2500").gamesPlayed());
+            assertEquals(1, store.get("p5000").losses());
+        }
+    }
+
+    @Test
+    void recordMatch_keepsTheWinnersRecord_whenTheLoserGrowsTheTable() {
+        try (PlayerProfileStore store = PlayerProfileStore.inMemory(16)) {
+            int initialCapacity = store.capacity();
+            // fill up to the load factor, so the next new profile grows the table
+            for (int i = 0; (store.size() + 1) * 10L <= store.capacity() * 7L; i++) {
+                store.register("p" + i);
+            }
+            store.recordMatch("p0", "newcomer");
+
+            assertTrue(store.capacity() > initialCapacity);
+            PlayerProfileStore.PlayerProfile winner = store.get("p0");
+            assertEquals(1, winner.wins());
+            assertEquals(1516.0, winner.rating(), 1e-9);
+            assertEquals(1, store.get("newcomer").losses());
+            for (int i = 1; i < store.size() - 1; i++) {
+                assertEquals(0, store.get("p" + i).gamesPlayed(), "p" + i);
+            }
+        }
+    }
+
+    @Test
+    void invalidIds_areRejected() {
+        try (PlayerProfileStore store = PlayerProfileStore.inMemory(16)) {
+            assertFalse(PlayerProfileStore.isValidId(null));
+            assertFalse(PlayerProfileStore.isValidId(""));
+            assertFalse(PlayerProfileStore.isValidId("has space"));
+            assertFalse(PlayerProfileStore.isValidId("ñandú"));
+            assertFalse(PlayerProfileStore.isValidId("x".repeat(33)));
+            assertTrue(PlayerProfileStore.isValidId("Player_1-x"));
+            assertThrows(IllegalArgumentException.class, () -> store.register("bad id"));
+            assertNull(store.get("bad id"));
+        }
+    }
+
+    @Test
+    void elo_favouritesGainLess() {
+        assertEquals(0.5, Elo.expectedScore(1500, 1500), 1e-9);
+        assertTrue(Elo.delta(1800, 1400) < Elo.delta(1400, 1800));
+        assertEquals(Elo.K_FACTOR / 2, Elo.delta(1500, 1500), 1e-9);
+    }
+}
@@ -0,0 +1,62 @@
+package com.battlenet.backend.replay;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Ship;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayExporterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReplayExporter exporter = new ReplayExporter(objectMapper);
+
+    @Test
+    void export_writesOneLinePerGame_withEventsInOrder() throws Exception {
+        Game finished = new Game("g1", "Alice", "Bob");
+        Board board2 = finished.getPlayer2().getBoard();
+        assertTrue(finished.getPlayer2().placeShip(
+                new Ship(Ship.ShipType.DESTROYER, List.of(board2.getCell(0, 0)), true)));
+        finished.startGame();
+        finished.shoot(0, 0);
+        Game empty = new Game("g2", "Carol", "Dave");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(List.of(finished, empty), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("g1", first.get("gameId").asText());
+        assertEquals("FINISHED", first.get("state").asText());
+        assertEquals("Alice", first.get("winner").asText());
+        JsonNode events = first.get("events");
+        assertEquals(2, events.size());
+        assertEquals("PLACE", events.get(0).get("type").asText());
+        assertEquals(2, events.get(0).get("player").asInt());
+        assertEquals("DESTROYER", events.get(0).get("ship").asText());
+        assertEquals("SHOT", events.get(1).get("type").asText());
+        assertEquals(1, events.get(1).get("player").asInt());
+        assertTrue(events.get(1).get("hit").asBoolean());
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("g2", second.get("gameId").asText());
+        assertTrue(second.get("winner").isNull());
+        assertEquals(0, second.get("events").size());
+    }
+
+    @Test
+    void export_ofNoGames_writesNothing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(List.of(), out);
+        assertEquals(0, out.size());
+    }
+}
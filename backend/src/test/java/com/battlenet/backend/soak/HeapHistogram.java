@@ -0,0 +1,83 @@
+package com.battlenet.backend.soak;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Live-object class histogram of this JVM, as printed by
+ * {@code jcmd <pid> GC.class_histogram}. Taking one forces a full GC, so the
+ * counts only include reachable objects. Also used by the memory accounting
+ * tests to measure real object sizes.
+ */
+public final class HeapHistogram {
+    private static final Pattern ROW = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+
+    public record Entry(long instances, long bytes) {
+        static final Entry NONE = new Entry(0, 0);
+    }
+
+    private final Map<String, Entry> entries;
+
+    private HeapHistogram(Map<String, Entry> entries) {
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    /** Runs the histogram diagnostic command in-process; no {@code jcmd} binary needed. */
+    public static HeapHistogram capture() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName diagnostics = new ObjectName("com.sun.management:type=DiagnosticCommand");
+            String text = (String) server.invoke(diagnostics, "gcClassHistogram",
+                    new Object[] {new String[0]}, new String[] {String[].class.getName()});
+            return parse(text);
+        } catch (JMException e) {
+            throw new IllegalStateException("Class histogram is not available on this JVM", e);
+        }
+    }
+
+    public static HeapHistogram parse(String text) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (String line : text.split("\\R")) {
+            Matcher row = ROW.matcher(line);
+            if (row.find()) {
+                // the same class name can appear once per class loader
+                entries.merge(row.group(3), new Entry(Long.parseLong(row.group(1)), Long.parseLong(row.group(2))),
+                        (a, b) -> new Entry(a.instances() + b.instances(), a.bytes() + b.bytes()));
+            }
+        }
+        return new HeapHistogram(entries);
+    }
+
+    public Entry get(String className) {
+        return entries.getOrDefault(className, Entry.NONE);
+    }
+
+    public long instances(String className) {
+        return get(className).instances();
+    }
+
+    /** Shallow bytes of every live object. */
+    public long totalBytes() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.bytes();
+        }
+        return total;
+    }
+
+    /** Shallow bytes of every live instance of the given classes. */
+    public long bytes(Iterable<String> classNames) {
+        long total = 0;
+        for (String className : classNames) {
+            total += get(className).bytes();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.battlenet.backend.soak;
+
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapHistogramTest {
+
+    private static final String JCMD_OUTPUT = """
+             num     #instances         #bytes  class name (module)
+            -------------------------------------------------------
+               1:         20000         480000  com.battlenet.backend.model.Cell
+               2:          1510         120800  [B (java.base@21.0.1)
+               3:           100           2400  com.battlenet.backend.model.Board
+               4:             4             96  com.battlenet.backend.model.Cell
+            Total         21614         603296
+            """;
+
+    @Test
+    void parse_readsRowsAndMergesClassLoaders() {
+        HeapHistogram histogram = HeapHistogram.parse(JCMD_OUTPUT);
+
+        assertEquals(20004, histogram.instances("com.battlenet.backend.model.Cell"));
+        assertEquals(480096, histogram.get("com.battlenet.backend.model.Cell").bytes());
+        assertEquals(1510, histogram.instances("[B"));
+        assertEquals(482496, histogram.bytes(List.of("com.battlenet.backend.model.Cell",
+                "com.battlenet.backend.model.Board")));
+    }
+
+    @Test
+    void parse_unknownClass_isZero() {
+        HeapHistogram histogram = HeapHistogram.parse(JCMD_OUTPUT);
+
+        assertEquals(0, histogram.instances("com.battlenet.backend.model.Game"));
+        assertEquals(0, histogram.get("com.battlenet.backend.model.Game").bytes());
+    }
+
+    @Test
+    void capture_countsLiveObjects() {
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            boards.add(new Board());
+        }
+
+        HeapHistogram histogram = HeapHistogram.capture();
+
+        assertTrue(histogram.instances(Board.class.getName()) >= 50);
+        assertTrue(histogram.instances(Cell.class.getName()) >= 50L * 100);
+        assertEquals(50, boards.size());
+    }
+}
@@ -0,0 +1,306 @@
+package com.battlenet.backend.soak;
+
+import com.battlenet.backend.BackendApplication;
+import com.battlenet.backend.model.Board;
+import com.battlenet.backend.model.Cell;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Endurance run that looks for memory retained per finished game.
+ * <p>
+ * Starts the application in this JVM on a random port and has
+ * {@code soak.clients} threads create, set up and play games to the end over
+ * HTTP until {@code soak.duration} has passed. Every
+ * {@code soak.sample-interval} it takes a class histogram (which forces a
+ * full GC) and records the live heap and the live {@link Game}, {@link Board}
+ * and {@link Cell} counts in a CSV report.
+ * <p>
+ * At the end it fits a line through the samples taken after
+ * {@code soak.warmup}: live heap against games finished so far. The slope is
+ * the memory each finished game leaves behind, and the run exits with status 1
+ * if it is above {@code soak.max-bytes-per-game}. A run whose heap is flat
+ * apart from GC noise has a slope near zero however long it lasts.
+ * <p>
+ * The engine and the player index keep the latest {@code soak.retention}
+ * finished games, a limit meant to be reached during the warm-up; beyond it
+ * every finished game should be dropped, so growth past it is a leak.
+ * <p>
+ * {@code mvn -Psoak test-compile exec:exec -Dsoak.duration=PT24H}
+ */
+public class SoakHarness {
+    static final List<String> MODEL_CLASSES = List.of(Game.class.getName(), Player.class.getName(),
+            Board.class.getName(), Cell.class.getName(), Ship.class.getName());
+
+    record Settings(Duration duration, Duration sampleInterval, Duration warmup, int clients,
+                    long maxBytesPerGame, int retention, Path report) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Duration.parse(System.getProperty("soak.duration", "PT10M")),
+                    Duration.parse(System.getProperty("soak.sample-interval", "PT30S")),
+                    Duration.parse(System.getProperty("soak.warmup", "PT1M")),
+                    Integer.getInteger("soak.clients", 4),
+                    Long.getLong("soak.max-bytes-per-game", 512),
+                    Integer.getInteger("soak.retention", 100),
+                    Path.of(System.getProperty("soak.report", "target/soak-report.csv")));
+        }
+    }
+
+    record Sample(long elapsedSeconds, long finishedGames, long heapBytes,
+                  long games, long boards, long cells, long modelBytes) {
+
+        static final String HEADER = "elapsed_s,finished_games,heap_bytes,game_objects,board_objects,cell_objects,model_bytes";
+
+        String toCsv() {
+            return elapsedSeconds + "," + finishedGames + "," + heapBytes + ","
+                    + games + "," + boards + "," + cells + "," + modelBytes;
+        }
+    }
+
+    /** Per finished game: live heap, model shallow bytes and live instances. */
+    record Growth(double heapBytes, double modelBytes, double games, double boards, double cells) {
+
+        static Growth of(List<Sample> samples) {
+            return new Growth(
+                    slope(samples, Sample::heapBytes),
+                    slope(samples, Sample::modelBytes),
+                    slope(samples, Sample::games),
+                    slope(samples, Sample::boards),
+                    slope(samples, Sample::cells));
+        }
+    }
+
+    interface Metric {
+        long of(Sample sample);
+    }
+
+    private final Settings settings;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean running = true;
+    private String baseUrl;
+
+    SoakHarness(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new SoakHarness(Settings.fromSystemProperties()).run() ? 0 : 1);
+    }
+
+    boolean run() throws Exception {
+        Path archive = Files.createTempDirectory("soak-archive");
+        try (ConfigurableApplicationContext context = SpringApplication.run(BackendApplication.class,
+                "--server.port=0", "--battlenet.profiles.path=", "--battlenet.archive.path=" + archive,
+                // a small page cache, so the database also reaches its steady size during the warm-up
+                "--battlenet.persistence.url=jdbc:h2:file:" + archive.resolve("battlenet") + ";CACHE_SIZE=1024",
+                "--battlenet.engine.finished-retention=" + settings.retention())) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/game";
+
+            List<Thread> clients = new ArrayList<>();
+            for (int i = 0; i < settings.clients(); i++) {
+                Thread client = new Thread(this::playUntilStopped, "soak-client-" + i);
+                client.setDaemon(true);
+                client.start();
+                clients.add(client);
+            }
+
+            List<Sample> samples = sample();
+            running = false;
+            for (Thread client : clients) {
+                client.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            return judge(samples);
+        }
+    }
+
+    private List<Sample> sample() throws IOException, InterruptedException {
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        List<Sample> samples = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + settings.duration().toNanos();
+        try (PrintWriter report = new PrintWriter(Files.newBufferedWriter(settings.report()))) {
+            report.println(Sample.HEADER);
+            while (true) {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= settings.warmup().toNanos()) {
+                    Sample sample = takeSample(TimeUnit.NANOSECONDS.toSeconds(elapsed));
+                    samples.add(sample);
+                    report.println(sample.toCsv());
+                    report.flush();
+                    System.out.printf("%6ds  %,10d games finished  %,8d KB live  %,8d Game  %,8d Board  %,10d Cell  %d errors%n",
+                            sample.elapsedSeconds(), sample.finishedGames(), sample.heapBytes() / 1024,
+                            sample.games(), sample.boards(), sample.cells(), errors.get());
+                }
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    return samples;
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(settings.sampleInterval().toNanos(), deadline - now));
+            }
+        }
+    }
+
+    private Sample takeSample(long elapsedSeconds) {
+        long finishedGames = finished.get();
+        HeapHistogram histogram = HeapHistogram.capture();
+        // reachable objects only; heap in use after the GC also counts regions the collector left unswept
+        return new Sample(elapsedSeconds, finishedGames, histogram.totalBytes(),
+                histogram.instances(Game.class.getName()),
+                histogram.instances(Board.class.getName()),
+                histogram.instances(Cell.class.getName()),
+                histogram.bytes(MODEL_CLASSES));
+    }
+
+    private boolean judge(List<Sample> samples) {
+        System.out.println();
+        if (samples.size() < 3 || samples.get(samples.size() - 1).finishedGames() == samples.get(0).finishedGames()) {
+            System.out.println("FAIL: not enough samples or finished games after warm-up to measure growth");
+            return false;
+        }
+        Growth growth = Growth.of(samples);
+        System.out.printf("Retained per finished game: %.0f B live heap, %.0f B in model objects%n",
+                growth.heapBytes(), growth.modelBytes());
+        System.out.printf("Live objects per finished game: %.2f Game, %.2f Board, %.1f Cell%n",
+                growth.games(), growth.boards(), growth.cells());
+        System.out.printf("%d HTTP errors, report in %s%n", errors.get(), settings.report());
+        if (growth.heapBytes() > settings.maxBytesPerGame()) {
+            System.out.printf("FAIL: %.0f B per finished game is above the %d B limit%n",
+                    growth.heapBytes(), settings.maxBytesPerGame());
+            return false;
+        }
+        System.out.println("PASS");
+        return true;
+    }
+
+    /** Least-squares slope of the metric against finished games. */
+    static double slope(List<Sample> samples, Metric metric) {
+        int n = samples.size();
+        double meanX = 0;
+        double meanY = 0;
+        for (Sample sample : samples) {
+            meanX += sample.finishedGames();
+            meanY += metric.of(sample);
+        }
+        meanX /= n;
+        meanY /= n;
+        double covariance = 0;
+        double variance = 0;
+        for (Sample sample : samples) {
+            double dx = sample.finishedGames() - meanX;
+            covariance += dx * (metric.of(sample) - meanY);
+            variance += dx * dx;
+        }
+        return variance == 0 ? 0.0 : covariance / variance;
+    }
+
+    private void playUntilStopped() {
+        while (running) {
+            try {
+                if (playOneGame()) {
+                    finished.incrementAndGet();
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Plays one game with random auto-placed fleets; each side fires at its cells in a random order. */
+    boolean playOneGame() throws IOException, InterruptedException {
+        JsonNode created = post("/create", null);
+        if (created == null) {
+            return false;
+        }
+        String gameId = created.path("gameId").asText();
+        post("/" + gameId + "/auto-place", Map.of("player", 1));
+        post("/" + gameId + "/auto-place", Map.of("player", 2));
+        JsonNode started = post("/" + gameId + "/start", null);
+        if (started == null || !started.path("success").asBoolean()) {
+            throw new IllegalStateException("Game " + gameId + " did not start: " + started);
+        }
+
+        int[][] targets = {shuffledCells(), shuffledCells()};
+        int[] fired = new int[2];
+        int player = "player1".equals(started.path("currentTurn").asText()) ? 1 : 2;
+        while (running) {
+            if (fired[player - 1] == targets[player - 1].length) {
+                throw new IllegalStateException("Game " + gameId + " not over after every cell was shot");
+            }
+            int cell = targets[player - 1][fired[player - 1]];
+            JsonNode shot = post("/" + gameId + "/shoot", Map.of("x", cell / 10, "y", cell % 10, "player", player));
+            if (shot == null) {
+                continue;
+            }
+            if (shot.path("success").asBoolean()) {
+                fired[player - 1]++;
+            }
+            if (shot.path("isGameOver").asBoolean()) {
+                return true;
+            }
+            player = "player1".equals(shot.path("currentTurn").asText()) ? 1 : 2;
+        }
+        return false;
+    }
+
+    /** The response body, or {@code null} after waiting out a 503 from admission control. */
+    private JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 503) {
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            TimeUnit.SECONDS.sleep(retryAfter);
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private static int[] shuffledCells() {
+        int[] cells = new int[100];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = cells.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = cells[i];
+            cells[i] = cells[j];
+            cells[j] = swap;
+        }
+        return cells;
+    }
+}
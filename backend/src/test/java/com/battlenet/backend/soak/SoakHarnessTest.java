@@ -0,0 +1,49 @@
+package com.battlenet.backend.soak;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoakHarnessTest {
+
+    private static SoakHarness.Sample sample(long finishedGames, long heapBytes, long games) {
+        return new SoakHarness.Sample(0, finishedGames, heapBytes, games, 2 * games, 200 * games, 0);
+    }
+
+    @Test
+    void growth_leakingGames_reportsBytesAndObjectsPerGame() {
+        List<SoakHarness.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(sample(i * 1000L, 50_000_000L + i * 1000L * 12_000, i * 1000L));
+        }
+
+        SoakHarness.Growth growth = SoakHarness.Growth.of(samples);
+
+        assertEquals(12_000.0, growth.heapBytes(), 1e-6);
+        assertEquals(1.0, growth.games(), 1e-9);
+        assertEquals(2.0, growth.boards(), 1e-9);
+        assertEquals(200.0, growth.cells(), 1e-9);
+    }
+
+    @Test
+    void slope_flatHeapWithGcNoise_isNearZero() {
+        List<SoakHarness.Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long noise = (i % 2 == 0 ? 1 : -1) * 2_000_000L;
+            samples.add(sample(i * 5000L, 80_000_000L + noise, 8));
+        }
+
+        assertTrue(Math.abs(SoakHarness.slope(samples, SoakHarness.Sample::heapBytes)) < 50);
+        assertEquals(0.0, SoakHarness.slope(samples, SoakHarness.Sample::games), 1e-9);
+    }
+
+    @Test
+    void slope_noGamesFinished_isZero() {
+        List<SoakHarness.Sample> samples = List.of(sample(7, 1000, 1), sample(7, 5000, 3));
+
+        assertEquals(0.0, SoakHarness.slope(samples, SoakHarness.Sample::heapBytes));
+    }
+}
@@ -0,0 +1,176 @@
+package com.battlenet.backend.stress;
+
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.GameListener;
+import com.battlenet.backend.model.GameSnapshot;
+import com.battlenet.backend.model.Ship;
+import org.openjdk.jcstress.annotations.*;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.III_Result;
+import org.openjdk.jcstress.infra.results.ZI_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import static org.openjdk.jcstress.annotations.Expect.*;
+
+/**
+ * jcstress tests for the game state machine. Shot results are reported as
+ * {@code ShotOutcome.Type} ordinals: 0 MISS, 3 WIN, 6 NOT_YOUR_TURN,
+ * 7 NOT_PLAYING.
+ * <p>
+ * {@code mvn -Pstress test-compile exec:exec -Dstress=GameStateStress}
+ */
+public class GameStateStress {
+
+    /** Player 2 has a single destroyer at (0,0)-(0,1) with (0,0) already hit; player 1 to move. */
+    static Game oneShotFromWinning() {
+        Game game = new Game("stress", "player1", "player2");
+        game.getPlayer2().getBoard().placeShip(Ship.ShipType.DESTROYER, 0, 0, true);
+        game.startGame();
+        game.shoot(1, 0, 0);
+        return game;
+    }
+
+    @JCStressTest
+    @Description("Two concurrent starts: exactly one moves the game out of SETUP")
+    @Outcome(id = {"true, false", "false, true"}, expect = ACCEPTABLE, desc = "One start wins")
+    @Outcome(id = "true, true", expect = FORBIDDEN, desc = "Game started twice")
+    @Outcome(id = "false, false", expect = FORBIDDEN, desc = "Neither start took effect")
+    @State
+    public static class ConcurrentStart {
+        private final Game game = new Game("stress", "player1", "player2");
+
+        @Actor
+        public void first(ZZ_Result r) {
+            r.r1 = game.startGame();
+        }
+
+        @Actor
+        public void second(ZZ_Result r) {
+            r.r2 = game.startGame();
+        }
+    }
+
+    @JCStressTest
+    @Description("A shot racing the start either sees SETUP or a fully started game")
+    @Outcome(id = "true, 7", expect = ACCEPTABLE, desc = "Shot arrived before the start")
+    @Outcome(id = "true, 0", expect = ACCEPTABLE, desc = "Shot landed after the start")
+    @Outcome(expect = FORBIDDEN, desc = "Start failed or the shot saw a half-started game")
+    @State
+    public static class StartVersusShot {
+        private final Game game = new Game("stress", "player1", "player2");
+
+        @Actor
+        public void start(ZI_Result r) {
+            r.r1 = game.startGame();
+        }
+
+        @Actor
+        public void shoot(ZI_Result r) {
+            r.r2 = game.shoot(1, 5, 5).getType().ordinal();
+        }
+    }
+
+    @JCStressTest
+    @Description("Two shots for the same turn: only one may be fired")
+    @Outcome(id = {"0, 6", "6, 0"}, expect = ACCEPTABLE, desc = "One miss used the turn, the other was refused")
+    @Outcome(id = "0, 0", expect = FORBIDDEN, desc = "Player 1 fired twice in one turn")
+    @Outcome(expect = FORBIDDEN, desc = "Other")
+    @State
+    public static class SameTurnShots {
+        private final Game game = new Game("stress", "player1", "player2");
+
+        public SameTurnShots() {
+            game.startGame();
+        }
+
+        @Actor
+        public void first(II_Result r) {
+            r.r1 = game.shoot(1, 3, 3).getType().ordinal();
+        }
+
+        @Actor
+        public void second(II_Result r) {
+            r.r2 = game.shoot(1, 4, 4).getType().ordinal();
+        }
+    }
+
+    @JCStressTest
+    @Description("Winning shot racing an abort: the game finishes exactly once")
+    @Outcome(id = "3, 0, 1", expect = ACCEPTABLE, desc = "Shot won, abort was refused")
+    @Outcome(id = "7, 1, 1", expect = ACCEPTABLE, desc = "Abort finished the game, shot was refused")
+    @Outcome(expect = FORBIDDEN, desc = "Finished twice, not at all, or a torn result")
+    @State
+    public static class WinVersusAbort {
+        private final Game game = oneShotFromWinning();
+        private int finishedNotifications;
+
+        public WinVersusAbort() {
+            game.addListener(new GameListener() {
+                @Override
+                public void onStateChanged(Game g, Game.GameState previous) {
+                    if (g.getState() == Game.GameState.FINISHED) {
+                        finishedNotifications++;
+                    }
+                }
+            });
+        }
+
+        @Actor
+        public void winningShot(III_Result r) {
+            r.r1 = game.shoot(1, 0, 1).getType().ordinal();
+        }
+
+        @Actor
+        public void abort(III_Result r) {
+            r.r2 = game.setState(Game.GameState.FINISHED) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void notifications(III_Result r) {
+            r.r3 = finishedNotifications;
+        }
+    }
+
+    @JCStressTest
+    @Description("A reader that sees the winner must also see the game as FINISHED")
+    @Outcome(id = {"0, 1", "0, 2", "1, 2"}, expect = ACCEPTABLE, desc = "Consistent view")
+    @Outcome(id = "1, 1", expect = FORBIDDEN, desc = "Winner visible while still PLAYING")
+    @Outcome(expect = FORBIDDEN, desc = "Other")
+    @State
+    public static class WinnerVisibility {
+        private final Game game = oneShotFromWinning();
+
+        @Actor
+        public void winningShot() {
+            game.shoot(1, 0, 1);
+        }
+
+        @Actor
+        public void reader(II_Result r) {
+            r.r1 = game.getWinner() != null ? 1 : 0;
+            r.r2 = game.getState().ordinal();
+        }
+    }
+
+    @JCStressTest
+    @Description("A snapshot reader sees the shot counted and on the board together, or neither")
+    @Outcome(id = {"1, 1, 1", "2, 2, 2"}, expect = ACCEPTABLE, desc = "Before or after the winning shot")
+    @Outcome(expect = FORBIDDEN, desc = "Torn snapshot")
+    @State
+    public static class SnapshotConsistency {
+        private final Game game = oneShotFromWinning();
+
+        @Actor
+        public void winningShot() {
+            game.shoot(1, 0, 1);
+        }
+
+        @Actor
+        public void reader(III_Result r) {
+            GameSnapshot snapshot = game.snapshot();
+            r.r1 = snapshot.player1Shots();
+            r.r2 = snapshot.board2().getShotCount();
+            r.r3 = snapshot.state().ordinal();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.battlenet.backend.view;
+
+import com.battlenet.backend.model.FinishedGame;
+import com.battlenet.backend.model.Game;
+import com.battlenet.backend.model.Player;
+import com.battlenet.backend.model.Ship;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardViewTest {
+
+    // Player 2's destroyer at (0,0)-(0,1) and submarine at (9,7)-(9,9), shot at by player 1
+    private static Game game() {
+        Game game = new Game("view", "Alice", "Bob");
+        Player bob = game.getPlayer2();
+        assertTrue(bob.placeShip(Ship.ShipType.DESTROYER, 0, 0, true));
+        assertTrue(bob.placeShip(Ship.ShipType.SUBMARINE, 9, 7, true));
+        assertTrue(game.getPlayer1().placeShip(Ship.ShipType.DESTROYER, 5, 5, false));
+        game.startGame();
+        game.shoot(0, 0);
+        game.shoot(0, 1);
+        game.shoot(9, 9);
+        game.shoot(4, 4);
+        return game;
+    }
+
+    private static boolean isSet(String mask, int x, int y) {
+        byte[] bytes = Base64.getDecoder().decode(mask);
+        int bit = x * 10 + y;
+        return (bytes[bit >> 3] >> (bit & 7) & 1) == 1;
+    }
+
+    private static int count(String mask) {
+        int n = 0;
+        for (byte b : Base64.getDecoder().decode(mask)) {
+            n += Integer.bitCount(b & 0xFF);
+        }
+        return n;
+    }
+
+    @Test
+    void masks_encodeEachCellAsOneBit_in18Characters() {
+        BoardView view = BoardView.of(game().snapshot().board(2));
+
+        assertEquals(18, view.ships().length());
+        assertEquals(5, count(view.ships()));
+        assertTrue(isSet(view.ships(), 0, 0));
+        assertTrue(isSet(view.ships(), 9, 7));
+        assertEquals(3, count(view.hits()));
+        assertTrue(isSet(view.hits(), 9, 9), "bit 99, in the high mask");
+        assertEquals(1, count(view.misses()));
+        assertTrue(isSet(view.misses(), 4, 4));
+    }
+
+    @Test
+    void sunk_coversOnlyShipsThatAreFullyHit() {
+        BoardView view = BoardView.of(game().snapshot().board(2));
+
+        assertEquals(2, count(view.sunk()));
+        assertTrue(isSet(view.sunk(), 0, 0));
+        assertTrue(isSet(view.sunk(), 0, 1));
+        assertFalse(isSet(view.sunk(), 9, 9), "the submarine is only hit");
+    }
+
+    @Test
+    void compactedGame_givesTheSameViewAsTheLiveOne() {
+        Game game = game();
+        // player 2 misses, then player 1 finishes the submarine
+        game.shoot(2, 8, 8);
+        game.shoot(9, 7);
+        game.shoot(9, 8);
+        assertTrue(game.isGameOver());
+
+        FinishedGame finished = FinishedGame.of(game);
+        for (int player = 1; player <= 2; player++) {
+            assertEquals(BoardView.of(game.snapshot().board(player)), BoardView.of(finished, player));
+        }
+        assertEquals(5, count(BoardView.of(finished, 2).sunk()));
+    }
+}
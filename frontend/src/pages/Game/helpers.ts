@@ -49,6 +49,8 @@ export type ShootInterpretation = {
   nextTurn?: 'A' | 'B' | null;
 };
 
+const HIT_RESULTS = ['HIT', 'SUNK', 'WIN'];
+
 export function interpretShootResponse(resp: any, index: number, player: 'A' | 'B', targetBoard: (string | null)[], opponentPlaced: Record<string, number[]>) : ShootInterpretation {
   const boardCopy = [...targetBoard];
   let lastActionMessage: string | null = null;
@@ -59,7 +61,7 @@ export function interpretShootResponse(resp: any, index: number, player: 'A' | '
   const result = resp?.result;
   const opponent = player === 'A' ? 'B' : 'A';
 
-  if (typeof result === 'string' && result.toLowerCase().includes('hit')) {
+  if (typeof result === 'string' && (HIT_RESULTS.includes(result) || result.toLowerCase().includes('hit'))) {
     boardCopy[index] = 'Hit';
     lastActionMessage = `Player ${player} HIT ${opponent} at ${index}`;
   } else {